@@ -0,0 +1,246 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.commonResultUpload.xmlreader;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A location path made of child element steps, optionally ending with an attribute step, such as
+ * {@code /result/suites/suite}, {@code cases/case[2]}, {@code case[@status='failed']/name} or {@code @id}.
+ * These paths can be evaluated while a result file is streamed, any other expression needs the DOM.
+ */
+final class SimplePath {
+
+    private static final ConcurrentMap<String, SimplePath> PARSED = new ConcurrentHashMap<>();
+    private static final SimplePath COMPLEX = new SimplePath(false, new Step[0], null);
+
+    final boolean absolute;
+    final Step[] steps;
+    final String attribute;
+
+    private SimplePath(boolean absolute, Step[] steps, String attribute) {
+        this.absolute = absolute;
+        this.steps = steps;
+        this.attribute = attribute;
+    }
+
+    /**
+     * @return the parsed path, or null when the expression is not a simple path
+     */
+    static SimplePath parse(String xpath) {
+        SimplePath path = PARSED.get(xpath);
+        if (path == null) {
+            path = doParse(xpath.trim());
+            PARSED.putIfAbsent(xpath, path == null ? COMPLEX : path);
+        }
+        return path == COMPLEX ? null : path;
+    }
+
+    private static SimplePath doParse(String xpath) {
+        boolean absolute = xpath.startsWith("/");
+        List<String> parts = split(absolute ? xpath.substring(1) : xpath);
+        if (parts == null || (absolute && xpath.length() == 1)) {
+            return null;
+        }
+        List<Step> steps = new ArrayList<>();
+        String attribute = null;
+        for (int i = 0; i < parts.size(); i++) {
+            String part = parts.get(i);
+            if (part.startsWith("@")) {
+                if (i != parts.size() - 1 || !isName(part.substring(1))) {
+                    return null;
+                }
+                attribute = part.substring(1);
+            } else if (!".".equals(part)) {
+                Step step = Step.parse(part);
+                if (step == null) {
+                    return null;
+                }
+                steps.add(step);
+            }
+        }
+        return new SimplePath(absolute, steps.toArray(new Step[0]), attribute);
+    }
+
+    /**
+     * Splits the path on the slashes out of predicates, null when a step is empty.
+     */
+    private static List<String> split(String xpath) {
+        List<String> parts = new ArrayList<>();
+        int start = 0;
+        int brackets = 0;
+        char quote = 0;
+        for (int i = 0; i <= xpath.length(); i++) {
+            char c = i < xpath.length() ? xpath.charAt(i) : '/';
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"') {
+                quote = c;
+            } else if (c == '[') {
+                brackets++;
+            } else if (c == ']') {
+                brackets--;
+            } else if (c == '/' && brackets == 0) {
+                if (i == start) {
+                    return null;
+                }
+                parts.add(xpath.substring(start, i));
+                start = i + 1;
+            }
+        }
+        return quote == 0 && brackets == 0 ? parts : null;
+    }
+
+    private static boolean isName(String name) {
+        if (name.isEmpty() || !(Character.isLetter(name.charAt(0)) || name.charAt(0) == '_')) {
+            return false;
+        }
+        for (int i = 1; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (!(Character.isLetterOrDigit(c) || c == '.' || c == '-' || c == '_')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A child element step: a name or *, with position and attribute predicates applied in order.
+     */
+    static final class Step {
+        final String name;
+        final Predicate[] predicates;
+
+        private Step(String name, Predicate[] predicates) {
+            this.name = name;
+            this.predicates = predicates;
+        }
+
+        boolean matchesName(String elementName) {
+            return "*".equals(name) || name.equals(elementName);
+        }
+
+        private static Step parse(String part) {
+            int bracket = part.indexOf('[');
+            String name = bracket < 0 ? part : part.substring(0, bracket);
+            if (!"*".equals(name) && !isName(name)) {
+                return null;
+            }
+            List<Predicate> predicates = new ArrayList<>();
+            while (bracket >= 0) {
+                int end = closingBracket(part, bracket);
+                if (end < 0) {
+                    return null;
+                }
+                Predicate predicate = Predicate.parse(part.substring(bracket + 1, end).trim());
+                if (predicate == null) {
+                    return null;
+                }
+                predicates.add(predicate);
+                if (end == part.length() - 1) {
+                    bracket = -1;
+                } else if (part.charAt(end + 1) == '[') {
+                    bracket = end + 1;
+                } else {
+                    return null;
+                }
+            }
+            return new Step(name, predicates.toArray(new Predicate[0]));
+        }
+
+        private static int closingBracket(String part, int bracket) {
+            char quote = 0;
+            for (int i = bracket + 1; i < part.length(); i++) {
+                char c = part.charAt(i);
+                if (quote != 0) {
+                    if (c == quote) {
+                        quote = 0;
+                    }
+                } else if (c == '\'' || c == '"') {
+                    quote = c;
+                } else if (c == '[') {
+                    return -1;
+                } else if (c == ']') {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * {@code [n]}, {@code [@name]} or {@code [@name='value']}.
+     */
+    static final class Predicate {
+        final int position;
+        final String attribute;
+        final String value;
+
+        private Predicate(int position, String attribute, String value) {
+            this.position = position;
+            this.attribute = attribute;
+            this.value = value;
+        }
+
+        private static Predicate parse(String predicate) {
+            if (!predicate.isEmpty() && predicate.chars().allMatch(Character::isDigit)) {
+                try {
+                    int position = Integer.parseInt(predicate);
+                    return position > 0 ? new Predicate(position, null, null) : null;
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+            if (!predicate.startsWith("@")) {
+                return null;
+            }
+            int equals = predicate.indexOf('=');
+            if (equals < 0) {
+                String attribute = predicate.substring(1).trim();
+                return isName(attribute) ? new Predicate(0, attribute, null) : null;
+            }
+            String attribute = predicate.substring(1, equals).trim();
+            String literal = predicate.substring(equals + 1).trim();
+            if (!isName(attribute) || literal.length() < 2) {
+                return null;
+            }
+            char quote = literal.charAt(0);
+            if ((quote != '\'' && quote != '"') || literal.charAt(literal.length() - 1) != quote
+                    || literal.indexOf(quote, 1) != literal.length() - 1) {
+                return null;
+            }
+            return new Predicate(0, attribute, literal.substring(1, literal.length() - 1));
+        }
+    }
+}
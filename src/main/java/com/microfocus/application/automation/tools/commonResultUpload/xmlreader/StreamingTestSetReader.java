@@ -0,0 +1,470 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.commonResultUpload.xmlreader;
+
+import com.ctc.wstx.stax.WstxInputFactory;
+import com.microfocus.application.automation.tools.commonResultUpload.xmlreader.model.EntitiesFieldMap;
+import com.microfocus.application.automation.tools.commonResultUpload.xmlreader.model.XmlResultEntity;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads the entities of a field mapping in a single pass over a result file.
+ * Only mappings whose paths are all {@link SimplePath simple} can be streamed, and only documents
+ * without DTD or namespaces, the others are read with the DOM.
+ */
+class StreamingTestSetReader {
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+    private static final String ROOT = "root";
+    private static final String XPATH_PREFIX = "x:";
+    private static final String VALUE_PREFIX = "v:";
+
+    private final Level testsets;
+    // the absolute paths are evaluated once per document, whatever the entity they are used by
+    private final Set<SimplePath> absoluteValues = new LinkedHashSet<>();
+    private final Set<Level> absoluteRoots = new LinkedHashSet<>();
+
+    private StreamingTestSetReader(Level testsets) {
+        this.testsets = testsets;
+        for (Level level = testsets; level != null; level = level.next) {
+            for (SimplePath path : level.paths) {
+                if (path.absolute) {
+                    absoluteValues.add(path);
+                }
+            }
+            if (level != testsets && level.root.absolute) {
+                absoluteRoots.add(level);
+            }
+        }
+    }
+
+    /**
+     * @return the reader of the mapping, or null when the mapping needs the DOM
+     */
+    static StreamingTestSetReader create(EntitiesFieldMap entitiesFieldMap) {
+        List<Map<String, String>> configMaps = new ArrayList<>();
+        try {
+            for (Map<String, String> configMap = entitiesFieldMap.getTestset(); configMap != null;
+                 configMap = entitiesFieldMap.getNextConfigMap(configMap)) {
+                for (Map<String, String> previous : configMaps) {
+                    if (previous == configMap) {
+                        return null;
+                    }
+                }
+                configMaps.add(configMap);
+            }
+        } catch (RuntimeException e) {
+            // an incomplete mapping only fails once an entity is found, let the DOM reader report it
+            return null;
+        }
+
+        Level next = null;
+        for (int i = configMaps.size() - 1; i >= 0; i--) {
+            Level level = Level.create(configMaps.get(i), next);
+            if (level == null) {
+                return null;
+            }
+            next = level;
+        }
+        return next == null ? null : new StreamingTestSetReader(next);
+    }
+
+    /**
+     * @throws UnsupportedDocumentException when the document has a DTD or namespaces
+     */
+    List<XmlResultEntity> read(InputStream in) throws XMLStreamException {
+        XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(in);
+        try {
+            return new Evaluation(reader).run();
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static XMLInputFactory createXmlInputFactory() {
+        XMLInputFactory xmlFactory = new WstxInputFactory();
+        xmlFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        xmlFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return xmlFactory;
+    }
+
+    static class UnsupportedDocumentException extends XMLStreamException {
+        UnsupportedDocumentException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * The compiled configuration of one entity: its root, its fields and the entities under it.
+     */
+    private static final class Level {
+        private final SimplePath root;
+        private final Map<String, Object[]> fields = new HashMap<>();
+        private final Set<SimplePath> paths = new LinkedHashSet<>();
+        private final Level next;
+
+        private Level(SimplePath root, Level next) {
+            this.root = root;
+            this.next = next;
+        }
+
+        private static Level create(Map<String, String> configMap, Level next) {
+            String rootXpath = configMap.get(ROOT);
+            SimplePath root = rootXpath == null || rootXpath.length() < 2 ? null : SimplePath.parse(rootXpath.substring(2));
+            if (root == null || root.attribute != null) {
+                return null;
+            }
+            Level level = new Level(root, next);
+            for (Map.Entry<String, String> entry : configMap.entrySet()) {
+                if (ROOT.equals(entry.getKey())) {
+                    continue;
+                }
+                if (entry.getValue() == null) {
+                    return null;
+                }
+                String[] units = entry.getValue().split("\\|");
+                Object[] compiled = new Object[units.length];
+                for (int i = 0; i < units.length; i++) {
+                    String unit = units[i];
+                    if (unit.length() < 2) {
+                        return null;
+                    } else if (unit.startsWith(XPATH_PREFIX)) {
+                        SimplePath path = SimplePath.parse(unit.substring(2));
+                        if (path == null) {
+                            return null;
+                        }
+                        level.paths.add(path);
+                        compiled[i] = path;
+                    } else {
+                        compiled[i] = unit.startsWith(VALUE_PREFIX) ? unit.substring(2) : unit;
+                    }
+                }
+                level.fields.put(entry.getKey(), compiled);
+            }
+            return level;
+        }
+    }
+
+    /**
+     * An entity found in the document, with the values of its relative paths.
+     */
+    private static final class Node {
+        private final Level level;
+        private final Map<SimplePath, String> values = new IdentityHashMap<>();
+        private final List<Node> children = new ArrayList<>();
+
+        private Node(Level level) {
+            this.level = level;
+        }
+    }
+
+    /**
+     * What a path selects: the value of an entity field, or the roots of entities.
+     */
+    private interface Target {
+        boolean isResolved();
+    }
+
+    private static final class ValueTarget implements Target {
+        private final Map<SimplePath, String> values;
+        private final SimplePath path;
+
+        private ValueTarget(Map<SimplePath, String> values, SimplePath path) {
+            this.values = values;
+            this.path = path;
+        }
+
+        @Override
+        public boolean isResolved() {
+            // the value is the one of the first node in document order
+            return values.containsKey(path);
+        }
+    }
+
+    private static final class RootTarget implements Target {
+        private final Level level;
+        private final List<Node> nodes;
+
+        private RootTarget(Level level, List<Node> nodes) {
+            this.level = level;
+            this.nodes = nodes;
+        }
+
+        @Override
+        public boolean isResolved() {
+            return false;
+        }
+    }
+
+    /**
+     * A path waiting for its next step among the children of an open element.
+     */
+    private static final class Pending {
+        private final SimplePath path;
+        private final int step;
+        private final Target target;
+        private final int[] positions;
+
+        private Pending(SimplePath path, int step, Target target) {
+            this.path = path;
+            this.step = step;
+            this.target = target;
+            this.positions = new int[path.steps[step].predicates.length];
+        }
+    }
+
+    private static final class Capture {
+        private final ValueTarget target;
+        private final StringBuilder text = new StringBuilder();
+
+        private Capture(ValueTarget target) {
+            this.target = target;
+        }
+    }
+
+    private static final class Frame {
+        private final List<Pending> pendings = new ArrayList<>();
+        private List<Capture> captures;
+    }
+
+    private final class Evaluation {
+        private final XMLStreamReader reader;
+        private final Deque<Frame> frames = new ArrayDeque<>();
+        private final List<Capture> captures = new ArrayList<>();
+        private final Map<SimplePath, String> globalValues = new IdentityHashMap<>();
+        private final Map<Level, List<Node>> globalRoots = new IdentityHashMap<>();
+        private final List<Node> roots = new ArrayList<>();
+
+        private Evaluation(XMLStreamReader reader) {
+            this.reader = reader;
+        }
+
+        private List<XmlResultEntity> run() throws XMLStreamException {
+            Frame document = new Frame();
+            frames.push(document);
+            for (SimplePath path : absoluteValues) {
+                select(document, path, new ValueTarget(globalValues, path));
+            }
+            for (Level level : absoluteRoots) {
+                List<Node> nodes = new ArrayList<>();
+                globalRoots.put(level, nodes);
+                select(document, level.root, new RootTarget(level, nodes));
+            }
+            select(document, testsets.root, new RootTarget(testsets, roots));
+
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        startElement();
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        endElement(frames.pop());
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                    case XMLStreamConstants.SPACE:
+                        // the whitespace out of the root element is not part of the document text
+                        if (frames.size() == 1) {
+                            break;
+                        }
+                        for (Capture capture : captures) {
+                            capture.text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                        }
+                        break;
+                    case XMLStreamConstants.DTD:
+                        throw new UnsupportedDocumentException("The document has a DTD");
+                    default:
+                        break;
+                }
+            }
+            endElement(frames.pop());
+
+            List<XmlResultEntity> entities = new ArrayList<>(roots.size());
+            for (Node node : roots) {
+                entities.add(toEntity(node));
+            }
+            return entities;
+        }
+
+        private void startElement() throws UnsupportedDocumentException {
+            if (reader.getNamespaceCount() > 0 || !isEmpty(reader.getPrefix())) {
+                throw new UnsupportedDocumentException("The document has namespaces");
+            }
+            for (int i = 0; i < reader.getAttributeCount(); i++) {
+                if (!isEmpty(reader.getAttributePrefix(i))) {
+                    throw new UnsupportedDocumentException("The document has namespaces");
+                }
+            }
+            Frame parent = frames.peek();
+            Frame frame = new Frame();
+            frames.push(frame);
+            String name = reader.getLocalName();
+            for (int i = 0; i < parent.pendings.size(); i++) {
+                Pending pending = parent.pendings.get(i);
+                if (pending.target.isResolved() || !matches(pending, name)) {
+                    continue;
+                }
+                if (pending.step < pending.path.steps.length - 1) {
+                    frame.pendings.add(new Pending(pending.path, pending.step + 1, pending.target));
+                } else {
+                    selected(frame, pending.path, pending.target);
+                }
+            }
+        }
+
+        private boolean matches(Pending pending, String name) {
+            SimplePath.Step step = pending.path.steps[pending.step];
+            if (!step.matchesName(name)) {
+                return false;
+            }
+            for (int i = 0; i < step.predicates.length; i++) {
+                SimplePath.Predicate predicate = step.predicates[i];
+                if (predicate.position > 0) {
+                    if (++pending.positions[i] != predicate.position) {
+                        return false;
+                    }
+                } else {
+                    String value = reader.getAttributeValue(null, predicate.attribute);
+                    if (value == null || (predicate.value != null && !predicate.value.equals(value))) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Starts the evaluation of a path from the element of the frame, or from the document.
+         */
+        private void select(Frame frame, SimplePath path, Target target) {
+            if (path.steps.length == 0) {
+                selected(frame, path, target);
+            } else {
+                frame.pendings.add(new Pending(path, 0, target));
+            }
+        }
+
+        /**
+         * The element of the frame is selected by the element steps of the path.
+         */
+        private void selected(Frame frame, SimplePath path, Target target) {
+            if (target instanceof RootTarget) {
+                RootTarget roots = (RootTarget) target;
+                Node node = new Node(roots.level);
+                roots.nodes.add(node);
+                initNode(frame, node);
+                return;
+            }
+            ValueTarget value = (ValueTarget) target;
+            if (path.attribute != null) {
+                String attribute = frames.size() > 1 ? reader.getAttributeValue(null, path.attribute) : null;
+                if (attribute != null) {
+                    value.values.put(path, attribute);
+                }
+            } else {
+                value.values.put(path, "");
+                Capture capture = new Capture(value);
+                if (frame.captures == null) {
+                    frame.captures = new ArrayList<>();
+                }
+                frame.captures.add(capture);
+                captures.add(capture);
+            }
+        }
+
+        private void initNode(Frame frame, Node node) {
+            Level level = node.level;
+            for (SimplePath path : level.paths) {
+                if (!path.absolute) {
+                    select(frame, path, new ValueTarget(node.values, path));
+                }
+            }
+            if (level.next != null && !level.next.root.absolute) {
+                select(frame, level.next.root, new RootTarget(level.next, node.children));
+            }
+        }
+
+        private void endElement(Frame frame) {
+            if (frame.captures != null) {
+                for (Capture capture : frame.captures) {
+                    capture.target.values.put(capture.target.path, capture.text.toString());
+                    captures.remove(capture);
+                }
+            }
+        }
+
+        private XmlResultEntity toEntity(Node node) {
+            Map<String, String> fieldsMap = new HashMap<>();
+            for (Map.Entry<String, Object[]> field : node.level.fields.entrySet()) {
+                StringBuilder value = new StringBuilder();
+                for (Object unit : field.getValue()) {
+                    if (unit instanceof SimplePath) {
+                        SimplePath path = (SimplePath) unit;
+                        String text = path.absolute ? globalValues.get(path) : node.values.get(path);
+                        value.append(text == null ? "" : text);
+                    } else {
+                        value.append((String) unit);
+                    }
+                }
+                fieldsMap.put(field.getKey(), value.toString());
+            }
+            XmlResultEntity entity = new XmlResultEntity();
+            entity.setValueMap(fieldsMap);
+
+            Level next = node.level.next;
+            if (next != null) {
+                List<Node> children = next.root.absolute ? globalRoots.get(next) : node.children;
+                List<XmlResultEntity> subEntities = new ArrayList<>(children.size());
+                for (Node child : children) {
+                    subEntities.add(toEntity(child));
+                }
+                entity.setSubEntities(subEntities);
+            }
+            return entity;
+        }
+    }
+
+    private static boolean isEmpty(String value) {
+        return value == null || value.isEmpty();
+    }
+}
@@ -36,8 +36,11 @@ import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
 import javax.xml.xpath.XPathExpressionException;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -48,27 +51,58 @@ public class TestSetReader {
     private XpathReader xr;
     private ValueTranslator translator;
     private EntitiesFieldMap entitiesFieldMap;
+    private FilePath filePath;
+    private String resultPath;
+    private StreamingTestSetReader streamingReader;
     private static final String ROOT = "root";
 
     public TestSetReader(FilePath filePath, EntitiesFieldMap entitiesFieldMap)
             throws IOException, ParserConfigurationException, InterruptedException, SAXException {
-        xr = new XpathReader(filePath);
-        translator = new ValueTranslator(xr);
+        this.filePath = filePath;
         this.entitiesFieldMap = entitiesFieldMap;
+        streamingReader = StreamingTestSetReader.create(entitiesFieldMap);
+        if (streamingReader == null) {
+            initXpathReader();
+        }
     }
 
     public TestSetReader(String resultPath, EntitiesFieldMap entitiesFieldMap)
             throws IOException, SAXException, ParserConfigurationException {
-        xr = new XpathReader(resultPath);
-        translator = new ValueTranslator(xr);
+        this(resultPath, entitiesFieldMap, true);
+    }
+
+    TestSetReader(String resultPath, EntitiesFieldMap entitiesFieldMap, boolean streaming)
+            throws IOException, SAXException, ParserConfigurationException {
+        this.resultPath = resultPath;
         this.entitiesFieldMap = entitiesFieldMap;
+        streamingReader = streaming ? StreamingTestSetReader.create(entitiesFieldMap) : null;
+        if (streamingReader == null) {
+            xr = new XpathReader(resultPath);
+            translator = new ValueTranslator(xr);
+        }
     }
 
-    public List<XmlResultEntity> readTestsets() throws XPathExpressionException {
+    public List<XmlResultEntity> readTestsets() throws XPathExpressionException, IOException, SAXException,
+            ParserConfigurationException, InterruptedException {
+        if (xr == null) {
+            try (InputStream in = filePath != null ? filePath.read() : new FileInputStream(resultPath)) {
+                return streamingReader.read(in);
+            } catch (XMLStreamException e) {
+                // a document out of the streaming reader scope, or not well formed,
+                // in which case the DOM parser reports the error
+            }
+            initXpathReader();
+        }
         List<XmlResultEntity> testsets = readEntities(entitiesFieldMap.getTestset(), xr.getDoc());
         return testsets;
     }
 
+    private void initXpathReader() throws IOException, SAXException, ParserConfigurationException,
+            InterruptedException {
+        xr = filePath != null ? new XpathReader(filePath) : new XpathReader(resultPath);
+        translator = new ValueTranslator(xr);
+    }
+
     private List<XmlResultEntity> readEntities(Map<String, String> configMap, Node node)
             throws XPathExpressionException {
         String rootXpath = configMap.get(ROOT);
@@ -0,0 +1,94 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.commonResultUpload.xmlreader;
+
+import org.w3c.dom.Node;
+
+import javax.xml.namespace.QName;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Compiles each field mapping expression once instead of once per node it is evaluated on, for all the reading threads.
+ * A compiled expression is not thread safe, so it is lent to one evaluation at a time: an expression evaluated by
+ * several threads at once is compiled once per concurrent evaluation, and the copies are kept for the next ones.
+ * At most maxExpressions distinct expressions are kept, the others are compiled on every evaluation.
+ */
+final class XPathExpressionCache {
+
+    static final int MAX_EXPRESSIONS = 256;
+
+    private static final XPathExpressionCache INSTANCE = new XPathExpressionCache(MAX_EXPRESSIONS);
+
+    private final int maxExpressions;
+    // XPath is not thread safe either, compiling is synchronized on it
+    private final XPath xPath = XPathFactory.newInstance().newXPath();
+    private final ConcurrentMap<String, Queue<XPathExpression>> idle = new ConcurrentHashMap<>();
+
+    XPathExpressionCache(int maxExpressions) {
+        this.maxExpressions = maxExpressions;
+    }
+
+    static XPathExpressionCache getInstance() {
+        return INSTANCE;
+    }
+
+    Object evaluate(String xpath, Node node, QName returnType) throws XPathExpressionException {
+        Queue<XPathExpression> expressions = idle.get(xpath);
+        XPathExpression expression = expressions == null ? null : expressions.poll();
+        if (expression == null) {
+            synchronized (xPath) {
+                expression = xPath.compile(xpath);
+            }
+        }
+        Object result = expression.evaluate(node, returnType);
+        release(xpath, expressions, expression);
+        return result;
+    }
+
+    private void release(String xpath, Queue<XPathExpression> expressions, XPathExpression expression) {
+        if (expressions == null) {
+            if (idle.size() >= maxExpressions) {
+                return;
+            }
+            expressions = idle.computeIfAbsent(xpath, key -> new ConcurrentLinkedQueue<>());
+        }
+        expressions.offer(expression);
+    }
+
+    int size() {
+        return idle.size();
+    }
+}
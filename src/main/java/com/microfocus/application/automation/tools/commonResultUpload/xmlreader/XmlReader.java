@@ -40,9 +40,16 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class XmlReader {
 
+    private static final int MAX_READ_THREADS = 8;
+
     private CommonUploadLogger logger;
     private Run<?, ?> run;
     private FilePath workspace;
@@ -86,32 +93,49 @@ public class XmlReader {
     }
 
     private List<XmlResultEntity> readWorkspace(List<FilePath> files, EntitiesFieldMap entitiesFieldMap) {
-        List<XmlResultEntity> xmlResultEntities = new ArrayList<>();
+        List<Callable<List<XmlResultEntity>>> readers = new ArrayList<>();
         for (FilePath file : files) {
-            try {
-                TestSetReader tr = new TestSetReader(file, entitiesFieldMap);
-                xmlResultEntities.addAll(tr.readTestsets());
-            } catch (Exception e) {
-                logger.error(e.getMessage());
-                e.printStackTrace();
-                run.setResult(Result.FAILURE);
-            }
+            readers.add(() -> new TestSetReader(file, entitiesFieldMap).readTestsets());
         }
-        return xmlResultEntities;
+        return read(readers);
     }
 
     private List<XmlResultEntity> readBuildPath(String[] files, EntitiesFieldMap entitiesFieldMap) {
-        List<XmlResultEntity> xmlResultEntities = new ArrayList<>();
+        List<Callable<List<XmlResultEntity>>> readers = new ArrayList<>();
         for (String fileName : files) {
             String fullpath = run.getRootDir().getAbsolutePath() + File.separator + fileName;
-            try {
-                TestSetReader tr = new TestSetReader(fullpath, entitiesFieldMap);
-                xmlResultEntities.addAll(tr.readTestsets());
-            } catch (Exception e) {
-                logger.error(e.getMessage());
-                e.printStackTrace();
-                run.setResult(Result.FAILURE);
+            readers.add(() -> new TestSetReader(fullpath, entitiesFieldMap).readTestsets());
+        }
+        return read(readers);
+    }
+
+    /**
+     * Reads the result files in parallel, the entities are returned in the order of the files.
+     */
+    private List<XmlResultEntity> read(List<Callable<List<XmlResultEntity>>> readers) {
+        List<XmlResultEntity> xmlResultEntities = new ArrayList<>();
+        if (readers.isEmpty()) {
+            return xmlResultEntities;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(readers.size(), MAX_READ_THREADS));
+        try {
+            List<Future<List<XmlResultEntity>>> results = executor.invokeAll(readers);
+            for (Future<List<XmlResultEntity>> result : results) {
+                try {
+                    xmlResultEntities.addAll(result.get());
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    logger.error(cause.getMessage());
+                    cause.printStackTrace();
+                    run.setResult(Result.FAILURE);
+                }
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("Reading of the test result files was interrupted.");
+            run.setResult(Result.FAILURE);
+        } finally {
+            executor.shutdownNow();
         }
         return xmlResultEntities;
     }
@@ -37,16 +37,13 @@ import org.xml.sax.SAXException;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
 import java.io.File;
 import java.io.IOException;
 
 public class XpathReader {
 
-    private XPath xPath;
     private Document doc;
 
     public XpathReader(FilePath filePath) throws IOException, InterruptedException, ParserConfigurationException,
@@ -55,7 +52,6 @@ public class XpathReader {
         DocumentBuilder builder = null;
         builder = factory.newDocumentBuilder();
         doc = builder.parse(filePath.read());
-        xPath =  XPathFactory.newInstance().newXPath();
     }
 
     public XpathReader(String filePath) throws ParserConfigurationException, IOException, SAXException {
@@ -63,7 +59,6 @@ public class XpathReader {
         DocumentBuilder builder = null;
         builder = factory.newDocumentBuilder();
         doc = builder.parse(new File(filePath));
-        xPath =  XPathFactory.newInstance().newXPath();
     }
 
     public XpathReader(File file) throws ParserConfigurationException, IOException, SAXException {
@@ -71,7 +66,6 @@ public class XpathReader {
         DocumentBuilder builder = null;
         builder = factory.newDocumentBuilder();
         doc = builder.parse(file);
-        xPath =  XPathFactory.newInstance().newXPath();
     }
 
     public Node getDoc() {
@@ -79,10 +73,10 @@ public class XpathReader {
     }
 
     public NodeList getNodeListFromNode(String xpath, Node node) throws XPathExpressionException {
-        return (NodeList) xPath.compile(xpath).evaluate(node, XPathConstants.NODESET);
+        return (NodeList) XPathExpressionCache.getInstance().evaluate(xpath, node, XPathConstants.NODESET);
     }
 
     public String getValueFromNode(String xpath, Node node) throws XPathExpressionException {
-        return (String) xPath.compile(xpath).evaluate(node, XPathConstants.STRING);
+        return (String) XPathExpressionCache.getInstance().evaluate(xpath, node, XPathConstants.STRING);
     }
 }
@@ -0,0 +1,159 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.mc;
+
+import com.microfocus.application.automation.tools.model.AuthModel;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Apps already uploaded to one MC server by one tenant and user, by the SHA-256 of their binary. The info MC
+ * answered for the upload is kept with the hash, so an unchanged binary does not need to be uploaded again.
+ * There is one instance per index file, shared by all the builds uploading with the same server and user.
+ */
+public class AppUploadIndex {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final ConcurrentMap<File, AppUploadIndex> INDEXES = new ConcurrentHashMap<>();
+
+    private final File file;
+    private final Properties apps = new Properties();
+
+    private AppUploadIndex(File file) {
+        this.file = file;
+        if (file.isFile()) {
+            try (InputStream in = new FileInputStream(file)) {
+                apps.load(in);
+            } catch (IOException e) {
+                // an unreadable index only means the apps are uploaded again
+                apps.clear();
+            }
+        }
+    }
+
+    /**
+     * @param folder    folder holding the indexes of all the servers
+     * @param serverUrl the MC server url
+     * @param authModel the tenant and the user the apps are uploaded with
+     */
+    public static AppUploadIndex forServer(File folder, String serverUrl, AuthModel authModel) {
+        String server = serverUrl.trim().toLowerCase(Locale.ENGLISH).replaceAll("/+$", "");
+        String key = server + '\n' + nullToEmpty(authModel.getMcTenantId()).trim() + '\n' + identity(authModel);
+        File file = new File(folder, toHex(digest().digest(key.getBytes(StandardCharsets.UTF_8))) + ".properties");
+        return INDEXES.computeIfAbsent(file.getAbsoluteFile(), AppUploadIndex::new);
+    }
+
+    private static String identity(AuthModel authModel) {
+        if ("base".equals(authModel.getValue())) {
+            return "user:" + nullToEmpty(authModel.getMcUserName()).trim();
+        }
+        // the client of an access key is inside the key, the whole key is hashed with the rest
+        return "token:" + nullToEmpty(authModel.getMcExecToken()).trim();
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    public synchronized String get(String sha256) {
+        return apps.getProperty(sha256);
+    }
+
+    public synchronized void put(String sha256, String appInfo) throws IOException {
+        apps.setProperty(sha256, appInfo);
+        store();
+    }
+
+    /**
+     * Forgets an app, for example because MC no longer knows it.
+     */
+    public synchronized void remove(String sha256) throws IOException {
+        if (apps.remove(sha256) != null) {
+            store();
+        }
+    }
+
+    private void store() throws IOException {
+        File folder = file.getAbsoluteFile().getParentFile();
+        if (!folder.isDirectory() && !folder.mkdirs()) {
+            throw new IOException("Cannot create folder " + folder);
+        }
+        File temp = File.createTempFile(file.getName(), ".tmp", folder);
+        try {
+            try (OutputStream out = new FileOutputStream(temp)) {
+                apps.store(out, null);
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+    }
+
+    public static String sha256(File app) throws IOException {
+        MessageDigest sha = digest();
+        try (InputStream in = new FileInputStream(app)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                sha.update(buffer, 0, read);
+            }
+        }
+        return toHex(sha.digest());
+    }
+
+    private static MessageDigest digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+}
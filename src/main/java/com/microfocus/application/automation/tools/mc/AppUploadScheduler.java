@@ -0,0 +1,259 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.mc;
+
+import net.minidev.json.JSONObject;
+import net.minidev.json.JSONValue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Uploads apps to one MC server, at most a given number at a time. An app whose binary is in the
+ * {@link AppUploadIndex} of the server and still known to MC, or is uploaded by the same run, is not uploaded again.
+ * A failing app does not stop the others, each app gets its own {@link Outcome}.
+ */
+public class AppUploadScheduler {
+
+    public enum Status {
+        UPLOADED, SKIPPED, FAILED
+    }
+
+    /**
+     * Uploads one app, usually a {@link JobConfigurationProxy.UploadSession}.
+     */
+    public interface Uploader {
+        JSONObject upload(File app) throws IOException;
+
+        /**
+         * @return false if MC no longer has the app an earlier upload answered with
+         */
+        default boolean isUploaded(JSONObject appInfo) {
+            return true;
+        }
+    }
+
+    private final Uploader uploader;
+    private final AppUploadIndex index;
+    private final int concurrency;
+    private final PrintStream out;
+    private final ConcurrentMap<String, CompletableFuture<Outcome>> uploads = new ConcurrentHashMap<>();
+
+    /**
+     * @param index the apps uploaded to the server, null to upload all the apps
+     */
+    public AppUploadScheduler(Uploader uploader, AppUploadIndex index, int concurrency, PrintStream out) {
+        this.uploader = uploader;
+        this.index = index;
+        this.concurrency = Math.max(1, concurrency);
+        this.out = out;
+    }
+
+    /**
+     * @return the outcome of each app, in the order of the apps
+     */
+    public List<Outcome> upload(List<File> apps) throws InterruptedException {
+        List<Outcome> outcomes = new ArrayList<>(apps.size());
+        if (apps.isEmpty()) {
+            return outcomes;
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(concurrency, apps.size()), new UploadThreadFactory());
+        try {
+            List<Future<Outcome>> futures = new ArrayList<>(apps.size());
+            for (final File app : apps) {
+                futures.add(pool.submit(() -> upload(app)));
+            }
+            for (int i = 0; i < apps.size(); i++) {
+                try {
+                    outcomes.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    outcomes.add(new Outcome(apps.get(i), Status.FAILED, null, e.getCause(), 0));
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return outcomes;
+    }
+
+    private Outcome upload(File app) {
+        long start = System.nanoTime();
+        Outcome outcome;
+        try {
+            outcome = index == null ? send(app, null, start) : uploadOnce(app, start);
+        } catch (IOException | RuntimeException e) {
+            outcome = new Outcome(app, Status.FAILED, null, e, System.nanoTime() - start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            outcome = new Outcome(app, Status.FAILED, null, e, System.nanoTime() - start);
+        }
+        out.println(outcome);
+        return outcome;
+    }
+
+    private Outcome uploadOnce(File app, long start) throws IOException, InterruptedException {
+        String sha256 = AppUploadIndex.sha256(app);
+        String uploaded = index.get(sha256);
+        if (uploaded != null) {
+            JSONObject appInfo = parse(uploaded);
+            if (uploader.isUploaded(appInfo)) {
+                return new Outcome(app, Status.SKIPPED, appInfo, null, System.nanoTime() - start);
+            }
+            out.println(app.getName() + ": no longer on the server, uploading it again");
+            index.remove(sha256);
+        }
+        CompletableFuture<Outcome> upload = new CompletableFuture<>();
+        CompletableFuture<Outcome> running = uploads.putIfAbsent(sha256, upload);
+        if (running != null) {
+            // the same binary is configured twice, wait for the first upload rather than sending it again
+            try {
+                Outcome first = running.get();
+                if (first.getStatus() != Status.FAILED) {
+                    return new Outcome(app, Status.SKIPPED, first.getAppInfo(), null, System.nanoTime() - start);
+                }
+            } catch (ExecutionException e) {
+                // upload it on its own
+            }
+            return send(app, null, start);
+        }
+        try {
+            Outcome outcome = send(app, sha256, start);
+            upload.complete(outcome);
+            return outcome;
+        } catch (IOException | RuntimeException e) {
+            upload.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private Outcome send(File app, String sha256, long start) throws IOException {
+        JSONObject appInfo = uploader.upload(app);
+        if (appInfo == null || Boolean.TRUE.equals(appInfo.get("error"))) {
+            return new Outcome(app, Status.FAILED, appInfo, null, System.nanoTime() - start);
+        }
+        if (sha256 != null) {
+            try {
+                index.put(sha256, appInfo.toJSONString());
+            } catch (IOException e) {
+                // MC has the app, only the next build will upload it again
+                out.println(app.getName() + ": uploaded, but could not be recorded in the upload index: " + e.getMessage());
+            }
+        }
+        return new Outcome(app, Status.UPLOADED, appInfo, null, System.nanoTime() - start);
+    }
+
+    private static JSONObject parse(String appInfo) {
+        try {
+            return (JSONObject) JSONValue.parseStrict(appInfo);
+        } catch (Exception e) {
+            return new JSONObject();
+        }
+    }
+
+    public static class Outcome {
+        private final File app;
+        private final Status status;
+        private final JSONObject appInfo;
+        private final Throwable error;
+        private final long nanos;
+
+        Outcome(File app, Status status, JSONObject appInfo, Throwable error, long nanos) {
+            this.app = app;
+            this.status = status;
+            this.appInfo = appInfo;
+            this.error = error;
+            this.nanos = nanos;
+        }
+
+        public File getApp() {
+            return app;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        /**
+         * @return what MC answered for the upload, null if it did not answer
+         */
+        public JSONObject getAppInfo() {
+            return appInfo;
+        }
+
+        /**
+         * @return the exception that failed the upload, null if MC answered
+         */
+        public Throwable getError() {
+            return error;
+        }
+
+        public long getMillis() {
+            return nanos / 1000000L;
+        }
+
+        @Override
+        public String toString() {
+            String action;
+            switch (status) {
+                case UPLOADED:
+                    action = "uploaded";
+                    break;
+                case SKIPPED:
+                    action = "already uploaded, skipped";
+                    break;
+                default:
+                    action = "failed";
+            }
+            return String.format("%s: %s in %.1f s (%d MB)", app.getName(), action, nanos / 1e9, app.length() / (1024 * 1024));
+        }
+    }
+
+    private static class UploadThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "mc-app-upload-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
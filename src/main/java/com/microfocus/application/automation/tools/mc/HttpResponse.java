@@ -37,6 +37,7 @@ public class HttpResponse {
 
     private Map<String, List<String>> headers;
     private JSONObject jsonObject;
+    private int statusCode;
 
     public HttpResponse() {
 
@@ -62,4 +63,12 @@ public class HttpResponse {
     public JSONObject getJsonObject() {
         return jsonObject;
     }
+
+    public void setStatusCode(int statusCode) {
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
 }
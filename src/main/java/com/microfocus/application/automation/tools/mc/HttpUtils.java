@@ -57,6 +57,28 @@ public class HttpUtils {
         return response;
     }
 
+    /**
+     * Posts a multipart body in fixed-length streaming mode, the body is never held in memory.
+     */
+    public static HttpResponse doPost(ProxyInfo proxyInfo, String url, Map<String, String> headers, MultipartFileBody body, MultipartFileBody.ProgressListener listener) {
+
+        HttpResponse response = null;
+        try {
+            HttpURLConnection connection = (HttpURLConnection) openConnection(proxyInfo, new URL(url));
+            connection.setRequestMethod(POST);
+            setConnectionHeaders(connection, headers);
+            connection.setDoOutput(true);
+            connection.setFixedLengthStreamingMode(body.getContentLength());
+            try (OutputStream out = connection.getOutputStream()) {
+                body.writeTo(out, listener);
+            }
+            response = readResponse(connection, POST, url);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return response;
+    }
+
     public static HttpResponse doGet(ProxyInfo proxyInfo, String url, Map<String, String> headers, String queryString) {
 
         HttpResponse response = null;
@@ -70,8 +92,6 @@ public class HttpUtils {
 
 
     private static HttpResponse doHttp(ProxyInfo proxyInfo, String requestMethod, String connectionUrl, String queryString, Map<String, String> headers, byte[] data) throws IOException {
-        HttpResponse response = new HttpResponse();
-
         if ((queryString != null) && !queryString.isEmpty()) {
             connectionUrl += "?" + queryString;
         }
@@ -99,7 +119,13 @@ public class HttpUtils {
 
         connection.connect();
 
+        return readResponse(connection, requestMethod, connectionUrl);
+    }
+
+    private static HttpResponse readResponse(HttpURLConnection connection, String requestMethod, String connectionUrl) throws IOException {
+        HttpResponse response = new HttpResponse();
         int responseCode = connection.getResponseCode();
+        response.setStatusCode(responseCode);
 
         if (responseCode == HttpURLConnection.HTTP_OK) {
             InputStream inputStream = connection.getInputStream();
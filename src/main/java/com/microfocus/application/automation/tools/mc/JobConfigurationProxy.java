@@ -35,14 +35,15 @@ import net.minidev.json.JSONArray;
 import net.minidev.json.JSONObject;
 import net.minidev.json.JSONValue;
 
-import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.PrintStream;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * communicate with MC servers, login to MC, upload application to MC server, create job, get job details.
@@ -113,7 +114,13 @@ public class JobConfigurationProxy {
         if (response == null || response.getHeaders() == null) {
             return null;
         }
-        Map<String, List<String>> headerFields = response.getHeaders();
+        // header names are case insensitive
+        Map<String, List<String>> headerFields = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Map.Entry<String, List<String>> header : response.getHeaders().entrySet()) {
+            if (header.getKey() != null) {
+                headerFields.put(header.getKey(), header.getValue());
+            }
+        }
         List<String> hp4mSecretList = headerFields.get(Constants.LOGIN_SECRET);
         JSONObject returnObject = new JSONObject();
         if (hp4mSecretList != null && !hp4mSecretList.isEmpty()) {
@@ -147,39 +154,85 @@ public class JobConfigurationProxy {
         return returnObject;
     }
 
-    //upload app to MC
-    public JSONObject upload(String mcUrl, AuthModel authModel, ProxySettings proxy, String appPath) throws IOException {
-        File appFile = new File(appPath);
-
-        String uploadUrl = mcUrl + Constants.APP_UPLOAD;
-
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-
-        StringBuilder content = new StringBuilder();
-        content.append("\r\n").append("------").append(Constants.BOUNDARYSTR).append("\r\n");
-        content.append("Content-Disposition: form-data; name=\"file\"; filename=\"" + appFile.getName() + "\"\r\n");
-        content.append("Content-Type: application/octet-stream\r\n\r\n");
+    /**
+     * Opens a session that uploads apps to MC, it logs in when it uploads the first app and
+     * the login is then shared by all the uploads, also by uploads running concurrently.
+     *
+     * @param out where the progress of the uploads is printed, usually the build log
+     */
+    public UploadSession openUploadSession(String mcUrl, AuthModel authModel, ProxySettings proxy, PrintStream out) {
+        return new UploadSession(mcUrl, authModel, proxy == null ? new ProxySettings() : proxy, out);
+    }
 
-        outputStream.write(content.toString().getBytes());
+    public class UploadSession implements AppUploadScheduler.Uploader {
+        private final String mcUrl;
+        private final AuthModel authModel;
+        private final ProxySettings proxy;
+        private final HttpUtils.ProxyInfo proxyInfo;
+        private final PrintStream out;
+        private Map<String, String> sessionHeaders;
+
+        private UploadSession(String mcUrl, AuthModel authModel, ProxySettings proxy, PrintStream out) {
+            this.mcUrl = mcUrl;
+            this.authModel = authModel;
+            this.proxy = proxy;
+            this.out = out;
+            this.proxyInfo = HttpUtils.setProxyCfg(proxy.getFsProxyAddress(), proxy.getFsProxyUserName(), proxy.getFsProxyPassword());
+        }
 
-        try (FileInputStream in = new FileInputStream(appFile)) {
-            byte[] b = new byte[1024];
-            int i = 0;
-            while ((i = in.read(b)) != -1) {
-                outputStream.write(b, 0, i);
+        private synchronized Map<String, String> getSessionHeaders() {
+            if (sessionHeaders == null) {
+                sessionHeaders = JobConfigurationProxy.this.getSessionHeaders(loginToMC(mcUrl, authModel, proxy), authModel);
             }
+            return sessionHeaders;
         }
 
-        outputStream.write(("\r\n------" + Constants.BOUNDARYSTR + "--\r\n").getBytes());
+        //upload one app, streamed from its file
+        @Override
+        public JSONObject upload(File appFile) throws IOException {
+            if (!appFile.isFile()) {
+                throw new FileNotFoundException(appFile.getPath());
+            }
+            String uploadUrl = mcUrl + Constants.APP_UPLOAD;
+            Map<String, String> headers = new HashMap<>(getSessionHeaders());
+            headers.put(Constants.CONTENT_TYPE, Constants.CONTENT_TYPE_DOWNLOAD_VALUE + Constants.BOUNDARYSTR);
+            headers.put(Constants.FILENAME, appFile.getName());
+
+            MultipartFileBody body = new MultipartFileBody(appFile, Constants.BOUNDARYSTR);
+            out.println("Uploading " + appFile.getName() + " to " + uploadUrl);
+            HttpResponse response = HttpUtils.doPost(proxyInfo, uploadUrl, headers, body, MultipartFileBody.printProgress(out, appFile.getName()));
+            return response != null ? response.getJsonObject() : null;
+        }
 
-        byte[] bytes = outputStream.toByteArray();
+        //ask MC whether it still has an app uploaded before, false only when MC says it does not
+        @Override
+        public boolean isUploaded(JSONObject appInfo) {
+            String appId = getAppId(appInfo);
+            if (StringUtils.isNullOrEmpty(appId)) {
+                return false;
+            }
+            HttpResponse response = HttpUtils.doGet(proxyInfo, mcUrl + Constants.APP_BY_ID + appId, getSessionHeaders(), null);
+            if (response == null) {
+                return true;
+            }
+            if (response.getStatusCode() == 404) {
+                return false;
+            }
+            JSONObject app = response.getJsonObject();
+            return app == null || !Boolean.TRUE.equals(app.get("error"));
+        }
+    }
 
-        outputStream.close();
-        if (null == proxy) {
-            proxy = new ProxySettings();
+    private static String getAppId(JSONObject appInfo) {
+        Object data = appInfo == null ? null : appInfo.get(Constants.DATA);
+        if (data instanceof JSONArray && !((JSONArray) data).isEmpty()) {
+            data = ((JSONArray) data).get(0);
         }
+        return data instanceof JSONObject ? ((JSONObject) data).getAsString("id") : null;
+    }
+
+    private Map<String, String> getSessionHeaders(JSONObject loginJson, AuthModel authModel) {
         Map<String, String> headers = new HashMap<>();
-        JSONObject loginJson = loginToMC(mcUrl, authModel, proxy);
         if (loginJson != null) {
             String hp4mSecret = (String) loginJson.get(Constants.LOGIN_SECRET);
             String jsessionId = (String) loginJson.get(Constants.JSESSIONID);
@@ -188,24 +241,14 @@ public class JobConfigurationProxy {
             if (TOKEN.equals(authModel.getValue())) {
                 String oauth = (String) loginJson.get(Constants.OAUTH2_COOKIE_KEY);
                 if (!StringUtils.isNullOrEmpty(oauth)) {
-                    cookies += (";" + Constants.OAUTH2_COOKIE_KEY + "=" + (String) loginJson.get(Constants.OAUTH2_COOKIE_KEY));
+                    cookies += (";" + Constants.OAUTH2_COOKIE_KEY + "=" + oauth);
                 } else {
                     System.out.println("ERROR:: loginToMC failed with null oauth cookie.");
                 }
             }
             headers.put(Constants.COOKIE, cookies);
         }
-
-        headers.put(Constants.CONTENT_TYPE, Constants.CONTENT_TYPE_DOWNLOAD_VALUE + Constants.BOUNDARYSTR);
-        headers.put(Constants.FILENAME, appFile.getName());
-
-        HttpUtils.ProxyInfo proxyInfo = HttpUtils.setProxyCfg(proxy.getFsProxyAddress(), proxy.getFsProxyUserName(), proxy.getFsProxyPassword());
-        HttpResponse response = HttpUtils.doPost(proxyInfo, uploadUrl, headers, bytes);
-
-        if (response != null && response.getJsonObject() != null) {
-            return response.getJsonObject();
-        }
-        return null;
+        return headers;
     }
 
     //create one temp job
@@ -0,0 +1,123 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.mc;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * multipart/form-data body holding one file part, written straight from the file so that
+ * the size of the uploaded application does not matter.
+ */
+public class MultipartFileBody {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long MB = 1024L * 1024L;
+
+    private final File file;
+    private final byte[] head;
+    private final byte[] tail;
+
+    public MultipartFileBody(File file, String boundary) {
+        this.file = file;
+        StringBuilder content = new StringBuilder();
+        content.append("\r\n").append("------").append(boundary).append("\r\n");
+        content.append("Content-Disposition: form-data; name=\"file\"; filename=\"").append(file.getName()).append("\"\r\n");
+        content.append("Content-Type: application/octet-stream\r\n\r\n");
+        this.head = content.toString().getBytes(StandardCharsets.UTF_8);
+        this.tail = ("\r\n------" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * @return exact size of the body, known up front so the request can be sent in fixed-length streaming mode
+     */
+    public long getContentLength() {
+        return head.length + file.length() + tail.length;
+    }
+
+    public void writeTo(OutputStream out, ProgressListener listener) throws IOException {
+        long total = getContentLength();
+        long start = System.nanoTime();
+        out.write(head);
+        long sent = head.length;
+        try (InputStream in = new FileInputStream(file)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+                sent += read;
+                if (listener != null) {
+                    listener.onProgress(sent, total, System.nanoTime() - start);
+                }
+            }
+        }
+        out.write(tail);
+        out.flush();
+        if (listener != null) {
+            listener.onProgress(total, total, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Notified after each chunk of the body is written.
+     */
+    public interface ProgressListener {
+        void onProgress(long sent, long total, long elapsedNanos);
+    }
+
+    /**
+     * @return a listener printing a line at every 10% of the upload, with the average throughput so far
+     */
+    public static ProgressListener printProgress(final PrintStream out, final String name) {
+        return new ProgressListener() {
+            private int lastStep = 0;
+
+            @Override
+            public void onProgress(long sent, long total, long elapsedNanos) {
+                int step = total == 0 ? 10 : (int) (sent * 10 / total);
+                if (step <= lastStep) {
+                    return;
+                }
+                lastStep = step;
+                double seconds = Math.max(elapsedNanos, 1L) / 1e9;
+                out.println(String.format("%s: uploaded %d%% (%d MB of %d MB) at %.1f MB/s",
+                        name, step * 10, sent / MB, total / MB, (double) sent / MB / seconds));
+            }
+        };
+    }
+}
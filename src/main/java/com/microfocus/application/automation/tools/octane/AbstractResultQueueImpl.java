@@ -28,25 +28,36 @@
 
 package com.microfocus.application.automation.tools.octane;
 
+import com.microfocus.application.automation.tools.octane.configuration.SDKBasedLoggerProvider;
 import com.squareup.tape.FileObjectQueue;
+import com.squareup.tape.ObjectQueue;
 import net.sf.json.JSONObject;
 import net.sf.json.JSONSerializer;
 import org.apache.commons.io.IOUtils;
+import org.apache.logging.log4j.Logger;
 
 import java.io.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Created by benmeior on 11/21/2016
  *
- * Base implementation of ResultQueue: backed up by FileObjectQueue, persisted
+ * Base implementation of ResultQueue: backed up by SegmentedQueueLog, persisted
  */
 
 public abstract class AbstractResultQueueImpl implements ResultQueue {
+	private static final Logger logger = SDKBasedLoggerProvider.getLogger(AbstractResultQueueImpl.class);
 
 	private static final int RETRIES = 3;
+	private static final long RETRY_DELAY = TimeUnit.SECONDS.toMillis(10);
+	private static final String LOG_FOLDER_SUFFIX = ".segments";
 	private final int MAX_RETRIES;
 
-	private FileObjectQueue<QueueItem> queue;
+	private SegmentedQueueLog queue;
 
 	private QueueItem currentItem;
 
@@ -58,14 +69,48 @@ public abstract class AbstractResultQueueImpl implements ResultQueue {
 		this.MAX_RETRIES = maxRetries;
 	}
 
+	/**
+	 * opens the queue persisted next to queueFile; queueFile itself, if present, is a queue of the previous (Tape based) format
+	 * and its items are moved over
+	 */
 	protected void init(File queueFile) throws IOException {
-		queue = new FileObjectQueue<>(queueFile, new JsonConverter());
+		queue = new SegmentedQueueLog(new File(queueFile.getParentFile(), queueFile.getName() + LOG_FOLDER_SUFFIX));
+		if (queueFile.exists()) {
+			migrate(queueFile);
+		}
+	}
+
+	private void migrate(File legacyFile) throws IOException {
+		final List<QueueItem> items = new ArrayList<>();
+		FileObjectQueue<QueueItem> legacy = new FileObjectQueue<>(legacyFile, new JsonConverter());
+		try {
+			//  the listener is called back with every item already in the queue, reading it without taking anything out
+			legacy.setListener(new ObjectQueue.Listener<QueueItem>() {
+				@Override
+				public void onAdd(ObjectQueue<QueueItem> objectQueue, QueueItem item) {
+					items.add(item);
+				}
+
+				@Override
+				public void onRemove(ObjectQueue<QueueItem> objectQueue) {
+					//  not used
+				}
+			});
+		} finally {
+			legacy.close();
+		}
+		queue.append(items);
+		if (!legacyFile.delete()) {
+			throw new IOException("failed to delete migrated queue file " + legacyFile + ", its items would be migrated again");
+		}
+		logger.info("migrated " + items.size() + " item(s) of " + legacyFile + " to the segmented queue");
 	}
 
 	@Override
 	public synchronized QueueItem peekFirst() {
 		if (currentItem == null) {
-			currentItem = queue.peek();
+			List<QueueItem> due = queue.peek(1, System.currentTimeMillis());
+			currentItem = due.isEmpty() ? null : due.get(0);
 		}
 		return currentItem;
 	}
@@ -73,17 +118,27 @@ public abstract class AbstractResultQueueImpl implements ResultQueue {
 	@Override
 	public synchronized boolean failed() {
 		if (currentItem != null) {
-			boolean retry;
-			if (++currentItem.failCount <= MAX_RETRIES) {
-				queue.add(currentItem);
-				retry = true;
+			int failCount = currentItem.failCount + 1;
+			if (failCount <= MAX_RETRIES) {
+				//  back off exponentially, never earlier than the item asked for itself
+				long retryAt = System.currentTimeMillis() + (RETRY_DELAY << (failCount - 1));
+				schedule(currentItem, failCount, Math.max(retryAt, currentItem.sendAfter));
+				currentItem = null;
+				return true;
 			} else {
-				retry = false;
+				remove();
+				return false;
 			}
+		} else {
+			throw new IllegalStateException("no outstanding item");
+		}
+	}
 
-			remove();
-
-			return retry;
+	@Override
+	public synchronized void postpone(long sendAfter) {
+		if (currentItem != null) {
+			schedule(currentItem, currentItem.failCount, sendAfter);
+			currentItem = null;
 		} else {
 			throw new IllegalStateException("no outstanding item");
 		}
@@ -92,7 +147,11 @@ public abstract class AbstractResultQueueImpl implements ResultQueue {
 	@Override
 	public synchronized void remove() {
 		if (currentItem != null) {
-			queue.remove();
+			try {
+				queue.remove(Collections.singletonList(currentItem));
+			} catch (IOException ioe) {
+				throw new RuntimeException("failed to remove the item from the queue", ioe);
+			}
 			currentItem = null;
 		} else {
 			throw new IllegalStateException("no outstanding item");
@@ -100,30 +159,39 @@ public abstract class AbstractResultQueueImpl implements ResultQueue {
 	}
 
 	@Override
-	public synchronized void add(QueueItem item) {
-		queue.add(item);
+	public void add(QueueItem item) {
+		addAll(Collections.singletonList(item));
 	}
 
 	@Override
-	public synchronized void add(String projectName, int buildNumber) {
-		queue.add(new QueueItem(projectName, buildNumber));
+	public void addAll(Collection<QueueItem> items) {
+		try {
+			queue.append(items);
+		} catch (IOException ioe) {
+			throw new RuntimeException("failed to add items to the queue", ioe);
+		}
 	}
 
 	@Override
-	public synchronized void add(String projectName, String type, int buildNumber) {
-		queue.add(new QueueItem(projectName, type, buildNumber));
+	public void add(String projectName, int buildNumber) {
+		add(new QueueItem(projectName, buildNumber));
 	}
 
 	@Override
-	public synchronized void add(String projectName, int buildNumber, String workspace) {
-		queue.add(new QueueItem(projectName, buildNumber, workspace));
+	public void add(String projectName, String type, int buildNumber) {
+		add(new QueueItem(projectName, type, buildNumber));
 	}
 
 	@Override
-	public synchronized void add(String instanceId, String projectName, int buildNumber, String workspace) {
+	public void add(String projectName, int buildNumber, String workspace) {
+		add(new QueueItem(projectName, buildNumber, workspace));
+	}
+
+	@Override
+	public void add(String instanceId, String projectName, int buildNumber, String workspace) {
 		QueueItem item = new QueueItem(projectName, buildNumber, workspace);
 		item.setInstanceId(instanceId);
-		queue.add(item);
+		add(item);
 	}
 
 	public int size() {
@@ -132,8 +200,10 @@ public abstract class AbstractResultQueueImpl implements ResultQueue {
 
 	@Override
 	public synchronized void clear() {
-		while (queue.size() > 0) {
-			queue.remove();
+		try {
+			queue.clear();
+		} catch (IOException ioe) {
+			throw new RuntimeException("failed to clear the queue", ioe);
 		}
 		currentItem = null;
 	}
@@ -141,10 +211,25 @@ public abstract class AbstractResultQueueImpl implements ResultQueue {
 	@Override
 	public void close() {
 		if (queue != null) {
-			queue.close();
+			try {
+				queue.close();
+			} catch (IOException ioe) {
+				logger.error("failed to close the queue", ioe);
+			}
+		}
+	}
+
+	private void schedule(QueueItem item, int failCount, long sendAfter) {
+		try {
+			queue.schedule(item, failCount, sendAfter);
+		} catch (IOException ioe) {
+			throw new RuntimeException("failed to reschedule queue item", ioe);
 		}
 	}
 
+	/**
+	 * format of the items in the Tape queue files of previous versions, kept to migrate them
+	 */
 	private static class JsonConverter implements FileObjectQueue.Converter<QueueItem> {
 
 		public static final String INSTANCE_ID = "instanceId";
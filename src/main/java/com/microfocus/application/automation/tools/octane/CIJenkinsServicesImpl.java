@@ -63,6 +63,7 @@ import com.microfocus.application.automation.tools.octane.configuration.*;
 import com.microfocus.application.automation.tools.octane.executor.ExecutorConnectivityService;
 import com.microfocus.application.automation.tools.octane.executor.TestExecutionJobCreatorService;
 import com.microfocus.application.automation.tools.octane.executor.UftJobRecognizer;
+import com.microfocus.application.automation.tools.octane.model.JobListIndex;
 import com.microfocus.application.automation.tools.octane.model.ModelFactory;
 import com.microfocus.application.automation.tools.octane.model.processors.parameters.ParameterProcessors;
 import com.microfocus.application.automation.tools.octane.model.processors.projects.AbstractProjectProcessor;
@@ -78,6 +79,7 @@ import hudson.console.PlainTextConsoleOutputStream;
 import hudson.matrix.MatrixConfiguration;
 import hudson.maven.MavenModule;
 import hudson.model.*;
+import hudson.security.ACL;
 import hudson.security.ACLContext;
 import hudson.util.IOUtils;
 import jenkins.model.Jenkins;
@@ -116,6 +118,9 @@ public class CIJenkinsServicesImpl extends CIPluginServices {
 
     private static final String DEFAULT_BRANCHES_SEPARATOR = " ";
 
+    private static final JobListIndex<PipelineNode> jobListIndex = new JobListIndex<>(new JobListResolver());
+    private static volatile DependencyGraph indexedDependencyGraph;
+
     @Override
     public CIServerInfo getServerInfo() {
         return getJenkinsServerInfo();
@@ -172,44 +177,17 @@ public class CIJenkinsServicesImpl extends CIPluginServices {
     public CIJobsList getJobsList(boolean includeParameters, Long workspaceId) {
         ACLContext securityContext = startImpersonation(workspaceId);
         CIJobsList result = dtoFactory.newDTO(CIJobsList.class);
-        Map<String, PipelineNode> jobsMap = new HashMap<>();
 
         try {
             long start = System.currentTimeMillis();
-            Collection<String> jobNames = Jenkins.get().getJobNames();
-            logger.debug("Get job names took {} ms", System.currentTimeMillis() - start );
-            for (String jobName : jobNames) {
-                String tempJobName = jobName;
-                try {
-                    long startProcessJob = System.currentTimeMillis();
-                    Job tmpJob = (Job) Jenkins.get().getItemByFullName(tempJobName);
-
-                    if (!isJobIsRelevantForPipelineModule(tmpJob)) {
-                        continue;
-                    }
-
-                    PipelineNode tmpConfig;
-                    if (tmpJob != null && JobProcessorFactory.WORKFLOW_MULTI_BRANCH_JOB_NAME.equals(tmpJob.getParent().getClass().getName())) {
-                        tempJobName = tmpJob.getParent().getFullName();
-                        WorkflowMultiBranchProject parentItem = (WorkflowMultiBranchProject) Jenkins.get().getItem(tempJobName);
-                        if( (parentItem != null && parentItem.isDisabled()) || jobsMap.containsKey(tempJobName)){
-                            continue; //skip redundant creation config for multibranch job
-                        }
-                        tmpConfig = createPipelineNodeFromJobName(tempJobName);
-                    } else {
-                        tmpConfig = createPipelineNode(tempJobName, tmpJob, includeParameters);
-                    }
-                    jobsMap.put(tempJobName, tmpConfig);
-                    if(System.currentTimeMillis() - startProcessJob > 2000){
-                        logger.warn("Job {} took {} ms",tempJobName,System.currentTimeMillis() - startProcessJob);
-                    }
-                } catch (Throwable e) {
-                    logger.error("failed to add job '" + tempJobName + "' to JobList", e);
-                }
+            if (includeParameters) {
+                invalidateParametersOnDependencyChange();
             }
-            logger.info("Get job list took {} ms",System.currentTimeMillis() - start);
+            // getItemByFullName returns null for the items the impersonated user cannot read
+            List<PipelineNode> jobs = jobListIndex.getAll(includeParameters, name -> Jenkins.get().getItemByFullName(name) != null);
+            logger.info("Get job list took {} ms", System.currentTimeMillis() - start);
 
-            if(jobsMap.isEmpty() && !Jenkins.get().hasPermission(Item.READ)){
+            if (jobs.isEmpty() && !Jenkins.get().hasPermission(Item.READ)) {
                 //it is possible that user doesn't have general READ permission
                 // but has read permission to specific job, so we postponed this check to end
                 String userName = ImpersonationUtil.getUserNameForImpersonation(getInstanceId(), workspaceId);
@@ -220,7 +198,7 @@ public class CIJenkinsServicesImpl extends CIPluginServices {
                 throw new PermissionException(msg, HttpStatus.SC_FORBIDDEN);
             }
 
-            result.setJobs(jobsMap.values().toArray(new PipelineNode[0]));
+            result.setJobs(jobs.toArray(new PipelineNode[0]));
         } catch (AccessDeniedException ade) {
             throw new PermissionException(HttpStatus.SC_FORBIDDEN);
         } finally {
@@ -230,6 +208,22 @@ public class CIJenkinsServicesImpl extends CIPluginServices {
         return result;
     }
 
+    /**
+     * @return the index of the jobs listed to Octane, shared by all the clients
+     */
+    public static JobListIndex<PipelineNode> getJobListIndex() {
+        return jobListIndex;
+    }
+
+    private static void invalidateParametersOnDependencyChange() {
+        // the upstream flag of the parameters representation comes from the dependency graph
+        DependencyGraph dependencyGraph = Jenkins.get().getDependencyGraph();
+        if (dependencyGraph != indexedDependencyGraph) {
+            indexedDependencyGraph = dependencyGraph;
+            jobListIndex.invalidateParameters();
+        }
+    }
+
     public static boolean isJobIsRelevantForPipelineModule(Job job){
         return !(job == null ||
                 (job instanceof AbstractProject && ((AbstractProject) job).isDisabled()) ||
@@ -650,7 +644,7 @@ public class CIJenkinsServicesImpl extends CIPluginServices {
         ImpersonationUtil.stopImpersonation(impersonatedContext);
     }
 
-    private PipelineNode createPipelineNode(String name, Job job, boolean includeParameters) {
+    private static PipelineNode createPipelineNode(String name, Job job, boolean includeParameters) {
         PipelineNode tmpConfig = dtoFactory.newDTO(PipelineNode.class)
                 .setJobCiId(JobProcessorFactory.getFlowProcessor(job).getTranslatedJobName())
                 .setName(name);
@@ -674,7 +668,7 @@ public class CIJenkinsServicesImpl extends CIPluginServices {
         return tmpConfig;
     }
 
-    private PipelineNode createPipelineNodeFromJobName(String name) {
+    private static PipelineNode createPipelineNodeFromJobName(String name) {
         return dtoFactory.newDTO(PipelineNode.class)
                 .setJobCiId(BuildHandlerUtils.translateFolderJobName(name))
                 .setName(name);
@@ -925,4 +919,46 @@ public class CIJenkinsServicesImpl extends CIPluginServices {
         }
         return null;
     }
+
+    /**
+     * Resolves the jobs of the index from the live item tree with the permissions of the system, the permissions of
+     * the requesting user are applied when the index is queried.
+     */
+    private static class JobListResolver implements JobListIndex.Resolver<PipelineNode> {
+
+        @Override
+        public Collection<String> getJobNames() {
+            try (ACLContext ignored = ACL.as(ACL.SYSTEM)) {
+                return Jenkins.get().getJobNames();
+            }
+        }
+
+        @Override
+        public String getNodeName(String jobName) {
+            try (ACLContext ignored = ACL.as(ACL.SYSTEM)) {
+                Item item = Jenkins.get().getItemByFullName(jobName);
+                if (!(item instanceof Job) || !isJobIsRelevantForPipelineModule((Job) item)) {
+                    return null;
+                }
+                ItemGroup parent = ((Job) item).getParent();
+                if (JobProcessorFactory.WORKFLOW_MULTI_BRANCH_JOB_NAME.equals(parent.getClass().getName())) {
+                    // all the branches are listed as their multibranch project
+                    WorkflowMultiBranchProject parentItem = (WorkflowMultiBranchProject) parent;
+                    return parentItem.isDisabled() ? null : parentItem.getFullName();
+                }
+                return jobName;
+            }
+        }
+
+        @Override
+        public PipelineNode createNode(String nodeName, String jobName, boolean includeParameters) {
+            if (!nodeName.equals(jobName)) {
+                return createPipelineNodeFromJobName(nodeName);
+            }
+            try (ACLContext ignored = ACL.as(ACL.SYSTEM)) {
+                Job job = (Job) Jenkins.get().getItemByFullName(jobName);
+                return job == null ? null : createPipelineNode(jobName, job, includeParameters);
+            }
+        }
+    }
 }
\ No newline at end of file
@@ -29,18 +29,34 @@
 package com.microfocus.application.automation.tools.octane;
 
 import java.io.Serializable;
+import java.util.Collection;
 
 @SuppressWarnings("squid:S2039")
 public interface ResultQueue {
 
+	/**
+	 * @return first item that is due (its send-after time, if any, has passed), or null; the item becomes the outstanding one
+	 */
 	ResultQueue.QueueItem peekFirst();
 
+	/**
+	 * the outstanding item failed: it is retried later at its current position, or dropped when out of retries
+	 *
+	 * @return true if the item will be retried
+	 */
 	boolean failed();
 
+	/**
+	 * keeps the outstanding item at its position but does not return it before sendAfter
+	 */
+	void postpone(long sendAfter);
+
 	void remove();
 
 	void add(QueueItem item);
 
+	void addAll(Collection<QueueItem> items);
+
 	void add(String projectName, int buildNumber);
 
 	void add(String projectName, String type, int buildNumber);
@@ -62,6 +78,7 @@ public interface ResultQueue {
 		String workspace;
 		int failCount;
 		long sendAfter;
+		transient long sequence;
 
 		public void setInstanceId(String instanceId) {
 			this.instanceId = instanceId;
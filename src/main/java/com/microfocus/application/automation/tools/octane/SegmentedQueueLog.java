@@ -0,0 +1,563 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane;
+
+import com.microfocus.application.automation.tools.octane.configuration.SDKBasedLoggerProvider;
+import org.apache.logging.log4j.Logger;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * Persistent store behind {@link AbstractResultQueueImpl}: an append-only log split into segment files
+ *
+ * Every change is a checksummed record appended to the active segment - an item added, removed, or its retry rescheduled -
+ * and the queue state is the replay of all segments. Items keep their position for good, a failed item is rescheduled
+ * in place instead of being re-added at the tail.
+ * - additions are durable when {@link #append} returns; concurrent appenders share a single fsync (group commit)
+ * - removals and reschedules are written but not forced, a crash may at worst deliver such item again
+ * - on open, a torn record at the end of the last segment (crash in the middle of a write) is truncated
+ * and appending continues in a fresh segment
+ * - segments whose items were all removed are deleted; when there are too many segments, the few live items of the oldest one
+ * are copied forward so it can be deleted as well
+ */
+final class SegmentedQueueLog implements Closeable {
+	private static final Logger logger = SDKBasedLoggerProvider.getLogger(SegmentedQueueLog.class);
+
+	static final int DEFAULT_SEGMENT_BYTES = 1024 * 1024;
+	static final int MAX_SEGMENTS = 8;
+
+	private static final String SUFFIX = ".seg";
+	private static final int MAGIC = 0x4F525131;
+	private static final int SEGMENT_HEADER = 12;
+	private static final int RECORD_HEADER = 9;
+	private static final int MAX_RECORD = 1024 * 1024;
+	private static final byte ADD = 1;
+	private static final byte REMOVE = 2;
+	private static final byte SCHEDULE = 3;
+	private static final byte ITEM_FORMAT = 1;
+
+	private final File dir;
+	private final int segmentBytes;
+
+	private final Object lock = new Object();
+	private final Object syncLock = new Object();
+	private final TreeMap<Long, Entry> entries = new TreeMap<>();
+	private final TreeMap<Long, Segment> segments = new TreeMap<>();
+	private final RecordBuffer batch = new RecordBuffer();
+	private final RecordBuffer record = new RecordBuffer();
+	private final DataOutputStream recordOut = new DataOutputStream(record);
+	private final ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER);
+	private final CRC32 crc = new CRC32();
+	private Segment active;
+	private long lastId;
+	private long writeSeq;
+	private long syncedSeq;
+	private boolean closed;
+
+	SegmentedQueueLog(File dir) throws IOException {
+		this(dir, DEFAULT_SEGMENT_BYTES);
+	}
+
+	SegmentedQueueLog(File dir, int segmentBytes) throws IOException {
+		this.dir = dir;
+		this.segmentBytes = segmentBytes;
+		if (!dir.isDirectory() && !dir.mkdirs()) {
+			throw new IOException("failed to create queue folder " + dir);
+		}
+
+		List<Long> numbers = listSegments();
+		for (int i = 0; i < numbers.size(); i++) {
+			Segment segment = new Segment(numbers.get(i), segmentFile(numbers.get(i)));
+			segments.put(segment.number, segment);
+			replay(segment, i == numbers.size() - 1);
+		}
+		//  only from the head: a later segment without live items may still hold removals of older items
+		while (!segments.isEmpty() && segments.firstEntry().getValue().live == 0) {
+			deleteSegment(segments.firstEntry().getValue());
+		}
+		//  never append behind a replayed tail, a new segment starts on a clean boundary
+		openSegment(numbers.isEmpty() ? 1 : numbers.get(numbers.size() - 1) + 1);
+	}
+
+	/**
+	 * appends the items at the tail, in the given order; returns once they are on disk
+	 */
+	void append(Collection<ResultQueue.QueueItem> items) throws IOException {
+		if (items.isEmpty()) {
+			return;
+		}
+		long ticket;
+		synchronized (lock) {
+			ensureOpen();
+			batch.reset();
+			long id = lastId;
+			for (ResultQueue.QueueItem item : items) {
+				startRecord();
+				recordOut.writeLong(++id);
+				writeItem(recordOut, item);
+				endRecord(ADD, batch);
+			}
+			writeBatch();
+
+			for (ResultQueue.QueueItem item : items) {
+				item.sequence = ++lastId;
+				entries.put(item.sequence, new Entry(item, active));
+				active.live++;
+			}
+			ticket = ++writeSeq;
+		}
+		sync(ticket);
+	}
+
+	/**
+	 * @return up to {@code max} items that are due at {@code now}, in queue order; items postponed past {@code now} are skipped
+	 * but keep their position
+	 */
+	List<ResultQueue.QueueItem> peek(int max, long now) {
+		synchronized (lock) {
+			List<ResultQueue.QueueItem> result = new ArrayList<>(Math.min(max, entries.size()));
+			for (Entry entry : entries.values()) {
+				if (result.size() >= max) {
+					break;
+				}
+				if (entry.item.sendAfter <= now) {
+					result.add(entry.item);
+				}
+			}
+			return result;
+		}
+	}
+
+	void remove(Collection<ResultQueue.QueueItem> items) throws IOException {
+		synchronized (lock) {
+			ensureOpen();
+			batch.reset();
+			List<Entry> removed = new ArrayList<>(items.size());
+			for (ResultQueue.QueueItem item : items) {
+				Entry entry = entries.get(item.sequence);
+				if (entry != null && entry.item == item) {
+					startRecord();
+					recordOut.writeLong(item.sequence);
+					endRecord(REMOVE, batch);
+					removed.add(entry);
+				}
+			}
+			if (removed.isEmpty()) {
+				return;
+			}
+			writeBatch();
+			for (Entry entry : removed) {
+				entries.remove(entry.item.sequence);
+				entry.segment.live--;
+			}
+			writeSeq++;
+			if (segments.firstEntry().getValue().live == 0) {
+				compact();
+			}
+		}
+	}
+
+	/**
+	 * updates the retry state of an item without moving it
+	 */
+	void schedule(ResultQueue.QueueItem item, int failCount, long sendAfter) throws IOException {
+		synchronized (lock) {
+			ensureOpen();
+			Entry entry = entries.get(item.sequence);
+			if (entry == null || entry.item != item) {
+				throw new IllegalStateException("item is not in the queue");
+			}
+			batch.reset();
+			startRecord();
+			recordOut.writeLong(item.sequence);
+			recordOut.writeInt(failCount);
+			recordOut.writeLong(sendAfter);
+			endRecord(SCHEDULE, batch);
+			writeBatch();
+			item.failCount = failCount;
+			item.sendAfter = sendAfter;
+			writeSeq++;
+		}
+	}
+
+	int size() {
+		synchronized (lock) {
+			return entries.size();
+		}
+	}
+
+	int segmentCount() {
+		synchronized (lock) {
+			return segments.size();
+		}
+	}
+
+	void clear() throws IOException {
+		synchronized (lock) {
+			ensureOpen();
+			long next = active.number + 1;
+			for (Segment segment : new ArrayList<>(segments.values())) {
+				deleteSegment(segment);
+			}
+			entries.clear();
+			openSegment(next);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		synchronized (lock) {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			active.channel.force(false);
+			active.channel.close();
+		}
+	}
+
+	private void sync(long ticket) throws IOException {
+		synchronized (syncLock) {
+			if (syncedSeq >= ticket) {
+				//  forced meanwhile by another appender
+				return;
+			}
+			FileChannel channel;
+			long target;
+			synchronized (lock) {
+				channel = active.channel;
+				target = writeSeq;
+			}
+			try {
+				channel.force(false);
+			} catch (ClosedChannelException e) {
+				//  the segment was rolled or the log closed meanwhile, both force the channel before closing it
+			}
+			syncedSeq = target;
+		}
+	}
+
+	private void startRecord() {
+		record.reset();
+	}
+
+	private void endRecord(byte type, RecordBuffer target) {
+		crc.reset();
+		crc.update(type);
+		crc.update(record.buffer(), 0, record.size());
+		header.clear();
+		header.putInt(record.size()).putInt((int) crc.getValue()).put(type);
+		target.write(header.array(), 0, RECORD_HEADER);
+		target.write(record.buffer(), 0, record.size());
+	}
+
+	private void writeBatch() throws IOException {
+		if (active.size > SEGMENT_HEADER && active.size + batch.size() > segmentBytes) {
+			roll();
+		}
+		ByteBuffer buffer = ByteBuffer.wrap(batch.buffer(), 0, batch.size());
+		while (buffer.hasRemaining()) {
+			active.channel.write(buffer);
+		}
+		active.size += batch.size();
+	}
+
+	private void roll() throws IOException {
+		Segment previous = active;
+		previous.channel.force(false);
+		previous.channel.close();
+		openSegment(previous.number + 1);
+		compact();
+	}
+
+	private void compact() throws IOException {
+		while (segments.size() > 1) {
+			Segment head = segments.firstEntry().getValue();
+			if (head == active) {
+				return;
+			}
+			if (head.live > 0) {
+				if (segments.size() <= MAX_SEGMENTS) {
+					return;
+				}
+				relocate(head);
+			}
+			deleteSegment(head);
+		}
+	}
+
+	/**
+	 * copies the live items of the segment forward as ADD records carrying their current state, so the segment can go
+	 */
+	private void relocate(Segment segment) throws IOException {
+		RecordBuffer pending = new RecordBuffer();
+		List<Entry> moved = new ArrayList<>(segment.live);
+		for (Entry entry : entries.values()) {
+			if (entry.segment == segment) {
+				startRecord();
+				recordOut.writeLong(entry.item.sequence);
+				writeItem(recordOut, entry.item);
+				endRecord(ADD, pending);
+				moved.add(entry);
+			}
+		}
+		ByteBuffer buffer = ByteBuffer.wrap(pending.buffer(), 0, pending.size());
+		while (buffer.hasRemaining()) {
+			active.channel.write(buffer);
+		}
+		active.size += pending.size();
+		active.channel.force(false);
+		for (Entry entry : moved) {
+			entry.segment = active;
+			active.live++;
+		}
+		segment.live = 0;
+		logger.info("moved " + moved.size() + " pending item(s) out of queue segment " + segment.file.getName());
+	}
+
+	private void openSegment(long number) throws IOException {
+		Segment segment = new Segment(number, segmentFile(number));
+		segment.channel = FileChannel.open(segment.file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER);
+		header.putInt(MAGIC).putLong(lastId).flip();
+		while (header.hasRemaining()) {
+			segment.channel.write(header);
+		}
+		segment.size = SEGMENT_HEADER;
+		segments.put(number, segment);
+		active = segment;
+	}
+
+	private void deleteSegment(Segment segment) throws IOException {
+		segments.remove(segment.number);
+		if (segment.channel != null) {
+			segment.channel.close();
+		}
+		Files.deleteIfExists(segment.file.toPath());
+	}
+
+	private void replay(Segment segment, boolean last) throws IOException {
+		byte[] data = Files.readAllBytes(segment.file.toPath());
+		ByteBuffer buffer = ByteBuffer.wrap(data);
+		int position = 0;
+		String problem = null;
+		if (data.length < SEGMENT_HEADER || buffer.getInt() != MAGIC) {
+			problem = "invalid segment header";
+		} else {
+			lastId = Math.max(lastId, buffer.getLong());
+			position = SEGMENT_HEADER;
+			while (position < data.length) {
+				if (data.length - position < RECORD_HEADER) {
+					problem = "incomplete record header";
+					break;
+				}
+				buffer.position(position);
+				int length = buffer.getInt();
+				int checksum = buffer.getInt();
+				byte type = buffer.get();
+				if (length < 0 || length > MAX_RECORD || data.length - position - RECORD_HEADER < length) {
+					problem = "incomplete record";
+					break;
+				}
+				crc.reset();
+				crc.update(type);
+				crc.update(data, position + RECORD_HEADER, length);
+				if ((int) crc.getValue() != checksum) {
+					problem = "checksum mismatch";
+					break;
+				}
+				apply(type, new DataInputStream(new ByteArrayInputStream(data, position + RECORD_HEADER, length)), segment);
+				position += RECORD_HEADER + length;
+			}
+		}
+
+		if (problem != null) {
+			if (last) {
+				//  the write that was in flight when the process died, it was never acknowledged
+				logger.warn("queue segment " + segment.file + ": " + problem + " at offset " + position + ", truncating the torn tail");
+				try (FileChannel channel = FileChannel.open(segment.file.toPath(), StandardOpenOption.WRITE)) {
+					channel.truncate(position);
+					channel.force(false);
+				}
+			} else {
+				logger.error("queue segment " + segment.file + ": " + problem + " at offset " + position + ", rest of the segment is skipped");
+			}
+		}
+		segment.size = position;
+	}
+
+	private void apply(byte type, DataInputStream in, Segment segment) throws IOException {
+		long id = in.readLong();
+		lastId = Math.max(lastId, id);
+		Entry entry;
+		switch (type) {
+			case ADD:
+				ResultQueue.QueueItem item = readItem(in);
+				item.sequence = id;
+				entry = entries.put(id, new Entry(item, segment));
+				if (entry != null) {
+					entry.segment.live--;
+				}
+				segment.live++;
+				break;
+			case REMOVE:
+				entry = entries.remove(id);
+				if (entry != null) {
+					entry.segment.live--;
+				}
+				break;
+			case SCHEDULE:
+				entry = entries.get(id);
+				if (entry != null) {
+					entry.item.failCount = in.readInt();
+					entry.item.sendAfter = in.readLong();
+				}
+				break;
+			default:
+				throw new IOException("unknown queue record type " + type);
+		}
+	}
+
+	private void ensureOpen() {
+		if (closed) {
+			throw new IllegalStateException("queue is closed");
+		}
+	}
+
+	private List<Long> listSegments() {
+		String[] names = dir.list();
+		List<Long> numbers = new ArrayList<>();
+		if (names != null) {
+			for (String name : names) {
+				if (name.endsWith(SUFFIX)) {
+					try {
+						numbers.add(Long.parseLong(name.substring(0, name.length() - SUFFIX.length())));
+					} catch (NumberFormatException nfe) {
+						logger.warn("ignoring foreign file in queue folder " + name);
+					}
+				}
+			}
+		}
+		Collections.sort(numbers);
+		return numbers;
+	}
+
+	private File segmentFile(long number) {
+		return new File(dir, String.format("%019d", number) + SUFFIX);
+	}
+
+	static void writeItem(DataOutputStream out, ResultQueue.QueueItem item) throws IOException {
+		out.writeByte(ITEM_FORMAT);
+		writeString(out, item.projectName);
+		out.writeInt(item.buildNumber);
+		out.writeInt(item.failCount);
+		out.writeLong(item.sendAfter);
+		writeString(out, item.type);
+		writeString(out, item.workspace);
+		writeString(out, item.instanceId);
+	}
+
+	static ResultQueue.QueueItem readItem(DataInputStream in) throws IOException {
+		byte format = in.readByte();
+		if (format != ITEM_FORMAT) {
+			throw new IOException("unsupported queue item format " + format);
+		}
+		String projectName = readString(in);
+		int buildNumber = in.readInt();
+		int failCount = in.readInt();
+		long sendAfter = in.readLong();
+		ResultQueue.QueueItem item = new ResultQueue.QueueItem(projectName, buildNumber, failCount);
+		item.sendAfter = sendAfter;
+		item.type = readString(in);
+		item.workspace = readString(in);
+		item.instanceId = readString(in);
+		return item;
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		if (value == null) {
+			out.writeInt(-1);
+		} else {
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static final class Segment {
+		private final long number;
+		private final File file;
+		private FileChannel channel;
+		private long size;
+		private int live;
+
+		private Segment(long number, File file) {
+			this.number = number;
+			this.file = file;
+		}
+	}
+
+	private static final class Entry {
+		private final ResultQueue.QueueItem item;
+		private Segment segment;
+
+		private Entry(ResultQueue.QueueItem item, Segment segment) {
+			this.item = item;
+			this.segment = segment;
+		}
+	}
+
+	private static final class RecordBuffer extends ByteArrayOutputStream {
+		private RecordBuffer() {
+			super(256);
+		}
+
+		private byte[] buffer() {
+			return buf;
+		}
+	}
+}
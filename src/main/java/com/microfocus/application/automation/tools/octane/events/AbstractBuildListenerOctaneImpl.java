@@ -113,7 +113,6 @@ public final class AbstractBuildListenerOctaneImpl extends RunListener<AbstractB
 
 	private void publishFinishEvent(AbstractBuild build) {
 		try {
-			boolean hasTests = testListener.processBuild(build);
 			CIEvent event = dtoFactory.newDTO(CIEvent.class)
 					.setEventType(CIEventType.FINISHED)
 					.setProject(BuildHandlerUtils.getJobCiId(build))
@@ -126,7 +125,6 @@ public final class AbstractBuildListenerOctaneImpl extends RunListener<AbstractB
 					.setParameters(ParameterProcessors.getInstances(build))
 					.setResult(BuildHandlerUtils.translateRunResult(build))
 					.setDuration(build.getDuration())
-					.setTestResultExpected(hasTests)
 					.setEnvironmentOutputtedParameters(OutputEnvironmentParametersHelper.getOutputEnvironmentParams(build));
 			CommonOriginRevision commonOriginRevision = getCommonOriginRevision(build);
 			if (commonOriginRevision != null) {
@@ -134,7 +132,8 @@ public final class AbstractBuildListenerOctaneImpl extends RunListener<AbstractB
 						.setCommonHashId(commonOriginRevision.revision)
 						.setBranchName(commonOriginRevision.branch);
 			}
-			CIJenkinsServicesImpl.publishEventToRelevantClients(event);
+			//  test results are processed off the finalization thread, the event is published right away
+			testListener.processBuildAsync(build, event);
 		} catch (Throwable throwable) {
 			logger.error("failed to build and/or dispatch FINISHED event for " + build, throwable);
 		}
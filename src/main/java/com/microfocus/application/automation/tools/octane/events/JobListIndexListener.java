@@ -0,0 +1,128 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.events;
+
+import com.hp.octane.integrations.dto.pipelines.PipelineNode;
+import com.hp.octane.integrations.utils.SdkStringUtils;
+import com.microfocus.application.automation.tools.octane.CIJenkinsServicesImpl;
+import com.microfocus.application.automation.tools.octane.configuration.SDKBasedLoggerProvider;
+import com.microfocus.application.automation.tools.octane.model.JobListIndex;
+import com.microfocus.application.automation.tools.octane.tests.AbstractSafeLoggingAsyncPeriodWork;
+import hudson.Extension;
+import hudson.model.Item;
+import hudson.model.ItemGroup;
+import hudson.model.Job;
+import hudson.model.TaskListener;
+import hudson.model.listeners.ItemListener;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Keeps the job list index of {@link CIJenkinsServicesImpl#getJobListIndex()} up to date with the item tree
+ */
+
+@Extension
+public class JobListIndexListener extends ItemListener {
+	private static final Logger logger = SDKBasedLoggerProvider.getLogger(JobListIndexListener.class);
+
+	@Override
+	public void onCreated(Item item) {
+		refresh(item);
+	}
+
+	@Override
+	public void onUpdated(Item item) {
+		// a multibranch project or a folder may have been disabled, so its jobs are refreshed too
+		refresh(item);
+	}
+
+	@Override
+	public void onDeleted(Item item) {
+		JobListIndex<PipelineNode> index = CIJenkinsServicesImpl.getJobListIndex();
+		if (item instanceof Job) {
+			index.remove(item.getFullName());
+		} else if (item instanceof ItemGroup) {
+			index.removeFolder(item.getFullName());
+		}
+	}
+
+	@Override
+	public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+		JobListIndex<PipelineNode> index = CIJenkinsServicesImpl.getJobListIndex();
+		if (item instanceof Job) {
+			index.remove(oldFullName);
+			refresh(item);
+		} else if (item instanceof ItemGroup) {
+			// the jobs of the folder get their own location change
+			index.removeFolder(oldFullName);
+		}
+	}
+
+	private static void refresh(Item item) {
+		JobListIndex<PipelineNode> index = CIJenkinsServicesImpl.getJobListIndex();
+		if (!index.isBuilt()) {
+			return;
+		}
+		try {
+			if (item instanceof Job) {
+				index.refresh(item.getFullName());
+			} else if (item instanceof ItemGroup) {
+				for (Job job : item.getAllJobs()) {
+					index.refresh(job.getFullName());
+				}
+			}
+		} catch (Throwable throwable) {
+			logger.error("failed to update the job list index for " + item, throwable);
+		}
+	}
+
+	/**
+	 * Repairs the job list index against the item tree, in case an item event was missed
+	 */
+	@Extension
+	public static class ConsistencyCheck extends AbstractSafeLoggingAsyncPeriodWork {
+
+		public ConsistencyCheck() {
+			super("Octane job list index consistency check");
+		}
+
+		@Override
+		protected void doExecute(TaskListener listener) {
+			CIJenkinsServicesImpl.getJobListIndex().checkConsistency();
+		}
+
+		@Override
+		public long getRecurrencePeriod() {
+			String value = System.getProperty("JobListIndex.ConsistencyCheckPeriod"); // default is 10 minutes
+			if (!SdkStringUtils.isEmpty(value)) {
+				return Long.parseLong(value);
+			}
+			return MIN * 10;
+		}
+	}
+}
@@ -56,9 +56,9 @@ import org.jenkinsci.plugins.workflow.flow.GraphListener;
 import org.jenkinsci.plugins.workflow.graph.FlowNode;
 import org.jenkinsci.plugins.workflow.job.WorkflowRun;
 
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Octane's listener for WorkflowRun events
@@ -78,7 +78,7 @@ public class WorkflowListenerOctaneImpl implements GraphListener {
 	//After upgrading Pipeline:Groovy plugin to Version 2.64: receive two start events, therefore
 	// pipeline job shows 2 bars for a single pipeline run.
 	// Here we add job key during start event and remove key in finished event
-	private static Set<String> workflowJobStarted = new HashSet<>();
+	private static final Set<String> workflowJobStarted = ConcurrentHashMap.newKeySet();
 	@Inject
 	private TestListener testListener;
 
@@ -109,10 +109,8 @@ public class WorkflowListenerOctaneImpl implements GraphListener {
 
 		//Avoid duplicate start events
 		String buildKey = getBuildKey(parentRun);
-		if (workflowJobStarted.contains(buildKey)) {
+		if (!workflowJobStarted.add(buildKey)) {
 			return;
-		} else {
-			workflowJobStarted.add(buildKey);
 		}
 
 		CIEvent event = dtoFactory.newDTO(CIEvent.class)
@@ -156,7 +154,6 @@ public class WorkflowListenerOctaneImpl implements GraphListener {
 
 	private void sendPipelineFinishedEvent(WorkflowRun parentRun) {
 		workflowJobStarted.remove(getBuildKey(parentRun));
-		boolean hasTests = testListener.processBuild(parentRun);
 
 		CIEvent event = dtoFactory.newDTO(CIEvent.class)
 				.setEventType(CIEventType.FINISHED)
@@ -169,9 +166,9 @@ public class WorkflowListenerOctaneImpl implements GraphListener {
 				.setDuration(parentRun.getDuration())
 				.setResult(BuildHandlerUtils.translateRunResult(parentRun))
 				.setCauses(CIEventCausesFactory.processCauses(parentRun))
-				.setTestResultExpected(hasTests)
 				.setEnvironmentOutputtedParameters(OutputEnvironmentParametersHelper.getOutputEnvironmentParams(parentRun));
-		CIJenkinsServicesImpl.publishEventToRelevantClients(event);
+		//  test results are processed off the CPS VM thread, the event is published right away
+		testListener.processBuildAsync(parentRun, event);
 	}
 
 	private void sendStageStartedEvent(StepStartNode stepStartNode) {
@@ -119,11 +119,6 @@ public class UftTestDiscoveryDispatcher extends AbstractSafeLoggingAsyncPeriodWo
         ResultQueue.QueueItem item = null;
         try {
             while ((item = queue.peekFirst()) != null) {
-                if (queueContainsPostponedItems(item)) {
-                    //all postponed items are in the end of queue, so it we encountered one postponed item, other postponed items will come after it, so we do break
-                    break;
-                }
-
                 Job project = (Job) Jenkins.get().getItemByFullName(item.getProjectName());
                 if (project == null) {
                     logger.warn("Project [" + item.getProjectName() + "] no longer exists, pending discovered tests can't be submitted");
@@ -157,10 +152,8 @@ public class UftTestDiscoveryDispatcher extends AbstractSafeLoggingAsyncPeriodWo
                 if (!client.getConfigurationService().isConnected()) {
                     logger.info(client.getConfigurationService().getConfiguration().getLocationForLog() +
                             " - Build [" + item.getProjectName() + "#" + item.getBuildNumber() + "] - octane is down , postponing sending UFT tests ");
-                    //if octane is down - put current item to the end of queue and try wth other items (that might be from another octane)
-                    item.setSendAfter(System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(1));
-                    queue.remove();
-                    queue.add(item);
+                    //if octane is down - postpone current item (it keeps its place) and try with other items (that might be from another octane)
+                    queue.postpone(System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(1));
                     continue;
                 }
 
@@ -187,14 +180,6 @@ public class UftTestDiscoveryDispatcher extends AbstractSafeLoggingAsyncPeriodWo
         }
     }
 
-    private boolean queueContainsPostponedItems(ResultQueue.QueueItem queueItem) {
-        if (queueItem.getSendAfter() > 0 && queueItem.getSendAfter() > System.currentTimeMillis()) {
-            //all postponed items are in the end of queue, so it we encountered one postponed item, other postponed items will come after it, so we do break
-            return true;
-        }
-        return false;
-    }
-
     public void close() {
         logger.info("stopping the UFT dispatcher and closing its queue");
         stopped = true;
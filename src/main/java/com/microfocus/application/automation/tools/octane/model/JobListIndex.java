@@ -0,0 +1,321 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.model;
+
+import com.microfocus.application.automation.tools.octane.configuration.SDKBasedLoggerProvider;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * In memory index of the jobs listed to Octane.
+ * <p>
+ * The index is built from the item tree once, on the first query, and then kept up to date by item events, so a
+ * jobs list request does not resolve and convert every job of the controller again. Each job is listed under a node
+ * name: its own full name, or the name of its multibranch project for a branch job. Nodes are kept sorted by name,
+ * so a page of a prefix query costs the size of the page and not the number of jobs.
+ * <p>
+ * The representation of a node is created when its first job is indexed. The representation with parameters is
+ * created on first use and kept until {@link #invalidateParameters()}. {@link #checkConsistency()} repairs the
+ * index against the live item tree, in case an event was missed.
+ *
+ * @param <N> the node representation
+ */
+public class JobListIndex<N> {
+	private static final Logger logger = SDKBasedLoggerProvider.getLogger(JobListIndex.class);
+
+	/**
+	 * Access to the live item tree.
+	 */
+	public interface Resolver<N> {
+
+		/**
+		 * @return the full names of all the jobs
+		 */
+		Collection<String> getJobNames();
+
+		/**
+		 * @return the name of the node the job is listed under, null if the job is not listed
+		 */
+		String getNodeName(String jobName);
+
+		/**
+		 * Creates the representation of a node from one of its jobs.
+		 */
+		N createNode(String nodeName, String jobName, boolean includeParameters);
+	}
+
+	private final Resolver<N> resolver;
+	// node name -> node
+	private final ConcurrentSkipListMap<String, Node<N>> nodes = new ConcurrentSkipListMap<>();
+	// job full name -> node name
+	private final ConcurrentSkipListMap<String, String> jobs = new ConcurrentSkipListMap<>();
+	private final AtomicInteger parametersGeneration = new AtomicInteger();
+	private volatile boolean built;
+
+	public JobListIndex(Resolver<N> resolver) {
+		this.resolver = resolver;
+	}
+
+	/**
+	 * Lists the visible nodes whose name starts with the prefix, in name order.
+	 *
+	 * @param prefix            the name prefix, empty for all nodes
+	 * @param offset            the number of visible nodes to skip
+	 * @param limit             the maximal number of nodes to return
+	 * @param includeParameters whether to return the representation with parameters
+	 * @param visible           filter on the node name, for the permissions of the current user
+	 * @return the nodes of the page
+	 */
+	public List<N> query(String prefix, int offset, int limit, boolean includeParameters, Predicate<String> visible) {
+		ensureBuilt();
+		List<N> result = new ArrayList<>(Math.min(limit, 64));
+		int skipped = 0;
+		for (Map.Entry<String, Node<N>> entry : nodes.tailMap(prefix, true).entrySet()) {
+			if (result.size() >= limit || !entry.getKey().startsWith(prefix)) {
+				break;
+			}
+			if (!visible.test(entry.getKey())) {
+				continue;
+			}
+			if (skipped < offset) {
+				skipped++;
+				continue;
+			}
+			N node = getNode(entry.getValue(), includeParameters);
+			if (node != null) {
+				result.add(node);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Lists all the visible nodes, in name order.
+	 */
+	public List<N> getAll(boolean includeParameters, Predicate<String> visible) {
+		return query("", 0, Integer.MAX_VALUE, includeParameters, visible);
+	}
+
+	/**
+	 * Indexes a created or updated job again.
+	 */
+	public synchronized void refresh(String jobName) {
+		if (!built) {
+			return;
+		}
+		removeJob(jobName);
+		addJob(jobName);
+	}
+
+	/**
+	 * Removes a deleted or renamed job.
+	 */
+	public synchronized void remove(String jobName) {
+		if (!built) {
+			return;
+		}
+		removeJob(jobName);
+	}
+
+	/**
+	 * Removes all the jobs of a deleted or renamed folder.
+	 */
+	public synchronized void removeFolder(String folderName) {
+		if (!built) {
+			return;
+		}
+		String prefix = folderName + "/";
+		for (String jobName : new ArrayList<>(jobs.subMap(prefix, true, prefix + Character.MAX_VALUE, false).keySet())) {
+			removeJob(jobName);
+		}
+	}
+
+	/**
+	 * Drops the representations with parameters, for example when the dependencies between jobs changed.
+	 */
+	public void invalidateParameters() {
+		parametersGeneration.incrementAndGet();
+	}
+
+	/**
+	 * Compares the index with the live item tree and fixes the differences.
+	 *
+	 * @return the number of jobs that were fixed
+	 */
+	public synchronized int checkConsistency() {
+		if (!built) {
+			return 0;
+		}
+		Set<String> liveJobs = new HashSet<>(resolver.getJobNames());
+		int fixed = 0;
+		for (String jobName : new ArrayList<>(jobs.keySet())) {
+			if (!liveJobs.contains(jobName)) {
+				removeJob(jobName);
+				fixed++;
+			}
+		}
+		for (String jobName : liveJobs) {
+			String nodeName = getNodeName(jobName);
+			if (!Objects.equals(nodeName, jobs.get(jobName))) {
+				removeJob(jobName);
+				addJob(jobName, nodeName);
+				fixed++;
+			}
+		}
+		if (fixed > 0) {
+			logger.warn("job list index was not consistent with the item tree, fixed " + fixed + " jobs");
+		}
+		return fixed;
+	}
+
+	public boolean isBuilt() {
+		return built;
+	}
+
+	/**
+	 * @return the number of indexed jobs
+	 */
+	public int size() {
+		return jobs.size();
+	}
+
+	private void ensureBuilt() {
+		if (!built) {
+			synchronized (this) {
+				if (!built) {
+					long start = System.currentTimeMillis();
+					for (String jobName : resolver.getJobNames()) {
+						addJob(jobName);
+					}
+					built = true;
+					logger.info("job list index built with " + jobs.size() + " jobs in " + (System.currentTimeMillis() - start) + " ms");
+				}
+			}
+		}
+	}
+
+	private N getNode(Node<N> node, boolean includeParameters) {
+		if (!includeParameters) {
+			return node.node;
+		}
+		int generation = parametersGeneration.get();
+		N withParameters = node.withParameters;
+		if (withParameters == null || node.withParametersGeneration != generation) {
+			withParameters = createNode(node.name, node.jobName, true);
+			if (withParameters == null) {
+				return null;
+			}
+			node.withParametersGeneration = generation;
+			node.withParameters = withParameters;
+		}
+		return withParameters;
+	}
+
+	private void addJob(String jobName) {
+		addJob(jobName, getNodeName(jobName));
+	}
+
+	private void addJob(String jobName, String nodeName) {
+		if (nodeName == null) {
+			return;
+		}
+		Node<N> node = nodes.get(nodeName);
+		if (node == null) {
+			N representation = createNode(nodeName, jobName, false);
+			if (representation == null) {
+				return;
+			}
+			node = new Node<>(nodeName, jobName, representation);
+			nodes.put(nodeName, node);
+		}
+		node.jobs.add(jobName);
+		jobs.put(jobName, nodeName);
+	}
+
+	private void removeJob(String jobName) {
+		String nodeName = jobs.remove(jobName);
+		if (nodeName == null) {
+			return;
+		}
+		Node<N> node = nodes.get(nodeName);
+		if (node == null) {
+			return;
+		}
+		node.jobs.remove(jobName);
+		if (node.jobs.isEmpty()) {
+			nodes.remove(nodeName);
+		} else if (jobName.equals(node.jobName)) {
+			node.jobName = node.jobs.iterator().next();
+		}
+	}
+
+	private String getNodeName(String jobName) {
+		try {
+			return resolver.getNodeName(jobName);
+		} catch (Throwable e) {
+			logger.error("failed to index job '" + jobName + "'", e);
+			return null;
+		}
+	}
+
+	private N createNode(String nodeName, String jobName, boolean includeParameters) {
+		try {
+			return resolver.createNode(nodeName, jobName, includeParameters);
+		} catch (Throwable e) {
+			logger.error("failed to add job '" + jobName + "' to JobList", e);
+			return null;
+		}
+	}
+
+	private static final class Node<N> {
+		private final String name;
+		private final N node;
+		// guarded by the index
+		private final Set<String> jobs = new HashSet<>();
+		private volatile String jobName;
+		private volatile N withParameters;
+		private volatile int withParametersGeneration;
+
+		private Node(String name, String jobName, N node) {
+			this.name = name;
+			this.jobName = jobName;
+			this.node = node;
+		}
+	}
+}
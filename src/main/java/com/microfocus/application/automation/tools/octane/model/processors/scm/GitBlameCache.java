@@ -0,0 +1,567 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.model.processors.scm;
+
+import com.microfocus.application.automation.tools.octane.configuration.SDKBasedLoggerProvider;
+import org.apache.logging.log4j.Logger;
+import org.eclipse.jgit.api.BlameCommand;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.blame.BlameResult;
+import org.eclipse.jgit.diff.Edit;
+import org.eclipse.jgit.diff.EditList;
+import org.eclipse.jgit.diff.HistogramDiff;
+import org.eclipse.jgit.diff.RawText;
+import org.eclipse.jgit.diff.RawTextComparator;
+import org.eclipse.jgit.errors.MissingObjectException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevTree;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.TreeWalk;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Persistent blame cache of the line enricher, kept next to the repository in the workspace.
+ * <p>
+ * An entry holds the source commit of every line of a file, for the file blob at a commit: it is keyed and named by
+ * the hash of (path, blob id, commit id). When the file is blamed at a newer commit, the blame is computed from the
+ * last entry of the file by applying the diff of every commit that changed the file in between, the same way the
+ * JGit blame splits regions between a commit and its parent. When the history between both commits is not a chain
+ * that JGit would follow region by region (a merge that differs from all its parents, a rename, too many commits),
+ * the file is blamed from scratch.
+ * <p>
+ * Entries are evicted least recently used first when the cache exceeds its size budget. The cache is best effort: a
+ * failure to read or write it only costs a full blame.
+ */
+class GitBlameCache implements Closeable {
+	private static final Logger logger = SDKBasedLoggerProvider.getLogger(GitBlameCache.class);
+
+	static final String DIRECTORY_NAME = "octane-blame-cache";
+	static final long DEFAULT_MAX_SIZE = Long.getLong("octane.blameCache.maxSize", 64L * 1024 * 1024);
+	static final int MAX_INCREMENTAL_COMMITS = 5000;
+
+	private static final String INDEX_FILE = "index";
+	private static final String ENTRY_SUFFIX = ".blame";
+	private static final int ENTRY_MAGIC = 0x424c4d31;
+
+	private final File directory;
+	private final long maxSize;
+	private final Map<String, Entry> entries = new HashMap<>();
+	private final Map<String, List<Entry>> entriesByPath = new HashMap<>();
+	private long clock;
+	private boolean dirty;
+
+	private int hits;
+	private int incremental;
+	private int computed;
+
+	/**
+	 * @param directory the cache directory, null for a cache that keeps nothing
+	 * @param maxSize   the size budget of the entries, in bytes
+	 */
+	GitBlameCache(File directory, long maxSize) {
+		this.directory = directory;
+		this.maxSize = maxSize;
+		if (directory != null) {
+			loadIndex();
+		}
+	}
+
+	/**
+	 * Blames a file at a commit.
+	 *
+	 * @return the source commit of every line of the file, null when the file does not exist at the commit
+	 */
+	ObjectId[] blame(Repository repo, RevCommit commit, String path) throws IOException, GitAPIException {
+		ObjectId blob;
+		try (ObjectReader reader = repo.newObjectReader()) {
+			blob = findBlob(reader, commit.getTree(), path);
+		}
+		if (blob == null) {
+			return null;
+		}
+
+		String name = entryName(path, blob, commit);
+		Entry exact = entries.get(name);
+		if (exact != null) {
+			ObjectId[] lines = readEntry(exact);
+			if (lines != null) {
+				touch(exact);
+				hits++;
+				return lines;
+			}
+		}
+
+		Entry previous = getLatestEntry(path);
+		ObjectId[] lines = previous == null ? null : blameIncrementally(repo, commit, blob, previous);
+		if (lines != null) {
+			incremental++;
+		} else {
+			lines = blameFully(repo, commit, path);
+			if (lines == null) {
+				return null;
+			}
+			computed++;
+		}
+		store(new Entry(name, path, blob, commit.copy()), lines);
+		return lines;
+	}
+
+	/**
+	 * Writes the index and applies the size budget.
+	 */
+	@Override
+	public void close() {
+		logger.debug("Line enricher: blame cache hits " + hits + ", incremental " + incremental + ", computed " + computed);
+		if (directory == null) {
+			return;
+		}
+		try {
+			evict();
+			if (dirty) {
+				writeIndex();
+			}
+		} catch (IOException e) {
+			logger.warn("Line enricher: failed to save blame cache in " + directory + " : " + e.getMessage());
+		}
+	}
+
+	int getHits() {
+		return hits;
+	}
+
+	int getIncremental() {
+		return incremental;
+	}
+
+	int getComputed() {
+		return computed;
+	}
+
+	long getSize() {
+		long size = 0;
+		for (Entry entry : entries.values()) {
+			size += entry.size;
+		}
+		return size;
+	}
+
+	static ObjectId[] blameFully(Repository repo, ObjectId commit, String path) throws GitAPIException {
+		BlameCommand blamer = new BlameCommand(repo);
+		blamer.setStartCommit(commit);
+		blamer.setFilePath(path);
+		BlameResult blameResult = blamer.call();
+		if (blameResult == null) {
+			return null;
+		}
+		int fileSize = blameResult.getResultContents().size();
+		ObjectId[] lines = new ObjectId[fileSize];
+		for (int i = 0; i < fileSize; i++) {
+			lines[i] = blameResult.getSourceCommit(i);
+		}
+		return lines;
+	}
+
+	private ObjectId[] blameIncrementally(Repository repo, RevCommit commit, ObjectId blob, Entry previous) throws IOException {
+		try (RevWalk walk = new RevWalk(repo);
+		     ObjectReader reader = walk.getObjectReader()) {
+			RevCommit start = walk.parseCommit(commit);
+			RevCommit base;
+			try {
+				base = walk.parseCommit(previous.commit);
+			} catch (MissingObjectException e) {
+				// history was rewritten
+				return null;
+			}
+
+			// commits reachable from the commit but not from the cached one
+			Set<ObjectId> range = new HashSet<>();
+			walk.markStart(start);
+			walk.markUninteresting(base);
+			for (RevCommit c : walk) {
+				range.add(c.copy());
+				if (range.size() > MAX_INCREMENTAL_COMMITS) {
+					return null;
+				}
+			}
+
+			// follow the file down to the cached commit, like the blame does: a commit passes all its lines to a
+			// parent with the same blob, otherwise a single parent gets the lines its diff keeps
+			List<ObjectId[]> changes = new ArrayList<>();
+			RevCommit current = start;
+			ObjectId currentBlob = blob;
+			while (!current.equals(base)) {
+				if (!range.contains(current) || current.getParentCount() == 0) {
+					return null;
+				}
+				RevCommit next = null;
+				ObjectId nextBlob = null;
+				if (current.getParentCount() == 1) {
+					next = walk.parseCommit(current.getParent(0));
+					nextBlob = findBlob(reader, next.getTree(), previous.path);
+					if (nextBlob == null) {
+						return null;
+					}
+					if (!nextBlob.equals(currentBlob)) {
+						changes.add(new ObjectId[]{current.copy(), nextBlob, currentBlob});
+					}
+				} else {
+					for (RevCommit parent : current.getParents()) {
+						RevCommit parsed = walk.parseCommit(parent);
+						ObjectId parentBlob = findBlob(reader, parsed.getTree(), previous.path);
+						if (currentBlob.equals(parentBlob)) {
+							next = parsed;
+							nextBlob = parentBlob;
+							break;
+						}
+					}
+					if (next == null) {
+						return null;
+					}
+				}
+				current = next;
+				currentBlob = nextBlob;
+			}
+			if (!currentBlob.equals(previous.blob)) {
+				return null;
+			}
+
+			ObjectId[] lines = readEntry(previous);
+			for (int i = changes.size() - 1; i >= 0 && lines != null; i--) {
+				ObjectId[] change = changes.get(i);
+				lines = applyChange(reader, lines, change[0], change[1], change[2]);
+			}
+			return lines;
+		}
+	}
+
+	/**
+	 * Blames the lines a commit changed on the commit, the other lines keep the blame of the parent.
+	 */
+	private static ObjectId[] applyChange(ObjectReader reader, ObjectId[] parentLines, ObjectId commit, ObjectId parentBlob, ObjectId blob) throws IOException {
+		RawText parentText = new RawText(reader.open(parentBlob, Constants.OBJ_BLOB).getCachedBytes(Integer.MAX_VALUE));
+		RawText text = new RawText(reader.open(blob, Constants.OBJ_BLOB).getCachedBytes(Integer.MAX_VALUE));
+		if (parentText.size() != parentLines.length) {
+			return null;
+		}
+		EditList edits = new HistogramDiff().diff(RawTextComparator.DEFAULT, parentText, text);
+		ObjectId[] lines = new ObjectId[text.size()];
+		int parentLine = 0;
+		int line = 0;
+		for (Edit edit : edits) {
+			while (line < edit.getBeginB()) {
+				lines[line++] = parentLines[parentLine++];
+			}
+			while (line < edit.getEndB()) {
+				lines[line++] = commit;
+			}
+			parentLine = edit.getEndA();
+		}
+		while (line < lines.length) {
+			lines[line++] = parentLines[parentLine++];
+		}
+		return lines;
+	}
+
+	private static ObjectId findBlob(ObjectReader reader, RevTree tree, String path) throws IOException {
+		try (TreeWalk treeWalk = TreeWalk.forPath(reader, path, tree)) {
+			return treeWalk == null ? null : treeWalk.getObjectId(0);
+		}
+	}
+
+	private Entry getLatestEntry(String path) {
+		List<Entry> pathEntries = entriesByPath.get(path);
+		return pathEntries == null || pathEntries.isEmpty() ? null : Collections.max(pathEntries, Comparator.comparingLong(e -> e.lastUse));
+	}
+
+	private void touch(Entry entry) {
+		entry.lastUse = ++clock;
+		dirty = true;
+	}
+
+	private void store(Entry entry, ObjectId[] lines) {
+		if (directory == null) {
+			return;
+		}
+		for (ObjectId line : lines) {
+			if (line == null) {
+				return;
+			}
+		}
+		try {
+			entry.size = writeEntry(entry, lines);
+			Entry replaced = entries.put(entry.name, entry);
+			if (replaced != null) {
+				entriesByPath.get(replaced.path).remove(replaced);
+			}
+			entriesByPath.computeIfAbsent(entry.path, p -> new ArrayList<>()).add(entry);
+			touch(entry);
+		} catch (IOException e) {
+			logger.warn("Line enricher: failed to cache blame of " + entry.path + " : " + e.getMessage());
+		}
+	}
+
+	private long writeEntry(Entry entry, ObjectId[] lines) throws IOException {
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("failed to create " + directory);
+		}
+		// the source commits as a table and runs of lines that have the same one
+		Map<ObjectId, Integer> commitIndexes = new IdentityHashMap<>();
+		List<ObjectId> commits = new ArrayList<>();
+		List<int[]> runs = new ArrayList<>();
+		Map<ObjectId, Integer> byValue = new HashMap<>();
+		for (int i = 0; i < lines.length; i++) {
+			Integer index = commitIndexes.get(lines[i]);
+			if (index == null) {
+				index = byValue.get(lines[i]);
+				if (index == null) {
+					index = commits.size();
+					commits.add(lines[i]);
+					byValue.put(lines[i].copy(), index);
+				}
+				commitIndexes.put(lines[i], index);
+			}
+			if (!runs.isEmpty() && runs.get(runs.size() - 1)[0] == index) {
+				runs.get(runs.size() - 1)[1]++;
+			} else {
+				runs.add(new int[]{index, 1});
+			}
+		}
+
+		File tmp = new File(directory, entry.name + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp.toPath())))) {
+			out.writeInt(ENTRY_MAGIC);
+			out.writeUTF(entry.path);
+			writeId(out, entry.blob);
+			writeId(out, entry.commit);
+			out.writeInt(lines.length);
+			out.writeInt(commits.size());
+			for (ObjectId c : commits) {
+				writeId(out, c);
+			}
+			out.writeInt(runs.size());
+			for (int[] run : runs) {
+				out.writeInt(run[0]);
+				out.writeInt(run[1]);
+			}
+		}
+		File target = new File(directory, entry.name + ENTRY_SUFFIX);
+		move(tmp, target);
+		return target.length();
+	}
+
+	private ObjectId[] readEntry(Entry entry) {
+		File file = new File(directory, entry.name + ENTRY_SUFFIX);
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+			if (in.readInt() != ENTRY_MAGIC || !entry.path.equals(in.readUTF())
+					|| !entry.blob.equals(readId(in)) || !entry.commit.equals(readId(in))) {
+				throw new IOException("unexpected content");
+			}
+			ObjectId[] lines = new ObjectId[in.readInt()];
+			ObjectId[] commits = new ObjectId[in.readInt()];
+			for (int i = 0; i < commits.length; i++) {
+				commits[i] = readId(in);
+			}
+			int line = 0;
+			for (int runCount = in.readInt(); runCount > 0; runCount--) {
+				ObjectId c = commits[in.readInt()];
+				for (int length = in.readInt(); length > 0; length--) {
+					lines[line++] = c;
+				}
+			}
+			if (line != lines.length) {
+				throw new IOException("truncated");
+			}
+			return lines;
+		} catch (IOException | RuntimeException e) {
+			logger.warn("Line enricher: dropping unreadable blame cache entry " + file + " : " + e.getMessage());
+			remove(entry);
+			return null;
+		}
+	}
+
+	private void remove(Entry entry) {
+		entries.remove(entry.name);
+		List<Entry> pathEntries = entriesByPath.get(entry.path);
+		if (pathEntries != null) {
+			pathEntries.remove(entry);
+		}
+		dirty = true;
+		try {
+			Files.deleteIfExists(new File(directory, entry.name + ENTRY_SUFFIX).toPath());
+		} catch (IOException e) {
+			logger.warn("Line enricher: failed to delete blame cache entry " + entry.name + " : " + e.getMessage());
+		}
+	}
+
+	private void evict() throws IOException {
+		long size = getSize();
+		if (size > maxSize) {
+			List<Entry> leastRecentlyUsed = new ArrayList<>(entries.values());
+			leastRecentlyUsed.sort(Comparator.comparingLong(e -> e.lastUse));
+			for (Entry entry : leastRecentlyUsed) {
+				if (size <= maxSize) {
+					break;
+				}
+				size -= entry.size;
+				remove(entry);
+			}
+		}
+		// entries of runs that stopped before writing the index
+		File[] files = directory.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				String fileName = file.getName();
+				if (fileName.endsWith(".tmp") || (fileName.endsWith(ENTRY_SUFFIX)
+						&& !entries.containsKey(fileName.substring(0, fileName.length() - ENTRY_SUFFIX.length())))) {
+					Files.deleteIfExists(file.toPath());
+				}
+			}
+		}
+	}
+
+	private void loadIndex() {
+		File index = new File(directory, INDEX_FILE);
+		if (!index.isFile()) {
+			return;
+		}
+		try (BufferedReader reader = Files.newBufferedReader(index.toPath(), StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				// name commit blob lastUse size path
+				String[] fields = line.split(" ", 6);
+				if (fields.length != 6) {
+					continue;
+				}
+				Entry entry = new Entry(fields[0], fields[5], ObjectId.fromString(fields[2]), ObjectId.fromString(fields[1]));
+				entry.lastUse = Long.parseLong(fields[3]);
+				entry.size = Long.parseLong(fields[4]);
+				entries.put(entry.name, entry);
+				entriesByPath.computeIfAbsent(entry.path, p -> new ArrayList<>()).add(entry);
+				clock = Math.max(clock, entry.lastUse);
+			}
+		} catch (IOException | RuntimeException e) {
+			logger.warn("Line enricher: blame cache index " + index + " is not readable, starting empty : " + e.getMessage());
+			entries.clear();
+			entriesByPath.clear();
+		}
+	}
+
+	private void writeIndex() throws IOException {
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("failed to create " + directory);
+		}
+		File tmp = new File(directory, INDEX_FILE + ".tmp");
+		try (Writer writer = new BufferedWriter(Files.newBufferedWriter(tmp.toPath(), StandardCharsets.UTF_8))) {
+			for (Entry entry : entries.values()) {
+				writer.write(entry.name + " " + entry.commit.name() + " " + entry.blob.name() + " " + entry.lastUse + " " + entry.size + " " + entry.path + "\n");
+			}
+		}
+		move(tmp, new File(directory, INDEX_FILE));
+		dirty = false;
+	}
+
+	private static void move(File source, File target) throws IOException {
+		try {
+			Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	private static void writeId(OutputStream out, ObjectId id) throws IOException {
+		id.copyRawTo(out);
+	}
+
+	private static ObjectId readId(InputStream in) throws IOException {
+		byte[] raw = new byte[Constants.OBJECT_ID_LENGTH];
+		new DataInputStream(in).readFully(raw);
+		return ObjectId.fromRaw(raw);
+	}
+
+	static String entryName(String path, ObjectId blob, ObjectId commit) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-1");
+			digest.update(path.getBytes(StandardCharsets.UTF_8));
+			digest.update((byte) 0);
+			digest.update(blob.name().getBytes(StandardCharsets.US_ASCII));
+			digest.update((byte) 0);
+			digest.update(commit.name().getBytes(StandardCharsets.US_ASCII));
+			return ObjectId.fromRaw(digest.digest()).name();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static final class Entry {
+		private final String name;
+		private final String path;
+		private final ObjectId blob;
+		private final ObjectId commit;
+		private long lastUse;
+		private long size;
+
+		private Entry(String name, String path, ObjectId blob, ObjectId commit) {
+			this.name = name;
+			this.path = path;
+			this.blob = blob;
+			this.commit = commit;
+		}
+	}
+}
@@ -53,10 +53,8 @@ import jenkins.MasterToSlaveFileCallable;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.reflect.FieldUtils;
 import org.apache.logging.log4j.Logger;
-import org.eclipse.jgit.api.BlameCommand;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.errors.GitAPIException;
-import org.eclipse.jgit.blame.BlameResult;
 import org.eclipse.jgit.diff.*;
 import org.eclipse.jgit.errors.NoMergeBaseException;
 import org.eclipse.jgit.internal.JGitText;
@@ -360,7 +358,8 @@ class GitSCMProcessor implements SCMProcessor {
 		public SCMData invoke(File rootDir, VirtualChannel channel) throws IOException {
 			File repoDir = new File(rootDir, checkoutDir + File.separator + ".git");
 			try (Git git = Git.open(repoDir);
-			     Repository repo = git.getRepository()) {
+			     Repository repo = git.getRepository();
+			     GitBlameCache blameCache = new GitBlameCache(new File(repoDir, GitBlameCache.DIRECTORY_NAME), GitBlameCache.DEFAULT_MAX_SIZE)) {
 				if (repo == null) {
 					return null;
 				}
@@ -373,7 +372,7 @@ class GitSCMProcessor implements SCMProcessor {
 
 					//add blame data to scm data
 					Set<String> committedFiles = getAddedOrEditedFiles(scmData);
-					List<SCMFileBlame> fileBlameList = getBlameData(repo, committedFiles);
+					List<SCMFileBlame> fileBlameList = getBlameData(repo, committedFiles, blameCache);
 					scmData.setFileBlameList(fileBlameList);
 
 					for (SCMCommit curCommit : scmData.getCommits()) {
@@ -429,38 +428,16 @@ class GitSCMProcessor implements SCMProcessor {
 		return filesCommittedInPPR;
 	}
 
-	private static List<SCMFileBlame> getBlameData(Repository repo, Set<String> files) {
-		BlameCommand blamer = new BlameCommand(repo);
+	private static List<SCMFileBlame> getBlameData(Repository repo, Set<String> files, GitBlameCache blameCache) {
 		List<SCMFileBlame> fileBlameList = new ArrayList<>();
-		ObjectId commitID;
-		try {
-			commitID = repo.resolve(Constants.HEAD);
+		try (RevWalk rw = new RevWalk(repo)) {
+			RevCommit head = rw.parseCommit(repo.resolve(Constants.HEAD));
 			for (String filePath : files) {
-				blamer.setStartCommit(commitID);
-				blamer.setFilePath(filePath);
-				BlameResult blameResult = blamer.call();
-				if (blameResult == null) {
+				ObjectId[] sourceCommits = blameCache.blame(repo, head, filePath);
+				if (sourceCommits == null) {
 					continue;
 				}
-				RawText rawText = blameResult.getResultContents();
-				int fileSize = rawText.size();
-
-				RevisionsMap revisionsMap = new RevisionsMap();
-
-				if (fileSize > 0) {
-					String startRangeRevision = blameResult.getSourceCommit(0).getName();
-					int startRange = 1;
-					for (int i = 1; i < fileSize; i++) {
-						String currentRevision = blameResult.getSourceCommit(i).getName();
-						if (!currentRevision.equals(startRangeRevision)) {
-							LineRange range = new LineRange(startRange, i);//line numbers starting from 1 not from 0.
-							revisionsMap.addRangeToRevision(startRangeRevision, range);
-							startRange = i + 1;
-							startRangeRevision = currentRevision;
-						}
-					}
-				}
-				fileBlameList.add(new SCMFileBlameImpl(filePath, revisionsMap));
+				fileBlameList.add(new SCMFileBlameImpl(filePath, toRevisionsMap(sourceCommits)));
 			}
 		} catch (IOException e) {
 			logger.error("failed to resolve repo head", e);
@@ -470,6 +447,26 @@ class GitSCMProcessor implements SCMProcessor {
 		return fileBlameList;
 	}
 
+	static RevisionsMap toRevisionsMap(ObjectId[] sourceCommits) {
+		int fileSize = sourceCommits.length;
+		RevisionsMap revisionsMap = new RevisionsMap();
+
+		if (fileSize > 0) {
+			String startRangeRevision = sourceCommits[0].getName();
+			int startRange = 1;
+			for (int i = 1; i < fileSize; i++) {
+				String currentRevision = sourceCommits[i].getName();
+				if (!currentRevision.equals(startRangeRevision)) {
+					LineRange range = new LineRange(startRange, i);//line numbers starting from 1 not from 0.
+					revisionsMap.addRangeToRevision(startRangeRevision, range);
+					startRange = i + 1;
+					startRangeRevision = currentRevision;
+				}
+			}
+		}
+		return revisionsMap;
+	}
+
 	private static void handleModifyDiff(EditList fileEdits, SCMChange scmChange) {
 		if (scmChange != null) {
 			for (Edit edit : fileEdits) {
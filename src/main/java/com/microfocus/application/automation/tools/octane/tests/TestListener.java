@@ -29,16 +29,23 @@
 package com.microfocus.application.automation.tools.octane.tests;
 
 import com.hp.octane.integrations.OctaneSDK;
+import com.hp.octane.integrations.dto.events.CIEvent;
+import com.microfocus.application.automation.tools.octane.CIJenkinsServicesImpl;
 import com.microfocus.application.automation.tools.octane.configuration.SDKBasedLoggerProvider;
 import com.microfocus.application.automation.tools.octane.tests.build.BuildHandlerUtils;
 import com.microfocus.application.automation.tools.octane.tests.xml.TestResultXmlWriter;
 import hudson.Extension;
 import hudson.FilePath;
+import hudson.model.Job;
 import hudson.model.Run;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
 import jenkins.model.Jenkins;
 import org.apache.logging.log4j.Logger;
 
 import javax.xml.stream.XMLStreamException;
+import java.io.File;
+import java.io.IOException;
 
 /**
  * Jenkins events life cycle listener for processing test results on build completed
@@ -49,7 +56,85 @@ public class TestListener {
 	private static Logger logger = SDKBasedLoggerProvider.getLogger(TestListener.class);
 
 	public static final String TEST_RESULT_FILE = "mqmTests.xml";
+	private static final String PROCESSING_JOURNAL_FOLDER = "testProcessingJournal";
 
+	private TestProcessingExecutor processingExecutor;
+
+	/**
+	 * Publishes the FINISHED event (if any) right away and queues the test results of the completed run for processing
+	 * on the test processing workers. Runs of the same job are processed in the order they were queued.
+	 */
+	public void processBuildAsync(Run run, CIEvent finishedEvent) {
+		if (finishedEvent != null) {
+			finishedEvent.setTestResultExpected(expectsTestResults(run));
+			CIJenkinsServicesImpl.publishEventToRelevantClients(finishedEvent);
+		}
+		try {
+			getProcessingExecutor().submit(run.getParent().getFullName(), run.getNumber());
+		} catch (IOException | RuntimeException e) {
+			logger.error("failed to queue " + run + " for test results processing, processing it in place", e);
+			processBuild(run);
+		}
+	}
+
+	/**
+	 * tells whether a test results report is expected for the run, without reading it;
+	 * the test results actions of the run are checked only
+	 */
+	public boolean expectsTestResults(Run run) {
+		for (OctaneTestsExtension ext : OctaneTestsExtension.all()) {
+			try {
+				if (ext.supports(run)) {
+					return true;
+				}
+			} catch (IOException e) {
+				logger.error("failed to check the test results of " + run, e);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * resumes the processing that was queued but not completed before the last controller shutdown
+	 */
+	public void recoverPendingProcessing() {
+		try {
+			getProcessingExecutor().recover();
+		} catch (IOException ioe) {
+			logger.error("failed to recover pending test results processing", ioe);
+		}
+	}
+
+	public synchronized void stopProcessing() {
+		if (processingExecutor != null) {
+			processingExecutor.stop();
+			processingExecutor = null;
+		}
+	}
+
+	private synchronized TestProcessingExecutor getProcessingExecutor() throws IOException {
+		if (processingExecutor == null) {
+			File journalFolder = new File(CIJenkinsServicesImpl.getAllowedStorageFile(), PROCESSING_JOURNAL_FOLDER);
+			processingExecutor = new TestProcessingExecutor(new TestProcessingJournal(journalFolder), this::process,
+					TestProcessingExecutor.DEFAULT_THREADS, TestProcessingExecutor.DEFAULT_CAPACITY);
+		}
+		return processingExecutor;
+	}
+
+	private void process(TestProcessingJournal.Entry work) {
+		try (ACLContext ignored = ACL.as(ACL.SYSTEM)) {
+			Job job = Jenkins.get().getItemByFullName(work.jobName, Job.class);
+			Run run = job == null ? null : job.getBuildByNumber(work.buildNumber);
+			if (run == null) {
+				logger.warn("build " + work + " no longer exists, its test results won't be processed");
+				return;
+			}
+			processBuild(run);
+		}
+	}
 
 	public boolean processBuild(Run run) {
 		FilePath resultPath = new FilePath(new FilePath(run.getRootDir()), TEST_RESULT_FILE);
@@ -0,0 +1,249 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.tests;
+
+import com.microfocus.application.automation.tools.octane.configuration.SDKBasedLoggerProvider;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded executor that processes test results of completed builds away from the threads that report build completion
+ * (CPS VM thread of pipelines, run listeners of other jobs).
+ * - work of the same job is processed one item at a time, in submission (build) order; different jobs run in parallel
+ * - every submitted item is journaled first, so accepted work survives a controller restart
+ * - at most {@code capacity} items are held in memory; beyond that submissions are kept in the journal only and are
+ * admitted back in sequence order as workers free up, so submitters are never blocked and memory stays bounded;
+ * only the sequence numbers of the spilled items are remembered, each journal file is read once when it is admitted
+ */
+final class TestProcessingExecutor {
+	private static final Logger logger = SDKBasedLoggerProvider.getLogger(TestProcessingExecutor.class);
+
+	static final int DEFAULT_THREADS = 2;
+	static final int DEFAULT_CAPACITY = 500;
+
+	interface Processor {
+		void process(TestProcessingJournal.Entry work) throws Exception;
+	}
+
+	private final TestProcessingJournal journal;
+	private final Processor processor;
+	private final int capacity;
+	private final ExecutorService workers;
+
+	private final Object lock = new Object();
+	//  a job is present here as long as a worker is scheduled for it
+	private final Map<String, ArrayDeque<TestProcessingJournal.Entry>> queues = new HashMap<>();
+	private int inMemory;
+	//  journaled items not admitted yet, in sequence order
+	private final ArrayDeque<Long> spilled = new ArrayDeque<>();
+	private boolean refilling;
+	private volatile boolean stopped;
+
+	private final AtomicLong processed = new AtomicLong();
+
+	TestProcessingExecutor(TestProcessingJournal journal, Processor processor, int threads, int capacity) {
+		if (threads < 1 || capacity < 1) {
+			throw new IllegalArgumentException("threads and capacity must be positive");
+		}
+		this.journal = journal;
+		this.processor = processor;
+		this.capacity = capacity;
+		//  work left by a previous run of the controller comes first, new work waits behind it in the journal
+		this.spilled.addAll(journal.sequences());
+		AtomicInteger threadCounter = new AtomicInteger();
+		this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "octane-test-processing-" + threadCounter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * journals the work and hands it over to the workers; returns without waiting for any processing
+	 *
+	 * @throws IOException when the work could not be journaled, nothing was queued in that case
+	 */
+	void submit(String jobName, int buildNumber) throws IOException {
+		if (stopped) {
+			throw new IllegalStateException("test processing executor is stopped");
+		}
+		synchronized (lock) {
+			//  journaling under the lock keeps sequence order equal to admission order, which the refill relies on
+			TestProcessingJournal.Entry entry = journal.add(jobName, buildNumber);
+			//  while a refill loads earlier items, new ones wait behind them to keep the order of each job
+			if (!spilled.isEmpty() || refilling || inMemory >= capacity) {
+				spilled.add(entry.sequence);
+				logger.debug("test processing queue is full, " + entry + " is kept in the journal only");
+				if (inMemory == 0 && !refilling) {
+					//  no worker is active to pick it up
+					workers.execute(this::refill);
+				}
+				return;
+			}
+			admit(entry);
+		}
+	}
+
+	/**
+	 * schedules the work left in the journal by a previous run of the controller
+	 */
+	void recover() {
+		workers.execute(this::refill);
+	}
+
+	/**
+	 * stops taking work; items not processed yet remain in the journal for {@link #recover()}
+	 */
+	void stop() {
+		stopped = true;
+		workers.shutdownNow();
+	}
+
+	/**
+	 * blocks until all the submitted work was processed, for tests and orderly shutdown
+	 *
+	 * @return false if the timeout elapsed first
+	 */
+	boolean awaitIdle(long timeout, TimeUnit unit) throws InterruptedException {
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		synchronized (lock) {
+			while (inMemory > 0 || !spilled.isEmpty() || refilling) {
+				long left = deadline - System.nanoTime();
+				if (left <= 0) {
+					return false;
+				}
+				TimeUnit.NANOSECONDS.timedWait(lock, left);
+			}
+			return true;
+		}
+	}
+
+	long getProcessedCount() {
+		return processed.get();
+	}
+
+	int getInMemoryCount() {
+		synchronized (lock) {
+			return inMemory;
+		}
+	}
+
+	private void admit(TestProcessingJournal.Entry entry) {
+		inMemory++;
+		ArrayDeque<TestProcessingJournal.Entry> queue = queues.get(entry.jobName);
+		if (queue == null) {
+			queue = new ArrayDeque<>();
+			queues.put(entry.jobName, queue);
+			ArrayDeque<TestProcessingJournal.Entry> jobQueue = queue;
+			workers.execute(() -> drain(entry.jobName, jobQueue));
+		}
+		queue.add(entry);
+	}
+
+	private void drain(String jobName, ArrayDeque<TestProcessingJournal.Entry> queue) {
+		while (!stopped) {
+			TestProcessingJournal.Entry entry;
+			synchronized (lock) {
+				//  the entry stays queued while processed, so the job is not scheduled twice meanwhile
+				entry = queue.peek();
+			}
+
+			try {
+				processor.process(entry);
+			} catch (Throwable t) {
+				logger.error("failed to process test results of " + entry, t);
+			}
+			if (stopped) {
+				return;
+			}
+			journal.remove(entry);
+			processed.incrementAndGet();
+
+			boolean more;
+			synchronized (lock) {
+				queue.poll();
+				inMemory--;
+				more = !queue.isEmpty();
+				if (!more) {
+					queues.remove(jobName);
+				}
+				lock.notifyAll();
+			}
+			refill();
+			if (!more) {
+				return;
+			}
+		}
+	}
+
+	private void refill() {
+		while (!stopped) {
+			List<Long> sequences = new ArrayList<>();
+			synchronized (lock) {
+				if (spilled.isEmpty() || refilling || inMemory >= capacity) {
+					return;
+				}
+				refilling = true;
+				for (int room = capacity - inMemory; room > 0 && !spilled.isEmpty(); room--) {
+					sequences.add(spilled.poll());
+				}
+			}
+
+			List<TestProcessingJournal.Entry> loaded = new ArrayList<>(sequences.size());
+			for (long sequence : sequences) {
+				try {
+					loaded.add(journal.load(sequence));
+				} catch (IOException e) {
+					journal.quarantine(sequence, e);
+				}
+			}
+			synchronized (lock) {
+				refilling = false;
+				for (TestProcessingJournal.Entry entry : loaded) {
+					admit(entry);
+				}
+				lock.notifyAll();
+			}
+			if (!loaded.isEmpty()) {
+				logger.info("admitted " + loaded.size() + " journaled test processing item(s)");
+			}
+		}
+	}
+}
@@ -0,0 +1,203 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.tests;
+
+import com.microfocus.application.automation.tools.octane.configuration.SDKBasedLoggerProvider;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Durable record of the test result processing work that was accepted but not completed yet.
+ * Every work item is kept in its own small file named after a monotonic sequence number, synced and renamed into place
+ * before the item is queued and deleted once it was processed, so a controller restart resumes in submission order.
+ */
+final class TestProcessingJournal {
+	private static final Logger logger = SDKBasedLoggerProvider.getLogger(TestProcessingJournal.class);
+
+	private static final String SUFFIX = ".work";
+	private static final String TMP_SUFFIX = ".tmp";
+	private static final String UNREADABLE_SUFFIX = ".unreadable";
+	private static final String JOB = "job";
+	private static final String BUILD = "build";
+
+	private final File dir;
+	private final AtomicLong sequence;
+
+	TestProcessingJournal(File dir) throws IOException {
+		this.dir = dir;
+		if (!dir.isDirectory() && !dir.mkdirs()) {
+			throw new IOException("failed to create test processing journal folder " + dir);
+		}
+		File[] leftovers = dir.listFiles((d, name) -> name.endsWith(TMP_SUFFIX));
+		if (leftovers != null) {
+			//  writes interrupted by a crash, that work was never acknowledged to the caller
+			for (File leftover : leftovers) {
+				Files.deleteIfExists(leftover.toPath());
+			}
+		}
+		long last = 0;
+		for (long seq : listSequences()) {
+			last = Math.max(last, seq);
+		}
+		this.sequence = new AtomicLong(last);
+	}
+
+	/**
+	 * persists a new work item; the returned entry carries the sequence number that orders it against all others.
+	 * The item is on disk when this returns, so it survives a crash of the controller
+	 */
+	Entry add(String jobName, int buildNumber) throws IOException {
+		Entry entry = new Entry(sequence.incrementAndGet(), jobName, buildNumber);
+		Properties properties = new Properties();
+		properties.setProperty(JOB, jobName);
+		properties.setProperty(BUILD, String.valueOf(buildNumber));
+
+		File tmp = new File(dir, fileName(entry.sequence) + TMP_SUFFIX);
+		try (FileOutputStream out = new FileOutputStream(tmp)) {
+			properties.store(out, null);
+			out.getFD().sync();
+		}
+		try {
+			Files.move(tmp.toPath(), fileOf(entry.sequence).toPath(), StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(tmp.toPath(), fileOf(entry.sequence).toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		return entry;
+	}
+
+	void remove(Entry entry) {
+		File file = fileOf(entry.sequence);
+		if (file.exists() && !file.delete()) {
+			logger.warn("failed to remove completed test processing work " + file);
+		}
+	}
+
+	/**
+	 * sequence numbers of all the persisted items, in sequence order; lists the journal folder
+	 */
+	List<Long> sequences() {
+		return listSequences();
+	}
+
+	/**
+	 * reads one persisted item
+	 *
+	 * @throws IOException when the item can't be read; see {@link #quarantine(long, IOException)}
+	 */
+	Entry load(long seq) throws IOException {
+		Properties properties = new Properties();
+		try (InputStream in = new FileInputStream(fileOf(seq))) {
+			properties.load(in);
+		}
+		String jobName = properties.getProperty(JOB);
+		String buildNumber = properties.getProperty(BUILD);
+		if (jobName == null || buildNumber == null) {
+			throw new IOException("test processing work " + fileOf(seq) + " is incomplete");
+		}
+		try {
+			return new Entry(seq, jobName, Integer.parseInt(buildNumber));
+		} catch (NumberFormatException nfe) {
+			throw new IOException("test processing work " + fileOf(seq) + " has an invalid build number", nfe);
+		}
+	}
+
+	/**
+	 * sets an unreadable item aside, it is kept next to the journal for the operator and not processed again
+	 */
+	void quarantine(long seq, IOException cause) {
+		File file = fileOf(seq);
+		File unreadable = new File(dir, file.getName() + UNREADABLE_SUFFIX);
+		logger.error("test processing work " + file + " can't be read, its test results won't be processed; it was kept as " + unreadable, cause);
+		if (!file.renameTo(unreadable)) {
+			logger.error("failed to set aside unreadable test processing work " + file);
+		}
+	}
+
+	int size() {
+		return listSequences().size();
+	}
+
+	private List<Long> listSequences() {
+		String[] names = dir.list();
+		if (names == null) {
+			return Collections.emptyList();
+		}
+		List<Long> sequences = new ArrayList<>(names.length);
+		for (String name : names) {
+			if (name.endsWith(SUFFIX)) {
+				try {
+					sequences.add(Long.parseLong(name.substring(0, name.length() - SUFFIX.length())));
+				} catch (NumberFormatException nfe) {
+					logger.warn("ignoring foreign file in test processing journal " + name);
+				}
+			}
+		}
+		Collections.sort(sequences);
+		return sequences;
+	}
+
+	private File fileOf(long seq) {
+		return new File(dir, fileName(seq));
+	}
+
+	private static String fileName(long seq) {
+		//  zero padded so a plain directory listing is already in submission order
+		return String.format("%019d", seq) + SUFFIX;
+	}
+
+	static final class Entry {
+		final long sequence;
+		final String jobName;
+		final int buildNumber;
+
+		Entry(long sequence, String jobName, int buildNumber) {
+			this.sequence = sequence;
+			this.jobName = jobName;
+			this.buildNumber = buildNumber;
+		}
+
+		@Override
+		public String toString() {
+			return "'" + jobName + " #" + buildNumber + "'";
+		}
+	}
+}
@@ -0,0 +1,98 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.tests.impl;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Layout constants and varint helpers of the intermediate JUnit result file written on the agent/controller
+ * by {@link JUnitTestResultRecordWriter} and read back by {@link JUnitTestResultRecordIterator}.
+ *
+ * The file starts with {@link #MAGIC} and {@link #VERSION}, followed by length-prefixed records.
+ * Module, package, class and error type names are interned: the first occurrence is written as a literal
+ * ({@link #STRING_NEW}), later occurrences as a reference to the index in the string table ({@link #STRING_REF_BASE} + index).
+ */
+final class JUnitTestResultRecordFormat {
+
+    static final int MAGIC = 0x4A545252; // "JTRR"
+    static final int VERSION = 1;
+
+    static final int STRING_NULL = 0;
+    static final int STRING_NEW = 1;
+    static final int STRING_REF_BASE = 2;
+
+    static final int FLAG_ERROR = 1;
+    static final int FLAG_EXTERNAL_REPORT_URL = 1 << 1;
+    static final int FLAG_DESCRIPTION = 1 << 2;
+    static final int FLAG_EXTERNAL_RUN_ID = 1 << 3;
+    static final int FLAG_UFT_RESULT_DATA = 1 << 4;
+    static final int FLAG_OCTANE_SUPPORTS_STEPS = 1 << 5;
+
+    private JUnitTestResultRecordFormat() {
+    }
+
+    static void writeVarLong(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    static void writeSignedVarLong(OutputStream out, long value) throws IOException {
+        writeVarLong(out, (value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * @return the decoded value or -1 if the stream ended before the first byte
+     */
+    static long readVarLongOrEof(InputStream in) throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            return -1;
+        }
+        long result = b & 0x7F;
+        int shift = 7;
+        while ((b & 0x80) != 0) {
+            if (shift > 63) {
+                throw new IOException("Malformed varint in test result stream");
+            }
+            b = in.read();
+            if (b < 0) {
+                throw new EOFException("Unexpected end of test result stream");
+            }
+            result |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.tests.impl;
+
+import com.hp.octane.integrations.testresults.XmlWritableTestResult;
+import com.hp.octane.integrations.uft.ufttestresults.schema.UftResultIterationData;
+import com.microfocus.application.automation.tools.octane.configuration.SDKBasedLoggerProvider;
+import com.microfocus.application.automation.tools.octane.tests.HPRunnerType;
+import com.microfocus.application.automation.tools.octane.tests.junit.JUnitTestResult;
+import com.microfocus.application.automation.tools.octane.tests.junit.TestError;
+import com.microfocus.application.automation.tools.octane.tests.junit.TestResultStatus;
+import hudson.FilePath;
+import org.apache.logging.log4j.Logger;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static com.microfocus.application.automation.tools.octane.tests.impl.JUnitTestResultRecordFormat.*;
+
+/**
+ * Streaming reader of the file produced by {@link JUnitTestResultRecordWriter}.
+ * Records are decoded one at a time from a reused buffer, the stream is closed once the last record is consumed.
+ */
+public class JUnitTestResultRecordIterator implements Iterator<XmlWritableTestResult>, Closeable {
+    private static Logger logger = SDKBasedLoggerProvider.getLogger(JUnitTestResultRecordIterator.class);
+
+    private static final TestResultStatus[] STATUSES = TestResultStatus.values();
+    private static final HPRunnerType[] RUNNER_TYPES = HPRunnerType.values();
+
+    private final InputStream in;
+    private final List<String> stringTable = new ArrayList<>();
+    private byte[] buffer = new byte[512];
+    private int position;
+    private int limit;
+    private long lastStarted;
+    private JUnitTestResult next;
+    private boolean closed;
+
+    public JUnitTestResultRecordIterator(FilePath filePath) throws IOException, InterruptedException {
+        this(filePath.read());
+    }
+
+    public JUnitTestResultRecordIterator(InputStream inputStream) throws IOException {
+        this.in = new BufferedInputStream(inputStream);
+        try {
+            DataInputStream header = new DataInputStream(in);
+            if (header.readInt() != MAGIC || header.readUnsignedByte() != VERSION) {
+                throw new IOException("Unsupported test result stream format");
+            }
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next != null) {
+            return true;
+        }
+        if (closed) {
+            return false;
+        }
+        try {
+            next = readRecord();
+        } catch (Exception e) {
+            logger.error("Failed to read test result record", e); // NON-NLS
+            next = null;
+        }
+        if (next == null) {
+            close();
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public XmlWritableTestResult next() {
+        if (hasNext()) {
+            JUnitTestResult value = next;
+            next = null;
+            return value;
+        } else {
+            throw new NoSuchElementException();
+        }
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            try {
+                in.close();
+            } catch (IOException ioe) {
+                logger.error("Failed to close the stream", ioe); // NON-NLS
+            }
+        }
+    }
+
+    private JUnitTestResult readRecord() throws IOException, ClassNotFoundException {
+        long length = readVarLongOrEof(in);
+        if (length < 0) {
+            return null;
+        }
+        if (length > Integer.MAX_VALUE - 8) {
+            throw new IOException("Test result record is too large: " + length);
+        }
+        if (buffer.length < length) {
+            buffer = new byte[Math.max((int) length, buffer.length * 2)];
+        }
+        new DataInputStream(in).readFully(buffer, 0, (int) length);
+        position = 0;
+        limit = (int) length;
+
+        int flags = (int) readVarLong();
+        String moduleName = readInterned();
+        String packageName = readInterned();
+        String className = readInterned();
+        String testName = readString();
+        int status = (int) readVarLong();
+        int runnerType = (int) readVarLong();
+        long duration = readSignedVarLong();
+        long started = lastStarted + readSignedVarLong();
+        lastStarted = started;
+        TestError testError = null;
+        if ((flags & FLAG_ERROR) != 0) {
+            String errorType = readInterned();
+            String errorMsg = readString();
+            String stackTrace = readString();
+            testError = new TestError(stackTrace, errorType, errorMsg);
+        }
+        String externalReportUrl = (flags & FLAG_EXTERNAL_REPORT_URL) != 0 ? readString() : null;
+        String description = (flags & FLAG_DESCRIPTION) != 0 ? readString() : null;
+        String externalRunId = (flags & FLAG_EXTERNAL_RUN_ID) != 0 ? readString() : null;
+        List<UftResultIterationData> uftResultData = (flags & FLAG_UFT_RESULT_DATA) != 0 ? readUftResultData() : null;
+
+        return new JUnitTestResult(moduleName, packageName, className, testName,
+                status == 0 ? null : STATUSES[status - 1], duration, started, testError, externalReportUrl, description,
+                runnerType == 0 ? null : RUNNER_TYPES[runnerType - 1], externalRunId, uftResultData,
+                (flags & FLAG_OCTANE_SUPPORTS_STEPS) != 0);
+    }
+
+    private String readInterned() throws IOException {
+        long code = readVarLong();
+        if (code == STRING_NULL) {
+            return null;
+        } else if (code == STRING_NEW) {
+            String value = readUtf8((int) readVarLong());
+            stringTable.add(value);
+            return value;
+        } else {
+            long index = code - STRING_REF_BASE;
+            if (index >= stringTable.size()) {
+                throw new IOException("Unknown string reference " + index);
+            }
+            return stringTable.get((int) index);
+        }
+    }
+
+    private String readString() throws IOException {
+        long length = readVarLong();
+        return length == 0 ? null : readUtf8((int) (length - 1));
+    }
+
+    private String readUtf8(int length) throws IOException {
+        ensureAvailable(length);
+        String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<UftResultIterationData> readUftResultData() throws IOException, ClassNotFoundException {
+        int length = (int) readVarLong();
+        ensureAvailable(length);
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(buffer, position, length))) {
+            position += length;
+            return (List<UftResultIterationData>) ois.readObject();
+        }
+    }
+
+    private long readSignedVarLong() throws IOException {
+        long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private long readVarLong() throws IOException {
+        long result = 0;
+        int shift = 0;
+        while (true) {
+            ensureAvailable(1);
+            int b = buffer[position++];
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+            shift += 7;
+            if (shift > 63) {
+                throw new IOException("Malformed varint in test result record");
+            }
+        }
+    }
+
+    private void ensureAvailable(int length) throws IOException {
+        if (length < 0 || position + length > limit) {
+            throw new EOFException("Truncated test result record");
+        }
+    }
+}
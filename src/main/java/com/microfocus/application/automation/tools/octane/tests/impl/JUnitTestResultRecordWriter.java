@@ -0,0 +1,168 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.tests.impl;
+
+import com.microfocus.application.automation.tools.octane.tests.junit.JUnitTestResult;
+import com.microfocus.application.automation.tools.octane.tests.junit.TestError;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.microfocus.application.automation.tools.octane.tests.impl.JUnitTestResultRecordFormat.*;
+
+/**
+ * Streams {@link JUnitTestResult}s into the compact intermediate format described in {@link JUnitTestResultRecordFormat}.
+ * Unlike {@link ObjectOutputStream}, nothing but the interned name table is retained between records,
+ * so memory use does not depend on the number of written results.
+ */
+public class JUnitTestResultRecordWriter implements Closeable {
+
+    private final OutputStream out;
+    private final Map<String, Integer> stringTable = new HashMap<>();
+    private final ByteArrayOutputStream record = new ByteArrayOutputStream(256);
+    private long lastStarted;
+    private boolean closed;
+
+    public JUnitTestResultRecordWriter(OutputStream out) throws IOException {
+        this.out = new BufferedOutputStream(out);
+        DataOutputStream header = new DataOutputStream(this.out);
+        header.writeInt(MAGIC);
+        header.writeByte(VERSION);
+    }
+
+    public void write(JUnitTestResult result) throws IOException {
+        record.reset();
+        TestError error = result.getTestError();
+        int flags = 0;
+        if (error != null) {
+            flags |= FLAG_ERROR;
+        }
+        if (result.getExternalReportUrl() != null) {
+            flags |= FLAG_EXTERNAL_REPORT_URL;
+        }
+        if (result.getDescription() != null) {
+            flags |= FLAG_DESCRIPTION;
+        }
+        if (result.getExternalRunId() != null) {
+            flags |= FLAG_EXTERNAL_RUN_ID;
+        }
+        if (result.getUftResultData() != null) {
+            flags |= FLAG_UFT_RESULT_DATA;
+        }
+        if (result.isOctaneSupportsSteps()) {
+            flags |= FLAG_OCTANE_SUPPORTS_STEPS;
+        }
+        writeVarLong(record, flags);
+        writeInterned(result.getModuleName());
+        writeInterned(result.getPackageName());
+        writeInterned(result.getClassName());
+        writeString(result.getTestName());
+        writeVarLong(record, result.getResult() == null ? 0 : result.getResult().ordinal() + 1);
+        writeVarLong(record, result.getRunnerType() == null ? 0 : result.getRunnerType().ordinal() + 1);
+        writeSignedVarLong(record, result.getDuration());
+        writeSignedVarLong(record, result.getStarted() - lastStarted);
+        lastStarted = result.getStarted();
+        if (error != null) {
+            writeInterned(error.getErrorType());
+            writeString(error.getErrorMsg());
+            writeString(error.getStackTraceStr());
+        }
+        if (result.getExternalReportUrl() != null) {
+            writeString(result.getExternalReportUrl());
+        }
+        if (result.getDescription() != null) {
+            writeString(result.getDescription());
+        }
+        if (result.getExternalRunId() != null) {
+            writeString(result.getExternalRunId());
+        }
+        if (result.getUftResultData() != null) {
+            writeUftResultData(result);
+        }
+
+        writeVarLong(out, record.size());
+        record.writeTo(out);
+    }
+
+    private void writeInterned(String value) throws IOException {
+        if (value == null) {
+            writeVarLong(record, STRING_NULL);
+            return;
+        }
+        Integer index = stringTable.get(value);
+        if (index != null) {
+            writeVarLong(record, STRING_REF_BASE + (long) index);
+        } else {
+            stringTable.put(value, stringTable.size());
+            writeVarLong(record, STRING_NEW);
+            writeUtf8(value);
+        }
+    }
+
+    private void writeString(String value) throws IOException {
+        if (value == null) {
+            writeVarLong(record, 0);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(record, bytes.length + 1L);
+            record.write(bytes);
+        }
+    }
+
+    private void writeUtf8(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(record, bytes.length);
+        record.write(bytes);
+    }
+
+    private void writeUftResultData(JUnitTestResult result) throws IOException {
+        //UFT step data is rare and deeply nested, keep java serialization for it
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+            oos.writeObject(new ArrayList<>(result.getUftResultData()));
+        }
+        writeVarLong(record, bytes.size());
+        bytes.writeTo(record);
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            out.close();
+        }
+    }
+}
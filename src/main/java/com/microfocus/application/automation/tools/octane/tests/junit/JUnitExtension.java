@@ -44,7 +44,8 @@ import com.microfocus.application.automation.tools.octane.tests.build.BuildHandl
 import com.microfocus.application.automation.tools.octane.tests.detection.MFToolsDetectionExtension;
 import com.microfocus.application.automation.tools.octane.tests.detection.ResultFields;
 import com.microfocus.application.automation.tools.octane.tests.detection.ResultFieldsDetectionService;
-import com.microfocus.application.automation.tools.octane.tests.impl.ObjectStreamIterator;
+import com.microfocus.application.automation.tools.octane.tests.impl.JUnitTestResultRecordIterator;
+import com.microfocus.application.automation.tools.octane.tests.impl.JUnitTestResultRecordWriter;
 import com.microfocus.application.automation.tools.settings.RunnerMiscSettingsGlobalConfiguration;
 import hudson.Extension;
 import hudson.FilePath;
@@ -118,7 +119,7 @@ public class JUnitExtension extends OctaneTestsExtension {
 			}
 			FilePath filePath = getTestResultsFromWorkspace(run, jenkinsRootUrl, getResultsOnController, workspace, Collections.singletonList(resultFile),hpRunnerType);
 			ResultFields detectedFields = getResultFields(run);
-			return new TestResultContainer(new ObjectStreamIterator<>(filePath), detectedFields);
+			return new TestResultContainer(new JUnitTestResultRecordIterator(filePath), detectedFields);
 		} else {
 			//avoid java.lang.NoClassDefFoundError when maven plugin is not present
 			if ("hudson.maven.MavenModuleSetBuild".equals(run.getClass().getName())) {
@@ -139,7 +140,7 @@ public class JUnitExtension extends OctaneTestsExtension {
 				if (!resultFiles.isEmpty()) {
 					ResultFields detectedFields = getResultFields(run);
 					FilePath filePath = getTestResultsFromWorkspace(run, jenkinsRootUrl, getResultsOnController, workspace, resultFiles,HPRunnerType.NONE);
-					return new TestResultContainer(new ObjectStreamIterator<>(filePath), detectedFields);
+					return new TestResultContainer(new JUnitTestResultRecordIterator(filePath), detectedFields);
 				}
 			}
 			logger.debug("No JUnit result report found");
@@ -282,23 +283,19 @@ public class JUnitExtension extends OctaneTestsExtension {
 
 		@Override
 		public FilePath invoke(File f, VirtualChannel channel) throws IOException, InterruptedException {
-			OutputStream os = filePath.write();
-			BufferedOutputStream bos = new BufferedOutputStream(os);
-			ObjectOutputStream oos = new ObjectOutputStream(bos);
-
-			try {
+			//the report folders of the UFT tests are indexed once for all the reports
+			Object context = (HPRunnerType.UFT.equals(hpRunnerType) || HPRunnerType.UFT_MBT.equals(hpRunnerType)) && additionalContext instanceof List ?
+					new UftReports((List<String>) additionalContext) : additionalContext;
+			try (JUnitTestResultRecordWriter writer = new JUnitTestResultRecordWriter(filePath.write())) {
 				for (FilePath report : reports) {
-					JUnitXmlIterator iterator = new JUnitXmlIterator(report.read(), moduleDetection, workspace, sharedCheckOutDirectory, jobName, buildId, buildStarted, stripPackageAndClass, hpRunnerType, jenkinsRootUrl, additionalContext,testParserRegEx, octaneSupportsSteps,nodeName);
+					JUnitXmlIterator iterator = new JUnitXmlIterator(report.read(), moduleDetection, workspace, sharedCheckOutDirectory, jobName, buildId, buildStarted, stripPackageAndClass, hpRunnerType, jenkinsRootUrl, context,testParserRegEx, octaneSupportsSteps,nodeName);
 					while (iterator.hasNext()) {
-						oos.writeObject(iterator.next());
+						writer.write(iterator.next());
 					}
 				}
 			} catch (XMLStreamException e) {
 				throw new IOException(e);
 			}
-			os.flush();
-
-			oos.close();
 			return filePath;
 		}
 
@@ -48,6 +48,7 @@ import com.microfocus.application.automation.tools.octane.tests.junit.codeless.C
 import com.microfocus.application.automation.tools.octane.tests.junit.codeless.CodelessResultParameter;
 import com.microfocus.application.automation.tools.octane.tests.junit.codeless.CodelessResultUnit;
 import com.microfocus.application.automation.tools.octane.tests.xml.AbstractXmlIterator;
+import com.microfocus.application.automation.tools.octane.tests.xml.ElementNameTable;
 import hudson.FilePath;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.io.FilenameUtils;
@@ -55,10 +56,6 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.logging.log4j.Logger;
 
 import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.events.Characters;
-import javax.xml.stream.events.EndElement;
-import javax.xml.stream.events.StartElement;
-import javax.xml.stream.events.XMLEvent;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -75,6 +72,22 @@ import java.util.stream.Collectors;
  */
 public class JUnitXmlIterator extends AbstractXmlIterator<JUnitTestResult> {
 	private static final Logger logger = SDKBasedLoggerProvider.getLogger(JUnitXmlIterator.class);
+	private static final ElementNameTable ELEMENTS = new ElementNameTable(
+			"file", "id", "case", "className", "stdout", "testName", "duration", // NON-NLS
+			"skipped", "failedSince", "errorStackTrace", "errorDetails", "suite", "suites"); // NON-NLS
+	private static final int FILE = 0;
+	private static final int ID = 1;
+	private static final int CASE = 2;
+	private static final int CLASS_NAME = 3;
+	private static final int STDOUT = 4;
+	private static final int TEST_NAME = 5;
+	private static final int DURATION = 6;
+	private static final int SKIPPED = 7;
+	private static final int FAILED_SINCE = 8;
+	private static final int ERROR_STACK_TRACE = 9;
+	private static final int ERROR_DETAILS = 10;
+	private static final int SUITE = 11;
+	private static final int SUITES = 12;
 	private final FilePath workspace;
 	private final long buildStarted;
 	private final String buildId;
@@ -116,13 +129,17 @@ public class JUnitXmlIterator extends AbstractXmlIterator<JUnitTestResult> {
     private ObjectMapper mapper = new ObjectMapper(new YAMLFactory());
     private Map<String, CodelessResult> testNameToCodelessResultMap = new HashMap<>();
     private String nodeName;
+    private UftReports uftReports;
+    private String uftTestsPath;
+    private static final UftReports.ReportParser<List<UftResultIterationData>> MBT_DATA = UftTestResultsUtils::getMBTData;
+    private static final UftReports.ReportParser<String> ERROR_MESSAGE = file -> UftTestResultsUtils.getAggregatedErrorMessage(UftTestResultsUtils.getErrorData(file));
 
     private final int ERROR_MESSAGE_MAX_SIZE = System.getProperty("octane.sdk.tests.error_message_max_size") != null ? Integer.parseInt(System.getProperty("octane.sdk.tests.error_message_max_size")) : 512*512;
     private final int ERROR_DETAILS_MAX_SIZE = System.getProperty("octane.sdk.tests.error_details_max_size") != null ? Integer.parseInt(System.getProperty("octane.sdk.tests.error_details_max_size")) : 512*512;
 
 
     public JUnitXmlIterator(InputStream read, List<ModuleDetection> moduleDetection, FilePath workspace, String sharedCheckOutDirectory, String jobName, String buildId, long buildStarted, boolean stripPackageAndClass, HPRunnerType hpRunnerType, String jenkinsRootUrl, Object additionalContext, Pattern testParserRegEx, boolean octaneSupportsSteps,String nodeName) throws XMLStreamException {
-		super(read);
+		super(read, ELEMENTS);
 		this.stripPackageAndClass = stripPackageAndClass;
 		this.moduleDetection = moduleDetection;
 		this.workspace = workspace;
@@ -136,6 +153,11 @@ public class JUnitXmlIterator extends AbstractXmlIterator<JUnitTestResult> {
 		this.testParserRegEx = testParserRegEx;
 		this.octaneSupportsSteps = octaneSupportsSteps;
 		this.nodeName = nodeName;
+		if (additionalContext instanceof UftReports) {
+			this.uftReports = (UftReports) additionalContext;
+		} else if ((HPRunnerType.UFT.equals(hpRunnerType) || HPRunnerType.UFT_MBT.equals(hpRunnerType)) && additionalContext instanceof List) {
+			this.uftReports = new UftReports((List<String>) additionalContext);
+		}
 	}
 
 	private static long parseTime(String timeString) {
@@ -154,200 +176,192 @@ public class JUnitXmlIterator extends AbstractXmlIterator<JUnitTestResult> {
 	}
 
 	@Override
-	protected void onEvent(XMLEvent event) throws XMLStreamException, IOException, InterruptedException {
+	protected void onStartElement(int element) throws XMLStreamException, IOException, InterruptedException {
         if (testingToolType.equals(TestingToolType.CODELESS)) {
-            handleCodelessTest(event);
+            handleCodelessTestStart(element);
         } else {
-            handleJUnitTest(event);
+            handleJUnitTestStart(element);
         }
     }
 
-    private void handleJUnitTest(XMLEvent event) throws XMLStreamException, IOException, InterruptedException {
-        if (event instanceof StartElement) {
-            StartElement element = (StartElement) event;
-            String localName = element.getName().getLocalPart();
-            if ("file".equals(localName)) {  // NON-NLS
-                filePath = peekNextValue();
-                if(checkIsCodelessTestResult(filePath)) {
-                    testingToolType = TestingToolType.CODELESS;
-                    handleCodelessTest(event);
-                } else {
-                    filePath = readNextValue();
-                    testingToolType = TestingToolType.UFT;
-                    for (ModuleDetection detection : moduleDetection) {
-                        moduleNameFromFile = moduleName = detection.getModule(new FilePath(new File(filePath)));
-                        if (moduleName != null) {
-                            break;
-                        }
+	@Override
+	protected void onEndElement(int element) throws XMLStreamException, IOException, InterruptedException {
+        if (testingToolType.equals(TestingToolType.CODELESS)) {
+            handleCodelessTestEnd(element);
+        } else {
+            handleJUnitTestEnd(element);
+        }
+    }
+
+    private void handleJUnitTestStart(int element) throws XMLStreamException, IOException, InterruptedException {
+        if (element == FILE) {
+            filePath = peekNextValue();
+            if(checkIsCodelessTestResult(filePath)) {
+                testingToolType = TestingToolType.CODELESS;
+                handleCodelessTestStart(element);
+            } else {
+                filePath = readNextValue();
+                testingToolType = TestingToolType.UFT;
+                for (ModuleDetection detection : moduleDetection) {
+                    moduleNameFromFile = moduleName = detection.getModule(new FilePath(new File(filePath)));
+                    if (moduleName != null) {
+                        break;
                     }
                 }
-            } else if ("id".equals(localName)) {
-                id = readNextValue();
-            } else if ("case".equals(localName)) { // NON-NLS
-                resetTestData();
-            } else if ("className".equals(localName)) { // NON-NLS
-                String fqn = readNextValue();
-                int moduleIndex = fqn.indexOf("::");
-                if (moduleIndex > 0) {
-                    moduleName = fqn.substring(0, moduleIndex);
-                    fqn = fqn.substring(moduleIndex + 2);
-                }
+            }
+        } else if (element == ID) {
+            id = readNextValue();
+        } else if (element == CASE) {
+            resetTestData();
+        } else if (element == CLASS_NAME) {
+            String fqn = readNextValue();
+            int moduleIndex = fqn.indexOf("::");
+            if (moduleIndex > 0) {
+                moduleName = fqn.substring(0, moduleIndex);
+                fqn = fqn.substring(moduleIndex + 2);
+            }
 
-                int p = fqn.lastIndexOf('.');
-                className = fqn.substring(p + 1);
-                if (p > 0) {
-                    packageName = fqn.substring(0, p);
-                } else {
-                    packageName = "";
+            int p = fqn.lastIndexOf('.');
+            className = fqn.substring(p + 1);
+            if (p > 0) {
+                packageName = fqn.substring(0, p);
+            } else {
+                packageName = "";
+            }
+        } else if (element == STDOUT) {
+            String stdoutValue = readNextValue();
+            if (stdoutValue != null) {
+                if ((hpRunnerType.equals(HPRunnerType.UFT) || hpRunnerType.equals(HPRunnerType.UFT_MBT)) && stdoutValue.contains("Test result: Warning")) {
+                    errorMsg = "Test ended with 'Warning' status.";
+                    parseUftErrorMessages();
                 }
-            } else if ("stdout".equals(localName)) {
-                String stdoutValue = readNextValue();
-                if (stdoutValue != null) {
-                    if ((hpRunnerType.equals(HPRunnerType.UFT) || hpRunnerType.equals(HPRunnerType.UFT_MBT)) && stdoutValue.contains("Test result: Warning")) {
-                        errorMsg = "Test ended with 'Warning' status.";
-                        parseUftErrorMessages();
-                    }
 
-                    externalURL = extractValueFromStdout(stdoutValue, "__octane_external_url_start__", "__octane_external_url_end__", externalURL);
-                    description = extractValueFromStdout(stdoutValue, "__octane_description_start__", "__octane_description_end__", description);
-                }
-            } else if ("testName".equals(localName)) { // NON-NLS
-                testName = readNextValue();
-                if (testName != null && testName.endsWith("()")) {//clear ending () for gradle tests
-                    testName = testName.substring(0, testName.length() - 2);
+                externalURL = extractValueFromStdout(stdoutValue, "__octane_external_url_start__", "__octane_external_url_end__", externalURL);
+                description = extractValueFromStdout(stdoutValue, "__octane_description_start__", "__octane_description_end__", description);
+            }
+        } else if (element == TEST_NAME) {
+            testName = readNextValue();
+            if (testName != null && testName.endsWith("()")) {//clear ending () for gradle tests
+                testName = testName.substring(0, testName.length() - 2);
+            }
+
+            if (hpRunnerType.equals(HPRunnerType.UFT) || hpRunnerType.equals(HPRunnerType.UFT_MBT)) {
+                if (testName != null && testName.contains("..")) { //resolve existence of ../ - for example c://a/../b => c://b
+                    testName = new File(FilenameUtils.separatorsToSystem(testName)).getCanonicalPath();
                 }
 
-                if (hpRunnerType.equals(HPRunnerType.UFT) || hpRunnerType.equals(HPRunnerType.UFT_MBT)) {
-                    if (testName != null && testName.contains("..")) { //resolve existence of ../ - for example c://a/../b => c://b
-                        testName = new File(FilenameUtils.separatorsToSystem(testName)).getCanonicalPath();
+                String myPackageName = packageName;
+                String myClassName = className;
+                String myTestName = testName;
+                packageName = "";
+                className = "";
+
+                // if workspace is prefix of the method name, cut it off
+                // currently this handling is needed for UFT tests
+                int uftTextIndexStart = getUftTestIndexStart(workspace, sharedCheckOutDirectory, testName);
+                if (uftTextIndexStart != -1) {
+                    String path = testName.substring(uftTextIndexStart).replace(SdkConstants.FileSystem.LINUX_PATH_SPLITTER, SdkConstants.FileSystem.WINDOWS_PATH_SPLITTER);;
+                    boolean isMBT = path.startsWith(MfMBTConverter.MBT_PARENT_SUB_DIR);
+                    if(isMBT){//remove MBT prefix
+                        //mbt test located in two level folder : ___mbt/_order
+                        path = path.substring(MfMBTConverter.MBT_PARENT_SUB_DIR.length() + 1);//remove ___mbt
+                        path = path.substring(path.indexOf(SdkConstants.FileSystem.WINDOWS_PATH_SPLITTER));//remove order part
                     }
 
-                    String myPackageName = packageName;
-                    String myClassName = className;
-                    String myTestName = testName;
-                    packageName = "";
-                    className = "";
-
-                    // if workspace is prefix of the method name, cut it off
-                    // currently this handling is needed for UFT tests
-                    int uftTextIndexStart = getUftTestIndexStart(workspace, sharedCheckOutDirectory, testName);
-                    if (uftTextIndexStart != -1) {
-                        String path = testName.substring(uftTextIndexStart).replace(SdkConstants.FileSystem.LINUX_PATH_SPLITTER, SdkConstants.FileSystem.WINDOWS_PATH_SPLITTER);;
-                        boolean isMBT = path.startsWith(MfMBTConverter.MBT_PARENT_SUB_DIR);
-                        if(isMBT){//remove MBT prefix
-                            //mbt test located in two level folder : ___mbt/_order
-                            path = path.substring(MfMBTConverter.MBT_PARENT_SUB_DIR.length() + 1);//remove ___mbt
-                            path = path.substring(path.indexOf(SdkConstants.FileSystem.WINDOWS_PATH_SPLITTER));//remove order part
-                        }
-
-                        path = StringUtils.strip(path, SdkConstants.FileSystem.WINDOWS_PATH_SPLITTER);
+                    path = StringUtils.strip(path, SdkConstants.FileSystem.WINDOWS_PATH_SPLITTER);
 
-                        //split path to package and name fields
-                        if (path.contains(SdkConstants.FileSystem.WINDOWS_PATH_SPLITTER)) {
-                            int testNameStartIndex = path.lastIndexOf(SdkConstants.FileSystem.WINDOWS_PATH_SPLITTER);
+                    //split path to package and name fields
+                    if (path.contains(SdkConstants.FileSystem.WINDOWS_PATH_SPLITTER)) {
+                        int testNameStartIndex = path.lastIndexOf(SdkConstants.FileSystem.WINDOWS_PATH_SPLITTER);
 
-                            testName = path.substring(testNameStartIndex + 1);
-                            packageName = path.substring(0, testNameStartIndex);
-                        } else {
-                            testName = path;
-                            if (isMBT) {
-                                testName = MfMBTConverter.decodeTestNameIfRequired(testName);
-                            }
+                        testName = path.substring(testNameStartIndex + 1);
+                        packageName = path.substring(0, testNameStartIndex);
+                    } else {
+                        testName = path;
+                        if (isMBT) {
+                            testName = MfMBTConverter.decodeTestNameIfRequired(testName);
                         }
                     }
+                }
 
-                    String cleanedTestName = cleanTestName(testName);
-                    boolean testReportCreated = true;
-                    if (additionalContext != null && additionalContext instanceof List) {
-                        //test folders are appear in the following format GUITest1[1], while [1] number of test. It possible that tests with the same name executed in the same job
-                        //by adding [1] or [2] we can differentiate between different instances.
-                        //We assume that test folders are sorted so in this section, once we found the test folder, we remove it from collection , in order to find the second instance in next iteration
-                        List<String> createdTests = (List<String>) additionalContext;
-                        String searchFor = cleanedTestName + "[";
-                        Optional<String> optional = createdTests.stream().filter(str -> str.startsWith(searchFor)).findFirst();
-                        if (optional.isPresent()) {
-                            cleanedTestName = optional.get();
-                            createdTests.remove(cleanedTestName);
-                        }
-                        testReportCreated = optional.isPresent();
-                    }
+                String cleanedTestName = cleanTestName(testName);
+                //test folders are appear in the following format GUITest1[1], while [1] number of test. It possible that tests with the same name executed in the same job
+                //by adding [1] or [2] we can differentiate between different instances.
+                //We assume that test folders are sorted so once we found the test folder, it is taken, in order to find the second instance in next iteration
+                String reportFolder = uftReports != null ? uftReports.takeFolder(cleanedTestName) : null;
 
-                    if (testReportCreated) {
-                        final String basePath = ((List<String>) additionalContext).get(0);
-                        String nodeNameSubFolder = StringUtils.isNotEmpty(this.nodeName) ? nodeName +"/" : "";
-                        uftResultFilePath = Paths.get(basePath, "archive", "UFTReport", nodeNameSubFolder, cleanedTestName, "/Result/run_results.xml").toFile().getCanonicalPath();
-                        externalURL = jenkinsRootUrl + "job/" + jobName + "/" + buildId + "/artifact/UFTReport/" + nodeNameSubFolder + cleanedTestName + "/Result/run_results.html";
-                    } else {
-                        //if UFT didn't created test results page - add reference to Jenkins test results page
-                        externalURL = jenkinsRootUrl + "job/" + jobName + "/" + buildId + "/testReport/" + myPackageName + "/" + jenkinsTestClassFormat(myClassName) + "/" + jenkinsTestNameFormat(myTestName) + "/";
-                    }
-                } else if (hpRunnerType.equals(HPRunnerType.PerformanceCenter)) {
-                    externalURL = jenkinsRootUrl + "job/" + jobName + "/" + buildId + "/artifact/performanceTestsReports/pcRun/Report.html";
-                } else if (hpRunnerType.equals(HPRunnerType.StormRunnerLoad)) {
-                    externalURL = tryGetStormRunnerReportURLFromJunitFile(filePath);
-                    if (StringUtils.isEmpty(externalURL) && additionalContext != null && additionalContext instanceof Collection) {
-                        externalURL = tryGetStormRunnerReportURLFromLog((Collection) additionalContext);
-                    }
-                }
-            } else if ("duration".equals(localName)) { // NON-NLS
-                testDuration = parseTime(readNextValue());
-            } else if ("skipped".equals(localName)) { // NON-NLS
-                if ("true".equals(readNextValue())) { // NON-NLS
-                    status = TestResultStatus.SKIPPED;
-                }
-            } else if ("failedSince".equals(localName)) { // NON-NLS
-                if (!"0".equals(readNextValue()) && !TestResultStatus.SKIPPED.equals(status)) {
-                    status = TestResultStatus.FAILED;
+                if (reportFolder != null) {
+                    String nodeNameSubFolder = StringUtils.isNotEmpty(this.nodeName) ? nodeName +"/" : "";
+                    uftResultFilePath = uftReports.getReportPath(nodeNameSubFolder, reportFolder);
+                    externalURL = jenkinsRootUrl + "job/" + jobName + "/" + buildId + "/artifact/UFTReport/" + nodeNameSubFolder + reportFolder + "/Result/run_results.html";
+                } else {
+                    //if UFT didn't created test results page - add reference to Jenkins test results page
+                    externalURL = jenkinsRootUrl + "job/" + jobName + "/" + buildId + "/testReport/" + myPackageName + "/" + jenkinsTestClassFormat(myClassName) + "/" + jenkinsTestNameFormat(myTestName) + "/";
                 }
-            } else if ("errorStackTrace".equals(localName)) { // NON-NLS
-                status = TestResultStatus.FAILED;
-                stackTraceStr = "";
-                if (peek() instanceof Characters) {
-                    stackTraceStr = readNextValue();
-                    int index = stackTraceStr.indexOf("at ");
-                    if (index >= 0) {
-                        errorType = stackTraceStr.substring(0, index);
-                    }
+            } else if (hpRunnerType.equals(HPRunnerType.PerformanceCenter)) {
+                externalURL = jenkinsRootUrl + "job/" + jobName + "/" + buildId + "/artifact/performanceTestsReports/pcRun/Report.html";
+            } else if (hpRunnerType.equals(HPRunnerType.StormRunnerLoad)) {
+                externalURL = tryGetStormRunnerReportURLFromJunitFile(filePath);
+                if (StringUtils.isEmpty(externalURL) && additionalContext != null && additionalContext instanceof Collection) {
+                    externalURL = tryGetStormRunnerReportURLFromLog((Collection) additionalContext);
                 }
-            } else if ("errorDetails".equals(localName)) { // NON-NLS
+            }
+        } else if (element == DURATION) {
+            testDuration = parseTime(readNextValue());
+        } else if (element == SKIPPED) {
+            if ("true".equals(readNextValue())) { // NON-NLS
+                status = TestResultStatus.SKIPPED;
+            }
+        } else if (element == FAILED_SINCE) {
+            if (!"0".equals(readNextValue()) && !TestResultStatus.SKIPPED.equals(status)) {
                 status = TestResultStatus.FAILED;
-                errorMsg = readNextValue();
-                int index = stackTraceStr.indexOf(':');
+            }
+        } else if (element == ERROR_STACK_TRACE) {
+            status = TestResultStatus.FAILED;
+            stackTraceStr = readNextValue();
+            if (!stackTraceStr.isEmpty()) {
+                int index = stackTraceStr.indexOf("at ");
                 if (index >= 0) {
                     errorType = stackTraceStr.substring(0, index);
                 }
-                if ((hpRunnerType.equals(HPRunnerType.UFT)|| hpRunnerType.equals(HPRunnerType.UFT_MBT)) && StringUtils.isNotEmpty(errorMsg)) {
-                    parseUftErrorMessages();
-                }
             }
-        } else if (event instanceof EndElement) {
-            EndElement element = (EndElement) event;
-            String localName = element.getName().getLocalPart();
+        } else if (element == ERROR_DETAILS) {
+            status = TestResultStatus.FAILED;
+            errorMsg = readNextValue();
+            int index = stackTraceStr.indexOf(':');
+            if (index >= 0) {
+                errorType = stackTraceStr.substring(0, index);
+            }
+            if ((hpRunnerType.equals(HPRunnerType.UFT)|| hpRunnerType.equals(HPRunnerType.UFT_MBT)) && StringUtils.isNotEmpty(errorMsg)) {
+                parseUftErrorMessages();
+            }
+        }
+    }
 
-            if ("case".equals(localName)) { // NON-NLS
-                errorMsg = StringUtils.length(errorMsg) > ERROR_MESSAGE_MAX_SIZE ? StringUtils.abbreviate(errorMsg,ERROR_MESSAGE_MAX_SIZE) : errorMsg;
-                stackTraceStr = StringUtils.length(stackTraceStr) > ERROR_DETAILS_MAX_SIZE ? StringUtils.abbreviate(errorMsg,ERROR_DETAILS_MAX_SIZE) : stackTraceStr;
-                TestError testError = new TestError(stackTraceStr, errorType, errorMsg);
+    private void handleJUnitTestEnd(int element) throws XMLStreamException, IOException, InterruptedException {
+        if (element == CASE) {
+            errorMsg = StringUtils.length(errorMsg) > ERROR_MESSAGE_MAX_SIZE ? StringUtils.abbreviate(errorMsg,ERROR_MESSAGE_MAX_SIZE) : errorMsg;
+            stackTraceStr = StringUtils.length(stackTraceStr) > ERROR_DETAILS_MAX_SIZE ? StringUtils.abbreviate(errorMsg,ERROR_DETAILS_MAX_SIZE) : stackTraceStr;
+            TestError testError = new TestError(stackTraceStr, errorType, errorMsg);
 
-                if(this.testParserRegEx != null){
-                    splitTestNameByPattern();
-                }
-                if (hpRunnerType.equals(HPRunnerType.UFT_MBT) && StringUtils.isNotEmpty(uftResultFilePath)) {
-                    try {
-                        uftResultData = UftTestResultsUtils.getMBTData(new File(uftResultFilePath));
-                    } catch (Exception e) {
-                        logger.error("Failed to get MBT Data which includes steps results", e);
-                    }
-                }
-                if (stripPackageAndClass) {
-                    //workaround only for UFT - we do not want packageName="All-Tests" and className="&lt;None>" as it comes from JUnit report
-                    addItem(new JUnitTestResult(moduleName, "", "", testName, status, testDuration, buildStarted, testError, externalURL, description, hpRunnerType,this.externalRunId, uftResultData, octaneSupportsSteps));
-                } else {
-                    addItem(new JUnitTestResult(moduleName, packageName, className, testName, status, testDuration, buildStarted, testError, externalURL, description, hpRunnerType,this.externalRunId, uftResultData, octaneSupportsSteps));
+            if(this.testParserRegEx != null){
+                splitTestNameByPattern();
+            }
+            if (hpRunnerType.equals(HPRunnerType.UFT_MBT) && StringUtils.isNotEmpty(uftResultFilePath)) {
+                try {
+                    uftResultData = readUftReport(MBT_DATA);
+                } catch (Exception e) {
+                    logger.error("Failed to get MBT Data which includes steps results", e);
                 }
-            } else if ("suites".equals(localName)) {
-                finalizeCodelessTests();
             }
+            if (stripPackageAndClass) {
+                //workaround only for UFT - we do not want packageName="All-Tests" and className="&lt;None>" as it comes from JUnit report
+                addItem(new JUnitTestResult(moduleName, "", "", testName, status, testDuration, buildStarted, testError, externalURL, description, hpRunnerType,this.externalRunId, uftResultData, octaneSupportsSteps));
+            } else {
+                addItem(new JUnitTestResult(moduleName, packageName, className, testName, status, testDuration, buildStarted, testError, externalURL, description, hpRunnerType,this.externalRunId, uftResultData, octaneSupportsSteps));
+            }
+        } else if (element == SUITES) {
+            finalizeCodelessTests();
         }
     }
 
@@ -358,103 +372,97 @@ public class JUnitXmlIterator extends AbstractXmlIterator<JUnitTestResult> {
     // the test at the close of the "suites" element. after each iteration is processed, we need to update the test duration
     // and status if there is a change
     // 2) the test's name is taken from the file name
-    private void handleCodelessTest(XMLEvent event) throws XMLStreamException, IOException, InterruptedException {
-        if (event instanceof StartElement) {
-            StartElement element = (StartElement) event;
-            String localName = element.getName().getLocalPart();
-            if ("file".equals(localName)) {  // NON-NLS
-                filePath = peekNextValue();
-                if(!checkIsCodelessTestResult(filePath)) {
-                    testingToolType = TestingToolType.UFT;
-                    handleJUnitTest(event);
-                } else { // start of a new iteration
-                    filePath = readNextValue();
-                    testingToolType = TestingToolType.CODELESS;
-                    String fileName = filePath.substring(filePath.lastIndexOf("\\") + 1);
-                    testName = fileName.substring(0, fileName.lastIndexOf("-Report"));
-                    readCodelessTestJsonResult(testName, filePath);
-                    currentIterationSteps = new ArrayList<>();
-                    currentJUnitTestResult = testNameToJunitResultMap.get(testName);
-                }
-            } else if ("suite".equals(localName)) { // start of iteration
-                resetTestData();
-            } else if ("case".equals(localName)) { // start of step
-                resetCaseData();
-                insideCaseElement = true;
-            } else if ("duration".equals(localName)) { // NON-NLS
-                if (insideCaseElement) {
-                    stepDuration = parseTime(readNextValue());
-                } else {
-                    testDuration = parseTime(readNextValue());
-                }
-            } else if ("testName".equals(localName)) { //
-                stepName = readNextValue();
-            } else if ("skipped".equals(localName)) { // NON-NLS
-                if ("true".equals(readNextValue())) { // NON-NLS
-                    status = TestResultStatus.SKIPPED;
-                }
-            } else if ("failedSince".equals(localName)) { // NON-NLS
-                if (!"0".equals(readNextValue()) && !TestResultStatus.SKIPPED.equals(status)) {
-                    status = TestResultStatus.FAILED;
-                }
-            } else if ("errorStackTrace".equals(localName)) { // NON-NLS
-                status = TestResultStatus.FAILED;
-                stackTraceStr = "";
-                if (peek() instanceof Characters) {
-                    stackTraceStr = readNextValue();
-                    int index = stackTraceStr.indexOf("at ");
-                    if (index >= 0) {
-                        errorType = stackTraceStr.substring(0, index);
-                    }
-                }
-            } else if ("errorDetails".equals(localName)) { // NON-NLS
+    private void handleCodelessTestStart(int element) throws XMLStreamException, IOException, InterruptedException {
+        if (element == FILE) {
+            filePath = peekNextValue();
+            if(!checkIsCodelessTestResult(filePath)) {
+                testingToolType = TestingToolType.UFT;
+                handleJUnitTestStart(element);
+            } else { // start of a new iteration
+                filePath = readNextValue();
+                testingToolType = TestingToolType.CODELESS;
+                String fileName = filePath.substring(filePath.lastIndexOf("\\") + 1);
+                testName = fileName.substring(0, fileName.lastIndexOf("-Report"));
+                readCodelessTestJsonResult(testName, filePath);
+                currentIterationSteps = new ArrayList<>();
+                currentJUnitTestResult = testNameToJunitResultMap.get(testName);
+            }
+        } else if (element == SUITE) { // start of iteration
+            resetTestData();
+        } else if (element == CASE) { // start of step
+            resetCaseData();
+            insideCaseElement = true;
+        } else if (element == DURATION) {
+            if (insideCaseElement) {
+                stepDuration = parseTime(readNextValue());
+            } else {
+                testDuration = parseTime(readNextValue());
+            }
+        } else if (element == TEST_NAME) {
+            stepName = readNextValue();
+        } else if (element == SKIPPED) {
+            if ("true".equals(readNextValue())) { // NON-NLS
+                status = TestResultStatus.SKIPPED;
+            }
+        } else if (element == FAILED_SINCE) {
+            if (!"0".equals(readNextValue()) && !TestResultStatus.SKIPPED.equals(status)) {
                 status = TestResultStatus.FAILED;
-                errorMsg = readNextValue();
-                int index = stackTraceStr.indexOf(':');
+            }
+        } else if (element == ERROR_STACK_TRACE) {
+            status = TestResultStatus.FAILED;
+            stackTraceStr = readNextValue();
+            if (!stackTraceStr.isEmpty()) {
+                int index = stackTraceStr.indexOf("at ");
                 if (index >= 0) {
                     errorType = stackTraceStr.substring(0, index);
                 }
-                if ((hpRunnerType.equals(HPRunnerType.UFT)|| hpRunnerType.equals(HPRunnerType.UFT_MBT)) && StringUtils.isNotEmpty(errorMsg)) {
-                    parseUftErrorMessages();
-                }
             }
-        } else if (event instanceof EndElement) {
-            EndElement element = (EndElement) event;
-            String localName = element.getName().getLocalPart();
-
-            if ("case".equals(localName)) { // end step
-                errorMsg = StringUtils.length(errorMsg) > ERROR_MESSAGE_MAX_SIZE ? StringUtils.abbreviate(errorMsg,ERROR_MESSAGE_MAX_SIZE) : errorMsg;
-                UftResultStepData stepData = new UftResultStepData(Collections.singletonList(stepName), "", status.toPrettyName(), errorMsg, stepDuration);
-                currentIterationSteps.add(stepData);
-
-                insideCaseElement = false;
-            } else if ("suite".equals(localName)) { // end of iteration, add the junit result
-                UftResultIterationData iterationData = new UftResultIterationData(currentIterationSteps, testDuration);
-                TestResultStatus iterationStatus = TestResultStatus.fromPrettyName(calculateIterationStatus(iterationData));
-                if(currentJUnitTestResult == null) {
-                    List<UftResultIterationData> iterations = new ArrayList<>();
-                    iterations.add(iterationData);
-                    TestError testError = null;
-                    if(iterationStatus.equals(TestResultStatus.FAILED)) {
-                        testError = new TestError("", "", findFirstError(iterationData));
-                    }
-                    // strip the test counter from the test name. but leave it in the map as is since test name is not unique
-                    String actualTestName = testName.substring(testName.indexOf("_") + 1);
-                    currentJUnitTestResult = new JUnitTestResult("", "", "", actualTestName, iterationStatus, testDuration, buildStarted, testError,  "", "", hpRunnerType, this.externalRunId, iterations, octaneSupportsSteps);
-                    testNameToJunitResultMap.put(testName, currentJUnitTestResult);
-                } else { // new iteration to an existing test result
-                    currentJUnitTestResult.setDuration(currentJUnitTestResult.getDuration() + testDuration);
-                    currentJUnitTestResult.getUftResultData().add(iterationData);
-                    if (iterationStatus.equals(TestResultStatus.FAILED) && !currentJUnitTestResult.getResult().equals(TestResultStatus.FAILED)) {
-                        currentJUnitTestResult.setResult(TestResultStatus.FAILED);
-                        TestError testError = new TestError(stackTraceStr, errorType, findFirstError(iterationData));
-                        currentJUnitTestResult.setTestError(testError);
-                    }
+        } else if (element == ERROR_DETAILS) {
+            status = TestResultStatus.FAILED;
+            errorMsg = readNextValue();
+            int index = stackTraceStr.indexOf(':');
+            if (index >= 0) {
+                errorType = stackTraceStr.substring(0, index);
+            }
+            if ((hpRunnerType.equals(HPRunnerType.UFT)|| hpRunnerType.equals(HPRunnerType.UFT_MBT)) && StringUtils.isNotEmpty(errorMsg)) {
+                parseUftErrorMessages();
+            }
+        }
+    }
+
+    private void handleCodelessTestEnd(int element) throws XMLStreamException, IOException, InterruptedException {
+        if (element == CASE) { // end step
+            errorMsg = StringUtils.length(errorMsg) > ERROR_MESSAGE_MAX_SIZE ? StringUtils.abbreviate(errorMsg,ERROR_MESSAGE_MAX_SIZE) : errorMsg;
+            UftResultStepData stepData = new UftResultStepData(Collections.singletonList(stepName), "", status.toPrettyName(), errorMsg, stepDuration);
+            currentIterationSteps.add(stepData);
+
+            insideCaseElement = false;
+        } else if (element == SUITE) { // end of iteration, add the junit result
+            UftResultIterationData iterationData = new UftResultIterationData(currentIterationSteps, testDuration);
+            TestResultStatus iterationStatus = TestResultStatus.fromPrettyName(calculateIterationStatus(iterationData));
+            if(currentJUnitTestResult == null) {
+                List<UftResultIterationData> iterations = new ArrayList<>();
+                iterations.add(iterationData);
+                TestError testError = null;
+                if(iterationStatus.equals(TestResultStatus.FAILED)) {
+                    testError = new TestError("", "", findFirstError(iterationData));
+                }
+                // strip the test counter from the test name. but leave it in the map as is since test name is not unique
+                String actualTestName = testName.substring(testName.indexOf("_") + 1);
+                currentJUnitTestResult = new JUnitTestResult("", "", "", actualTestName, iterationStatus, testDuration, buildStarted, testError,  "", "", hpRunnerType, this.externalRunId, iterations, octaneSupportsSteps);
+                testNameToJunitResultMap.put(testName, currentJUnitTestResult);
+            } else { // new iteration to an existing test result
+                currentJUnitTestResult.setDuration(currentJUnitTestResult.getDuration() + testDuration);
+                currentJUnitTestResult.getUftResultData().add(iterationData);
+                if (iterationStatus.equals(TestResultStatus.FAILED) && !currentJUnitTestResult.getResult().equals(TestResultStatus.FAILED)) {
+                    currentJUnitTestResult.setResult(TestResultStatus.FAILED);
+                    TestError testError = new TestError(stackTraceStr, errorType, findFirstError(iterationData));
+                    currentJUnitTestResult.setTestError(testError);
                 }
-                testingToolType = TestingToolType.UFT;
-            } else if ("suites".equals(localName)) {
-                finalizeCodelessTests();
             }
+            testingToolType = TestingToolType.UFT;
+        } else if (element == SUITES) {
+            finalizeCodelessTests();
         }
     }
 
@@ -596,7 +604,7 @@ public class JUnitXmlIterator extends AbstractXmlIterator<JUnitTestResult> {
 	private void parseUftErrorMessages() {
 		try {
 			if (StringUtils.isNotEmpty(uftResultFilePath)) {
-				String msg = UftTestResultsUtils.getAggregatedErrorMessage(UftTestResultsUtils.getErrorData(new File(uftResultFilePath)));
+				String msg = readUftReport(ERROR_MESSAGE);
 				if (msg.length() >= 255) {
 					msg = msg.substring(0, 250) +" ...";
 				}
@@ -609,6 +617,10 @@ public class JUnitXmlIterator extends AbstractXmlIterator<JUnitTestResult> {
 		}
 	}
 
+	private <T> T readUftReport(UftReports.ReportParser<T> parser) throws Exception {
+		return uftReports != null ? uftReports.read(uftResultFilePath, parser) : parser.parse(new File(uftResultFilePath));
+	}
+
 	private static String tryGetStormRunnerReportURLFromLog(Collection logLines) {
 		//console contains link to report
 		//link start with "View report:"
@@ -658,15 +670,19 @@ public class JUnitXmlIterator extends AbstractXmlIterator<JUnitTestResult> {
 			if (sharedCheckOutDirectory == null) {
 				sharedCheckOutDirectory = "";
 			}
-			String pathToTest;
-			if (StringUtils.isEmpty(sharedCheckOutDirectory)) {
-				pathToTest = workspace.getRemote();
-			} else {
-				pathToTest = Paths.get(sharedCheckOutDirectory).isAbsolute() ?
-						sharedCheckOutDirectory :
-						Paths.get(FilenameUtils.separatorsToSystem(workspace.getRemote()),
-								FilenameUtils.separatorsToSystem(sharedCheckOutDirectory))
-							 .toFile().getCanonicalPath();
+			//the same for all the tests, resolved once
+			String pathToTest = uftTestsPath;
+			if (pathToTest == null) {
+				if (StringUtils.isEmpty(sharedCheckOutDirectory)) {
+					pathToTest = workspace.getRemote();
+				} else {
+					pathToTest = Paths.get(sharedCheckOutDirectory).isAbsolute() ?
+							sharedCheckOutDirectory :
+							Paths.get(FilenameUtils.separatorsToSystem(workspace.getRemote()),
+									FilenameUtils.separatorsToSystem(sharedCheckOutDirectory))
+								 .toFile().getCanonicalPath();
+				}
+				uftTestsPath = pathToTest;
 			}
 
 
@@ -0,0 +1,135 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.tests.junit;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The UFT report folders created by a build, indexed once for all the tests of its JUnit reports,
+ * and the run results read from them, so that each run results file is parsed once.
+ */
+final class UftReports {
+	private static final int MAX_CACHED_REPORTS = 64;
+	private static final Object NO_RESULT = new Object();
+	private final String basePath;
+	private final List<String> folders;
+	private final boolean[] taken;
+	// the folders by each of their prefixes that ends with '[', in creation order
+	private final Map<String, ArrayDeque<Integer>> index = new HashMap<>();
+	private final Map<String, String> reportRoots = new HashMap<>();
+	private final Map<String, Map<ReportParser<?>, Object>> results = new LinkedHashMap<String, Map<ReportParser<?>, Object>>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Map<ReportParser<?>, Object>> eldest) {
+			return size() > MAX_CACHED_REPORTS;
+		}
+	};
+
+	/**
+	 * @param createdTests the build root directory, followed by the names of the report folders
+	 */
+	UftReports(List<String> createdTests) {
+		basePath = createdTests.isEmpty() ? null : createdTests.get(0);
+		folders = new ArrayList<>(createdTests.subList(Math.min(1, createdTests.size()), createdTests.size()));
+		taken = new boolean[folders.size()];
+		for (int i = 0; i < folders.size(); i++) {
+			String folder = folders.get(i);
+			for (int end = folder.indexOf('['); end >= 0; end = folder.indexOf('[', end + 1)) {
+				index.computeIfAbsent(folder.substring(0, end + 1), key -> new ArrayDeque<>()).add(i);
+			}
+		}
+	}
+
+	String getBasePath() {
+		return basePath;
+	}
+
+	/**
+	 * Takes the first report folder of a test that was not taken yet. The folders are named after the test, with the
+	 * number of the test instance: GUITest1[1], GUITest1[2].
+	 *
+	 * @return the folder name, or null if UFT did not create a report for the test
+	 */
+	String takeFolder(String testName) {
+		ArrayDeque<Integer> candidates = index.get(testName + "[");
+		while (candidates != null && !candidates.isEmpty()) {
+			int i = candidates.poll();
+			if (!taken[i]) {
+				taken[i] = true;
+				return folders.get(i);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @param nodeNameSubFolder the folder of the node that ran the tests, followed by '/', or empty
+	 */
+	String getReportPath(String nodeNameSubFolder, String folder) throws IOException {
+		String reportRoot = reportRoots.get(nodeNameSubFolder);
+		if (reportRoot == null) {
+			reportRoot = Paths.get(basePath, "archive", "UFTReport", nodeNameSubFolder).toFile().getCanonicalPath();
+			reportRoots.put(nodeNameSubFolder, reportRoot);
+		}
+		return Paths.get(reportRoot, folder, "Result", "run_results.xml").toString();
+	}
+
+	/**
+	 * Reads a run results file with a parser, or returns the result it already read. Failures are kept as well, so the
+	 * file is not read again.
+	 */
+	@SuppressWarnings("unchecked")
+	<T> T read(String reportPath, ReportParser<T> parser) throws Exception {
+		Map<ReportParser<?>, Object> reportResults = results.computeIfAbsent(reportPath, key -> new HashMap<>());
+		Object result = reportResults.get(parser);
+		if (result == null) {
+			try {
+				result = parser.parse(new File(reportPath));
+			} catch (Exception e) {
+				result = e;
+			}
+			reportResults.put(parser, result != null ? result : NO_RESULT);
+		}
+		if (result instanceof Exception) {
+			throw (Exception) result;
+		}
+		return result == NO_RESULT ? null : (T) result;
+	}
+
+	interface ReportParser<T> {
+		T parse(File report) throws Exception;
+	}
+}
@@ -33,79 +33,216 @@ import hudson.util.IOUtils;
 
 import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.stream.events.Characters;
 import javax.xml.stream.events.EndElement;
 import javax.xml.stream.events.XMLEvent;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.LinkedList;
 import java.util.NoSuchElementException;
 
+/**
+ * Base of pull iterators that turn an XML stream into items.
+ *
+ * Subclasses created with an {@link ElementNameTable} are driven by the {@link XMLStreamReader} cursor:
+ * they get {@link #onStartElement(int)} and {@link #onEndElement(int)} with the index of the element name,
+ * and no event objects are allocated. Subclasses created without one keep the {@link XMLEventReader}
+ * contract and get every event through {@link #onEvent(XMLEvent)}.
+ */
 public abstract class AbstractXmlIterator<E> {
 
+    private static final int INITIAL_QUEUE_CAPACITY = 16;
+
     private InputStream is;
     protected XMLEventReader reader;
-    private LinkedList<E> queue;
+    protected XMLStreamReader cursor;
+    private final ElementNameTable elementNames;
     private boolean closed;
 
+    // ring queue of parsed items
+    private Object[] queue = new Object[INITIAL_QUEUE_CAPACITY];
+    private int queueHead;
+    private int queueSize;
+
+    // the current cursor event was reached by reading a value and is not dispatched yet
+    private boolean pending;
+    private String peekedValue;
+    private char[] textBuffer = new char[256];
+
     public AbstractXmlIterator(InputStream is) throws XMLStreamException {
         this.is = is;
+        this.elementNames = null;
         reader = createXmlInputFactory().createXMLEventReader(is);
-        queue = new LinkedList<>();
+    }
+
+    protected AbstractXmlIterator(InputStream is, ElementNameTable elementNames) throws XMLStreamException {
+        this.is = is;
+        this.elementNames = elementNames;
+        cursor = createXmlInputFactory().createXMLStreamReader(is);
     }
 
     public XMLEvent peek() throws XMLStreamException {
+        if (reader == null) {
+            throw new IllegalStateException("peek() is not available for cursor based iterators");
+        }
         return reader.peek();
     }
 
     public boolean hasNext() throws XMLStreamException, IOException, InterruptedException {
-        while (queue.isEmpty() && !closed) {
-            if (reader.hasNext()) {
-                onEvent(reader.nextEvent());
+        while (queueSize == 0 && !closed) {
+            if (reader != null) {
+                if (reader.hasNext()) {
+                    onEvent(reader.nextEvent());
+                } else {
+                    close();
+                }
             } else {
-                try {
-                    reader.close();
-                } catch (XMLStreamException e) {
-                    // close quietly
+                int eventType;
+                if (pending) {
+                    pending = false;
+                    eventType = cursor.getEventType();
+                } else if (cursor.hasNext()) {
+                    eventType = cursor.next();
+                } else {
+                    close();
+                    continue;
+                }
+                peekedValue = null;
+                if (eventType == XMLStreamConstants.START_ELEMENT) {
+                    onStartElement(elementNames.indexOf(cursor.getLocalName()));
+                } else if (eventType == XMLStreamConstants.END_ELEMENT) {
+                    onEndElement(elementNames.indexOf(cursor.getLocalName()));
                 }
-                IOUtils.closeQuietly(is);
-                closed = true;
             }
         }
-        return !queue.isEmpty();
+        return queueSize > 0;
     }
 
+    @SuppressWarnings("unchecked")
     public E next() throws XMLStreamException, IOException, InterruptedException {
         if (!hasNext()) {
             throw new NoSuchElementException();
         } else {
-            return queue.removeFirst();
+            E item = (E) queue[queueHead];
+            queue[queueHead] = null;
+            queueHead = (queueHead + 1) & (queue.length - 1);
+            queueSize--;
+            return item;
         }
     }
 
-    protected abstract void onEvent(XMLEvent event) throws XMLStreamException, IOException, InterruptedException;
+    /**
+     * Event callback of iterators created without an {@link ElementNameTable}.
+     */
+    protected void onEvent(XMLEvent event) throws XMLStreamException, IOException, InterruptedException {
+        // only called for event based iterators
+    }
+
+    /**
+     * Called with the cursor on a start element.
+     * @param element index of the local name in the {@link ElementNameTable}, or {@link ElementNameTable#UNKNOWN}
+     */
+    protected void onStartElement(int element) throws XMLStreamException, IOException, InterruptedException {
+        // nothing by default
+    }
+
+    /**
+     * Called with the cursor on an end element.
+     * @param element index of the local name in the {@link ElementNameTable}, or {@link ElementNameTable#UNKNOWN}
+     */
+    protected void onEndElement(int element) throws XMLStreamException, IOException, InterruptedException {
+        // nothing by default
+    }
 
     protected void addItem(E item) {
-        queue.add(item);
+        if (queueSize == queue.length) {
+            Object[] grown = new Object[queue.length * 2];
+            for (int i = 0; i < queueSize; i++) {
+                grown[i] = queue[(queueHead + i) & (queue.length - 1)];
+            }
+            queue = grown;
+            queueHead = 0;
+        }
+        queue[(queueHead + queueSize) & (queue.length - 1)] = item;
+        queueSize++;
     }
 
     protected String readNextValue() throws XMLStreamException {
-        XMLEvent nextEvent = reader.nextEvent();
-        if(nextEvent instanceof EndElement){
-            return "";
-        } else {
-            return ((Characters)nextEvent).getData();
+        if (reader != null) {
+            XMLEvent nextEvent = reader.nextEvent();
+            if (nextEvent instanceof EndElement) {
+                return "";
+            } else {
+                return ((Characters) nextEvent).getData();
+            }
         }
+        if (peekedValue != null) {
+            String value = peekedValue;
+            peekedValue = null;
+            return value;
+        }
+        return readText();
     }
 
     protected String peekNextValue() throws XMLStreamException {
-        XMLEvent event = reader.peek();
-        if(event instanceof EndElement){
+        if (reader != null) {
+            XMLEvent event = reader.peek();
+            if (event instanceof EndElement) {
+                return "";
+            } else {
+                return ((Characters) event).getData();
+            }
+        }
+        if (peekedValue == null) {
+            peekedValue = readText();
+        }
+        return peekedValue;
+    }
+
+    /**
+     * Reads the text of the current element up to the next element boundary, which is left for dispatching.
+     */
+    private String readText() throws XMLStreamException {
+        if (pending) {
+            // the element has no text left
             return "";
-        } else {
-            return ((Characters)event).getData();
         }
+        int length = 0;
+        while (cursor.hasNext()) {
+            int eventType = cursor.next();
+            if (eventType == XMLStreamConstants.CHARACTERS
+                    || eventType == XMLStreamConstants.CDATA
+                    || eventType == XMLStreamConstants.SPACE) {
+                int textLength = cursor.getTextLength();
+                if (length + textLength > textBuffer.length) {
+                    char[] grown = new char[Math.max(textBuffer.length * 2, length + textLength)];
+                    System.arraycopy(textBuffer, 0, grown, 0, length);
+                    textBuffer = grown;
+                }
+                System.arraycopy(cursor.getTextCharacters(), cursor.getTextStart(), textBuffer, length, textLength);
+                length += textLength;
+            } else if (eventType != XMLStreamConstants.COMMENT && eventType != XMLStreamConstants.PROCESSING_INSTRUCTION) {
+                pending = true;
+                break;
+            }
+        }
+        return length == 0 ? "" : new String(textBuffer, 0, length);
+    }
+
+    private void close() {
+        try {
+            if (reader != null) {
+                reader.close();
+            } else {
+                cursor.close();
+            }
+        } catch (XMLStreamException e) {
+            // close quietly
+        }
+        IOUtils.closeQuietly(is);
+        closed = true;
     }
 
     private static XMLInputFactory createXmlInputFactory() {
@@ -0,0 +1,89 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.tests.xml;
+
+/**
+ * Fixed set of element local names, looked up by an open addressing table.
+ * The index of a name is its position in the constructor arguments, so subclasses of
+ * {@link AbstractXmlIterator} can switch on constant ints instead of comparing strings.
+ */
+public final class ElementNameTable {
+
+    public static final int UNKNOWN = -1;
+
+    private final String[] names;
+    private final int[] slots;
+    private final int mask;
+
+    public ElementNameTable(String... names) {
+        this.names = names.clone();
+        int capacity = Integer.highestOneBit(Math.max(names.length, 1) * 4 - 1) << 1;
+        slots = new int[capacity];
+        mask = capacity - 1;
+        for (int i = 0; i < names.length; i++) {
+            if (indexOf(names[i]) != UNKNOWN) {
+                throw new IllegalArgumentException("Duplicate element name: " + names[i]);
+            }
+            int slot = spread(names[i].hashCode()) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = i + 1;
+        }
+    }
+
+    /**
+     * @return index of the name, or {@link #UNKNOWN}
+     */
+    public int indexOf(String localName) {
+        int slot = spread(localName.hashCode()) & mask;
+        int entry;
+        while ((entry = slots[slot]) != 0) {
+            String name = names[entry - 1];
+            // StAX parsers intern local names, so the identity check usually decides
+            if (name == localName || name.equals(localName)) {
+                return entry - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return UNKNOWN;
+    }
+
+    public String nameOf(int index) {
+        return index == UNKNOWN ? null : names[index];
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
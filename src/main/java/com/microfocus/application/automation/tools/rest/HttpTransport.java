@@ -26,25 +26,29 @@
  * ___________________________________________________________________
  */
 
-package com.microfocus.application.automation.tools.results.parser;
+package com.microfocus.application.automation.tools.rest;
 
-import java.io.InputStream;
-import java.util.List;
+import java.io.IOException;
+import java.net.URL;
+import java.util.Map;
 
-import com.microfocus.application.automation.tools.results.parser.nunit.NUnitReportParserImpl;
-import com.microfocus.application.automation.tools.results.service.almentities.AlmTestSet;
-import org.junit.Assert;
+import com.microfocus.application.automation.tools.sse.sdk.Response;
 
-@SuppressWarnings({"squid:S2699","squid:S3658"})
-public class TestNUnitReportParserImpl {
-
-	//@Test
-	public void testParseTestSets() throws Exception{
-		InputStream in = TestNUnitReportParserImpl.class.getResourceAsStream("NUnitReport.xml");
-		NUnitReportParserImpl parser = new NUnitReportParserImpl();
-		List<AlmTestSet> testsets = parser.parseTestSets(in, "NUnit", "Selenium");
-		Assert.assertEquals(1, testsets.size());
-		Assert.assertEquals("NUnit_Test1.dll_ExampleTestOfNUnit", testsets.get(0).getName());
-	}
+/**
+ * Wire level transport used by {@link RestClient} to send a single HTTP request.
+ * Cookies, user info headers, redirects and error wrapping are handled by the client, so an
+ * implementation only has to move bytes and must not follow redirects itself.
+ */
+public interface HttpTransport {
 
+    /**
+     * Sends a request and reads the whole response.
+     * @param method http method, e.g. GET
+     * @param url full request url, including the query string
+     * @param headers request headers, never null
+     * @param data request body, or null when there is none
+     * @return the response, with a failure set for non 2xx status codes
+     * @throws IOException if the request could not be sent or the response could not be read
+     */
+    Response execute(String method, URL url, Map<String, String> headers, byte[] data) throws IOException;
 }
@@ -26,59 +26,41 @@
  * ___________________________________________________________________
  */
 
-package com.microfocus.application.automation.tools.octane.tests.impl;
+package com.microfocus.application.automation.tools.rest;
 
-import com.microfocus.application.automation.tools.octane.configuration.SDKBasedLoggerProvider;
-import hudson.FilePath;
-import org.apache.logging.log4j.Logger;
+import java.net.URL;
 
-import java.io.BufferedInputStream;
-import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.util.Iterator;
-import java.util.NoSuchElementException;
-
-public class ObjectStreamIterator<E> implements Iterator<E> {
-    private static Logger logger = SDKBasedLoggerProvider.getLogger(ObjectStreamIterator.class);
-
-    private ObjectInputStream ois;
-    private E next;
-
-    public ObjectStreamIterator(FilePath filePath) throws IOException, InterruptedException {
-        this.ois = new ObjectInputStream(new BufferedInputStream(filePath.read()));
-    }
+/**
+ * Timing hooks of a {@link PooledHttpTransport}. Callbacks run on the requesting thread,
+ * so implementations should be cheap and thread safe.
+ */
+public interface HttpTransportListener {
 
-    @Override
-    public boolean hasNext() {
-        if (next != null) {
-            return true;
-        }
-        try {
-            next = (E) ois.readObject();
-            return true;
-        } catch (Throwable e) {
-            try {
-                ois.close();
-            } catch (IOException ioe) {
-                logger.error("Failed to close the stream", ioe); // NON-NLS
-            }
-            return false;
-        }
-    }
+    /**
+     * Called once the response status and headers are available.
+     * @param method http method
+     * @param url request url
+     * @param statusCode response status code
+     * @param headersNanos time from opening the connection until the headers arrived
+     */
+    void onResponseHeaders(String method, URL url, int statusCode, long headersNanos);
 
-    @Override
-    public E next() {
-        if (hasNext()) {
-            E value = next;
-            next = null;
-            return value;
-        } else {
-            throw new NoSuchElementException();
-        }
-    }
+    /**
+     * Called once the response body has been read.
+     * @param method http method
+     * @param url request url
+     * @param statusCode response status code
+     * @param bodyLength number of body bytes read
+     * @param totalNanos time from opening the connection until the body was read
+     */
+    void onResponseCompleted(String method, URL url, int statusCode, long bodyLength, long totalNanos);
 
-    @Override
-    public void remove() {
-        throw new UnsupportedOperationException();
-    }
+    /**
+     * Called when the request fails before a complete response was read.
+     * @param method http method
+     * @param url request url
+     * @param cause the failure
+     * @param totalNanos time from opening the connection until the failure
+     */
+    void onFailure(String method, URL url, Exception cause, long totalNanos);
 }
@@ -0,0 +1,250 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.rest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.security.KeyManagementException;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.Semaphore;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+
+import com.microfocus.application.automation.tools.common.SSEException;
+import com.microfocus.application.automation.tools.sse.sdk.Response;
+import hudson.ProxyConfiguration;
+
+/**
+ * Default {@link HttpTransport}, based on {@link HttpURLConnection}.
+ *
+ * Response bodies are always read to the end and closed, so the JDK keeps the socket alive and
+ * hands it to the next request to the same server. Each transport owns its SSL socket factory:
+ * HTTPS sockets are only reused by requests of the same transport, and TLS sessions are resumed
+ * from the session cache of its own SSL context. The number of requests in flight is bounded by
+ * {@code maxConnections}, which keeps the set of open sockets of one client small.
+ */
+public class PooledHttpTransport implements HttpTransport {
+
+    /** Same as the JDK default of the http.maxConnections keep-alive setting. */
+    public static final int DEFAULT_MAX_CONNECTIONS = 5;
+    public static final long DEFAULT_MAX_RESPONSE_BYTES = 256L * 1024 * 1024;
+
+    private static final int READ_CHUNK_SIZE = 8192;
+
+    private static final HostnameVerifier TRUST_ALL_HOSTS = new HostnameVerifier() {
+        @Override
+        public boolean verify(String hostname, SSLSession sslSession) {
+            return true;
+        }
+    };
+
+    private final Semaphore connections;
+    private final long maxResponseBytes;
+    private final HttpTransportListener listener;
+    private final SSLSocketFactory sslSocketFactory;
+
+    public PooledHttpTransport() {
+        this(DEFAULT_MAX_CONNECTIONS, DEFAULT_MAX_RESPONSE_BYTES, null);
+    }
+
+    /**
+     * @param maxConnections maximum number of requests in flight
+     * @param maxResponseBytes maximum size of a response body
+     * @param listener timing hooks, may be null
+     */
+    public PooledHttpTransport(int maxConnections, long maxResponseBytes, HttpTransportListener listener) {
+        if (maxConnections < 1) {
+            throw new IllegalArgumentException("maxConnections must be positive: " + maxConnections);
+        }
+        if (maxResponseBytes < 0 || maxResponseBytes > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("maxResponseBytes out of range: " + maxResponseBytes);
+        }
+        this.connections = new Semaphore(maxConnections, true);
+        this.maxResponseBytes = maxResponseBytes;
+        this.listener = listener;
+        this.sslSocketFactory = createTrustAllContext().getSocketFactory();
+    }
+
+    public long getMaxResponseBytes() {
+        return maxResponseBytes;
+    }
+
+    @Override
+    public Response execute(String method, URL url, Map<String, String> headers, byte[] data) throws IOException {
+        try {
+            connections.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a connection to " + url.getHost());
+        }
+
+        long start = System.nanoTime();
+        HttpURLConnection connection = null;
+        boolean reusable = false;
+        try {
+            connection = (HttpURLConnection) ProxyConfiguration.open(url);
+            if (connection instanceof HttpsURLConnection) {
+                ((HttpsURLConnection) connection).setSSLSocketFactory(sslSocketFactory);
+                ((HttpsURLConnection) connection).setHostnameVerifier(TRUST_ALL_HOSTS);
+            }
+            // the client follows redirects itself, to keep the cookies of each hop
+            connection.setInstanceFollowRedirects(false);
+            connection.setRequestMethod(method);
+            for (Entry<String, String> header : headers.entrySet()) {
+                connection.setRequestProperty(header.getKey(), header.getValue());
+            }
+            if (data != null && data.length > 0) {
+                connection.setDoOutput(true);
+                try (OutputStream out = connection.getOutputStream()) {
+                    out.write(data);
+                }
+            }
+
+            Response ret = new Response();
+            int statusCode = connection.getResponseCode();
+            ret.setStatusCode(statusCode);
+            ret.setHeaders(connection.getHeaderFields());
+            if (listener != null) {
+                listener.onResponseHeaders(method, url, statusCode, System.nanoTime() - start);
+            }
+
+            InputStream body;
+            // for 4xx and 5xx the server page is kept as the response data, and the exception as the failure
+            try {
+                body = connection.getInputStream();
+            } catch (IOException e) {
+                body = connection.getErrorStream();
+                ret.setFailure(e);
+            }
+            byte[] bytes = readBody(body, connection.getContentLengthLong());
+            ret.setData(bytes);
+            reusable = true;
+
+            if (listener != null) {
+                listener.onResponseCompleted(method, url, statusCode, bytes.length, System.nanoTime() - start);
+            }
+            return ret;
+        } catch (IOException | RuntimeException e) {
+            if (listener != null) {
+                listener.onFailure(method, url, e, System.nanoTime() - start);
+            }
+            throw e;
+        } finally {
+            if (!reusable && connection != null) {
+                // the socket is in an unknown state, don't let it go back to the keep-alive cache
+                connection.disconnect();
+            }
+            connections.release();
+        }
+    }
+
+    /**
+     * Reads the body to the end, which lets the connection be reused.
+     */
+    private byte[] readBody(InputStream body, long contentLength) throws IOException {
+        if (body == null) {
+            return new byte[0];
+        }
+        try (InputStream in = body) {
+            if (contentLength > maxResponseBytes) {
+                throw tooLarge(contentLength);
+            }
+            byte[] buf = new byte[contentLength >= 0 ? (int) contentLength : READ_CHUNK_SIZE];
+            int size = 0;
+            while (true) {
+                if (size == buf.length) {
+                    // either the announced length was reached, or the buffer has to grow
+                    int next = in.read();
+                    if (next < 0) {
+                        break;
+                    }
+                    if (size + 1L > maxResponseBytes) {
+                        throw tooLarge(size + 1L);
+                    }
+                    buf = Arrays.copyOf(buf, (int) Math.min(Math.max(buf.length * 2L, READ_CHUNK_SIZE), maxResponseBytes));
+                    buf[size++] = (byte) next;
+                }
+                int read = in.read(buf, size, buf.length - size);
+                if (read < 0) {
+                    break;
+                }
+                size += read;
+            }
+            return size == buf.length ? buf : Arrays.copyOf(buf, size);
+        }
+    }
+
+    private IOException tooLarge(long length) {
+        return new IOException(String.format(
+                "Response body of %d bytes exceeds the limit of %d bytes",
+                length,
+                maxResponseBytes));
+    }
+
+    /**
+     * ALM servers commonly use self signed certificates, so the transport trusts any certificate.
+     */
+    private static SSLContext createTrustAllContext() {
+        X509TrustManager trustManager = new X509TrustManager() {
+            @Override
+            public void checkClientTrusted(X509Certificate[] chain, String authType) {
+                // Don't do anything.
+            }
+            @Override
+            public void checkServerTrusted(X509Certificate[] chain, String authType) {
+                // Don't do anything.
+            }
+            @Override
+            public X509Certificate[] getAcceptedIssuers() {
+                return new X509Certificate[0];
+            }
+        };
+        try {
+            SSLContext sslContext = SSLContext.getInstance("TLS");
+            sslContext.init(null, new TrustManager[] { trustManager }, null);
+            return sslContext;
+        } catch (KeyManagementException | NoSuchAlgorithmException e) {
+            throw new SSEException(e);
+        }
+    }
+}
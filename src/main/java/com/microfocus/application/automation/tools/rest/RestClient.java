@@ -28,39 +28,24 @@
 
 package com.microfocus.application.automation.tools.rest;
 
-import java.io.ByteArrayOutputStream;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.net.CookieHandler;
+import java.io.IOException;
 import java.net.CookieManager;
 import java.net.HttpCookie;
 import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
-import java.security.KeyManagementException;
-import java.security.NoSuchAlgorithmException;
-import java.security.cert.CertificateException;
-import java.security.cert.X509Certificate;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.UUID;
 
-import javax.net.ssl.HostnameVerifier;
-import javax.net.ssl.HttpsURLConnection;
-import javax.net.ssl.SSLContext;
-import javax.net.ssl.SSLSession;
-import javax.net.ssl.TrustManager;
-import javax.net.ssl.X509TrustManager;
-
 import com.microfocus.application.automation.tools.common.SSEException;
 import com.microfocus.application.automation.tools.sse.sdk.Client;
 import com.microfocus.application.automation.tools.sse.sdk.ResourceAccessLevel;
 import com.microfocus.application.automation.tools.sse.sdk.Response;
-import hudson.ProxyConfiguration;
-
 import com.microfocus.application.automation.tools.sse.sdk.HttpRequestDecorator;
 
 import com.microfocus.adm.performancecenter.plugins.common.rest.RESTConstants;
@@ -80,54 +65,25 @@ public class RestClient implements Client {
     private final String _username;
     private final String XSRF_TOKEN_VALUE;
 
-    private CookieManager cookieManager;
+    private static final int MAX_REDIRECTS = 20;
+    private static final int HTTP_TEMPORARY_REDIRECT = 307;
+    private static final int HTTP_PERMANENT_REDIRECT = 308;
+    private static final String LOCATION = "Location";
+
+    private final CookieManager cookieManager;
+    private final HttpTransport transport;
 
     /**
-     * Configure SSL context for the client.
+     * Constructor for setting rest client properties.
      */
-    static {
-        // First create a trust manager that won't care.
-        X509TrustManager trustManager = new X509TrustManager() {
-            @Override
-            public void checkClientTrusted(X509Certificate[] chain, String authType) throws CertificateException {
-                // Don't do anything.
-            }
-            @Override
-            public void checkServerTrusted(X509Certificate[] chain, String authType) throws CertificateException {
-                // Don't do anything.
-            }
-            @Override
-            public X509Certificate[] getAcceptedIssuers() {
-                // Don't do anything.
-                return null;
-            }
-
-        };
-        // Now put the trust manager into an SSLContext.
-        SSLContext sslcontext;
-        try {
-            sslcontext = SSLContext.getInstance("SSL");
-            sslcontext.init(null, new TrustManager[] { trustManager }, null);
-        } catch (KeyManagementException | NoSuchAlgorithmException e) {
-            throw new SSEException(e);
-        }
-        
-        HttpsURLConnection.setDefaultSSLSocketFactory(sslcontext.getSocketFactory());
-        
-        //Ignore hostname verify
-        HttpsURLConnection.setDefaultHostnameVerifier(
-            new HostnameVerifier(){
-                public boolean verify(String hostname, SSLSession sslSession) {
-                    return true;
-                }
-            }
-        );
+    public RestClient(String url, String domain, String project, String username) {
+        this(url, domain, project, username, new PooledHttpTransport());
     }
 
     /**
-     * Constructor for setting rest client properties.
+     * Constructor for setting rest client properties and the transport used to send requests.
      */
-    public RestClient(String url, String domain, String project, String username) {
+    public RestClient(String url, String domain, String project, String username, HttpTransport transport) {
 
         if (!url.endsWith("/")) {
             url = String.format("%s/", url);
@@ -141,9 +97,10 @@ public class RestClient implements Client {
                         String.format("projects/%s", project));
         _webuiPrefix = getPrefixUrl("webui/alm", domain, project);
 
+        this.transport = transport;
         XSRF_TOKEN_VALUE = UUID.randomUUID().toString();
+        // cookies are kept per client, so sessions of parallel jobs don't mix
         cookieManager = new CookieManager();
-        CookieHandler.setDefault(cookieManager);
         URI uri = null;
         try {
             uri = new URI(url);
@@ -280,8 +237,7 @@ public class RestClient implements Client {
             url += "?" + queryString;
         }
         try {
-            HttpURLConnection connection = (HttpURLConnection)ProxyConfiguration.open(new URL(url));
-            connection.setRequestMethod(type);
+            URL target = new URL(url);
 
             Map<String, String> decoratedHeaders = new HashMap<String, String>();
             if (headers != null) {
@@ -293,9 +249,32 @@ public class RestClient implements Client {
                     getUsername(),
                     resourceAccessLevel);
 
-            prepareHttpRequest(connection, decoratedHeaders, data);
-            connection.connect();
-            ret = retrieveHtmlResponse(connection);
+            // redirects are followed here rather than by the connection, so that cookies set on every hop are kept
+            String method = type;
+            byte[] body = data;
+            for (int redirects = 0; ; redirects++) {
+                // query strings of ALM requests are not always valid URIs, cookies only need the path
+                URI uri = new URI(target.getProtocol(), null, target.getHost(), target.getPort(), target.getPath(), null, null);
+                Map<String, String> hopHeaders = new HashMap<String, String>(decoratedHeaders);
+                addCookieHeaders(uri, hopHeaders);
+                ret = transport.execute(method, target, hopHeaders, body);
+                if (ret.getHeaders() != null) {
+                    cookieManager.put(uri, ret.getHeaders());
+                }
+                URL location = getRedirectLocation(target, ret);
+                if (location == null || redirects >= MAX_REDIRECTS) {
+                    break;
+                }
+                int status = ret.getStatusCode();
+                if (status == HttpURLConnection.HTTP_SEE_OTHER
+                        || (RESTConstants.POST.equals(method) && status != HTTP_TEMPORARY_REDIRECT && status != HTTP_PERMANENT_REDIRECT)) {
+                    // same as HttpURLConnection: the redirected POST becomes a GET without body
+                    method = RESTConstants.GET;
+                    body = null;
+                    decoratedHeaders.remove(RESTConstants.CONTENT_TYPE);
+                }
+                target = location;
+            }
         } catch (Exception cause) {
             throw new SSEException(cause);
         }
@@ -304,94 +283,49 @@ public class RestClient implements Client {
     }
 
     /**
-     * Prepare http request
-     */
-    private void prepareHttpRequest(
-            HttpURLConnection connnection,
-            Map<String, String> headers,
-            byte[] bytes) {
-        setConnectionHeaders(connnection, headers);
-        setConnectionData(connnection, bytes);
-    }
-
-    /**
-     * Set connection data
+     * @return where the response redirects to, null if it is not a redirect that HttpURLConnection would follow
      */
-    private void setConnectionData(HttpURLConnection connnection, byte[] bytes) {
-
-        if (bytes != null && bytes.length > 0) {
-            connnection.setDoOutput(true);
-            try {
-                OutputStream out = connnection.getOutputStream();
-                out.write(bytes);
-                out.flush();
-                out.close();
-            } catch (Exception cause) {
-                throw new SSEException(cause);
-            }
+    private static URL getRedirectLocation(URL target, Response response) throws IOException {
+        int status = response.getStatusCode();
+        if (status < HttpURLConnection.HTTP_MULT_CHOICE || status > HTTP_PERMANENT_REDIRECT
+                || status == HttpURLConnection.HTTP_NOT_MODIFIED || status == HttpURLConnection.HTTP_USE_PROXY
+                || response.getHeaders() == null) {
+            return null;
         }
-    }
-
-    /**
-     * Set connection headers
-     */
-    private void setConnectionHeaders(HttpURLConnection connnection, Map<String, String> headers) {
-
-        if (headers != null) {
-            Iterator<Entry<String, String>> headersIterator = headers.entrySet().iterator();
-            while (headersIterator.hasNext()) {
-                Entry<String, String> header = headersIterator.next();
-                connnection.setRequestProperty(header.getKey(), header.getValue());
+        for (Entry<String, List<String>> header : response.getHeaders().entrySet()) {
+            if (LOCATION.equalsIgnoreCase(header.getKey()) && !header.getValue().isEmpty()) {
+                URL location = new URL(target, header.getValue().get(0));
+                // no switch between http and https, as HttpURLConnection
+                return location.getProtocol().equalsIgnoreCase(target.getProtocol()) ? location : null;
             }
         }
+        return null;
     }
 
     /**
-     * Retrieve Html Response
-     * @param connection
-     *            that is already connected to its url with an http request, and that should contain
-     *            a response for us to retrieve
-     * @return a response from the server to the previously submitted http request
+     * Add the cookies of this client that match the request uri
      */
-    private Response retrieveHtmlResponse(HttpURLConnection connection) {
-
-        Response ret = new Response();
+    private void addCookieHeaders(URI uri, Map<String, String> headers) throws IOException {
 
-        try {
-            ret.setStatusCode(connection.getResponseCode());
-            ret.setHeaders(connection.getHeaderFields());
-        } catch (Exception cause) {
-            throw new SSEException(cause);
-        }
-
-        InputStream inputStream;
-        // select the source of the input bytes, first try 'regular' input
-        try {
-            inputStream = connection.getInputStream();
-        }
-        // if the connection to the server somehow failed, for example 404 or 500,
-        // con.getInputStream() will throw an exception, which we'll keep.
-        // we'll also store the body of the exception page, in the response data. */
-        catch (Exception e) {
-            inputStream = connection.getErrorStream();
-            ret.setFailure(e);
-        }
-
-        // this takes data from the previously set stream (error or input)
-        // and stores it in a byte[] inside the response
-        ByteArrayOutputStream container = new ByteArrayOutputStream();
-        byte[] buf = new byte[1024];
-        int read;
-        try {
-            while ((read = inputStream.read(buf, 0, 1024)) > 0) {
-                container.write(buf, 0, read);
+        Map<String, List<String>> cookieHeaders =
+                cookieManager.get(uri, Collections.<String, List<String>>emptyMap());
+        for (Entry<String, List<String>> cookieHeader : cookieHeaders.entrySet()) {
+            if (cookieHeader.getValue().isEmpty()) {
+                continue;
             }
-            ret.setData(container.toByteArray());
-        } catch (Exception ex) {
-            throw new SSEException(ex);
+            StringBuilder value = new StringBuilder();
+            String existing = headers.get(cookieHeader.getKey());
+            if (existing != null && !existing.isEmpty()) {
+                value.append(existing);
+            }
+            for (String cookie : cookieHeader.getValue()) {
+                if (value.length() > 0) {
+                    value.append("; ");
+                }
+                value.append(cookie);
+            }
+            headers.put(cookieHeader.getKey(), value.toString());
         }
-
-        return ret;
     }
 
     @Override
@@ -30,6 +30,7 @@ package com.microfocus.application.automation.tools.results;
 
 import com.microfocus.application.automation.tools.results.projectparser.performance.AvgTransactionResponseTime;
 import com.microfocus.application.automation.tools.results.projectparser.performance.LrProjectScenarioResults;
+import com.microfocus.application.automation.tools.results.projectparser.performance.LrScenarioTrend;
 import com.microfocus.application.automation.tools.results.projectparser.performance.PercentileTransactionWholeRun;
 import com.microfocus.application.automation.tools.results.projectparser.performance.TimeRangeResult;
 import com.microfocus.application.automation.tools.results.projectparser.performance.WholeRunResult;
@@ -103,6 +104,51 @@ public final class LrGraphUtils {
         JSONObject percentileTransactionResultsGraphSet =
                 extractPercentileTransactionSet(percentileTransactionResults,
                         scenarioResults.getValue().getTransactions());
+        addPercentileTransactionGraph(percentileTransactionResultsGraphSet, scenarioGraphData);
+    }
+
+    /**
+     * creates dataset for Percentile transaction graph from the trend index
+     *
+     * @param scenarioTrend     the relative scenario trend to create the graph
+     * @param scenarioGraphData the target graph data set
+     */
+    static void constructPercentileTransactionGraph(LrScenarioTrend scenarioTrend, JSONObject scenarioGraphData) {
+        JSONObject graphDataSet = new JSONObject();
+        JSONArray labels = new JSONArray();
+        HashMap<String, ArrayList<Number>> percentileTrtData = new HashMap<String, ArrayList<Number>>(0);
+        for (LrScenarioTrend.TransactionTrend transaction : scenarioTrend.getTransactions()) {
+            percentileTrtData.put(transaction.getName(), new ArrayList<Number>(0));
+        }
+
+        int[] buildNumbers = scenarioTrend.getBuildNumbers();
+        for (int build = 0; build < buildNumbers.length; build++) {
+            if (!hasPercentileTrt(scenarioTrend, build)) {
+                continue;
+            }
+            labels.add(buildNumbers[build]);
+            for (LrScenarioTrend.TransactionTrend transaction : scenarioTrend.getTransactions()) {
+                percentileTrtData.get(transaction.getName()).add(transaction.hasPercentileTrt(build) ?
+                        transaction.getPercentileTrt()[build] : null);
+            }
+        }
+
+        graphDataSet.put(LABELS, labels);
+        graphDataSet.put(SERIES, createGraphDatasets(percentileTrtData));
+        addPercentileTransactionGraph(graphDataSet, scenarioGraphData);
+    }
+
+    private static boolean hasPercentileTrt(LrScenarioTrend scenarioTrend, int build) {
+        for (LrScenarioTrend.TransactionTrend transaction : scenarioTrend.getTransactions()) {
+            if (transaction.hasPercentileTrt(build)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void addPercentileTransactionGraph(JSONObject percentileTransactionResultsGraphSet,
+                                                      JSONObject scenarioGraphData) {
         if (!percentileTransactionResultsGraphSet.getJSONArray(LABELS).isEmpty()) {
             percentileTransactionResultsGraphSet
                     .put(TITLE, PERCENTILE_TRANSACTION_RESPONSE_TIME);
@@ -170,6 +216,51 @@ public final class LrGraphUtils {
                 scenarioResults.getValue().getAvgTransactionResponseTimeResults();
         JSONObject avgTransactionResponseTimeGraphSet =
                 extractAvgTrtData(avgTransactionResponseTimeResults, scenarioResults.getValue().getTransactions());
+        addAvgTransactionGraph(avgTransactionResponseTimeGraphSet, scenarioGraphData);
+    }
+
+    /**
+     * Construct avg transaction graph from the trend index.
+     *
+     * @param scenarioTrend     the scenario trend
+     * @param scenarioGraphData the scenario graph data
+     */
+    static void constructAvgTransactionGraph(LrScenarioTrend scenarioTrend, JSONObject scenarioGraphData) {
+        HashMap<String, ArrayList<Number>> averageTRTData = new HashMap<String, ArrayList<Number>>(0);
+        JSONObject graphDataSet = new JSONObject();
+        JSONArray labels = new JSONArray();
+        for (LrScenarioTrend.TransactionTrend transaction : scenarioTrend.getTransactions()) {
+            averageTRTData.put(transaction.getName(), new ArrayList<Number>(0));
+        }
+
+        int[] buildNumbers = scenarioTrend.getBuildNumbers();
+        for (int build = 0; build < buildNumbers.length; build++) {
+            if (!hasAverageTrt(scenarioTrend, build)) {
+                continue;
+            }
+            labels.add(buildNumbers[build]);
+            for (LrScenarioTrend.TransactionTrend transaction : scenarioTrend.getTransactions()) {
+                averageTRTData.get(transaction.getName()).add(transaction.hasAverageTrt(build) ?
+                        transaction.getAverageTrt()[build] : null);
+            }
+        }
+
+        graphDataSet.put(LABELS, labels);
+        graphDataSet.put(SERIES, createGraphDatasets(averageTRTData));
+        addAvgTransactionGraph(graphDataSet, scenarioGraphData);
+    }
+
+    private static boolean hasAverageTrt(LrScenarioTrend scenarioTrend, int build) {
+        for (LrScenarioTrend.TransactionTrend transaction : scenarioTrend.getTransactions()) {
+            if (transaction.hasAverageTrt(build)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void addAvgTransactionGraph(JSONObject avgTransactionResponseTimeGraphSet,
+                                               JSONObject scenarioGraphData) {
         if (!avgTransactionResponseTimeGraphSet.getJSONArray(LABELS).isEmpty()) {
             avgTransactionResponseTimeGraphSet.put(TITLE, "Average Transaction Response Time");
             avgTransactionResponseTimeGraphSet.put(X_AXIS_TITLE, "Build number");
@@ -225,6 +316,37 @@ public final class LrGraphUtils {
         Map<Integer, TimeRangeResult> errPerSecResults = scenarioResults.getValue().getErrPerSecResults();
         JSONObject errPerSecResultsResultsGraphSet =
                 extractTimeRangeResult(errPerSecResults);
+        addErrorGraph(errPerSecResultsResultsGraphSet, scenarioGraphData);
+    }
+
+    /**
+     * Construct error graph from the trend index.
+     *
+     * @param scenarioTrend     the scenario trend
+     * @param scenarioGraphData the scenario graph data
+     */
+    static void constructErrorGraph(LrScenarioTrend scenarioTrend, JSONObject scenarioGraphData) {
+        JSONObject graphDataSet = new JSONObject();
+        JSONArray labels = new JSONArray();
+        JSONArray datasets = new JSONArray();
+        JSONArray data = new JSONArray();
+
+        int[] buildNumbers = scenarioTrend.getBuildNumbers();
+        double[] errorsPerSecond = scenarioTrend.getSlaValues(LrScenarioTrend.ERRORS_PER_SECOND);
+        for (int build = 0; build < buildNumbers.length; build++) {
+            if (scenarioTrend.hasSlaValue(LrScenarioTrend.ERRORS_PER_SECOND, build)) {
+                labels.add(buildNumbers[build]);
+                data.add(errorsPerSecond[build]);
+            }
+        }
+
+        graphDataSet.put(LABELS, labels);
+        datasets.add(data);
+        graphDataSet.put(SERIES, datasets);
+        addErrorGraph(graphDataSet, scenarioGraphData);
+    }
+
+    private static void addErrorGraph(JSONObject errPerSecResultsResultsGraphSet, JSONObject scenarioGraphData) {
         if (!errPerSecResultsResultsGraphSet.getJSONArray(LABELS).isEmpty()) {
             errPerSecResultsResultsGraphSet.put(TITLE, "Total errors per second");
             errPerSecResultsResultsGraphSet.put(X_AXIS_TITLE, "Build number");
@@ -266,6 +388,23 @@ public final class LrGraphUtils {
         Map<Integer, WholeRunResult> averageThroughputResults = scenarioResults.getValue().getAverageThroughputResults();
         JSONObject averageThroughputResultsGraphSet =
                 extractWholeRunSlaResult(averageThroughputResults, "Bytes/Sec");
+        addAverageThroughputGraph(averageThroughputResultsGraphSet, scenarioGraphData);
+    }
+
+    /**
+     * Construct average throughput from the trend index.
+     *
+     * @param scenarioTrend     the scenario trend
+     * @param scenarioGraphData the scenario graph data
+     */
+    static void constructAverageThroughput(LrScenarioTrend scenarioTrend, JSONObject scenarioGraphData) {
+        addAverageThroughputGraph(
+                extractWholeRunSlaResult(scenarioTrend, LrScenarioTrend.AVERAGE_THROUGHPUT, "Bytes/Sec"),
+                scenarioGraphData);
+    }
+
+    private static void addAverageThroughputGraph(JSONObject averageThroughputResultsGraphSet,
+                                                  JSONObject scenarioGraphData) {
         if (!averageThroughputResultsGraphSet.getJSONArray(LABELS).isEmpty()) {
             averageThroughputResultsGraphSet.put(TITLE, "Average Throughput per second");
             averageThroughputResultsGraphSet.put(X_AXIS_TITLE, "Build number");
@@ -302,6 +441,28 @@ public final class LrGraphUtils {
         return graphDataSet;
     }
 
+    private static JSONObject extractWholeRunSlaResult(LrScenarioTrend scenarioTrend, int metric, String seriesName) {
+        JSONObject graphDataSet = new JSONObject();
+        JSONObject wholeRunSlaResults = new JSONObject();
+        JSONArray labels = new JSONArray();
+        JSONArray datasets = new JSONArray();
+        JSONArray data = new JSONArray();
+        int[] buildNumbers = scenarioTrend.getBuildNumbers();
+        double[] values = scenarioTrend.getSlaValues(metric);
+        for (int build = 0; build < buildNumbers.length; build++) {
+            if (scenarioTrend.hasSlaValue(metric, build)) {
+                labels.add(buildNumbers[build]);
+                data.add(values[build]);
+            }
+        }
+        graphDataSet.put(LABELS, labels);
+        wholeRunSlaResults.put("name", seriesName);
+        wholeRunSlaResults.put("data", data);
+        datasets.add(wholeRunSlaResults);
+        graphDataSet.put(SERIES, datasets);
+        return graphDataSet;
+    }
+
     /**
      * Construct total throughput graph.
      *
@@ -313,6 +474,22 @@ public final class LrGraphUtils {
         Map<Integer, WholeRunResult> totalThroughputResults = scenarioResults.getValue().getTotalThroughtputResults();
         JSONObject totalThroughputResultsGraphSet =
                 extractWholeRunSlaResult(totalThroughputResults, "Bytes");
+        addTotalThroughputGraph(totalThroughputResultsGraphSet, scenarioGraphData);
+    }
+
+    /**
+     * Construct total throughput graph from the trend index.
+     *
+     * @param scenarioTrend     the scenario trend
+     * @param scenarioGraphData the scenario graph data
+     */
+    static void constructTotalThroughputGraph(LrScenarioTrend scenarioTrend, JSONObject scenarioGraphData) {
+        addTotalThroughputGraph(extractWholeRunSlaResult(scenarioTrend, LrScenarioTrend.TOTAL_THROUGHPUT, "Bytes"),
+                scenarioGraphData);
+    }
+
+    private static void addTotalThroughputGraph(JSONObject totalThroughputResultsGraphSet,
+                                                JSONObject scenarioGraphData) {
         if (!totalThroughputResultsGraphSet.getJSONArray(LABELS).isEmpty()) {
             totalThroughputResultsGraphSet.put(TITLE, "Total Throughput");
             totalThroughputResultsGraphSet.put(X_AXIS_TITLE, "Build number");
@@ -336,6 +513,21 @@ public final class LrGraphUtils {
                                       JSONObject scenarioGraphData) {
         Map<Integer, WholeRunResult> avgHitsPerSec = scenarioResults.getValue().getAverageHitsPerSecondResults();
         JSONObject avgHitsPerSecGraphSet = extractWholeRunSlaResult(avgHitsPerSec, "Hits/Sec");
+        addAvgHitsGraph(avgHitsPerSecGraphSet, scenarioGraphData);
+    }
+
+    /**
+     * Construct avg hits graph from the trend index.
+     *
+     * @param scenarioTrend     the scenario trend
+     * @param scenarioGraphData the scenario graph data
+     */
+    static void constructAvgHitsGraph(LrScenarioTrend scenarioTrend, JSONObject scenarioGraphData) {
+        addAvgHitsGraph(extractWholeRunSlaResult(scenarioTrend, LrScenarioTrend.AVERAGE_HITS_PER_SECOND, "Hits/Sec"),
+                scenarioGraphData);
+    }
+
+    private static void addAvgHitsGraph(JSONObject avgHitsPerSecGraphSet, JSONObject scenarioGraphData) {
         if (!avgHitsPerSecGraphSet.getJSONArray(LABELS).isEmpty()) {
             avgHitsPerSecGraphSet.put(TITLE, "Average Hits per Second");
             avgHitsPerSecGraphSet.put(X_AXIS_TITLE, "Build number");
@@ -360,6 +552,21 @@ public final class LrGraphUtils {
                                         JSONObject scenarioGraphData) {
         Map<Integer, WholeRunResult> totalHitsResults = scenarioResults.getValue().getTotalHitsResults();
         JSONObject totalHitsGraphSet = extractWholeRunSlaResult(totalHitsResults, "Hits");
+        addTotalHitsGraph(totalHitsGraphSet, scenarioGraphData);
+    }
+
+    /**
+     * Construct total hits graph from the trend index.
+     *
+     * @param scenarioTrend     the scenario trend
+     * @param scenarioGraphData the scenario graph data
+     */
+    static void constructTotalHitsGraph(LrScenarioTrend scenarioTrend, JSONObject scenarioGraphData) {
+        addTotalHitsGraph(extractWholeRunSlaResult(scenarioTrend, LrScenarioTrend.TOTAL_HITS, "Hits"),
+                scenarioGraphData);
+    }
+
+    private static void addTotalHitsGraph(JSONObject totalHitsGraphSet, JSONObject scenarioGraphData) {
         if (!totalHitsGraphSet.getJSONArray(LABELS).isEmpty()) {
             totalHitsGraphSet.put(TITLE, "Total Hits");
             totalHitsGraphSet.put(X_AXIS_TITLE, "Build number");
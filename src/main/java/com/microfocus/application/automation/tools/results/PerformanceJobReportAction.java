@@ -30,15 +30,25 @@ package com.microfocus.application.automation.tools.results;
 
 import com.microfocus.application.automation.tools.results.projectparser.performance.JobLrScenarioResult;
 import com.microfocus.application.automation.tools.results.projectparser.performance.LrJobResults;
+import com.microfocus.application.automation.tools.results.projectparser.performance.LrTrendIndex;
+import hudson.Extension;
 import hudson.model.Action;
 import hudson.model.InvisibleAction;
+import hudson.model.Job;
 import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.model.listeners.RunListener;
 import jenkins.tasks.SimpleBuildStep;
 import net.minidev.json.JSONObject;
 
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 
 /**
@@ -46,6 +56,8 @@ import java.util.List;
  */
 public class PerformanceJobReportAction extends InvisibleAction implements SimpleBuildStep.LastBuildAction {
 
+    private static final Logger LOGGER = Logger.getLogger(PerformanceJobReportAction.class.getName());
+
     private Run<?, ?> build;
     private JSONObject jobDataSet;
     private LrJobResults _resultFiles;
@@ -100,4 +112,48 @@ public class PerformanceJobReportAction extends InvisibleAction implements Simpl
         projectActions.add(new PerformanceProjectAction(build.getParent()));
         return projectActions;
     }
+
+    /**
+     * Gets the trend index of a job.
+     *
+     * @param job the job
+     * @return the trend index, which might not exist yet
+     */
+    public static LrTrendIndex getTrendIndex(Job<?, ?> job) {
+        return new LrTrendIndex(new File(job.getRootDir(), LrTrendIndex.FILE_NAME));
+    }
+
+    /**
+     * Appends the results of every finished build to the job's trend index.
+     * Jobs without an index yet are skipped, the index is created from all builds when the project report is
+     * first opened. A build completing while the index is created waits for it and is then appended.
+     */
+    @Extension
+    public static class TrendIndexUpdater extends RunListener<Run> {
+
+        @Override
+        public void onCompleted(Run run, @Nonnull TaskListener listener) {
+            PerformanceJobReportAction performanceJobReportAction = run.getAction(PerformanceJobReportAction.class);
+            if (performanceJobReportAction == null) {
+                return;
+            }
+            try {
+                getTrendIndex(run.getParent()).appendIfIndexed(run.getNumber(), performanceJobReportAction.getLrResultBuildDataset());
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Failed to add " + run + " to the performance trend index", e);
+            }
+        }
+
+        @Override
+        public void onDeleted(Run run) {
+            if (run.getAction(PerformanceJobReportAction.class) == null) {
+                return;
+            }
+            try {
+                getTrendIndex(run.getParent()).removeIfIndexed(run.getNumber());
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Failed to remove " + run + " from the performance trend index", e);
+            }
+        }
+    }
 }
@@ -33,7 +33,9 @@ import com.microfocus.application.automation.tools.results.projectparser.perform
 import com.microfocus.application.automation.tools.results.projectparser.performance.JobLrScenarioResult;
 import com.microfocus.application.automation.tools.results.projectparser.performance.LrJobResults;
 import com.microfocus.application.automation.tools.results.projectparser.performance.LrProjectScenarioResults;
+import com.microfocus.application.automation.tools.results.projectparser.performance.LrScenarioTrend;
 import com.microfocus.application.automation.tools.results.projectparser.performance.LrTest;
+import com.microfocus.application.automation.tools.results.projectparser.performance.LrTrendIndex;
 import com.microfocus.application.automation.tools.results.projectparser.performance.PercentileTransactionWholeRun;
 import com.microfocus.application.automation.tools.results.projectparser.performance.ProjectLrResults;
 import com.microfocus.application.automation.tools.results.projectparser.performance.TimeRangeResult;
@@ -46,12 +48,14 @@ import net.sf.json.JSONArray;
 import net.sf.json.JSONObject;
 import org.kohsuke.stapler.bind.JavaScriptMethod;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import static com.microfocus.application.automation.tools.results.projectparser.performance.JobLrScenarioResult
@@ -78,6 +82,8 @@ public class PerformanceProjectAction implements Action {
     private int lastBuildId = -1;
     private ArrayList<Integer> _workedBuilds;
     private ProjectLrResults _projectResult;
+    private SortedMap<String, LrScenarioTrend> _scenarioTrends;
+    private long _trendIndexLength = -1;
     private Collection<Action> projectActions;
 
 
@@ -107,7 +113,12 @@ public class PerformanceProjectAction implements Action {
     @JavaScriptMethod
     public JSONArray getScenarioList() {
         JSONArray scenarioList = new JSONArray();
-        for (String scenarioName : _projectResult.getScenarioResults().keySet()) {
+        if (_scenarioTrends == null && _projectResult == null) {
+            return scenarioList;
+        }
+        Collection<String> scenarioNames = _scenarioTrends != null ? _scenarioTrends.keySet() :
+                _projectResult.getScenarioResults().keySet();
+        for (String scenarioName : scenarioNames) {
             JSONObject scenario = new JSONObject();
             scenario.put("ScenarioName", scenarioName);
             scenarioList.add(scenario);
@@ -123,14 +134,54 @@ public class PerformanceProjectAction implements Action {
      */
     @JavaScriptMethod
     public JSONObject getGraphData() {
-        JSONObject projectDataSet = new JSONObject();
+        if (_scenarioTrends != null) {
+            return buildGraphData(_scenarioTrends);
+        }
         if (_projectResult == null) {
 //            getUpdatedData();
             return new JSONObject();
         }
+        return buildGraphData(_projectResult);
+    }
+
+    /**
+     * Collates graph data per scenario from the scenario trends read from the {@link LrTrendIndex}.
+     *
+     * @param scenarioTrends the scenario trends
+     * @return the graph data
+     */
+    static JSONObject buildGraphData(SortedMap<String, LrScenarioTrend> scenarioTrends) {
+        JSONObject projectDataSet = new JSONObject();
+        for (SortedMap.Entry<String, LrScenarioTrend> scenarioTrend : scenarioTrends.entrySet()) {
+            JSONObject scenarioData = new JSONObject();
+            scenarioData.put("scenarioStats", new JSONObject());
+
+            JSONObject scenarioGraphData = new JSONObject();
+            LrScenarioTrend trend = scenarioTrend.getValue();
+            LrGraphUtils.constructTotalHitsGraph(trend, scenarioGraphData);
+            LrGraphUtils.constructAvgHitsGraph(trend, scenarioGraphData);
+            LrGraphUtils.constructTotalThroughputGraph(trend, scenarioGraphData);
+            LrGraphUtils.constructAverageThroughput(trend, scenarioGraphData);
+            LrGraphUtils.constructErrorGraph(trend, scenarioGraphData);
+            LrGraphUtils.constructAvgTransactionGraph(trend, scenarioGraphData);
+            LrGraphUtils.constructPercentileTransactionGraph(trend, scenarioGraphData);
+            scenarioData.put("scenarioData", scenarioGraphData);
+
+            projectDataSet.put(scenarioTrend.getKey(), scenarioData);
+        }
+        return projectDataSet;
+    }
 
+    /**
+     * Collates graph data per scenario from results joined in memory.
+     *
+     * @param projectResult the joined project results
+     * @return the graph data
+     */
+    static JSONObject buildGraphData(ProjectLrResults projectResult) {
+        JSONObject projectDataSet = new JSONObject();
 
-        for (SortedMap.Entry<String, LrProjectScenarioResults> scenarioResults : _projectResult.getScenarioResults()
+        for (SortedMap.Entry<String, LrProjectScenarioResults> scenarioResults : projectResult.getScenarioResults()
                 .entrySet()) {
 
             JSONObject scenarioData = new JSONObject();
@@ -227,10 +278,28 @@ public class PerformanceProjectAction implements Action {
 
     /**
      * Gets updated data.
+     * The trends are read from the job's {@link LrTrendIndex}, which is created from the existing builds on first
+     * use. If the index cannot be used, the builds are scanned and joined in memory instead.
      */
     public synchronized void getUpdatedData() {
-        if (!isUpdateDataNeeded()) {
+        LrTrendIndex trendIndex = PerformanceJobReportAction.getTrendIndex(currentProject);
+        if (!isUpdateDataNeeded(trendIndex)) {
+            return;
+        }
+
+        try {
+            if (!trendIndex.exists()) {
+                rebuildTrendIndex(trendIndex);
+            }
+            _scenarioTrends = trendIndex.readScenarioTrends(MAX_DISPLAY_BUILDS);
+            _trendIndexLength = trendIndex.getFile().length();
+            _projectResult = null;
             return;
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to use the performance trend index of " + currentProject.getFullName() +
+                    ", scanning the builds instead", e);
+            _scenarioTrends = null;
+            _trendIndexLength = -1;
         }
 
         this._projectResult = new ProjectLrResults();
@@ -258,49 +327,72 @@ public class PerformanceProjectAction implements Action {
 
 
             _workedBuilds.add(runNumber);
-            LrJobResults jobLrResult = performanceJobReportAction.getLrResultBuildDataset();
-
-            // get all the ran scenario results from this run and insert them into the project
-            for (Map.Entry<String, JobLrScenarioResult> runResult : jobLrResult.getLrScenarioResults().entrySet()) {
-                // add the scenario if it's the first time it's ran in this build (allows scenarios to be also added
-                // at diffrent time)
-                if (!_projectResult.getScenarioResults().containsKey(runResult.getKey())) {
-                    _projectResult.addScenario(new LrProjectScenarioResults(runResult.getKey()));
-                }
-                // Join the SLA rule results
-                LrProjectScenarioResults lrProjectScenarioResults =
-                        _projectResult.getScenarioResults().get(runResult.getKey());
-                if(lrProjectScenarioResults.getBuildCount() > MAX_DISPLAY_BUILDS)
-                {
+            joinBuildResults(_projectResult, runNumber, performanceJobReportAction.getLrResultBuildDataset());
+        }
+    }
+
+    private void rebuildTrendIndex(LrTrendIndex trendIndex) throws IOException {
+        LOGGER.info("Creating performance trend index for " + currentProject.getFullName());
+        try (LrTrendIndex.Rebuilder rebuilder = trendIndex.rebuild()) {
+            for (Run run : currentProject.getBuilds()) {
+                PerformanceJobReportAction performanceJobReportAction = run.getAction(PerformanceJobReportAction.class);
+                if (performanceJobReportAction == null || run.isBuilding()) {
                     continue;
                 }
-                lrProjectScenarioResults.incBuildCount();
-                JobLrScenarioResult scenarioRunResult = runResult.getValue();
-                for (GoalResult goalResult : scenarioRunResult.scenarioSlaResults) {
-                    scenarioGoalResult(runNumber, lrProjectScenarioResults, goalResult);
-                }
-
-                // Join sceanrio stats
-                joinSceanrioConnectionsStats(runNumber, lrProjectScenarioResults, scenarioRunResult);
-                joinVUserScenarioStats(runNumber, lrProjectScenarioResults, scenarioRunResult);
-                joinTransactionScenarioStats(runNumber, lrProjectScenarioResults, scenarioRunResult);
-                joinDurationStats(runNumber, lrProjectScenarioResults, scenarioRunResult);
+                rebuilder.add(run.getNumber(), performanceJobReportAction.getLrResultBuildDataset());
+            }
+            rebuilder.commit();
+        }
+    }
 
+    /**
+     * Joins the scenario results of one build into the project results.
+     * Builds are expected newest first, a scenario stops accepting builds after {@link #MAX_DISPLAY_BUILDS}.
+     *
+     * @param projectResult the project results
+     * @param runNumber     the build number
+     * @param jobLrResult   the results of the build
+     */
+    static void joinBuildResults(ProjectLrResults projectResult, int runNumber, LrJobResults jobLrResult) {
+        // get all the ran scenario results from this run and insert them into the project
+        for (Map.Entry<String, JobLrScenarioResult> runResult : jobLrResult.getLrScenarioResults().entrySet()) {
+            // add the scenario if it's the first time it's ran in this build (allows scenarios to be also added
+            // at diffrent time)
+            if (!projectResult.getScenarioResults().containsKey(runResult.getKey())) {
+                projectResult.addScenario(new LrProjectScenarioResults(runResult.getKey()));
+            }
+            // Join the SLA rule results
+            LrProjectScenarioResults lrProjectScenarioResults =
+                    projectResult.getScenarioResults().get(runResult.getKey());
+            if(lrProjectScenarioResults.getBuildCount() > MAX_DISPLAY_BUILDS)
+            {
+                continue;
+            }
+            lrProjectScenarioResults.incBuildCount();
+            JobLrScenarioResult scenarioRunResult = runResult.getValue();
+            for (GoalResult goalResult : scenarioRunResult.scenarioSlaResults) {
+                scenarioGoalResult(runNumber, lrProjectScenarioResults, goalResult);
             }
 
+            // Join sceanrio stats
+            joinSceanrioConnectionsStats(runNumber, lrProjectScenarioResults, scenarioRunResult);
+            joinVUserScenarioStats(runNumber, lrProjectScenarioResults, scenarioRunResult);
+            joinTransactionScenarioStats(runNumber, lrProjectScenarioResults, scenarioRunResult);
+            joinDurationStats(runNumber, lrProjectScenarioResults, scenarioRunResult);
+
         }
     }
 
-    private void joinDurationStats(int runNumber, LrProjectScenarioResults lrProjectScenarioResults,
-                                   JobLrScenarioResult scenarioRunResult) {
+    private static void joinDurationStats(int runNumber, LrProjectScenarioResults lrProjectScenarioResults,
+                                          JobLrScenarioResult scenarioRunResult) {
         long scenarioConnectionMax = scenarioRunResult.getScenarioDuration();
         if (scenarioConnectionMax != DEFAULT_SCENARIO_DURATION) {
             lrProjectScenarioResults.getDurationData().put(runNumber, scenarioConnectionMax);
         }
     }
 
-    private void joinTransactionScenarioStats(int runNumber, LrProjectScenarioResults lrProjectScenarioResults,
-                                              JobLrScenarioResult scenarioRunResult) {
+    private static void joinTransactionScenarioStats(int runNumber, LrProjectScenarioResults lrProjectScenarioResults,
+                                                     JobLrScenarioResult scenarioRunResult) {
         SortedMap<Integer, TreeMap<String, TreeMap<String, Integer>>> projectTransactionPerRun =
                 lrProjectScenarioResults.getTransactionPerRun();
         SortedMap<String, Integer> projectTransactionSum = lrProjectScenarioResults.getTransactionSum();
@@ -348,8 +440,8 @@ public class PerformanceProjectAction implements Action {
         }
     }
 
-    private void joinVUserScenarioStats(int runNumber, LrProjectScenarioResults lrProjectScenarioResults,
-                                        JobLrScenarioResult scenarioRunResult) {
+    private static void joinVUserScenarioStats(int runNumber, LrProjectScenarioResults lrProjectScenarioResults,
+                                               JobLrScenarioResult scenarioRunResult) {
         SortedMap<Integer, TreeMap<String, Integer>> vUserPerRun = lrProjectScenarioResults.getvUserPerRun();
         if (scenarioRunResult.vUserSum != null && !scenarioRunResult.vUserSum.isEmpty()) {
             for (SortedMap.Entry<String, Integer> vUserStat : scenarioRunResult.vUserSum.entrySet()) {
@@ -368,8 +460,8 @@ public class PerformanceProjectAction implements Action {
         }
     }
 
-    private void joinSceanrioConnectionsStats(int runNumber, LrProjectScenarioResults lrProjectScenarioResults,
-                                              JobLrScenarioResult scenarioRunResult) {
+    private static void joinSceanrioConnectionsStats(int runNumber, LrProjectScenarioResults lrProjectScenarioResults,
+                                                     JobLrScenarioResult scenarioRunResult) {
         int scenarioConnectionMax = scenarioRunResult.getConnectionMax();
         if (scenarioConnectionMax != DEFAULT_CONNECTION_MAX) {
             lrProjectScenarioResults.getMaxConnectionsCount().put(runNumber, scenarioConnectionMax);
@@ -429,7 +521,11 @@ public class PerformanceProjectAction implements Action {
         }
     }
 
-    private boolean isUpdateDataNeeded() {
+    private boolean isUpdateDataNeeded(LrTrendIndex trendIndex) {
+        // the index only grows, an unchanged length means nothing was appended since the last read
+        if (_scenarioTrends != null && trendIndex.exists() && trendIndex.getFile().length() == _trendIndexLength) {
+            return false;
+        }
 //        final Run<?, ?> lastBuild = currentProject.getLastBuild();
 //        if (null == lastBuild) {
 //            return false;
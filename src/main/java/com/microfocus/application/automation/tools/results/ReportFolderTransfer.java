@@ -0,0 +1,372 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.results;
+
+import hudson.FilePath;
+import hudson.model.TaskListener;
+import hudson.remoting.Pipe;
+import hudson.remoting.VirtualChannel;
+import jenkins.MasterToSlaveFileCallable;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.UnaryOperator;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Copies a report folder (or a single report file) from the executing node into a folder on the master, streaming.
+ *
+ * The node walks the folder and sends every file as a sequence of separately deflated chunks over a remoting pipe,
+ * followed by the CRC32 of the whole file; the master inflates and writes each chunk as it arrives, so neither side
+ * holds more than a chunk in memory, whatever the report size. A file is written to a ".part" file and renamed only
+ * once its checksum matched. If the transfer breaks, the next attempt skips the files already received and continues
+ * the interrupted one from the last chunk written.
+ */
+public final class ReportFolderTransfer {
+
+	static final int CHUNK_SIZE = 256 * 1024;
+	static final int MAX_ATTEMPTS = 3;
+
+	private static final int MAGIC = 0x52465431;
+	private static final byte DIRECTORY = 'D';
+	private static final byte FILE = 'F';
+	private static final byte CHUNK = 'C';
+	private static final byte FILE_END = 'E';
+	private static final byte END = 'Z';
+	private static final String PART_SUFFIX = ".part";
+
+	private final File target;
+	private final Set<String> received = new HashSet<>();
+	private String partialPath;
+	private long partialLength;
+
+	ReportFolderTransfer(File target) {
+		this.target = target;
+	}
+
+	/**
+	 * copies the content of source (or source itself, when it is a file) into the target folder on the master
+	 */
+	public static void copy(FilePath source, File target, TaskListener listener) throws IOException, InterruptedException {
+		new ReportFolderTransfer(target).copyFrom(source, listener, UnaryOperator.identity());
+	}
+
+	/**
+	 * every stream received from the node goes through incoming first, so that tests can break a transfer
+	 */
+	void copyFrom(FilePath source, TaskListener listener, UnaryOperator<InputStream> incoming) throws IOException, InterruptedException {
+		for (int attempt = 1; ; attempt++) {
+			Pipe pipe = Pipe.createRemoteToLocal();
+			Future<Void> sent = source.actAsync(new Sender(pipe, new HashSet<>(received), partialPath, partialLength));
+			try (InputStream in = incoming.apply(pipe.getIn())) {
+				receive(in);
+				sent.get();
+				return;
+			} catch (IOException | ExecutionException e) {
+				sent.cancel(true);
+				if (attempt >= MAX_ATTEMPTS) {
+					throw new IOException("failed to copy " + source + " after " + attempt + " attempts", e);
+				}
+				listener.getLogger().println("Copy of " + source + " was interrupted (" + e.getMessage() + "), resuming after "
+						+ received.size() + " file(s)" + (partialPath == null ? "" : " and " + partialLength + " bytes of " + partialPath));
+			}
+		}
+	}
+
+	/**
+	 * extracts one transfer stream into the target folder; on failure, the state needed to resume is kept
+	 */
+	void receive(InputStream stream) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(stream, 64 * 1024));
+		if (in.readInt() != MAGIC) {
+			throw new IOException("not a report transfer stream");
+		}
+		byte[] compressed = new byte[0];
+		byte[] raw = new byte[CHUNK_SIZE];
+		Inflater inflater = new Inflater();
+		try {
+			for (byte tag = in.readByte(); tag != END; tag = in.readByte()) {
+				if (tag == DIRECTORY) {
+					File dir = resolve(in.readUTF());
+					if (!dir.isDirectory() && !dir.mkdirs()) {
+						throw new IOException("failed to create " + dir);
+					}
+				} else if (tag == FILE) {
+					String path = in.readUTF();
+					long offset = in.readLong();
+					compressed = receiveFile(in, path, offset, inflater, raw, compressed);
+				} else {
+					throw new IOException("unexpected record '" + (char) tag + "' in report transfer stream");
+				}
+			}
+		} finally {
+			inflater.end();
+		}
+	}
+
+	private byte[] receiveFile(DataInputStream in, String path, long offset, Inflater inflater, byte[] raw, byte[] compressed) throws IOException {
+		File file = resolve(path);
+		File part = new File(file.getPath() + PART_SUFFIX);
+		File parent = file.getParentFile();
+		if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+			throw new IOException("failed to create " + parent);
+		}
+
+		CRC32 crc = new CRC32();
+		if (offset > 0) {
+			if (part.length() != offset) {
+				throw new IOException("cannot resume " + path + " at " + offset + ", " + part.length() + " bytes were received");
+			}
+			updateChecksum(crc, part, raw);
+		}
+		partialPath = path;
+		partialLength = offset;
+
+		try (OutputStream out = new FileOutputStream(part, offset > 0)) {
+			for (byte tag = in.readByte(); tag != FILE_END; tag = in.readByte()) {
+				if (tag != CHUNK) {
+					throw new IOException("unexpected record '" + (char) tag + "' in " + path);
+				}
+				int rawLength = in.readInt();
+				int compressedLength = in.readInt();
+				if (rawLength < 0 || rawLength > raw.length || compressedLength < 0) {
+					throw new IOException("invalid chunk of " + path);
+				}
+				if (compressed.length < compressedLength) {
+					compressed = new byte[compressedLength];
+				}
+				in.readFully(compressed, 0, compressedLength);
+				inflate(inflater, compressed, compressedLength, raw, rawLength, path);
+				out.write(raw, 0, rawLength);
+				//  only what reached the file counts for resuming
+				out.flush();
+				crc.update(raw, 0, rawLength);
+				partialLength += rawLength;
+			}
+		}
+
+		long expected = in.readLong();
+		if (crc.getValue() != expected) {
+			Files.deleteIfExists(part.toPath());
+			partialPath = null;
+			partialLength = 0;
+			throw new IOException("checksum mismatch for " + path);
+		}
+		Files.move(part.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		received.add(path);
+		partialPath = null;
+		partialLength = 0;
+		return compressed;
+	}
+
+	private static void inflate(Inflater inflater, byte[] compressed, int compressedLength, byte[] raw, int rawLength, String path) throws IOException {
+		inflater.reset();
+		inflater.setInput(compressed, 0, compressedLength);
+		try {
+			int inflated = 0;
+			while (inflated < rawLength && !inflater.finished()) {
+				int n = inflater.inflate(raw, inflated, rawLength - inflated);
+				if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+					break;
+				}
+				inflated += n;
+			}
+			if (inflated != rawLength) {
+				throw new IOException("truncated chunk of " + path);
+			}
+		} catch (DataFormatException dfe) {
+			throw new IOException("corrupted chunk of " + path, dfe);
+		}
+	}
+
+	private File resolve(String path) throws IOException {
+		File file = path.isEmpty() ? target : new File(target, path);
+		String root = target.getCanonicalPath();
+		String canonical = file.getCanonicalPath();
+		if (!canonical.equals(root) && !canonical.startsWith(root + File.separator)) {
+			throw new IOException("report entry '" + path + "' is outside of " + target);
+		}
+		return file;
+	}
+
+	Set<String> getReceived() {
+		return received;
+	}
+
+	String getPartialPath() {
+		return partialPath;
+	}
+
+	long getPartialLength() {
+		return partialLength;
+	}
+
+	/**
+	 * writes the transfer stream of source to out; files in skip are left out, partialPath is sent from partialLength on
+	 */
+	static void send(File source, OutputStream stream, Set<String> skip, String partialPath, long partialLength) throws IOException {
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 64 * 1024));
+		out.writeInt(MAGIC);
+		Sending sending = new Sending(out, skip, partialPath, partialLength);
+		try {
+			if (source.isFile()) {
+				sending.file(source, source.getName());
+			} else {
+				sending.directory(source, "");
+			}
+		} finally {
+			sending.deflater.end();
+		}
+		out.writeByte(END);
+		out.flush();
+	}
+
+	private static void updateChecksum(CRC32 crc, File file, byte[] buffer) throws IOException {
+		try (InputStream in = new FileInputStream(file)) {
+			for (int n = in.read(buffer); n > 0; n = in.read(buffer)) {
+				crc.update(buffer, 0, n);
+			}
+		}
+	}
+
+	private static final class Sending {
+		private final DataOutputStream out;
+		private final Set<String> skip;
+		private final String partialPath;
+		private final long partialLength;
+		private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+		private final byte[] raw = new byte[CHUNK_SIZE];
+		//  deflate may slightly grow incompressible data
+		private final byte[] compressed = new byte[CHUNK_SIZE + CHUNK_SIZE / 100 + 64];
+
+		private Sending(DataOutputStream out, Set<String> skip, String partialPath, long partialLength) {
+			this.out = out;
+			this.skip = skip;
+			this.partialPath = partialPath;
+			this.partialLength = partialLength;
+		}
+
+		private void directory(File dir, String path) throws IOException {
+			File[] children = dir.listFiles();
+			if (children == null) {
+				throw new IOException("failed to list " + dir);
+			}
+			Arrays.sort(children);
+			out.writeByte(DIRECTORY);
+			out.writeUTF(path);
+			for (File child : children) {
+				String childPath = path.isEmpty() ? child.getName() : path + "/" + child.getName();
+				if (child.isDirectory()) {
+					directory(child, childPath);
+				} else if (!skip.contains(childPath)) {
+					file(child, childPath);
+				}
+			}
+		}
+
+		private void file(File file, String path) throws IOException {
+			long offset = path.equals(partialPath) && partialLength <= file.length() ? partialLength : 0;
+			out.writeByte(FILE);
+			out.writeUTF(path);
+			out.writeLong(offset);
+
+			CRC32 crc = new CRC32();
+			try (InputStream in = new FileInputStream(file)) {
+				long skipped = 0;
+				while (skipped < offset) {
+					int n = in.read(raw, 0, (int) Math.min(raw.length, offset - skipped));
+					if (n < 0) {
+						throw new EOFException(file + " is shorter than the resume offset");
+					}
+					crc.update(raw, 0, n);
+					skipped += n;
+				}
+				for (int n = readChunk(in); n > 0; n = readChunk(in)) {
+					crc.update(raw, 0, n);
+					deflater.reset();
+					deflater.setInput(raw, 0, n);
+					deflater.finish();
+					int length = 0;
+					while (!deflater.finished()) {
+						length += deflater.deflate(compressed, length, compressed.length - length);
+					}
+					out.writeByte(CHUNK);
+					out.writeInt(n);
+					out.writeInt(length);
+					out.write(compressed, 0, length);
+				}
+			}
+			out.writeByte(FILE_END);
+			out.writeLong(crc.getValue());
+		}
+
+		private int readChunk(InputStream in) throws IOException {
+			int length = 0;
+			while (length < raw.length) {
+				int n = in.read(raw, length, raw.length - length);
+				if (n < 0) {
+					break;
+				}
+				length += n;
+			}
+			return length;
+		}
+	}
+
+	private static final class Sender extends MasterToSlaveFileCallable<Void> {
+		private static final long serialVersionUID = 1L;
+
+		private final Pipe pipe;
+		private final HashSet<String> skip;
+		private final String partialPath;
+		private final long partialLength;
+
+		private Sender(Pipe pipe, HashSet<String> skip, String partialPath, long partialLength) {
+			this.pipe = pipe;
+			this.skip = skip;
+			this.partialPath = partialPath;
+			this.partialLength = partialLength;
+		}
+
+		@Override
+		public Void invoke(File f, VirtualChannel channel) throws IOException {
+			try (OutputStream out = pipe.getOut()) {
+				send(f, out, skip, partialPath, partialLength);
+			}
+			return null;
+		}
+	}
+}
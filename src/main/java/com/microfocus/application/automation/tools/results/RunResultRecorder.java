@@ -52,7 +52,6 @@ import hudson.tasks.junit.*;
 import hudson.tasks.test.TestResultAggregator;
 import jenkins.model.Jenkins;
 import jenkins.tasks.SimpleBuildStep;
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.io.filefilter.AgeFileFilter;
 import org.apache.commons.io.filefilter.FileFilterUtils;
@@ -72,6 +71,7 @@ import javax.annotation.Nonnull;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
@@ -81,9 +81,6 @@ import javax.xml.transform.stream.StreamResult;
 import java.io.*;
 import java.util.*;
 
-import static com.microfocus.application.automation.tools.results.projectparser.performance.XmlParserUtil.getNode;
-import static com.microfocus.application.automation.tools.results.projectparser.performance.XmlParserUtil.getNodeAttr;
-
 /**
  * using {@link JUnitResultArchiver};
  *
@@ -108,8 +105,6 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
 	private static final String TRANSACTION_SUMMARY_FOLDER = "TransactionSummary";
 	private static final String RICH_REPORT_FOLDER = "RichReport";
 	private static final String TRANSACTION_REPORT_NAME = "TransactionReport";
-	private static final String SLA_ACTUAL_VALUE_LABEL = "ActualValue";
-	private static final String SLA_GOAL_VALUE_LABEL = "GoalValue";
 	private static final String NO_RICH_REPORTS_ERROR = "Template contains no rich reports.";
 	private static final String NO_TRANSACTION_SUMMARY_REPORT_ERROR = "Template contains no transaction summary " +
 			"report.";
@@ -134,33 +129,6 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
 
 	}
 
-	private static void addTimeRanges(TimeRangeResult transactionTimeRange, Element slaRuleElement) {
-		Node timeRangeNode;
-		Element timeRangeElement;
-		NodeList timeRanges = slaRuleElement.getElementsByTagName("TimeRangeInfo");
-		if (timeRanges == null || timeRanges.getLength() == 0) {
-			return;
-		}
-		// Taking the goal per transaction -
-		double generalGoalValue = Double.parseDouble(((Element) timeRanges.item(0)).getAttribute(SLA_GOAL_VALUE_LABEL));
-		transactionTimeRange.setGoalValue(generalGoalValue);
-
-		for (int k = 0; k < timeRanges.getLength(); k++) {
-			timeRangeNode = timeRanges.item(k);
-			timeRangeElement = (Element) timeRangeNode;
-			double actualValue = Double.parseDouble(timeRangeElement.getAttribute(SLA_ACTUAL_VALUE_LABEL));
-			double goalValue = Double.parseDouble(timeRangeElement.getAttribute(SLA_GOAL_VALUE_LABEL));
-			int loadValue = Integer.parseInt(timeRangeElement.getAttribute("LoadValue"));
-			double startTime = Double.parseDouble(timeRangeElement.getAttribute("StartTime"));
-			double endTIme = Double.parseDouble(timeRangeElement.getAttribute("EndTime"));
-			transactionTimeRange.incActualValue(actualValue);
-			LrTest.SLA_STATUS slaStatus = LrTest.SLA_STATUS
-					.checkStatus(timeRangeElement.getFirstChild().getTextContent());
-			TimeRange timeRange = new TimeRange(actualValue, goalValue, slaStatus, loadValue, startTime, endTIme);
-			transactionTimeRange.getTimeRanges().add(timeRange);
-		}
-	}
-
 	@Override
 	public DescriptorImpl getDescriptor() {
 
@@ -246,7 +214,7 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
 			LrJobResults jobDataSet = null;
 			try {
 				jobDataSet = buildJobDataset(listener);
-			} catch (ParserConfigurationException | SAXException e) {
+			} catch (XMLStreamException e) {
 				listener.error(ARCHIVING_TEST_REPORTS_FAILED_DUE_TO_XML_PARSING_ERROR + e);
 			}
 
@@ -435,7 +403,7 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
 						createHtmlReport(reportFolder, testFolderPath, artifactsDir, reportNames, testResult);
 						createTransactionSummary(reportFolder, testFolderPath, artifactsDir, reportNames, testResult);
 						try {
-							FilePath testSla = copyRunReport(reportFolder, build.getRootDir(), testFolder.getName());
+							FilePath testSla = copyRunReport(reportFolder, build.getRootDir(), testFolder.getName(), listener);
 							if (testSla == null) {
 								listener.getLogger().println("no RunReport.xml file was created");
 							} else {
@@ -548,23 +516,9 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
 								FilePath testFolder = new FilePath(channel, testFolderPath);
 								String zipFileName = getUniqueZipFileNameInFolder(zipFileNames, (StringUtils.isBlank(nodeName) ? "" : nodeName + "_") + testFolder.getName(), "UFT");
 								zipFileNames.add(zipFileName);
-								try (ByteArrayOutputStream outStr = new ByteArrayOutputStream()) {
-
-									// don't use FileFilter for zip, or it will cause bug when files are on slave
-									reportFolder.zip(outStr);
-
-									/*
-									 * I did't use copyRecursiveTo or copyFrom due to bug in
-									 * jekins:https://issues.jenkins-ci.org/browse /JENKINS-9189 //(which is
-									 * cleaimed to have been fixed, but not. So I zip the folder to stream and copy
-									 * it to the master.
-									 */
-
-									try (InputStream instr = new ByteArrayInputStream(outStr.toByteArray())) {
-										FilePath archivedFile = new FilePath(new FilePath(artifactsDir), zipFileName);
-										archivedFile.copyFrom(instr);
-									}
-								}
+								FilePath archivedFile = new FilePath(new FilePath(artifactsDir), zipFileName);
+								// don't use FileFilter for zip, or it will cause bug when files are on slave
+								zipToMaster(reportFolder, archivedFile);
 
 								// add to Report list
 								String zipFileUrlName = "artifact/" + zipFileName;
@@ -710,7 +664,7 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
 						String testFolderPath = dir.getPath().substring(0, dir.getPath().lastIndexOf('\\'));
 						String stResPath = new File(testFolderPath, subdir).getAbsolutePath();
 						if (UftToolUtils.getFilePath(nodeName, stResPath).exists()) {
-							archiveAndCopyReportFolder(runWorkspace, reportDir, stResPath);
+							archiveAndCopyReportFolder(runWorkspace, reportDir, stResPath, listener);
 						}
 					}
 				} catch (Exception e){
@@ -719,7 +673,7 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
 				//for example:  C:\Program Files (x86)\Jenkins\workspace\job_name
 
 				// archive and copy to the subdirs of master
-				archiveAndCopyReportFolder(runWorkspace, reportDir, htmlReportDir);
+				archiveAndCopyReportFolder(runWorkspace, reportDir, htmlReportDir, listener);
 				// zip copy and unzip
 				// now,all the files are in the C:\Program Files (x86)\Jenkins\jobs\testAction\builds\35\archive\UFTReport\Report**
 				// we need to rename the above path to targetPath.
@@ -764,26 +718,21 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
 		return true;
 	}
 
-	private void archiveAndCopyReportFolder(FilePath runWorkspace, File reportDir, String htmlReportDir) throws IOException, InterruptedException {
-		FilePath rootTarget = new FilePath(reportDir);
-
+	private void archiveAndCopyReportFolder(FilePath runWorkspace, File reportDir, String htmlReportDir, TaskListener listener) throws IOException, InterruptedException {
 		FilePath source = new FilePath(runWorkspace, htmlReportDir);
 
-		String zipFileName = "UFT_Report_HTML_tmp.zip";
-		FilePath archivedFile = new FilePath(rootTarget, zipFileName);
-
-		try (ByteArrayOutputStream outStr = new ByteArrayOutputStream()) {
-			source.zip(outStr);
-
-			try (ByteArrayInputStream inStr = new ByteArrayInputStream(outStr.toByteArray())) {
-				//copy from slave to master
-				archivedFile.copyFrom(inStr);
-			}
-			// end zip copy and unzip
-			archivedFile.unzip(rootTarget);
+		// streamed from slave to master, lands in the same place the zip used to be extracted to: reportDir/<folder name>
+		ReportFolderTransfer.copy(source, new File(reportDir, source.getName()), listener);
+	}
 
-			//delete temporary archive UFT_Report_HTML_tmp.zip
-			archivedFile.delete();
+	/**
+	 * Zips the folder on the node it is on, straight into the target file on the master: the zip goes through a remote
+	 * stream as it is produced instead of being buffered in memory on both sides.
+	 * (copyRecursiveTo is not used due to https://issues.jenkins-ci.org/browse/JENKINS-9189)
+	 */
+	private static void zipToMaster(FilePath folder, FilePath archivedFile) throws IOException, InterruptedException {
+		try (OutputStream out = archivedFile.write()) {
+			folder.zip(out);
 		}
 	}
 
@@ -794,27 +743,21 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
 	 * @param reportFolder
 	 * @param buildDir
 	 * @param scenarioName
+	 * @param listener
 	 * @return
 	 * @throws IOException
 	 * @throws InterruptedException
 	 */
-	private FilePath copyRunReport(FilePath reportFolder, File buildDir, String scenarioName)
+	private FilePath copyRunReport(FilePath reportFolder, File buildDir, String scenarioName, TaskListener listener)
 			throws IOException, InterruptedException {
 		FilePath slaReportFilePath = new FilePath(reportFolder, "RunReport.xml");
 		if (slaReportFilePath.exists()) {
-			ByteArrayOutputStream baos = new ByteArrayOutputStream();
-			slaReportFilePath.zip(baos);
 			File slaDirectory = new File(buildDir, "RunReport");
 			if (!slaDirectory.exists()) {
 				slaDirectory.mkdir();
 			}
-			ByteArrayInputStream bais = new ByteArrayInputStream(baos.toByteArray());
 			FilePath slaDirectoryFilePath = new FilePath(slaDirectory);
-			FilePath tmpZipFile = new FilePath(slaDirectoryFilePath, "runReport.zip");
-			tmpZipFile.copyFrom(bais);
-			bais.close();
-			baos.close();
-			tmpZipFile.unzip(slaDirectoryFilePath);
+			ReportFolderTransfer.copy(slaReportFilePath, slaDirectory, listener);
 			FilePath slaFile = new FilePath(slaDirectoryFilePath, "RunReport.xml");
 			slaFile.getBaseName();
 			slaFile.renameTo(new FilePath(slaDirectoryFilePath, scenarioName + ".xml"));
@@ -839,22 +782,7 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
 
 				listener.getLogger().println("Zipping report folder: " + reportFolder);
 
-				ByteArrayOutputStream outstr = new ByteArrayOutputStream();
-				reportFolder.zip(outstr);
-
-				/*
-				 * I did't use copyRecursiveTo or copyFrom due to bug in
-				 * jekins:https://issues.jenkins-ci.org/browse /JENKINS-9189 //(which is
-				 * cleaimed to have been fixed, but not. So I zip the folder to stream and copy
-				 * it to the master.
-				 */
-
-				ByteArrayInputStream instr = new ByteArrayInputStream(outstr.toByteArray());
-
-				archivedFile.copyFrom(instr);
-
-				outstr.close();
-				instr.close();
+				zipToMaster(reportFolder, archivedFile);
 				return true;
 			} else {
 				listener.getLogger().println("No report folder was found in: " + reportFolder);
@@ -901,23 +829,12 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
 			if (srcDirectoryFilePath.exists()) {
 				FilePath srcFilePath = new FilePath(srcDirectoryFilePath, IE_REPORT_FOLDER);
 				if (srcFilePath.exists()) {
-					ByteArrayOutputStream baos = new ByteArrayOutputStream();
-					srcFilePath.zip(baos);
 					File reportDirectory = new File(artifactsDir.getParent(), PERFORMANCE_REPORT_FOLDER);
 					if (!reportDirectory.exists()) {
 						reportDirectory.mkdir();
 					}
-					ByteArrayInputStream bais = new ByteArrayInputStream(baos.toByteArray());
-					FilePath reportDirectoryFilePath = new FilePath(reportDirectory);
-					FilePath tmpZipFile = new FilePath(reportDirectoryFilePath, "tmp.zip");
-					tmpZipFile.copyFrom(bais);
-					bais.close();
-					baos.close();
-					tmpZipFile.unzip(reportDirectoryFilePath);
 					String newFolderName = org.apache.commons.io.FilenameUtils.getName(testFolderPathFile.getPath());
-					FileUtils.moveDirectory(new File(reportDirectory, IE_REPORT_FOLDER),
-							new File(reportDirectory, newFolderName));
-					tmpZipFile.delete();
+					ReportFolderTransfer.copy(srcFilePath, new File(reportDirectory, newFolderName), TaskListener.NULL);
 					outputReportFiles(reportNames, reportDirectory, testResult, "Performance Report",
 							HTML_REPORT_FOLDER);
 				}
@@ -1231,211 +1148,25 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
 	}
 
 	private LrJobResults buildJobDataset(TaskListener listener)
-			throws ParserConfigurationException, SAXException, IOException, InterruptedException {
+			throws XMLStreamException, IOException, InterruptedException {
 		listener.getLogger().println("Parsing test run dataset for performance report");
 		LrJobResults jobResults = new LrJobResults();
+		RunReportParser runReportParser = new RunReportParser();
 
 		// read each RunReport.xml
 		for (FilePath reportFilePath : runReportList) {
-			JobLrScenarioResult jobLrScenarioResult = parseScenarioResults(reportFilePath);
+			JobLrScenarioResult jobLrScenarioResult = parseScenarioResults(runReportParser, reportFilePath);
 			jobResults.addScenario(jobLrScenarioResult);
 		}
 
 		return jobResults;
 	}
 
-	private JobLrScenarioResult parseScenarioResults(FilePath slaFilePath)
-			throws ParserConfigurationException, SAXException, IOException, InterruptedException {
-		JobLrScenarioResult jobLrScenarioResult = new JobLrScenarioResult(slaFilePath.getBaseName());
-
-		DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
-		DocumentBuilder dBuilder = dbFactory.newDocumentBuilder();
-
-		Document doc = dBuilder.parse(slaFilePath.read());
-
-		processSLA(jobLrScenarioResult, doc);
-		processLrScenarioStats(jobLrScenarioResult, doc);
-		// TODO: add fail / Pass count
-		return jobLrScenarioResult;
-	}
-
-	private void processLrScenarioStats(JobLrScenarioResult jobLrScenarioResult, Document doc) {
-
-		NodeList rootNodes = doc.getChildNodes();
-		Node root = getNode("Runs", rootNodes);
-		Element generalNode = (Element) getNode("General", root.getChildNodes());
-		NodeList generalNodeChildren = generalNode.getChildNodes();
-
-		extractVUserScenarioReult(jobLrScenarioResult, generalNodeChildren);
-		extractTransactionScenarioResult(jobLrScenarioResult, generalNodeChildren);
-		extractConnectionsScenarioResult(jobLrScenarioResult, generalNodeChildren);
-		extractDuration(jobLrScenarioResult, generalNodeChildren);
-	}
-
-	private void extractDuration(JobLrScenarioResult jobLrScenarioResult, NodeList generalNodeChildren) {
-		Node ScenrioDurationNode = getNode("Time", generalNodeChildren);
-		String scenarioDurationAttr = getNodeAttr("Duration", ScenrioDurationNode);
-		jobLrScenarioResult.setScenarioDuration(Long.valueOf(scenarioDurationAttr));
-	}
-
-	private void extractConnectionsScenarioResult(JobLrScenarioResult jobLrScenarioResult,
-	                                              NodeList generalNodeChildren) {
-		Node connections = getNode("Connections", generalNodeChildren);
-		jobLrScenarioResult.setConnectionMax(Integer.valueOf(getNodeAttr("MaxCount", connections)));
-	}
-
-	private void extractTransactionScenarioResult(JobLrScenarioResult jobLrScenarioResult,
-	                                              NodeList generalNodeChildren) {
-		int atrrCount;
-		Node transactions = getNode("Transactions", generalNodeChildren);
-		atrrCount = transactions.getAttributes().getLength();
-		for (int atrrIndx = 0; atrrIndx < atrrCount; atrrIndx++) {
-			Node vUserAttr = transactions.getAttributes().item(atrrIndx);
-			jobLrScenarioResult.transactionSum.put(vUserAttr.getNodeName(), Integer.valueOf(vUserAttr.getNodeValue()));
-		}
-
-		NodeList transactionNodes = transactions.getChildNodes();
-		int transactionNodesCount = transactionNodes.getLength();
-		for (int transIdx = 0; transIdx < transactionNodesCount; transIdx++) {
-			if (transactionNodes.item(transIdx).getNodeType() != Node.ELEMENT_NODE) {
-				continue;
-			}
-			Element transaction = (Element) transactionNodes.item(transIdx);
-			TreeMap<String, Integer> transactionData = new TreeMap<String, Integer>();
-			transactionData.put("Pass", Integer.valueOf(transaction.getAttribute("Pass")));
-			transactionData.put("Fail", Integer.valueOf(transaction.getAttribute("Fail")));
-			transactionData.put("Stop", Integer.valueOf(transaction.getAttribute("Stop")));
-			jobLrScenarioResult.transactionData.put(transaction.getAttribute("Name"), transactionData);
-		}
-	}
-
-	private void extractVUserScenarioReult(JobLrScenarioResult jobLrScenarioResult, NodeList generalNodeChildren) {
-		Node vUser = getNode("VUsers", generalNodeChildren);
-		int atrrCount = vUser.getAttributes().getLength();
-		for (int atrrIndx = 0; atrrIndx < atrrCount; atrrIndx++) {
-			Node vUserAttr = vUser.getAttributes().item(atrrIndx);
-			jobLrScenarioResult.vUserSum.put(vUserAttr.getNodeName(), Integer.valueOf(vUserAttr.getNodeValue()));
-		}
-	}
-
-	private void processSLA(JobLrScenarioResult jobLrScenarioResult, Document doc) {
-		Node slaRuleNode;
-		Element slaRuleElement;
-
-		NodeList rootNodes = doc.getChildNodes();
-		Node root = getNode("Runs", rootNodes);
-		Element slaRoot = (Element) getNode("SLA", root.getChildNodes());
-		NodeList slaRuleResults = slaRoot.getChildNodes();
-
-		for (int j = 0; j < slaRuleResults.getLength(); j++) {
-			slaRuleNode = slaRuleResults.item(j);
-			if (slaRuleNode.getNodeType() != Node.ELEMENT_NODE) {
-				continue;
-			}
-			slaRuleElement = (Element) slaRuleNode;
-			// check type by mesurment field:
-			LrTest.SLA_GOAL slaGoal = LrTest.SLA_GOAL.checkGoal(slaRuleElement.getAttribute("Measurement"));
-
-			processSlaRule(jobLrScenarioResult, slaRuleElement, slaGoal);
-		}
-
-	}
-
-	private void processSlaRule(JobLrScenarioResult jobLrScenarioResult, Element slaRuleElement,
-	                            LrTest.SLA_GOAL slaGoal) {
-		switch (slaGoal) {
-			case AverageThroughput:
-				WholeRunResult averageThroughput = new WholeRunResult();
-				averageThroughput.setSlaGoal(LrTest.SLA_GOAL.AverageThroughput);
-				averageThroughput.setActualValue(Double.valueOf(slaRuleElement.getAttribute(SLA_ACTUAL_VALUE_LABEL)));
-				averageThroughput.setGoalValue(Double.valueOf(slaRuleElement.getAttribute(SLA_GOAL_VALUE_LABEL)));
-				averageThroughput.setFullName(slaRuleElement.getAttribute(SLA_ULL_NAME));
-				averageThroughput
-						.setStatus(LrTest.SLA_STATUS.checkStatus(slaRuleElement.getLastChild().getTextContent().trim()));
-				jobLrScenarioResult.scenarioSlaResults.add(averageThroughput);
-				break;
-			case TotalThroughput:
-				WholeRunResult totalThroughput = new WholeRunResult();
-				totalThroughput.setSlaGoal(LrTest.SLA_GOAL.TotalThroughput);
-				totalThroughput.setActualValue(Double.valueOf(slaRuleElement.getAttribute(SLA_ACTUAL_VALUE_LABEL)));
-				totalThroughput.setGoalValue(Double.valueOf(slaRuleElement.getAttribute(SLA_GOAL_VALUE_LABEL)));
-				totalThroughput.setFullName(slaRuleElement.getAttribute(SLA_ULL_NAME));
-				totalThroughput
-						.setStatus(LrTest.SLA_STATUS.checkStatus(slaRuleElement.getLastChild().getTextContent().trim()));
-				jobLrScenarioResult.scenarioSlaResults.add(totalThroughput);
-
-				break;
-			case AverageHitsPerSecond:
-				WholeRunResult averageHitsPerSecond = new WholeRunResult();
-				averageHitsPerSecond.setSlaGoal(LrTest.SLA_GOAL.AverageHitsPerSecond);
-				averageHitsPerSecond.setActualValue(Double.valueOf(slaRuleElement.getAttribute(SLA_ACTUAL_VALUE_LABEL)));
-				averageHitsPerSecond.setGoalValue(Double.valueOf(slaRuleElement.getAttribute(SLA_GOAL_VALUE_LABEL)));
-				averageHitsPerSecond.setFullName(slaRuleElement.getAttribute(SLA_ULL_NAME));
-				averageHitsPerSecond
-						.setStatus(LrTest.SLA_STATUS.checkStatus(slaRuleElement.getLastChild().getTextContent().trim()));
-				jobLrScenarioResult.scenarioSlaResults.add(averageHitsPerSecond);
-
-				break;
-			case TotalHits:
-				WholeRunResult totalHits = new WholeRunResult();
-				totalHits.setSlaGoal(LrTest.SLA_GOAL.TotalHits);
-				totalHits.setActualValue(Double.valueOf(slaRuleElement.getAttribute(SLA_ACTUAL_VALUE_LABEL)));
-				totalHits.setGoalValue(Double.valueOf(slaRuleElement.getAttribute(SLA_GOAL_VALUE_LABEL)));
-				totalHits.setFullName(slaRuleElement.getAttribute(SLA_ULL_NAME));
-				totalHits.setStatus(LrTest.SLA_STATUS.checkStatus(slaRuleElement.getLastChild().getTextContent().trim()));
-				jobLrScenarioResult.scenarioSlaResults.add(totalHits);
-
-				break;
-			case ErrorsPerSecond:
-				TimeRangeResult errPerSec = new AvgTransactionResponseTime();
-				errPerSec.setSlaGoal(LrTest.SLA_GOAL.ErrorsPerSecond);
-				errPerSec.setFullName(slaRuleElement.getAttribute(SLA_ULL_NAME));
-				errPerSec.setLoadThrashold(slaRuleElement.getAttribute("SLALoadThresholdValue"));
-				errPerSec.setStatus(LrTest.SLA_STATUS.checkStatus(slaRuleElement.getLastChild().getTextContent().trim())); // Might
-				// not
-				// work
-				// due
-				// to
-				// time
-				// ranges
-				addTimeRanges(errPerSec, slaRuleElement);
-				jobLrScenarioResult.scenarioSlaResults.add(errPerSec);
-
-				break;
-			case PercentileTRT:
-				PercentileTransactionWholeRun percentileTransactionWholeRun = new PercentileTransactionWholeRun();
-				percentileTransactionWholeRun.setSlaGoal(LrTest.SLA_GOAL.PercentileTRT);
-				percentileTransactionWholeRun.setName(slaRuleElement.getAttribute("TransactionName"));
-				percentileTransactionWholeRun
-						.setActualValue(Double.valueOf(slaRuleElement.getAttribute(SLA_ACTUAL_VALUE_LABEL)));
-				percentileTransactionWholeRun
-						.setGoalValue(Double.valueOf(slaRuleElement.getAttribute(SLA_GOAL_VALUE_LABEL)));
-				percentileTransactionWholeRun.setFullName(slaRuleElement.getAttribute(SLA_ULL_NAME));
-				percentileTransactionWholeRun.setPrecentage(Double.valueOf(slaRuleElement.getAttribute("Percentile")));
-				percentileTransactionWholeRun
-						.setStatus(LrTest.SLA_STATUS.checkStatus(slaRuleElement.getLastChild().getTextContent().trim()));
-				jobLrScenarioResult.scenarioSlaResults.add(percentileTransactionWholeRun);
-
-				break;
-			case AverageTRT:
-				AvgTransactionResponseTime transactionTimeRange = new AvgTransactionResponseTime();
-				transactionTimeRange.setSlaGoal(LrTest.SLA_GOAL.AverageTRT);
-				transactionTimeRange.setName(slaRuleElement.getAttribute("TransactionName"));
-				transactionTimeRange.setFullName(slaRuleElement.getAttribute(SLA_ULL_NAME));
-				transactionTimeRange.setLoadThrashold(slaRuleElement.getAttribute("SLALoadThresholdValue"));
-				transactionTimeRange
-						.setStatus(LrTest.SLA_STATUS.checkStatus(slaRuleElement.getLastChild().getTextContent().trim())); // Might
-				// not
-				// work
-				// due
-				// to
-				// time
-				// ranges
-				addTimeRanges(transactionTimeRange, slaRuleElement);
-				jobLrScenarioResult.scenarioSlaResults.add(transactionTimeRange);
-				break;
-			case Bad:
-				break;
+	private JobLrScenarioResult parseScenarioResults(RunReportParser runReportParser, FilePath slaFilePath)
+			throws XMLStreamException, IOException, InterruptedException {
+		try (InputStream is = slaFilePath.read()) {
+			// TODO: add fail / Pass count
+			return runReportParser.parse(slaFilePath.getBaseName(), is);
 		}
 	}
 
@@ -325,11 +325,12 @@ public class TestResultToALMUploader extends Recorder implements Serializable, M
                     Util.replaceMacro(uploadTestResultToAlmModel.getAlmTestSetFolder(), varResolver)
             );
             AlmRestTool almRestTool = new AlmRestTool(loginInfo, logger);
+            // one service for all files, so the resolved ALM folders are reused
+            IExternalEntityUploadService service = new DefaultExternalEntityUploadServiceImpl(almRestTool, logger);
 
         	for (String fileName : files) {
         		String fullpath = root.getAbsolutePath() + File.separator + fileName;
     			logger.log("INFO: Start to upload "+fullpath);
-    			IExternalEntityUploadService service = new DefaultExternalEntityUploadServiceImpl(almRestTool, workspace, logger);
     			try {
                     importedTestsetIds = service.uploadExternalTestSet(loginInfo,
 	    					fullpath,
@@ -0,0 +1,122 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.results.parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.PushbackInputStream;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import com.ctc.wstx.stax.WstxInputFactory;
+
+/**
+ * Report formats known by {@link ReportParserManager}, told apart by the name of their root element.
+ */
+public enum ReportFormat {
+	JENKINS_JUNIT("result"),
+	MAVEN_SUREFIRE("testsuite"),
+	TESTNG("testng-results"),
+	NUNIT3("test-run"),
+	NUNIT("test-results"),
+	ANT_JUNIT("testsuites");
+
+	/**
+	 * The root element has to start within this many bytes of the report.
+	 */
+	public static final int MAX_PROLOG_SIZE = 64 * 1024;
+
+	private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+
+	private final String rootElement;
+
+	ReportFormat(String rootElement) {
+		this.rootElement = rootElement;
+	}
+
+	public String getRootElement() {
+		return rootElement;
+	}
+
+	/**
+	 * Reads the beginning of the report up to its root element and pushes it back, so the stream can be parsed
+	 * from its start afterwards.
+	 * @param in a stream with a pushback buffer of at least {@link #MAX_PROLOG_SIZE} bytes
+	 * @return the format, or null for a report that is not well formed up to its root element or has an unknown one
+	 */
+	public static ReportFormat detect(PushbackInputStream in) throws IOException {
+		byte[] prolog = new byte[MAX_PROLOG_SIZE];
+		int length = 0;
+		int read;
+		while (length < prolog.length && (read = in.read(prolog, length, prolog.length - length)) != -1) {
+			length += read;
+		}
+		in.unread(prolog, 0, length);
+
+		XMLStreamReader reader = null;
+		try {
+			reader = XML_INPUT_FACTORY.createXMLStreamReader(new ByteArrayInputStream(prolog, 0, length));
+			while (reader.hasNext()) {
+				if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+					return fromRootElement(reader.getLocalName());
+				}
+			}
+			return null;
+		} catch (XMLStreamException e) {
+			return null;
+		} finally {
+			if (reader != null) {
+				try {
+					reader.close();
+				} catch (XMLStreamException e) {
+					// nothing to release
+				}
+			}
+		}
+	}
+
+	static ReportFormat fromRootElement(String name) {
+		for (ReportFormat format : values()) {
+			if (format.rootElement.equals(name)) {
+				return format;
+			}
+		}
+		return null;
+	}
+
+	private static XMLInputFactory createXmlInputFactory() {
+		XMLInputFactory xmlFactory = new WstxInputFactory();
+		xmlFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		xmlFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		return xmlFactory;
+	}
+}
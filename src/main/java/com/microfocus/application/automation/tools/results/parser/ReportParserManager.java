@@ -29,67 +29,76 @@
 package com.microfocus.application.automation.tools.results.parser;
 
 import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
-import java.util.ArrayList;
+import java.io.PushbackInputStream;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 import com.microfocus.application.automation.tools.results.parser.antjunit.AntJUnitReportParserImpl;
 import com.microfocus.application.automation.tools.results.parser.jenkinsjunit.JenkinsJUnitReportParserImpl;
 import com.microfocus.application.automation.tools.results.parser.mavensurefire.MavenSureFireReportParserImpl;
-import com.microfocus.application.automation.tools.results.parser.nunit.NUnitReportParserImpl;
 import com.microfocus.application.automation.tools.results.parser.nunit3.NUnit3ReportParserImpl;
 import com.microfocus.application.automation.tools.results.parser.testngxml.TestNGXmlReportParserImpl;
 import com.microfocus.application.automation.tools.results.service.almentities.AlmTestSet;
 import com.microfocus.application.automation.tools.sse.sdk.Logger;
-import hudson.FilePath;
 
+/**
+ * Parses a report with the parser of its format, detected from its root element.
+ * An instance serves one upload, and can be used by several threads.
+ */
 public class ReportParserManager {
-	
-	private static ReportParserManager instance = new ReportParserManager();
 
-	private List<ReportParser> parserList;
-	private FilePath workspace;
-	private Logger logger;
+	private final Logger logger;
+	private final Map<ReportFormat, ReportParser> parsers;
 
-	private ReportParserManager() {}
+	public ReportParserManager(Logger logger) {
+		this(logger, createParsers());
+	}
 
-	public static ReportParserManager getInstance(FilePath workspace, Logger logger) {
-		if (instance.workspace == null) {
-			instance.workspace = workspace;
-		}
-		if (instance.logger == null) {
-			instance.logger = logger;
-		}
-		return instance;
+	ReportParserManager(Logger logger, Map<ReportFormat, ReportParser> parsers) {
+		this.logger = logger;
+		this.parsers = Collections.unmodifiableMap(new EnumMap<ReportFormat, ReportParser>(parsers));
 	}
 
+	/**
+	 * @return the test sets of the report, or null when its format is unknown or it could not be parsed
+	 */
 	public List<AlmTestSet> parseTestSets(String reportFilePath, String testingFramework, String testingTool) {
-		init();
-		List<AlmTestSet> testsets = null;
-		for (ReportParser reportParser : parserList) {
+		try (PushbackInputStream in = new PushbackInputStream(openReport(reportFilePath), ReportFormat.MAX_PROLOG_SIZE)) {
+			ReportFormat format = ReportFormat.detect(in);
+			ReportParser reportParser = format == null ? null : parsers.get(format);
+			if (reportParser == null) {
+				logger.log("Failed to detect the format of file: " + reportFilePath);
+				return null;
+			}
 			try {
-				InputStream in = new FileInputStream(reportFilePath);
-				testsets = reportParser.parseTestSets(in, testingFramework, testingTool);
-				break;
+				return reportParser.parseTestSets(in, testingFramework, testingTool);
 			} catch (Exception e) {
 				logger.log("Failed to parse file with: " + reportParser.getClass().getName());
+				return null;
 			}
+		} catch (IOException e) {
+			logger.log("Failed to read file: " + reportFilePath + ": " + e.getMessage());
+			return null;
 		}
-		return testsets;
 	}
 
-	private void init() {
-		if (parserList == null) {
-			parserList = new ArrayList<ReportParser>();
-		}
+	InputStream openReport(String reportFilePath) throws IOException {
+		return new FileInputStream(reportFilePath);
+	}
 
-		if (parserList.isEmpty()) {
-			parserList.add(new JenkinsJUnitReportParserImpl());
-			parserList.add(new MavenSureFireReportParserImpl());
-			parserList.add(new TestNGXmlReportParserImpl());
-			parserList.add(new NUnit3ReportParserImpl(workspace));
-			parserList.add(new NUnitReportParserImpl());
-			parserList.add(new AntJUnitReportParserImpl());
-		}
+	private static Map<ReportFormat, ReportParser> createParsers() {
+		Map<ReportFormat, ReportParser> parsers = new EnumMap<ReportFormat, ReportParser>(ReportFormat.class);
+		parsers.put(ReportFormat.JENKINS_JUNIT, new JenkinsJUnitReportParserImpl());
+		parsers.put(ReportFormat.MAVEN_SUREFIRE, new MavenSureFireReportParserImpl());
+		parsers.put(ReportFormat.TESTNG, new TestNGXmlReportParserImpl());
+		// the NUnit 3 parser also reads NUnit 2 reports, with the same mapping
+		parsers.put(ReportFormat.NUNIT3, new NUnit3ReportParserImpl());
+		parsers.put(ReportFormat.NUNIT, new NUnit3ReportParserImpl());
+		parsers.put(ReportFormat.ANT_JUNIT, new AntJUnitReportParserImpl());
+		return parsers;
 	}
 }
@@ -33,12 +33,11 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
-import javax.xml.bind.Unmarshaller;
 
 import com.microfocus.application.automation.tools.results.parser.ReportParseException;
 import com.microfocus.application.automation.tools.results.parser.ReportParser;
+import com.microfocus.application.automation.tools.results.parser.util.JaxbRegistry;
 import com.microfocus.application.automation.tools.results.parser.util.ParserUtil;
 import com.microfocus.application.automation.tools.results.service.almentities.AlmRun;
 import com.microfocus.application.automation.tools.results.service.almentities.AlmTest;
@@ -48,7 +47,6 @@ import com.microfocus.application.automation.tools.results.service.almentities.A
 import com.microfocus.application.automation.tools.results.service.almentities.AlmTestSetImpl;
 import com.microfocus.application.automation.tools.results.service.almentities.EntityRelation;
 import com.microfocus.application.automation.tools.results.service.almentities.IAlmConsts;
-import com.microfocus.application.automation.tools.sse.sdk.Base64Encoder;
 
 public class AntJUnitReportParserImpl implements ReportParser {
 
@@ -73,17 +71,7 @@ public class AntJUnitReportParserImpl implements ReportParser {
 	}	
 	
 	private Testsuites parseFromAntJUnitReport(InputStream reportInputStream) throws JAXBException {
-		JAXBContext jaxbContext;
-		Thread t = Thread.currentThread();
-		ClassLoader orig = t.getContextClassLoader();
-		t.setContextClassLoader(AntJUnitReportParserImpl.class.getClassLoader());
-		try {
-			jaxbContext = JAXBContext.newInstance(Testsuites.class);
-		} finally {
-			t.setContextClassLoader(orig);
-		}
-		Unmarshaller unmarshaller = jaxbContext.createUnmarshaller();
-		return (Testsuites)unmarshaller.unmarshal(reportInputStream);
+		return JaxbRegistry.getInstance().unmarshal(Testsuites.class, reportInputStream);
 	}
 	
 	private AlmTest createExternalTestForAntJUnit(Testcase tc, String testingFramework, String testingTool) {
@@ -92,8 +80,7 @@ public class AntJUnitReportParserImpl implements ReportParser {
 	}
 	
 	private String getRunDetail(Testcase tc){
-		String detail = ParserUtil.marshallerObject(Testcase.class, tc);
-		return Base64Encoder.encode(detail.getBytes());
+		return JaxbRegistry.getInstance().toRunDetail(Testcase.class, tc);
 	}
 
 
@@ -103,29 +90,36 @@ public class AntJUnitReportParserImpl implements ReportParser {
 		ArrayList<AlmTestSet> testSets = new ArrayList<AlmTestSet>();
 		
 		for(Testsuite ts : testsuites.getTestsuite()) {
-			AlmTestSet testSet = new AlmTestSetImpl();
-			testSet.setFieldValue(AlmTestSet.TESTSET_NAME, ParserUtil.replaceInvalidCharsForTestSetName(ts.getName()));
-			testSet.setFieldValue(AlmTestSet.TESTSET_SUB_TYPE_ID, EXTERNAL_TEST_SET_TYPE_ID);
-			testSets.add(testSet);
-
-			for (Testcase tc: ts.getTestcase()) {
-				AlmTestInstance testInstance = new AlmTestInstanceImpl();
-				testInstance.setFieldValue(AlmTestInstance.TEST_INSTANCE_SUBTYPE_ID, EXTERNAL_TEST_INSTANCE_TYPE_ID);
-				testSet.addRelatedEntity(EntityRelation.TESTSET_TO_TESTINSTANCE_CONTAINMENT_RELATION, testInstance);
-				
-				AlmTest test = createExternalTestForAntJUnit(tc, testingFramework, testingTool);
-				testInstance.addRelatedEntity(EntityRelation.TEST_TO_TESTINSTANCE_REALIZATION_RELATION, test);
-				
-				AlmRun run = ParserUtil.createRun(getRunStatus(tc),
-												ts.getTimestamp(),  
-												tc.getTime(), 
-												getRunDetail (tc));
-				testInstance.addRelatedEntity(EntityRelation.TESTINSTANCE_TO_RUN_REALIZATION_RELATION, run);
-			}			
+			testSets.add(createTestSet(ts, testingFramework, testingTool));
 		}
 		
 		return testSets;
 	}
+
+	/**
+	 * Creates the test set of a suite, with a test instance and a run for each of its test cases.
+	 */
+	public AlmTestSet createTestSet(Testsuite ts, String testingFramework, String testingTool) {
+		AlmTestSet testSet = new AlmTestSetImpl();
+		testSet.setFieldValue(AlmTestSet.TESTSET_NAME, ParserUtil.replaceInvalidCharsForTestSetName(ts.getName()));
+		testSet.setFieldValue(AlmTestSet.TESTSET_SUB_TYPE_ID, EXTERNAL_TEST_SET_TYPE_ID);
+
+		for (Testcase tc: ts.getTestcase()) {
+			AlmTestInstance testInstance = new AlmTestInstanceImpl();
+			testInstance.setFieldValue(AlmTestInstance.TEST_INSTANCE_SUBTYPE_ID, EXTERNAL_TEST_INSTANCE_TYPE_ID);
+			testSet.addRelatedEntity(EntityRelation.TESTSET_TO_TESTINSTANCE_CONTAINMENT_RELATION, testInstance);
+			
+			AlmTest test = createExternalTestForAntJUnit(tc, testingFramework, testingTool);
+			testInstance.addRelatedEntity(EntityRelation.TEST_TO_TESTINSTANCE_REALIZATION_RELATION, test);
+			
+			AlmRun run = ParserUtil.createRun(getRunStatus(tc),
+											ts.getTimestamp(),  
+											tc.getTime(), 
+											getRunDetail (tc));
+			testInstance.addRelatedEntity(EntityRelation.TESTINSTANCE_TO_RUN_REALIZATION_RELATION, run);
+		}
+		return testSet;
+	}
 	
 	private String getRunStatus(Testcase testcase) {
 		if (testcase.getError().size() > 0) {
@@ -32,12 +32,11 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
-import javax.xml.bind.Unmarshaller;
 
 import com.microfocus.application.automation.tools.results.parser.ReportParseException;
 import com.microfocus.application.automation.tools.results.parser.ReportParser;
+import com.microfocus.application.automation.tools.results.parser.util.JaxbRegistry;
 import com.microfocus.application.automation.tools.results.parser.util.ParserUtil;
 import com.microfocus.application.automation.tools.results.service.almentities.AlmRun;
 import com.microfocus.application.automation.tools.results.service.almentities.AlmTest;
@@ -47,7 +46,6 @@ import com.microfocus.application.automation.tools.results.service.almentities.A
 import com.microfocus.application.automation.tools.results.service.almentities.AlmTestSetImpl;
 import com.microfocus.application.automation.tools.results.service.almentities.EntityRelation;
 import com.microfocus.application.automation.tools.results.service.almentities.IAlmConsts;
-import com.microfocus.application.automation.tools.sse.sdk.Base64Encoder;
 
 public class JenkinsJUnitReportParserImpl implements ReportParser {
 
@@ -64,17 +62,7 @@ public class JenkinsJUnitReportParserImpl implements ReportParser {
 	}	
 	
 	private Result parseFromJenkinsPluginJUnitReport(InputStream reportInputStream) throws JAXBException {
-		JAXBContext jaxbContext;
-		Thread t = Thread.currentThread();
-		ClassLoader orig = t.getContextClassLoader();
-		t.setContextClassLoader(JenkinsJUnitReportParserImpl.class.getClassLoader());
-		try {
-			jaxbContext = JAXBContext.newInstance(Result.class);
-		} finally {
-			t.setContextClassLoader(orig);
-		}
-		Unmarshaller unmarshaller = jaxbContext.createUnmarshaller();
-		return (Result)unmarshaller.unmarshal(reportInputStream);		
+		return JaxbRegistry.getInstance().unmarshal(Result.class, reportInputStream);
 	}
 	
 	private AlmTest createExternalTestForJenkinsPluginJUnit(Result.Suites.Suite.Cases.Case c, String testingFramework, String testingTool) {
@@ -83,8 +71,7 @@ public class JenkinsJUnitReportParserImpl implements ReportParser {
 	}
 	
 	private String getRunDetail(Result.Suites.Suite.Cases.Case c){
-		String detail = ParserUtil.marshallerObject(Result.Suites.Suite.Cases.Case.class, c);
-		return Base64Encoder.encode(detail.getBytes());
+		return JaxbRegistry.getInstance().toRunDetail(Result.Suites.Suite.Cases.Case.class, c);
 	}
 
 	private ArrayList<AlmTestSet> parseTestSetsFromJenkinsPluginJUnitReport(InputStream reportInputStream, String testingFramework, String testingTool) throws JAXBException {
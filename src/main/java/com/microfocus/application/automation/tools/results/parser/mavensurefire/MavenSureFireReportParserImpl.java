@@ -32,12 +32,11 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
-import javax.xml.bind.Unmarshaller;
 
 import com.microfocus.application.automation.tools.results.parser.ReportParseException;
 import com.microfocus.application.automation.tools.results.parser.ReportParser;
+import com.microfocus.application.automation.tools.results.parser.util.JaxbRegistry;
 import com.microfocus.application.automation.tools.results.parser.util.ParserUtil;
 import com.microfocus.application.automation.tools.results.service.almentities.AlmRun;
 import com.microfocus.application.automation.tools.results.service.almentities.AlmTest;
@@ -47,7 +46,6 @@ import com.microfocus.application.automation.tools.results.service.almentities.A
 import com.microfocus.application.automation.tools.results.service.almentities.AlmTestSetImpl;
 import com.microfocus.application.automation.tools.results.service.almentities.EntityRelation;
 import com.microfocus.application.automation.tools.results.service.almentities.IAlmConsts;
-import com.microfocus.application.automation.tools.sse.sdk.Base64Encoder;
 
 public class MavenSureFireReportParserImpl implements ReportParser {
 
@@ -63,17 +61,7 @@ public class MavenSureFireReportParserImpl implements ReportParser {
 	}	
     
 	private Testsuite parseFromMavenSurefirePluginJUnitReport(InputStream reportInputStream) throws JAXBException {
-		JAXBContext jaxbContext;
-		Thread t = Thread.currentThread();
-		ClassLoader orig = t.getContextClassLoader();
-		t.setContextClassLoader(MavenSureFireReportParserImpl.class.getClassLoader());
-		try {
-			jaxbContext = JAXBContext.newInstance(Testsuite.class);
-		} finally {
-			t.setContextClassLoader(orig);
-		}
-		Unmarshaller unmarshaller = jaxbContext.createUnmarshaller();
-		return (Testsuite)unmarshaller.unmarshal(reportInputStream);
+		return JaxbRegistry.getInstance().unmarshal(Testsuite.class, reportInputStream);
 	}
 
 	private AlmTest createExternalTestForMavenSurefirePluginJUnit(Testcase tc, String testingFramework, String testingTool) {
@@ -139,7 +127,6 @@ public class MavenSureFireReportParserImpl implements ReportParser {
 	}
 	
 	private String getRunDetail(Testcase testcase) {
-		String detail = ParserUtil.marshallerObject(Testcase.class, testcase);		
-		return Base64Encoder.encode(detail.getBytes());
+		return JaxbRegistry.getInstance().toRunDetail(Testcase.class, testcase);
 	}
 }
@@ -1,308 +0,0 @@
-/*
- * Certain versions of software and/or documents ("Material") accessible here may contain branding from
- * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
- * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
- * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
- * marks are the property of their respective owners.
- * __________________________________________________________________
- * MIT License
- *
- * (c) Copyright 2012-2019 Micro Focus or one of its affiliates.
- *
- * The only warranties for products and services of Micro Focus and its affiliates
- * and licensors ("Micro Focus") are set forth in the express warranty statements
- * accompanying such products and services. Nothing herein should be construed as
- * constituting an additional warranty. Micro Focus shall not be liable for technical
- * or editorial errors or omissions contained herein.
- * The information contained herein is subject to change without notice.
- * ___________________________________________________________________
- */
-
-//
-// This file was generated by the JavaTM Architecture for XML Binding(JAXB) Reference Implementation, v2.2.4-2 
-// See <a href="http://java.sun.com/xml/jaxb">http://java.sun.com/xml/jaxb</a> 
-// Any modifications to this file will be lost upon recompilation of the source schema. 
-// Generated on: 2015.05.13 at 09:45:43 AM CST 
-//
-
-
-package com.microfocus.application.automation.tools.results.parser.nunit;
-
-import javax.xml.bind.annotation.XmlAccessType;
-import javax.xml.bind.annotation.XmlAccessorType;
-import javax.xml.bind.annotation.XmlAttribute;
-import javax.xml.bind.annotation.XmlRootElement;
-import javax.xml.bind.annotation.XmlType;
-
-
-/**
- * <p>Java class for test-caseType complex type.
- * 
- * <p>The following schema fragment specifies the expected content contained within this class.
- * 
- * <pre>
- * &lt;complexType name="test-caseType">
- *   &lt;complexContent>
- *     &lt;restriction base="{http://www.w3.org/2001/XMLSchema}anyType">
- *       &lt;sequence>
- *         &lt;element name="categories" type="{}categoriesType" minOccurs="0"/>
- *         &lt;choice>
- *           &lt;element name="failure" type="{}failureType" minOccurs="0"/>
- *           &lt;element name="reason" type="{}reasonType" minOccurs="0"/>
- *         &lt;/choice>
- *       &lt;/sequence>
- *       &lt;attribute name="name" use="required" type="{http://www.w3.org/2001/XMLSchema}string" />
- *       &lt;attribute name="description" type="{http://www.w3.org/2001/XMLSchema}string" />
- *       &lt;attribute name="success" type="{http://www.w3.org/2001/XMLSchema}string" />
- *       &lt;attribute name="time" type="{http://www.w3.org/2001/XMLSchema}string" />
- *       &lt;attribute name="executed" use="required" type="{http://www.w3.org/2001/XMLSchema}string" />
- *       &lt;attribute name="asserts" type="{http://www.w3.org/2001/XMLSchema}string" />
- *     &lt;/restriction>
- *   &lt;/complexContent>
- * &lt;/complexType>
- * </pre>
- * 
- * 
- */
-@XmlRootElement
-@XmlAccessorType(XmlAccessType.FIELD)
-@XmlType(name = "test-caseType", propOrder = {
-    "categories",
-    "failure",
-    "reason"
-})
-public class TestCaseType {
-
-    protected CategoriesType categories;
-    protected FailureType failure;
-    protected ReasonType reason;
-    @XmlAttribute(name = "name", required = true)
-    protected String name;
-    @XmlAttribute(name = "description")
-    protected String description;
-    @XmlAttribute(name = "success")
-    protected String success;
-    @XmlAttribute(name = "time")
-    protected String time;
-    @XmlAttribute(name = "executed", required = true)
-    protected String executed;
-    @XmlAttribute(name = "asserts")
-    protected String asserts;
-
-    /**
-     * Gets the value of the categories property.
-     * 
-     * @return
-     *     possible object is
-     *     {@link CategoriesType }
-     *     
-     */
-    public CategoriesType getCategories() {
-        return categories;
-    }
-
-    /**
-     * Sets the value of the categories property.
-     * 
-     * @param value
-     *     allowed object is
-     *     {@link CategoriesType }
-     *     
-     */
-    public void setCategories(CategoriesType value) {
-        this.categories = value;
-    }
-
-    /**
-     * Gets the value of the failure property.
-     * 
-     * @return
-     *     possible object is
-     *     {@link FailureType }
-     *     
-     */
-    public FailureType getFailure() {
-        return failure;
-    }
-
-    /**
-     * Sets the value of the failure property.
-     * 
-     * @param value
-     *     allowed object is
-     *     {@link FailureType }
-     *     
-     */
-    public void setFailure(FailureType value) {
-        this.failure = value;
-    }
-
-    /**
-     * Gets the value of the reason property.
-     * 
-     * @return
-     *     possible object is
-     *     {@link ReasonType }
-     *     
-     */
-    public ReasonType getReason() {
-        return reason;
-    }
-
-    /**
-     * Sets the value of the reason property.
-     * 
-     * @param value
-     *     allowed object is
-     *     {@link ReasonType }
-     *     
-     */
-    public void setReason(ReasonType value) {
-        this.reason = value;
-    }
-
-    /**
-     * Gets the value of the name property.
-     * 
-     * @return
-     *     possible object is
-     *     {@link String }
-     *     
-     */
-    public String getName() {
-        return name;
-    }
-
-    /**
-     * Sets the value of the name property.
-     * 
-     * @param value
-     *     allowed object is
-     *     {@link String }
-     *     
-     */
-    public void setName(String value) {
-        this.name = value;
-    }
-
-    /**
-     * Gets the value of the description property.
-     * 
-     * @return
-     *     possible object is
-     *     {@link String }
-     *     
-     */
-    public String getDescription() {
-        return description;
-    }
-
-    /**
-     * Sets the value of the description property.
-     * 
-     * @param value
-     *     allowed object is
-     *     {@link String }
-     *     
-     */
-    public void setDescription(String value) {
-        this.description = value;
-    }
-
-    /**
-     * Gets the value of the success property.
-     * 
-     * @return
-     *     possible object is
-     *     {@link String }
-     *     
-     */
-    public String getSuccess() {
-        return success;
-    }
-
-    /**
-     * Sets the value of the success property.
-     * 
-     * @param value
-     *     allowed object is
-     *     {@link String }
-     *     
-     */
-    public void setSuccess(String value) {
-        this.success = value;
-    }
-
-    /**
-     * Gets the value of the time property.
-     * 
-     * @return
-     *     possible object is
-     *     {@link String }
-     *     
-     */
-    public String getTime() {
-        return time;
-    }
-
-    /**
-     * Sets the value of the time property.
-     * 
-     * @param value
-     *     allowed object is
-     *     {@link String }
-     *     
-     */
-    public void setTime(String value) {
-        this.time = value;
-    }
-
-    /**
-     * Gets the value of the executed property.
-     * 
-     * @return
-     *     possible object is
-     *     {@link String }
-     *     
-     */
-    public String getExecuted() {
-        return executed;
-    }
-
-    /**
-     * Sets the value of the executed property.
-     * 
-     * @param value
-     *     allowed object is
-     *     {@link String }
-     *     
-     */
-    public void setExecuted(String value) {
-        this.executed = value;
-    }
-
-    /**
-     * Gets the value of the asserts property.
-     * 
-     * @return
-     *     possible object is
-     *     {@link String }
-     *     
-     */
-    public String getAsserts() {
-        return asserts;
-    }
-
-    /**
-     * Sets the value of the asserts property.
-     * 
-     * @param value
-     *     allowed object is
-     *     {@link String }
-     *     
-     */
-    public void setAsserts(String value) {
-        this.asserts = value;
-    }
-
-}
@@ -0,0 +1,374 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.results.parser.nunit3;
+
+import com.ctc.wstx.stax.WstxInputFactory;
+import com.microfocus.application.automation.tools.results.parser.ReportParseException;
+import com.microfocus.application.automation.tools.results.parser.antjunit.AntJUnitReportParserImpl;
+import com.microfocus.application.automation.tools.results.parser.antjunit.Failure;
+import com.microfocus.application.automation.tools.results.parser.antjunit.Testcase;
+import com.microfocus.application.automation.tools.results.parser.antjunit.Testsuite;
+import com.microfocus.application.automation.tools.results.service.almentities.AlmTestSet;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Reads NUnit 2 and NUnit 3 reports into JUnit suites in a single pass, with the mapping of the nunit-to-junit.xsl
+ * conversion it replaces (the tests compare both). Each suite is turned into a test set by the Ant JUnit parser
+ * as soon as it is read.
+ */
+class NUnitReportTranslator {
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+
+    private static final String NUNIT2_FAILURE_MESSAGE = "\nMESSAGE:\n";
+    private static final String NUNIT2_FAILURE_STACK_TRACE = "\n+++++++++++++++++++\nSTACK TRACE:\n";
+
+    private final AntJUnitReportParserImpl junitParser = new AntJUnitReportParserImpl();
+    private final String testingFramework;
+    private final String testingTool;
+
+    // the test sets in the order of their suites, a suite reserves its place before its nested suites are read
+    private final List<AlmTestSet> testSets = new ArrayList<AlmTestSet>();
+
+    NUnitReportTranslator(String testingFramework, String testingTool) {
+        this.testingFramework = testingFramework;
+        this.testingTool = testingTool;
+    }
+
+    List<AlmTestSet> translate(InputStream reportInputStream) throws XMLStreamException, ReportParseException {
+        XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(reportInputStream);
+        try {
+            while (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                // skip the prolog
+            }
+            if ("test-run".equals(reader.getLocalName())) {
+                readTestRun(reader);
+            } else if ("test-results".equals(reader.getLocalName())) {
+                readTestResults(reader);
+            } else {
+                throw new ReportParseException("Not a NUnit report: " + reader.getLocalName());
+            }
+        } finally {
+            reader.close();
+        }
+
+        List<AlmTestSet> result = new ArrayList<AlmTestSet>(testSets.size());
+        for (AlmTestSet testSet : testSets) {
+            if (testSet != null) {
+                result.add(testSet);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * NUnit 3: every suite with test cases of its own is a JUnit suite named after the path of its suites.
+     */
+    private void readTestRun(XMLStreamReader reader) throws XMLStreamException {
+        Deque<Suite> suites = new ArrayDeque<Suite>();
+        for (int depth = 1; depth > 0; ) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                String name = reader.getLocalName();
+                if ("test-suite".equals(name)) {
+                    String parentName = suites.isEmpty() ? "" : suites.peek().name;
+                    String suiteName = reader.getAttributeValue(null, "name");
+                    Suite suite = new Suite(suiteName == null ? parentName : parentName + suiteName + ".");
+                    suite.index = reserve();
+                    suite.timestamp = attribute(reader, "start-time");
+                    suites.push(suite);
+                    depth++;
+                } else if ("test-case".equals(name) && !suites.isEmpty()) {
+                    Suite suite = suites.peek();
+                    if (suite.junit == null) {
+                        suite.junit = new Testsuite();
+                        suite.junit.setName(suite.name);
+                        suite.junit.setTimestamp(suite.timestamp);
+                    }
+                    suite.junit.getTestcase().add(readNUnit3TestCase(reader));
+                } else {
+                    skip(reader);
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+                if (depth > 0) {
+                    complete(suites.pop());
+                }
+            }
+        }
+    }
+
+    private Testcase readNUnit3TestCase(XMLStreamReader reader) throws XMLStreamException {
+        Testcase testcase = new Testcase();
+        testcase.setName(attribute(reader, "name"));
+        testcase.setAssertions(attribute(reader, "asserts"));
+        testcase.setTime(attribute(reader, "duration"));
+        testcase.setStatus(attribute(reader, "result"));
+        testcase.setClassname(attribute(reader, "classname"));
+        String runState = reader.getAttributeValue(null, "runstate");
+        if ("Skipped".equals(runState) || "Ignored".equals(runState) || "Inconclusive".equals(runState)) {
+            testcase.setSkipped("");
+        }
+
+        for (int event = reader.next(); event != XMLStreamConstants.END_ELEMENT; event = reader.next()) {
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+            String name = reader.getLocalName();
+            if ("failure".equals(name)) {
+                testcase.getFailure().add(readNUnit3Failure(reader));
+            } else if ("reason".equals(name)) {
+                skip(reader);
+                testcase.setSkipped("");
+            } else if ("output".equals(name)) {
+                testcase.getSystemOut().add(readText(reader, false));
+            } else {
+                skip(reader);
+            }
+        }
+        return testcase;
+    }
+
+    private Failure readNUnit3Failure(XMLStreamReader reader) throws XMLStreamException {
+        String message = null;
+        String stackTrace = null;
+        for (int event = reader.next(); event != XMLStreamConstants.END_ELEMENT; event = reader.next()) {
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+            String name = reader.getLocalName();
+            if ("message".equals(name) && message == null) {
+                message = readText(reader, true);
+            } else if ("stack-trace".equals(name) && stackTrace == null) {
+                stackTrace = readText(reader, true);
+            } else {
+                skip(reader);
+            }
+        }
+        Failure failure = new Failure();
+        failure.setMessage(message == null ? "" : message);
+        failure.setContent(stackTrace == null ? "" : stackTrace);
+        return failure;
+    }
+
+    /**
+     * NUnit 2: every suite with test cases in its results is a JUnit suite named after its fixture,
+     * which is worked out from the name of its first test case.
+     */
+    private void readTestResults(XMLStreamReader reader) throws XMLStreamException {
+        Deque<String> path = new ArrayDeque<String>();
+        Deque<Suite> suites = new ArrayDeque<Suite>();
+        path.push(reader.getLocalName());
+        while (!path.isEmpty()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                String name = reader.getLocalName();
+                if ("test-suite".equals(name)) {
+                    path.push(name);
+                    Suite suite = new Suite(attribute(reader, "name"));
+                    suite.depth = path.size();
+                    suites.push(suite);
+                } else if ("results".equals(name)) {
+                    path.push(name);
+                } else if ("test-case".equals(name) && "results".equals(path.peek())
+                        && !suites.isEmpty() && suites.peek().depth == path.size() - 1) {
+                    Suite suite = suites.peek();
+                    if (suite.junit == null) {
+                        // the first test case of the suite
+                        suite.junit = new Testsuite();
+                        suite.junit.setName(getFixtureName(attribute(reader, "name"), suite.name));
+                        suite.index = reserve();
+                    }
+                    suite.junit.getTestcase().add(readNUnit2TestCase(reader, suite.junit.getName()));
+                } else {
+                    skip(reader);
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                if ("test-suite".equals(path.pop())) {
+                    complete(suites.pop());
+                }
+            }
+        }
+    }
+
+    private Testcase readNUnit2TestCase(XMLStreamReader reader, String fixtureName) throws XMLStreamException {
+        Testcase testcase = new Testcase();
+        String name = attribute(reader, "name");
+        testcase.setClassname(fixtureName);
+        testcase.setName(name.contains(fixtureName + ".") ? substringAfter(name, fixtureName + ".") : name);
+        String time = reader.getAttributeValue(null, "time");
+        if (time != null && !time.isEmpty()) {
+            testcase.setTime(time);
+        }
+        if ("False".equals(reader.getAttributeValue(null, "executed"))
+                || "Inconclusive".equals(reader.getAttributeValue(null, "result"))) {
+            testcase.setSkipped("");
+        }
+
+        boolean failed = false;
+        String message = null;
+        String stackTrace = null;
+        for (int event = reader.next(); event != XMLStreamConstants.END_ELEMENT; event = reader.next()) {
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+            if (!"failure".equals(reader.getLocalName())) {
+                skip(reader);
+                continue;
+            }
+            failed = true;
+            for (event = reader.next(); event != XMLStreamConstants.END_ELEMENT; event = reader.next()) {
+                if (event != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+                String child = reader.getLocalName();
+                if ("message".equals(child) && message == null) {
+                    message = readText(reader, true);
+                } else if ("stack-trace".equals(child) && stackTrace == null) {
+                    stackTrace = readText(reader, true);
+                } else {
+                    skip(reader);
+                }
+            }
+        }
+        if (failed) {
+            Failure failure = new Failure();
+            failure.setContent(NUNIT2_FAILURE_MESSAGE + (message == null ? "" : message)
+                    + NUNIT2_FAILURE_STACK_TRACE + (stackTrace == null ? "" : stackTrace));
+            testcase.getFailure().add(failure);
+        }
+        return testcase;
+    }
+
+    /**
+     * The fixture is the first test name without its method, or the suite name when the test name has no dot.
+     */
+    static String getFixtureName(String firstTestName, String suiteName) {
+        if (firstTestName.endsWith(")")) {
+            return substringBefore(firstTestName, "." + suiteName);
+        }
+        int dot = firstTestName.lastIndexOf('.');
+        if (dot < 0) {
+            return substringBefore(firstTestName, suiteName) + suiteName;
+        }
+        return substringBefore(firstTestName, "." + firstTestName.substring(dot + 1));
+    }
+
+    private int reserve() {
+        testSets.add(null);
+        return testSets.size() - 1;
+    }
+
+    private void complete(Suite suite) {
+        if (suite.junit != null) {
+            testSets.set(suite.index, junitParser.createTestSet(suite.junit, testingFramework, testingTool));
+        }
+    }
+
+    private static String attribute(XMLStreamReader reader, String name) {
+        String value = reader.getAttributeValue(null, name);
+        return value == null ? "" : value;
+    }
+
+    /**
+     * Reads the text of the current element, with the text of its descendants when deep, up to its end.
+     */
+    private static String readText(XMLStreamReader reader, boolean deep) throws XMLStreamException {
+        StringBuilder text = new StringBuilder();
+        for (int depth = 1; depth > 0; ) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    depth++;
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    depth--;
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    if (deep || depth == 1) {
+                        text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        return text.toString();
+    }
+
+    private static void skip(XMLStreamReader reader) throws XMLStreamException {
+        for (int depth = 1; depth > 0; ) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private static String substringBefore(String value, String separator) {
+        int index = value.indexOf(separator);
+        return index < 0 ? "" : value.substring(0, index);
+    }
+
+    private static String substringAfter(String value, String separator) {
+        int index = value.indexOf(separator);
+        return index < 0 ? "" : value.substring(index + separator.length());
+    }
+
+    private static XMLInputFactory createXmlInputFactory() {
+        XMLInputFactory xmlFactory = new WstxInputFactory();
+        xmlFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        xmlFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return xmlFactory;
+    }
+
+    private static final class Suite {
+        private final String name;
+        private int depth;
+        private int index;
+        private String timestamp;
+        private Testsuite junit;
+
+        Suite(String name) {
+            this.name = name;
+        }
+    }
+}
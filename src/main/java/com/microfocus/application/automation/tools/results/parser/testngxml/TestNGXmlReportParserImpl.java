@@ -32,15 +32,14 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
-import javax.xml.bind.Unmarshaller;
 
 import com.microfocus.application.automation.tools.results.parser.ReportParseException;
 import com.microfocus.application.automation.tools.results.parser.ReportParser;
 import com.microfocus.application.automation.tools.results.parser.testngxml.TestngResults.Suite;
 import com.microfocus.application.automation.tools.results.parser.testngxml.TestngResults.Suite.Test;
 import com.microfocus.application.automation.tools.results.parser.testngxml.TestngResults.Suite.Test.Class.TestMethod;
+import com.microfocus.application.automation.tools.results.parser.util.JaxbRegistry;
 import com.microfocus.application.automation.tools.results.parser.util.ParserUtil;
 import com.microfocus.application.automation.tools.results.service.almentities.AlmRun;
 import com.microfocus.application.automation.tools.results.service.almentities.AlmTest;
@@ -50,7 +49,6 @@ import com.microfocus.application.automation.tools.results.service.almentities.A
 import com.microfocus.application.automation.tools.results.service.almentities.AlmTestSetImpl;
 import com.microfocus.application.automation.tools.results.service.almentities.EntityRelation;
 import com.microfocus.application.automation.tools.results.service.almentities.IAlmConsts;
-import com.microfocus.application.automation.tools.sse.sdk.Base64Encoder;
 
 public class TestNGXmlReportParserImpl implements ReportParser {
 	
@@ -66,17 +64,7 @@ public class TestNGXmlReportParserImpl implements ReportParser {
 	}	
     
 	private TestngResults parseFromTestNGXmlReport(InputStream reportInputStream) throws JAXBException {
-		JAXBContext jaxbContext;
-		Thread t = Thread.currentThread();
-		ClassLoader orig = t.getContextClassLoader();
-		t.setContextClassLoader(TestNGXmlReportParserImpl.class.getClassLoader());
-		try {
-			jaxbContext = JAXBContext.newInstance(TestngResults.class);
-		} finally {
-			t.setContextClassLoader(orig);
-		}
-		Unmarshaller unmarshaller = jaxbContext.createUnmarshaller();
-		return (TestngResults)unmarshaller.unmarshal(reportInputStream);
+		return JaxbRegistry.getInstance().unmarshal(TestngResults.class, reportInputStream);
 	}
 
 	private AlmTest createExternalTestForTestNGXmlReport(String className, String methodName, String testingFramework, String testingTool) {
@@ -135,7 +123,6 @@ public class TestNGXmlReportParserImpl implements ReportParser {
 	}
 	
 	private String getRunDetail(TestMethod tm){
-		String detail = ParserUtil.marshallerObject(TestMethod.class, tm);
-		return Base64Encoder.encode(detail.getBytes());
+		return JaxbRegistry.getInstance().toRunDetail(TestMethod.class, tm);
 	}
 }
@@ -0,0 +1,187 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.results.parser.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+
+/**
+ * Shares JAXB contexts between the report parsers.
+ * A context is created once per set of bound classes and keeps a small pool of
+ * unmarshallers and run detail marshallers, which are not thread safe themselves.
+ */
+public class JaxbRegistry {
+
+	static final String DETAIL_PROLOG = "<?xml version=\"1.0\" ?>";
+
+	private static final int MAX_POOLED = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+	private static final JaxbRegistry INSTANCE = new JaxbRegistry();
+
+	private final ConcurrentMap<Set<Class<?>>, Entry> entries = new ConcurrentHashMap<Set<Class<?>>, Entry>();
+	private final AtomicInteger contextCreations = new AtomicInteger();
+
+	JaxbRegistry() {
+	}
+
+	public static JaxbRegistry getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Unmarshals a report whose root element is bound to the given class.
+	 */
+	public <T> T unmarshal(Class<T> type, InputStream in) throws JAXBException {
+		Entry entry = getEntry(type);
+		Unmarshaller unmarshaller = entry.unmarshallers.poll();
+		if (unmarshaller == null) {
+			unmarshaller = entry.context.createUnmarshaller();
+		}
+		try {
+			return type.cast(unmarshaller.unmarshal(in));
+		} finally {
+			release(entry.unmarshallers, unmarshaller);
+		}
+	}
+
+	/**
+	 * Writes the object as an indented utf-8 XML fragment.
+	 */
+	public void marshalFragment(Class<?> type, Object o, OutputStream out) throws JAXBException {
+		Entry entry = getEntry(type);
+		Marshaller marshaller = entry.marshallers.poll();
+		if (marshaller == null) {
+			marshaller = entry.context.createMarshaller();
+			marshaller.setProperty(Marshaller.JAXB_ENCODING, "utf-8");
+			marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
+			marshaller.setProperty(Marshaller.JAXB_FRAGMENT, true);
+		}
+		try {
+			marshaller.marshal(o, out);
+		} finally {
+			release(entry.marshallers, marshaller);
+		}
+	}
+
+	/**
+	 * Returns the base64 encoded run detail of a test case: the XML prolog followed by the marshalled object.
+	 * The XML is encoded while it is written, so neither it nor its bytes are held in memory.
+	 * When the object cannot be marshalled the detail holds the prolog only.
+	 */
+	public String toRunDetail(Class<?> type, Object o) {
+		ByteArrayOutputStream encoded = new ByteArrayOutputStream(512);
+		try {
+			OutputStream out = Base64.getEncoder().wrap(encoded);
+			out.write(DETAIL_PROLOG.getBytes(StandardCharsets.US_ASCII));
+			try {
+				marshalFragment(type, o, out);
+			} catch (Exception e) {
+				encoded.reset();
+				out = Base64.getEncoder().wrap(encoded);
+				out.write(DETAIL_PROLOG.getBytes(StandardCharsets.US_ASCII));
+			}
+			out.close();
+		} catch (IOException e) {
+			// writing to memory does not fail
+		}
+		return new String(encoded.toByteArray(), StandardCharsets.US_ASCII);
+	}
+
+	public JAXBContext getContext(Class<?>... classes) throws JAXBException {
+		return getEntry(classes).context;
+	}
+
+	/**
+	 * @return how many contexts were created, for the diagnostics and tests
+	 */
+	public int getContextCreations() {
+		return contextCreations.get();
+	}
+
+	protected JAXBContext newContext(Class<?>... classes) throws JAXBException {
+		Thread t = Thread.currentThread();
+		ClassLoader orig = t.getContextClassLoader();
+		t.setContextClassLoader(classes[0].getClassLoader());
+		try {
+			return JAXBContext.newInstance(classes);
+		} finally {
+			t.setContextClassLoader(orig);
+		}
+	}
+
+	private Entry getEntry(Class<?>... classes) throws JAXBException {
+		Set<Class<?>> key = new HashSet<Class<?>>(Arrays.asList(classes));
+		Entry entry = entries.get(key);
+		if (entry == null) {
+			synchronized (entries) {
+				entry = entries.get(key);
+				if (entry == null) {
+					entry = new Entry(newContext(classes));
+					contextCreations.incrementAndGet();
+					entries.put(key, entry);
+				}
+			}
+		}
+		return entry;
+	}
+
+	private static <T> void release(Queue<T> pool, T item) {
+		// the size of a concurrent queue is not exact, a few extra instances do no harm
+		if (pool.size() < MAX_POOLED) {
+			pool.offer(item);
+		}
+	}
+
+	private static class Entry {
+		private final JAXBContext context;
+		private final Queue<Unmarshaller> unmarshallers = new ConcurrentLinkedQueue<Unmarshaller>();
+		private final Queue<Marshaller> marshallers = new ConcurrentLinkedQueue<Marshaller>();
+
+		Entry(JAXBContext context) {
+			this.context = context;
+		}
+	}
+}
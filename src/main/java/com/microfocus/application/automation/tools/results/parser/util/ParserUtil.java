@@ -28,12 +28,10 @@
 
 package com.microfocus.application.automation.tools.results.parser.util;
 
-import java.io.StringWriter;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Date;
 
-import javax.xml.bind.JAXBContext;
-import javax.xml.bind.Marshaller;
-
 import com.microfocus.application.automation.tools.results.parser.ReportParser;
 import com.microfocus.application.automation.tools.results.service.almentities.AlmRun;
 import com.microfocus.application.automation.tools.results.service.almentities.AlmRunImpl;
@@ -96,26 +94,11 @@ public class ParserUtil {
 	}
 	
 	public static String marshallerObject(Class c, Object o){
-		String s = "<?xml version=\"1.0\" ?>";
+		String s = JaxbRegistry.DETAIL_PROLOG;
 		try {
-			JAXBContext jaxbContext;
-			Thread t = Thread.currentThread();
-			ClassLoader orig = t.getContextClassLoader();
-			t.setContextClassLoader(ParserUtil.class.getClassLoader());
-			try {
-				jaxbContext = JAXBContext.newInstance(c);
-			} finally {
-				t.setContextClassLoader(orig);
-			}
-
-			Marshaller marshaller =  jaxbContext.createMarshaller();
-			marshaller.setProperty(Marshaller.JAXB_ENCODING,"utf-8");
-			marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
-			marshaller.setProperty(Marshaller.JAXB_FRAGMENT, true);
-			
-			StringWriter baos = new StringWriter();  
-			marshaller.marshal(o, baos);
-			s += baos.toString();
+			ByteArrayOutputStream baos = new ByteArrayOutputStream();
+			JaxbRegistry.getInstance().marshalFragment(c, o, baos);
+			s += new String(baos.toByteArray(), StandardCharsets.UTF_8);
 		}catch (Exception e) {
 		}
 		return s;
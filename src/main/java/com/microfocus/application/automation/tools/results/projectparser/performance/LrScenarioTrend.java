@@ -0,0 +1,330 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.results.projectparser.performance;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Columnar trend data of one scenario over several builds, as read from {@link LrTrendIndex}.
+ * Every metric is a primitive array indexed like {@link #getBuildNumbers()} (ascending build order).
+ */
+public class LrScenarioTrend {
+
+    public static final int TOTAL_HITS = 0;
+    public static final int AVERAGE_HITS_PER_SECOND = 1;
+    public static final int TOTAL_THROUGHPUT = 2;
+    public static final int AVERAGE_THROUGHPUT = 3;
+    public static final int ERRORS_PER_SECOND = 4;
+    static final int SLA_METRIC_COUNT = 5;
+
+    private final String scenarioName;
+    private final int[] buildNumbers;
+    private final double[][] slaValues;
+    private final int[] slaPresence;
+    private final int[] connectionMax;
+    private final long[] durations;
+    private final Map<String, int[]> vUserStats;
+    private final Map<String, int[]> transactionStats;
+    private final List<TransactionTrend> transactions;
+
+    private LrScenarioTrend(Builder builder) {
+        int size = builder.size;
+        this.scenarioName = builder.scenarioName;
+        this.buildNumbers = reverse(builder.buildNumbers, size);
+        this.slaValues = new double[SLA_METRIC_COUNT][];
+        for (int metric = 0; metric < SLA_METRIC_COUNT; metric++) {
+            slaValues[metric] = reverse(builder.slaValues[metric], size);
+        }
+        this.slaPresence = reverse(builder.slaPresence, size);
+        this.connectionMax = reverse(builder.connectionMax, size);
+        this.durations = reverse(builder.durations, size);
+        this.vUserStats = reverseColumns(builder.vUserStats, size);
+        this.transactionStats = reverseColumns(builder.transactionStats, size);
+        List<TransactionTrend> transactionTrends = new ArrayList<>(builder.transactions.size());
+        for (TransactionTrend.Builder transaction : builder.transactions.values()) {
+            transactionTrends.add(new TransactionTrend(transaction.name,
+                    reverse(transaction.averageTrt, size),
+                    reverse(transaction.percentileTrt, size),
+                    reverse(transaction.presence, size)));
+        }
+        this.transactions = Collections.unmodifiableList(transactionTrends);
+    }
+
+    public String getScenarioName() {
+        return scenarioName;
+    }
+
+    /**
+     * @return build numbers in ascending order
+     */
+    public int[] getBuildNumbers() {
+        return buildNumbers;
+    }
+
+    public int getBuildCount() {
+        return buildNumbers.length;
+    }
+
+    /**
+     * @param metric one of {@link #TOTAL_HITS}, {@link #AVERAGE_HITS_PER_SECOND}, {@link #TOTAL_THROUGHPUT},
+     *               {@link #AVERAGE_THROUGHPUT}, {@link #ERRORS_PER_SECOND}
+     * @return the metric values per build, only meaningful where {@link #hasSlaValue(int, int)}
+     */
+    public double[] getSlaValues(int metric) {
+        return slaValues[metric];
+    }
+
+    public boolean hasSlaValue(int metric, int buildIndex) {
+        return (slaPresence[buildIndex] & (1 << metric)) != 0;
+    }
+
+    /**
+     * @return max connections per build, {@link JobLrScenarioResult#DEFAULT_CONNECTION_MAX} when not reported
+     */
+    public int[] getConnectionMax() {
+        return connectionMax;
+    }
+
+    /**
+     * @return scenario duration per build, {@link JobLrScenarioResult#DEFAULT_SCENARIO_DURATION} when not reported
+     */
+    public long[] getDurations() {
+        return durations;
+    }
+
+    public Map<String, int[]> getvUserStats() {
+        return vUserStats;
+    }
+
+    public Map<String, int[]> getTransactionStats() {
+        return transactionStats;
+    }
+
+    public List<TransactionTrend> getTransactions() {
+        return transactions;
+    }
+
+    private static int[] reverse(int[] values, int size) {
+        int[] result = new int[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = values[size - 1 - i];
+        }
+        return result;
+    }
+
+    private static long[] reverse(long[] values, int size) {
+        long[] result = new long[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = values[size - 1 - i];
+        }
+        return result;
+    }
+
+    private static double[] reverse(double[] values, int size) {
+        double[] result = new double[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = values[size - 1 - i];
+        }
+        return result;
+    }
+
+    private static byte[] reverse(byte[] values, int size) {
+        byte[] result = new byte[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = values[size - 1 - i];
+        }
+        return result;
+    }
+
+    private static Map<String, int[]> reverseColumns(Map<String, int[]> columns, int size) {
+        Map<String, int[]> result = new TreeMap<>();
+        for (Map.Entry<String, int[]> column : columns.entrySet()) {
+            result.put(column.getKey(), reverse(column.getValue(), size));
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Per build response time values of one transaction.
+     */
+    public static final class TransactionTrend {
+        static final byte AVERAGE_TRT = 1;
+        static final byte PERCENTILE_TRT = 2;
+
+        private final String name;
+        private final double[] averageTrt;
+        private final double[] percentileTrt;
+        private final byte[] presence;
+
+        private TransactionTrend(String name, double[] averageTrt, double[] percentileTrt, byte[] presence) {
+            this.name = name;
+            this.averageTrt = averageTrt;
+            this.percentileTrt = percentileTrt;
+            this.presence = presence;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public double[] getAverageTrt() {
+            return averageTrt;
+        }
+
+        public double[] getPercentileTrt() {
+            return percentileTrt;
+        }
+
+        public boolean hasAverageTrt(int buildIndex) {
+            return (presence[buildIndex] & AVERAGE_TRT) != 0;
+        }
+
+        public boolean hasPercentileTrt(int buildIndex) {
+            return (presence[buildIndex] & PERCENTILE_TRT) != 0;
+        }
+
+        static final class Builder {
+            private final String name;
+            private double[] averageTrt;
+            private double[] percentileTrt;
+            private byte[] presence;
+
+            private Builder(String name, int capacity) {
+                this.name = name;
+                this.averageTrt = new double[capacity];
+                this.percentileTrt = new double[capacity];
+                this.presence = new byte[capacity];
+            }
+
+            private void ensureCapacity(int capacity) {
+                if (presence.length < capacity) {
+                    averageTrt = Arrays.copyOf(averageTrt, capacity);
+                    percentileTrt = Arrays.copyOf(percentileTrt, capacity);
+                    presence = Arrays.copyOf(presence, capacity);
+                }
+            }
+        }
+    }
+
+    /**
+     * Collects the rows of one scenario, newest build first, as {@link LrTrendIndex} walks the builds.
+     */
+    static final class Builder {
+        private final String scenarioName;
+        private int size;
+        private int[] buildNumbers = new int[8];
+        private final double[][] slaValues = new double[SLA_METRIC_COUNT][8];
+        private int[] slaPresence = new int[8];
+        private int[] connectionMax = new int[8];
+        private long[] durations = new long[8];
+        private final Map<String, int[]> vUserStats = new LinkedHashMap<>();
+        private final Map<String, int[]> transactionStats = new LinkedHashMap<>();
+        private final Map<String, TransactionTrend.Builder> transactions = new LinkedHashMap<>();
+
+        Builder(String scenarioName) {
+            this.scenarioName = scenarioName;
+        }
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * Starts a new build row and returns its index.
+         */
+        int addBuild(int buildNumber, int presence, double[] sla, int connections, long duration) {
+            if (size == buildNumbers.length) {
+                int capacity = size * 2;
+                buildNumbers = Arrays.copyOf(buildNumbers, capacity);
+                for (int metric = 0; metric < SLA_METRIC_COUNT; metric++) {
+                    slaValues[metric] = Arrays.copyOf(slaValues[metric], capacity);
+                }
+                slaPresence = Arrays.copyOf(slaPresence, capacity);
+                connectionMax = Arrays.copyOf(connectionMax, capacity);
+                durations = Arrays.copyOf(durations, capacity);
+                for (Map.Entry<String, int[]> column : vUserStats.entrySet()) {
+                    column.setValue(Arrays.copyOf(column.getValue(), capacity));
+                }
+                for (Map.Entry<String, int[]> column : transactionStats.entrySet()) {
+                    column.setValue(Arrays.copyOf(column.getValue(), capacity));
+                }
+                for (TransactionTrend.Builder transaction : transactions.values()) {
+                    transaction.ensureCapacity(capacity);
+                }
+            }
+            int row = size++;
+            buildNumbers[row] = buildNumber;
+            for (int metric = 0; metric < SLA_METRIC_COUNT; metric++) {
+                slaValues[metric][row] = sla[metric];
+            }
+            slaPresence[row] = presence;
+            connectionMax[row] = connections;
+            durations[row] = duration;
+            return row;
+        }
+
+        void setvUserStat(int row, String name, int value) {
+            setStat(vUserStats, row, name, value);
+        }
+
+        void setTransactionStat(int row, String name, int value) {
+            setStat(transactionStats, row, name, value);
+        }
+
+        private void setStat(Map<String, int[]> stats, int row, String name, int value) {
+            int[] column = stats.get(name);
+            if (column == null) {
+                column = new int[buildNumbers.length];
+                stats.put(name, column);
+            }
+            column[row] = value;
+        }
+
+        void setTransaction(int row, String name, byte presence, double averageTrt, double percentileTrt) {
+            TransactionTrend.Builder transaction = transactions.get(name);
+            if (transaction == null) {
+                transaction = new TransactionTrend.Builder(name, buildNumbers.length);
+                transactions.put(name, transaction);
+            }
+            transaction.presence[row] = presence;
+            transaction.averageTrt[row] = averageTrt;
+            transaction.percentileTrt[row] = percentileTrt;
+        }
+
+        LrScenarioTrend build() {
+            return new LrScenarioTrend(this);
+        }
+    }
+}
@@ -0,0 +1,556 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.results.projectparser.performance;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per job, append-only index of the LoadRunner results of finished builds.
+ * <p>
+ * Every finished build appends one record holding, per scenario, the already aggregated SLA values,
+ * scenario statistics and transaction response times. The project trend is then produced by memory mapping the
+ * file and filling {@link LrScenarioTrend} columns, without loading the builds themselves.
+ * A deleted build appends a tombstone record; the last record of a build number wins.
+ */
+public class LrTrendIndex {
+
+    public static final String FILE_NAME = "lrTrendIndex.bin";
+
+    private static final int MAGIC = 0x4C525449; // "LRTI"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_HEADER_SIZE = 5;
+    private static final byte BUILD_RECORD = 1;
+    private static final byte DELETED_RECORD = 2;
+
+    private static final ConcurrentMap<String, ReentrantLock> LOCKS = new ConcurrentHashMap<>();
+    //length of each index once its last record was found complete, so that appends do not scan it again
+    private static final ConcurrentMap<String, Long> CHECKED_LENGTHS = new ConcurrentHashMap<>();
+
+    private final File file;
+
+    public LrTrendIndex(File file) {
+        this.file = file;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public boolean exists() {
+        return file.isFile();
+    }
+
+    /**
+     * Appends the results of a finished build.
+     *
+     * @param buildNumber the build number
+     * @param results     the results of the build
+     * @throws IOException on write failure
+     */
+    public void append(int buildNumber, LrJobResults results) throws IOException {
+        appendRecord(BUILD_RECORD, encodeBuild(buildNumber, results), false);
+    }
+
+    /**
+     * Marks a build as deleted.
+     *
+     * @param buildNumber the build number
+     * @throws IOException on write failure
+     */
+    public void remove(int buildNumber) throws IOException {
+        ByteBuffer payload = ByteBuffer.allocate(4).putInt(buildNumber);
+        appendRecord(DELETED_RECORD, payload.array(), false);
+    }
+
+    /**
+     * Appends the results of a finished build, only if the index exists.
+     * A rebuild in progress is waited for: the rebuild skips the builds still running, so a build finishing
+     * meanwhile is appended once the new index is in place. A build the rebuild already added is recorded twice,
+     * the last record of a build wins when the index is read.
+     *
+     * @param buildNumber the build number
+     * @param results     the results of the build
+     * @return false if there is no index
+     * @throws IOException on write failure
+     */
+    public boolean appendIfIndexed(int buildNumber, LrJobResults results) throws IOException {
+        return appendRecord(BUILD_RECORD, encodeBuild(buildNumber, results), true);
+    }
+
+    /**
+     * Marks a build as deleted, only if the index exists. A rebuild in progress is waited for.
+     *
+     * @param buildNumber the build number
+     * @return false if there is no index
+     * @throws IOException on write failure
+     */
+    public boolean removeIfIndexed(int buildNumber) throws IOException {
+        ByteBuffer payload = ByteBuffer.allocate(4).putInt(buildNumber);
+        return appendRecord(DELETED_RECORD, payload.array(), true);
+    }
+
+    /**
+     * Starts writing a new index from scratch, replacing the existing one on {@link Rebuilder#commit()}.
+     * Appends from other threads wait until the returned rebuilder is closed.
+     *
+     * @return the rebuilder, to be closed by the caller
+     * @throws IOException on write failure
+     */
+    public Rebuilder rebuild() throws IOException {
+        return new Rebuilder();
+    }
+
+    private boolean appendRecord(byte kind, byte[] payload, boolean onlyIfExists) throws IOException {
+        String key = file.getCanonicalPath();
+        ReentrantLock lock = getLock(key);
+        lock.lock();
+        try {
+            if (onlyIfExists && !file.exists()) {
+                return false;
+            }
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                long size = channel.size();
+                Long checked = CHECKED_LENGTHS.get(key);
+                long end = checked != null && checked == size ? size : completeLength(channel, size);
+                if (end < size) {
+                    //a record cut by a crash, the records appended after it would never be read
+                    channel.truncate(end);
+                }
+
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream(HEADER_SIZE + RECORD_HEADER_SIZE + payload.length);
+                DataOutputStream out = new DataOutputStream(bytes);
+                if (end == 0) {
+                    writeHeader(out);
+                }
+                writeRecord(out, kind, payload);
+                //a single write, so that readers never see a partially written record followed by a complete one
+                ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+                long position = end;
+                while (buffer.hasRemaining()) {
+                    position += channel.write(buffer, position);
+                }
+                CHECKED_LENGTHS.put(key, position);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the length of the index up to the end of its last complete record, 0 if not even the header is complete
+     */
+    private long completeLength(FileChannel channel, long size) throws IOException {
+        if (size < HEADER_SIZE) {
+            return 0;
+        }
+        ByteBuffer header = ByteBuffer.allocate(Math.max(HEADER_SIZE, RECORD_HEADER_SIZE));
+        header.limit(HEADER_SIZE);
+        readFully(channel, header, 0);
+        if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            throw new IOException("Unsupported performance trend index format: " + file);
+        }
+        long end = HEADER_SIZE;
+        while (size - end >= RECORD_HEADER_SIZE) {
+            header.clear();
+            header.limit(RECORD_HEADER_SIZE);
+            readFully(channel, header, end);
+            int length = header.getInt(1);
+            if (length < 4 || length > size - end - RECORD_HEADER_SIZE) {
+                break;
+            }
+            end += RECORD_HEADER_SIZE + length;
+        }
+        return end;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException();
+            }
+            position += read;
+        }
+    }
+
+    private ReentrantLock getLock() throws IOException {
+        return getLock(file.getCanonicalPath());
+    }
+
+    private static ReentrantLock getLock(String key) {
+        ReentrantLock lock = LOCKS.get(key);
+        if (lock == null) {
+            ReentrantLock newLock = new ReentrantLock();
+            lock = LOCKS.putIfAbsent(key, newLock);
+            if (lock == null) {
+                lock = newLock;
+            }
+        }
+        return lock;
+    }
+
+    private static void writeHeader(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+    }
+
+    private static void writeRecord(DataOutputStream out, byte kind, byte[] payload) throws IOException {
+        out.writeByte(kind);
+        out.writeInt(payload.length);
+        out.write(payload);
+    }
+
+    /**
+     * Reads the trend of every scenario found in the index.
+     * Builds are visited newest first, and a scenario stops collecting builds once it holds more than
+     * {@code maxDisplayBuilds}, the same rule the project action applies when it scans the builds.
+     *
+     * @param maxDisplayBuilds build limit per scenario
+     * @return the trends by scenario name
+     * @throws IOException if the index cannot be read
+     */
+    public SortedMap<String, LrScenarioTrend> readScenarioTrends(int maxDisplayBuilds) throws IOException {
+        SortedMap<String, LrScenarioTrend> trends = new TreeMap<>();
+        if (!exists()) {
+            return trends;
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Performance trend index is too large: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (size < HEADER_SIZE || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Unsupported performance trend index format: " + file);
+            }
+
+            TreeMap<Integer, Integer> recordByBuild = new TreeMap<>(Collections.<Integer>reverseOrder());
+            while (buffer.remaining() >= RECORD_HEADER_SIZE) {
+                int recordStart = buffer.position();
+                byte kind = buffer.get();
+                int length = buffer.getInt();
+                if (length < 4 || length > buffer.remaining()) {
+                    //record cut by a crash during the append, everything before it is valid
+                    break;
+                }
+                int buildNumber = buffer.getInt(buffer.position());
+                if (kind == BUILD_RECORD) {
+                    recordByBuild.put(buildNumber, recordStart);
+                } else if (kind == DELETED_RECORD) {
+                    recordByBuild.remove(buildNumber);
+                }
+                buffer.position(buffer.position() + length);
+            }
+
+            Map<String, String> names = new HashMap<>();
+            Map<String, LrScenarioTrend.Builder> builders = new LinkedHashMap<>();
+            for (Integer recordStart : recordByBuild.values()) {
+                buffer.position(recordStart + RECORD_HEADER_SIZE);
+                readBuild(buffer, names, builders, maxDisplayBuilds);
+            }
+            for (LrScenarioTrend.Builder builder : builders.values()) {
+                LrScenarioTrend trend = builder.build();
+                trends.put(trend.getScenarioName(), trend);
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Corrupted performance trend index: " + file, e);
+        }
+        return trends;
+    }
+
+    private static void readBuild(ByteBuffer buffer, Map<String, String> names,
+                                  Map<String, LrScenarioTrend.Builder> builders, int maxDisplayBuilds) {
+        int buildNumber = buffer.getInt();
+        int scenarioCount = buffer.getInt();
+        double[] sla = new double[LrScenarioTrend.SLA_METRIC_COUNT];
+        for (int s = 0; s < scenarioCount; s++) {
+            String scenarioName = readString(buffer, names);
+            int blockLength = buffer.getInt();
+            int blockEnd = buffer.position() + blockLength;
+            LrScenarioTrend.Builder builder = builders.get(scenarioName);
+            if (builder == null) {
+                builder = new LrScenarioTrend.Builder(scenarioName);
+                builders.put(scenarioName, builder);
+            }
+            if (builder.size() > maxDisplayBuilds) {
+                buffer.position(blockEnd);
+                continue;
+            }
+
+            int presence = buffer.getInt();
+            for (int metric = 0; metric < sla.length; metric++) {
+                sla[metric] = buffer.getDouble();
+            }
+            int connectionMax = buffer.getInt();
+            long duration = buffer.getLong();
+            int row = builder.addBuild(buildNumber, presence, sla, connectionMax, duration);
+
+            int vUserStatCount = buffer.getInt();
+            for (int i = 0; i < vUserStatCount; i++) {
+                builder.setvUserStat(row, readString(buffer, names), buffer.getInt());
+            }
+            int transactionStatCount = buffer.getInt();
+            for (int i = 0; i < transactionStatCount; i++) {
+                builder.setTransactionStat(row, readString(buffer, names), buffer.getInt());
+            }
+            int transactionCount = buffer.getInt();
+            for (int i = 0; i < transactionCount; i++) {
+                String transaction = readString(buffer, names);
+                byte transactionPresence = buffer.get();
+                double averageTrt = buffer.getDouble();
+                double percentileTrt = buffer.getDouble();
+                builder.setTransaction(row, transaction, transactionPresence, averageTrt, percentileTrt);
+            }
+            buffer.position(blockEnd);
+        }
+    }
+
+    private static String readString(ByteBuffer buffer, Map<String, String> names) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        String value = new String(bytes, StandardCharsets.UTF_8);
+        String interned = names.get(value);
+        if (interned == null) {
+            names.put(value, value);
+            interned = value;
+        }
+        return interned;
+    }
+
+    static byte[] encodeBuild(int buildNumber, LrJobResults results) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(buildNumber);
+        Map<String, JobLrScenarioResult> scenarios = results.getLrScenarioResults();
+        out.writeInt(scenarios.size());
+        for (Map.Entry<String, JobLrScenarioResult> scenario : scenarios.entrySet()) {
+            writeString(out, scenario.getKey());
+            byte[] block = encodeScenario(scenario.getValue());
+            out.writeInt(block.length);
+            out.write(block);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Flattens the SLA goals of a scenario the same way the project action joins them:
+     * goals without data are ignored and a later goal of the same kind replaces an earlier one.
+     */
+    private static byte[] encodeScenario(JobLrScenarioResult scenario) throws IOException {
+        int presence = 0;
+        double[] sla = new double[LrScenarioTrend.SLA_METRIC_COUNT];
+        Map<String, TransactionValues> transactions = new LinkedHashMap<>();
+        for (GoalResult goalResult : scenario.scenarioSlaResults) {
+            if (LrTest.SLA_STATUS.NoData.equals(goalResult.getStatus()) || goalResult.getSlaGoal() == null) {
+                continue;
+            }
+            switch (goalResult.getSlaGoal()) {
+                case TotalHits:
+                    presence = setSla(presence, sla, LrScenarioTrend.TOTAL_HITS, ((WholeRunResult) goalResult).getActualValue());
+                    break;
+                case AverageHitsPerSecond:
+                    presence = setSla(presence, sla, LrScenarioTrend.AVERAGE_HITS_PER_SECOND, ((WholeRunResult) goalResult).getActualValue());
+                    break;
+                case TotalThroughput:
+                    presence = setSla(presence, sla, LrScenarioTrend.TOTAL_THROUGHPUT, ((WholeRunResult) goalResult).getActualValue());
+                    break;
+                case AverageThroughput:
+                    presence = setSla(presence, sla, LrScenarioTrend.AVERAGE_THROUGHPUT, ((WholeRunResult) goalResult).getActualValue());
+                    break;
+                case ErrorsPerSecond:
+                    TimeRangeResult errors = (TimeRangeResult) goalResult;
+                    //the error graph only plots results without time ranges
+                    if (errors.getTimeRanges().isEmpty()) {
+                        presence = setSla(presence, sla, LrScenarioTrend.ERRORS_PER_SECOND, errors.getActualValueAvg());
+                    } else {
+                        presence &= ~(1 << LrScenarioTrend.ERRORS_PER_SECOND);
+                    }
+                    break;
+                case PercentileTRT:
+                    PercentileTransactionWholeRun percentile = (PercentileTransactionWholeRun) goalResult;
+                    TransactionValues percentileValues = getTransactionValues(transactions, percentile.getName());
+                    percentileValues.presence |= LrScenarioTrend.TransactionTrend.PERCENTILE_TRT;
+                    percentileValues.percentileTrt = percentile.getActualValue();
+                    break;
+                case AverageTRT:
+                    AvgTransactionResponseTime average = (AvgTransactionResponseTime) goalResult;
+                    TransactionValues averageValues = getTransactionValues(transactions, average.getName());
+                    averageValues.presence |= LrScenarioTrend.TransactionTrend.AVERAGE_TRT;
+                    averageValues.averageTrt = average.getActualValueAvg();
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(presence);
+        for (double value : sla) {
+            out.writeDouble(value);
+        }
+        out.writeInt(scenario.getConnectionMax());
+        out.writeLong(scenario.getScenarioDuration());
+        writeStats(out, scenario.vUserSum);
+        writeStats(out, scenario.transactionSum);
+        out.writeInt(transactions.size());
+        for (Map.Entry<String, TransactionValues> transaction : transactions.entrySet()) {
+            writeString(out, transaction.getKey());
+            out.writeByte(transaction.getValue().presence);
+            out.writeDouble(transaction.getValue().averageTrt);
+            out.writeDouble(transaction.getValue().percentileTrt);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static int setSla(int presence, double[] sla, int metric, double value) {
+        sla[metric] = value;
+        return presence | (1 << metric);
+    }
+
+    private static TransactionValues getTransactionValues(Map<String, TransactionValues> transactions, String name) {
+        TransactionValues values = transactions.get(name);
+        if (values == null) {
+            values = new TransactionValues();
+            transactions.put(name, values);
+        }
+        return values;
+    }
+
+    private static void writeStats(DataOutputStream out, Map<String, Integer> stats) throws IOException {
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>();
+        if (stats != null) {
+            for (Map.Entry<String, Integer> stat : stats.entrySet()) {
+                if (stat.getKey() != null && stat.getValue() != null) {
+                    entries.add(stat);
+                }
+            }
+        }
+        out.writeInt(entries.size());
+        for (Map.Entry<String, Integer> stat : entries) {
+            writeString(out, stat.getKey());
+            out.writeInt(stat.getValue());
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static final class TransactionValues {
+        private byte presence;
+        private double averageTrt;
+        private double percentileTrt;
+    }
+
+    /**
+     * Writes a complete index to a temporary file and swaps it in on {@link #commit()}.
+     */
+    public final class Rebuilder implements Closeable {
+        private final ReentrantLock lock;
+        private final File tempFile;
+        private final DataOutputStream out;
+        private boolean committed;
+
+        private Rebuilder() throws IOException {
+            lock = getLock();
+            lock.lock();
+            try {
+                tempFile = new File(file.getPath() + ".tmp");
+                out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+                writeHeader(out);
+            } catch (IOException e) {
+                lock.unlock();
+                throw e;
+            }
+        }
+
+        public void add(int buildNumber, LrJobResults results) throws IOException {
+            writeRecord(out, BUILD_RECORD, encodeBuild(buildNumber, results));
+        }
+
+        public void commit() throws IOException {
+            out.close();
+            try {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            CHECKED_LENGTHS.remove(file.getCanonicalPath());
+            committed = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (!committed) {
+                    out.close();
+                    Files.deleteIfExists(tempFile.toPath());
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,420 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.results.projectparser.performance;
+
+import com.ctc.wstx.stax.WstxInputFactory;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Single pass reader of a LoadRunner RunReport.xml.
+ * <p>
+ * The report is read with the {@link XMLStreamReader} cursor and the {@link JobLrScenarioResult} is filled while
+ * reading, so memory is bounded by the result itself rather than by a DOM of the whole report. SLA goals are
+ * created from their start tag and only the text that decides their status is buffered.
+ * <p>
+ * The mapping is the one of the DOM walk used before: the first {@code General} and {@code SLA} sections of the
+ * {@code Runs} root are read, the status of a goal is the trimmed text of its last child node and the status of a
+ * time range is the text of its first child node.
+ * <p>
+ * Transaction names are interned per parser, so one parser should be used for all the reports of a job dataset.
+ * A parser is not thread safe.
+ */
+public class RunReportParser {
+
+    private static final String RUNS = "Runs";
+    private static final String GENERAL = "General";
+    private static final String SLA = "SLA";
+    private static final String VUSERS = "VUsers";
+    private static final String TRANSACTIONS = "Transactions";
+    private static final String CONNECTIONS = "Connections";
+    private static final String TIME = "Time";
+    private static final String TIME_RANGE_INFO = "TimeRangeInfo";
+
+    private static final String MEASUREMENT = "Measurement";
+    private static final String FULL_NAME = "FullName";
+    private static final String ACTUAL_VALUE = "ActualValue";
+    private static final String GOAL_VALUE = "GoalValue";
+    private static final String TRANSACTION_NAME = "TransactionName";
+    private static final String PERCENTILE = "Percentile";
+    private static final String LOAD_THRESHOLD = "SLALoadThresholdValue";
+    private static final String PASS = "Pass";
+    private static final String FAIL = "Fail";
+    private static final String STOP = "Stop";
+    private static final String NAME = "Name";
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+
+    private final Map<String, String> names = new HashMap<String, String>();
+    private XMLStreamReader reader;
+
+    /**
+     * Reads one report. The stream is not closed.
+     *
+     * @param scenarioName the scenario name of the result
+     * @param is           the RunReport.xml content
+     * @return the scenario result
+     * @throws XMLStreamException if the report is not well formed or misses one of the mandatory sections
+     */
+    public JobLrScenarioResult parse(String scenarioName, InputStream is) throws XMLStreamException {
+        JobLrScenarioResult result = new JobLrScenarioResult(scenarioName);
+        reader = XML_INPUT_FACTORY.createXMLStreamReader(is);
+        try {
+            if (reader.nextTag() != XMLStreamConstants.START_ELEMENT || !RUNS.equalsIgnoreCase(reader.getLocalName())) {
+                throw new XMLStreamException("Root element is not <" + RUNS + ">", reader.getLocation());
+            }
+            boolean generalRead = false;
+            boolean slaRead = false;
+            while (nextChild()) {
+                String name = reader.getLocalName();
+                if (!generalRead && GENERAL.equalsIgnoreCase(name)) {
+                    readGeneral(result);
+                    generalRead = true;
+                } else if (!slaRead && SLA.equalsIgnoreCase(name)) {
+                    readSla(result);
+                    slaRead = true;
+                } else {
+                    skipElement();
+                }
+            }
+            if (!generalRead || !slaRead) {
+                throw new XMLStreamException("Report has no <" + (generalRead ? SLA : GENERAL) + "> section");
+            }
+            return result;
+        } finally {
+            reader.close();
+            reader = null;
+        }
+    }
+
+    private void readGeneral(JobLrScenarioResult result) throws XMLStreamException {
+        boolean vUsersRead = false;
+        boolean transactionsRead = false;
+        boolean connectionsRead = false;
+        boolean timeRead = false;
+        while (nextChild()) {
+            String name = reader.getLocalName();
+            if (!vUsersRead && VUSERS.equalsIgnoreCase(name)) {
+                putAttributes(result.vUserSum);
+                skipElement();
+                vUsersRead = true;
+            } else if (!transactionsRead && TRANSACTIONS.equalsIgnoreCase(name)) {
+                putAttributes(result.transactionSum);
+                readTransactions(result);
+                transactionsRead = true;
+            } else if (!connectionsRead && CONNECTIONS.equalsIgnoreCase(name)) {
+                result.setConnectionMax(Integer.valueOf(attributeIgnoreCase("MaxCount")));
+                skipElement();
+                connectionsRead = true;
+            } else if (!timeRead && TIME.equalsIgnoreCase(name)) {
+                result.setScenarioDuration(Long.valueOf(attributeIgnoreCase("Duration")));
+                skipElement();
+                timeRead = true;
+            } else {
+                skipElement();
+            }
+        }
+        if (!vUsersRead || !transactionsRead || !connectionsRead || !timeRead) {
+            String missing = !vUsersRead ? VUSERS : !transactionsRead ? TRANSACTIONS : !connectionsRead ? CONNECTIONS : TIME;
+            throw new XMLStreamException("Report has no <" + missing + "> in <" + GENERAL + ">");
+        }
+    }
+
+    private void readTransactions(JobLrScenarioResult result) throws XMLStreamException {
+        while (nextChild()) {
+            TreeMap<String, Integer> transactionData = new TreeMap<String, Integer>();
+            transactionData.put(PASS, Integer.valueOf(attribute(PASS)));
+            transactionData.put(FAIL, Integer.valueOf(attribute(FAIL)));
+            transactionData.put(STOP, Integer.valueOf(attribute(STOP)));
+            result.transactionData.put(intern(attribute(NAME)), transactionData);
+            skipElement();
+        }
+    }
+
+    private void readSla(JobLrScenarioResult result) throws XMLStreamException {
+        while (nextChild()) {
+            LrTest.SLA_GOAL slaGoal = LrTest.SLA_GOAL.checkGoal(attribute(MEASUREMENT));
+            GoalResult goal = createGoal(slaGoal);
+            if (goal == null) {
+                skipElement();
+                continue;
+            }
+            goal.setSlaGoal(slaGoal);
+            goal.setFullName(attribute(FULL_NAME));
+            String status = readGoalContent(goal instanceof TimeRangeResult ? (TimeRangeResult) goal : null);
+            goal.setStatus(LrTest.SLA_STATUS.checkStatus(status.trim()));
+            result.scenarioSlaResults.add(goal);
+        }
+    }
+
+    private GoalResult createGoal(LrTest.SLA_GOAL slaGoal) {
+        switch (slaGoal) {
+            case AverageThroughput:
+            case TotalThroughput:
+            case AverageHitsPerSecond:
+            case TotalHits:
+                return new WholeRunResult(Double.valueOf(attribute(ACTUAL_VALUE)), Double.valueOf(attribute(GOAL_VALUE)));
+            case ErrorsPerSecond:
+                TimeRangeResult errorsPerSecond = new AvgTransactionResponseTime();
+                errorsPerSecond.setLoadThrashold(attribute(LOAD_THRESHOLD));
+                return errorsPerSecond;
+            case PercentileTRT:
+                PercentileTransactionWholeRun percentile = new PercentileTransactionWholeRun();
+                percentile.setName(intern(attribute(TRANSACTION_NAME)));
+                percentile.setActualValue(Double.valueOf(attribute(ACTUAL_VALUE)));
+                percentile.setGoalValue(Double.valueOf(attribute(GOAL_VALUE)));
+                percentile.setPrecentage(Double.valueOf(attribute(PERCENTILE)));
+                return percentile;
+            case AverageTRT:
+                AvgTransactionResponseTime averageTrt = new AvgTransactionResponseTime();
+                averageTrt.setName(intern(attribute(TRANSACTION_NAME)));
+                averageTrt.setLoadThrashold(attribute(LOAD_THRESHOLD));
+                return averageTrt;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Reads the content of a goal element up to its end tag and collects its time ranges when the goal has them.
+     *
+     * @return the text of the last child node of the goal
+     */
+    private String readGoalContent(TimeRangeResult timeRangeResult) throws XMLStreamException {
+        ChildText goalText = new ChildText(1);
+        Deque<ChildText> openRanges = new ArrayDeque<ChildText>();
+        int level = 1;
+        while (level > 0) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    goalText.startElement(level);
+                    for (ChildText range : openRanges) {
+                        range.startElement(level);
+                    }
+                    level++;
+                    if (timeRangeResult != null && TIME_RANGE_INFO.equals(reader.getLocalName())) {
+                        openRanges.push(new ChildText(level, addTimeRange(timeRangeResult)));
+                    }
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    ChildText range = openRanges.peek();
+                    if (range != null && range.level == level) {
+                        openRanges.pop();
+                        range.timeRange.setSlaStatus(LrTest.SLA_STATUS.checkStatus(range.first()));
+                    }
+                    level--;
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.SPACE:
+                case XMLStreamConstants.CDATA:
+                    String text = reader.getText();
+                    boolean cdata = reader.getEventType() == XMLStreamConstants.CDATA;
+                    goalText.text(level, text, cdata);
+                    for (ChildText open : openRanges) {
+                        open.text(level, text, cdata);
+                    }
+                    break;
+                case XMLStreamConstants.COMMENT:
+                case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                    String data = reader.getEventType() == XMLStreamConstants.COMMENT ? reader.getText() : reader.getPIData();
+                    goalText.node(level, data);
+                    for (ChildText open : openRanges) {
+                        open.node(level, data);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        return goalText.last();
+    }
+
+    private TimeRange addTimeRange(TimeRangeResult timeRangeResult) {
+        double actualValue = Double.parseDouble(attribute(ACTUAL_VALUE));
+        double goalValue = Double.parseDouble(attribute(GOAL_VALUE));
+        int loadValue = Integer.parseInt(attribute("LoadValue"));
+        double startTime = Double.parseDouble(attribute("StartTime"));
+        double endTime = Double.parseDouble(attribute("EndTime"));
+        // the goal of the first range is the goal per transaction
+        if (timeRangeResult.getTimeRanges().isEmpty()) {
+            timeRangeResult.setGoalValue(goalValue);
+        }
+        timeRangeResult.incActualValue(actualValue);
+        TimeRange timeRange = new TimeRange(actualValue, goalValue, LrTest.SLA_STATUS.bad, loadValue, startTime, endTime);
+        timeRangeResult.getTimeRanges().add(timeRange);
+        return timeRange;
+    }
+
+    /**
+     * Moves to the next child element of the current element.
+     *
+     * @return false when the end tag of the current element is reached
+     */
+    private boolean nextChild() throws XMLStreamException {
+        while (true) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                return true;
+            }
+            if (event == XMLStreamConstants.END_ELEMENT || event == XMLStreamConstants.END_DOCUMENT) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Skips the rest of the current element, including its end tag.
+     */
+    private void skipElement() throws XMLStreamException {
+        int level = 1;
+        while (level > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                level++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                level--;
+            }
+        }
+    }
+
+    private void putAttributes(Map<String, Integer> target) {
+        for (int i = 0, count = reader.getAttributeCount(); i < count; i++) {
+            target.put(intern(reader.getAttributeLocalName(i)), Integer.valueOf(reader.getAttributeValue(i)));
+        }
+    }
+
+    private String attribute(String name) {
+        for (int i = 0, count = reader.getAttributeCount(); i < count; i++) {
+            if (name.equals(reader.getAttributeLocalName(i))) {
+                return reader.getAttributeValue(i);
+            }
+        }
+        return "";
+    }
+
+    private String attributeIgnoreCase(String name) {
+        for (int i = 0, count = reader.getAttributeCount(); i < count; i++) {
+            if (name.equalsIgnoreCase(reader.getAttributeLocalName(i))) {
+                return reader.getAttributeValue(i);
+            }
+        }
+        return "";
+    }
+
+    private String intern(String name) {
+        String known = names.get(name);
+        if (known == null) {
+            names.put(name, name);
+            known = name;
+        }
+        return known;
+    }
+
+    private static XMLInputFactory createXmlInputFactory() {
+        XMLInputFactory xmlFactory = new WstxInputFactory();
+        xmlFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        xmlFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        // names are matched as written in the report, like the DOM parser did
+        xmlFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+        // CDATA sections are separate nodes for the first / last child rules
+        xmlFactory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        return xmlFactory;
+    }
+
+    /**
+     * Text content of the first and of the last child node of an element, as {@code Node.getTextContent()} of
+     * {@code getFirstChild()} and {@code getLastChild()} would give it.
+     */
+    private static final class ChildText {
+
+        private final int level;
+        private final TimeRange timeRange;
+        private StringBuilder first;
+        private StringBuilder last;
+        private int children;
+        private boolean inText;
+
+        ChildText(int level) {
+            this(level, null);
+        }
+
+        ChildText(int level, TimeRange timeRange) {
+            this.level = level;
+            this.timeRange = timeRange;
+        }
+
+        void startElement(int parentLevel) {
+            if (parentLevel == level) {
+                newChild(false);
+            }
+        }
+
+        void text(int parentLevel, String text, boolean cdata) {
+            if (parentLevel == level && (cdata || !inText)) {
+                newChild(!cdata);
+            }
+            if (parentLevel >= level && children > 0) {
+                last.append(text);
+            }
+        }
+
+        void node(int parentLevel, String data) {
+            if (parentLevel == level) {
+                newChild(false);
+                last.append(data);
+            }
+        }
+
+        private void newChild(boolean text) {
+            children++;
+            last = new StringBuilder();
+            if (children == 1) {
+                first = last;
+            }
+            inText = text;
+        }
+
+        String first() {
+            return first == null ? "" : first.toString();
+        }
+
+        String last() {
+            return last == null ? "" : last.toString();
+        }
+    }
+}
@@ -0,0 +1,281 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.results.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringTokenizer;
+
+import com.microfocus.application.automation.tools.results.service.almentities.AlmCommonProperties;
+import com.microfocus.application.automation.tools.results.service.almentities.AlmEntity;
+
+/**
+ * Trie of ALM folders, keyed by path segment under a root folder id, and of the entities directly under them.
+ * The children of a folder are loaded with one paged query the first time a path goes through it, for all the
+ * folders of the same depth at once, and the missing ones are created together, parents first. Entities directly
+ * under a folder are loaded and created the same way. Later paths sharing a prefix only walk the trie. Names are
+ * matched ignoring case, like the name queries of ALM.
+ */
+class AlmFolderPathCache<F extends AlmEntity> {
+
+	static final String FOLDER_SEPERATOR = "\\";
+	// creation batches double in size, a rejected entity fails a small first batch and large lists take few requests
+	static final int FIRST_BATCH_SIZE = 100;
+	static final int MAX_BATCH_SIZE = 10000;
+
+	interface EntityStore<E extends AlmEntity> {
+		/**
+		 * @return the entities directly under any of the folders, with their id, name and parent id
+		 */
+		List<E> findChildren(Collection<Integer> parentIds) throws ExternalEntityUploadException;
+
+		/**
+		 * @return the created entities, in the order of the given ones
+		 */
+		List<E> create(List<E> entities) throws ExternalEntityUploadException;
+	}
+
+	interface FolderStore<F extends AlmEntity> extends EntityStore<F> {
+		F newFolder(int parentId, String folderName);
+	}
+
+	private static class Node<F extends AlmEntity> {
+		private final int id;
+		private final F folder;
+		// null until loaded
+		private Map<String, Node<F>> children;
+
+		Node(int id, F folder) {
+			this.id = id;
+			this.folder = folder;
+		}
+	}
+
+	private final FolderStore<F> folders;
+	private final Map<Integer, Node<F>> roots = new HashMap<Integer, Node<F>>();
+	private final Map<Integer, Map<String, AlmEntity>> entitiesByFolder = new HashMap<Integer, Map<String, AlmEntity>>();
+	private int requests;
+
+	AlmFolderPathCache(FolderStore<F> folders) {
+		this.folders = folders;
+	}
+
+	/**
+	 * Resolves the folder of the path, creating missing folders.
+	 * @return the last folder of the path, or null for an empty path
+	 */
+	synchronized F resolve(int rootId, String path) throws ExternalEntityUploadException {
+		return resolve(rootId, Collections.singletonList(path)).get(path);
+	}
+
+	/**
+	 * Resolves the folders of all the paths in one pass over the depths of the trie, creating missing folders.
+	 * @return the last folder of every path, null for an empty path
+	 */
+	synchronized Map<String, F> resolve(int rootId, Collection<String> paths) throws ExternalEntityUploadException {
+		Node<F> root = roots.get(rootId);
+		if (root == null) {
+			root = new Node<F>(rootId, null);
+			roots.put(rootId, root);
+		}
+
+		Map<String, List<String>> segments = new LinkedHashMap<String, List<String>>();
+		Map<String, Node<F>> reached = new HashMap<String, Node<F>>();
+		int depth = 0;
+		for (String path : paths) {
+			List<String> names = new ArrayList<String>();
+			StringTokenizer tokenizer = new StringTokenizer(path, FOLDER_SEPERATOR);
+			while (tokenizer.hasMoreTokens()) {
+				names.add(tokenizer.nextToken());
+			}
+			segments.put(path, names);
+			reached.put(path, root);
+			depth = Math.max(depth, names.size());
+		}
+
+		for (int level = 0; level < depth; level++) {
+			Set<Node<F>> parents = new LinkedHashSet<Node<F>>();
+			for (Map.Entry<String, List<String>> path : segments.entrySet()) {
+				if (path.getValue().size() > level) {
+					parents.add(reached.get(path.getKey()));
+				}
+			}
+			loadChildren(parents);
+
+			List<Node<F>> missingParents = new ArrayList<Node<F>>();
+			List<F> missing = new ArrayList<F>();
+			Set<String> planned = new HashSet<String>();
+			for (Map.Entry<String, List<String>> path : segments.entrySet()) {
+				if (path.getValue().size() > level) {
+					Node<F> parent = reached.get(path.getKey());
+					String folderName = path.getValue().get(level);
+					if (!parent.children.containsKey(key(folderName)) && planned.add(parent.id + FOLDER_SEPERATOR + key(folderName))) {
+						missingParents.add(parent);
+						missing.add(folders.newFolder(parent.id, folderName));
+					}
+				}
+			}
+			createFolders(missingParents, missing);
+
+			for (Map.Entry<String, List<String>> path : segments.entrySet()) {
+				if (path.getValue().size() > level) {
+					Node<F> parent = reached.get(path.getKey());
+					reached.put(path.getKey(), parent.children.get(key(path.getValue().get(level))));
+				}
+			}
+		}
+
+		Map<String, F> ret = new HashMap<String, F>();
+		for (Map.Entry<String, Node<F>> path : reached.entrySet()) {
+			ret.put(path.getKey(), path.getValue().folder);
+		}
+		return ret;
+	}
+
+	/**
+	 * Resolves entities directly under a folder by name, creating the missing ones in batches.
+	 * @return the existing or created entity of every given one, in the same order
+	 */
+	@SuppressWarnings("unchecked")
+	synchronized <E extends AlmEntity> List<E> resolveEntities(int folderId, List<E> entities, EntityStore<E> store) throws ExternalEntityUploadException {
+		Map<String, AlmEntity> existing = entitiesByFolder.get(folderId);
+		if (existing == null) {
+			existing = new HashMap<String, AlmEntity>();
+			for (E entity : store.findChildren(Collections.singletonList(folderId))) {
+				if (!existing.containsKey(key(entity.getName()))) {
+					existing.put(key(entity.getName()), entity);
+				}
+			}
+			requests++;
+			entitiesByFolder.put(folderId, existing);
+		}
+
+		List<E> missing = new ArrayList<E>();
+		Set<String> planned = new HashSet<String>();
+		for (E entity : entities) {
+			String name = key(entity.getName());
+			if (!existing.containsKey(name) && planned.add(name)) {
+				entity.setFieldValue(AlmCommonProperties.PARENT_ID, String.valueOf(folderId));
+				missing.add(entity);
+			}
+		}
+		for (int from = 0, size = FIRST_BATCH_SIZE; from < missing.size(); from += size, size = Math.min(2 * size, MAX_BATCH_SIZE)) {
+			List<E> batch = missing.subList(from, Math.min(from + size, missing.size()));
+			List<E> created;
+			try {
+				created = store.create(batch);
+			} catch (ExternalEntityUploadException e) {
+				// the server may have created part of them, load the folder again next time
+				entitiesByFolder.remove(folderId);
+				throw e;
+			} finally {
+				requests++;
+			}
+			for (int i = 0; i < batch.size(); i++) {
+				existing.put(key(batch.get(i).getName()), created.get(i));
+			}
+		}
+
+		List<E> ret = new ArrayList<E>(entities.size());
+		for (E entity : entities) {
+			ret.add((E) existing.get(key(entity.getName())));
+		}
+		return ret;
+	}
+
+	private void loadChildren(Collection<Node<F>> parents) throws ExternalEntityUploadException {
+		Map<Integer, Node<F>> unloaded = new LinkedHashMap<Integer, Node<F>>();
+		for (Node<F> parent : parents) {
+			if (parent.children == null) {
+				unloaded.put(parent.id, parent);
+			}
+		}
+		if (unloaded.isEmpty()) {
+			return;
+		}
+
+		List<F> children = folders.findChildren(unloaded.keySet());
+		requests++;
+		for (Node<F> parent : unloaded.values()) {
+			parent.children = new HashMap<String, Node<F>>();
+		}
+		for (F child : children) {
+			Node<F> parent = unloaded.get(Integer.valueOf(String.valueOf(child.getFieldValue(AlmCommonProperties.PARENT_ID))));
+			if (parent != null && !parent.children.containsKey(key(child.getName()))) {
+				parent.children.put(key(child.getName()), new Node<F>(Integer.valueOf(child.getId()), child));
+			}
+		}
+	}
+
+	private void createFolders(List<Node<F>> parents, List<F> missing) throws ExternalEntityUploadException {
+		for (int from = 0, size = FIRST_BATCH_SIZE; from < missing.size(); from += size, size = Math.min(2 * size, MAX_BATCH_SIZE)) {
+			int to = Math.min(from + size, missing.size());
+			List<F> created;
+			try {
+				created = folders.create(missing.subList(from, to));
+			} catch (ExternalEntityUploadException e) {
+				// the server may have created part of them, load the parents again next time
+				for (Node<F> parent : parents) {
+					parent.children = null;
+				}
+				throw e;
+			} finally {
+				requests++;
+			}
+			for (int i = from; i < to; i++) {
+				F folder = created.get(i - from);
+				Node<F> node = new Node<F>(Integer.valueOf(folder.getId()), folder);
+				// a new folder is empty
+				node.children = new HashMap<String, Node<F>>();
+				entitiesByFolder.put(node.id, new HashMap<String, AlmEntity>());
+				parents.get(i).children.put(key(missing.get(i).getName()), node);
+			}
+		}
+	}
+
+	private static String key(String name) {
+		return name == null ? "" : name.toLowerCase(Locale.ENGLISH);
+	}
+
+	/**
+	 * @return number of requests sent to the server
+	 */
+	synchronized int getRequestCount() {
+		return requests;
+	}
+}
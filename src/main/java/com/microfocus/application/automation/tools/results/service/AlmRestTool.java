@@ -33,10 +33,13 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import com.microfocus.application.automation.tools.common.Pair;
 import com.microfocus.application.automation.tools.rest.RestClient;
 import com.microfocus.application.automation.tools.results.service.almentities.AlmEntity;
+import com.microfocus.application.automation.tools.results.service.rest.CreateAlmEntitiesRequest;
 import com.microfocus.application.automation.tools.results.service.rest.CreateAlmEntityRequest;
 import com.microfocus.application.automation.tools.results.service.rest.GetAlmEntityRequest;
 import com.microfocus.application.automation.tools.results.service.rest.UpdateAlmEntityRequest;
@@ -55,6 +58,7 @@ public class AlmRestTool {
 
 	private final String USERNAMEPRETAG = "<Username>";
 	private final String USERNAMESUBTAG = "</Username>";
+	private static final Pattern TOTAL_RESULTS = Pattern.compile("TotalResults=\"(\\d+)\"");
 
 	public AlmRestTool(RestClient restClient, Logger logger) {
 		this.restClient = restClient;
@@ -244,6 +248,36 @@ public class AlmRestTool {
 
 	}
 
+    /**
+     * Get all ALM entities matching the query, reading as many pages as the server needs
+     */
+	public <E extends AlmEntity> List<E> getAllAlmEntities(E entity, String queryString) throws ExternalEntityUploadException {
+
+		List<E> ret = new ArrayList<E>();
+		while (true) {
+			String pageQueryString = String.format("%s&page-size=max&start-index=%d", queryString, ret.size() + 1);
+			GetAlmEntityRequest getRequest = new GetAlmEntityRequest(entity, getRestClient(), pageQueryString);
+			Response response = getRequest.execute();
+			if (!response.isOk()) {
+				_logger.log("Failed to get Entity:" + entity.toString() + " with query string:" + pageQueryString);
+				throw new ExternalEntityUploadException("Failed to get Entity:" + entity.toString() + " with query string:" + pageQueryString);
+			}
+
+			String responseData = response.toString();
+			if (responseData.equals("")) {
+				return ret;
+			}
+			List<Map<String, String>> entities2 = XPathUtils.toEntities(responseData);
+			List<E> page = getAlmEntityList(entities2, (Class<E>) entity.getClass());
+			ret.addAll(page);
+
+			Matcher totalResults = TOTAL_RESULTS.matcher(responseData);
+			if (page.isEmpty() || !totalResults.find() || ret.size() >= Integer.parseInt(totalResults.group(1))) {
+				return ret;
+			}
+		}
+	}
+
     /**
      * Create ALM entity
      */
@@ -269,6 +303,35 @@ public class AlmRestTool {
 		
 	}
 
+    /**
+     * Create ALM entities of the same type with one request
+     * @return the created entities, in the order of the given ones
+     */
+	public <E extends AlmEntity> List<E> createAlmEntities(List<E> entities, String[] fieldsForCreation) throws ExternalEntityUploadException {
+
+		List<E> ret = new ArrayList<E>();
+		if (entities.isEmpty()) {
+			return ret;
+		}
+
+		List<List<Pair<String, String>>> attrForCreation = new ArrayList<List<Pair<String, String>>>();
+		for (E entity : entities) {
+			attrForCreation.add(getPairListForAlmEntityFields(entity, fieldsForCreation));
+		}
+		E first = entities.get(0);
+		CreateAlmEntitiesRequest createRequest = new CreateAlmEntitiesRequest(getRestClient(), first, attrForCreation);
+		Response response = createRequest.execute();
+		if (response.isOk() && !response.toString().equals("")) {
+			List<Map<String, String>> entities2 = XPathUtils.toEntities(response.toString());
+			ret = getAlmEntityList(entities2, (Class<E>) first.getClass());
+			if (ret.size() == entities.size()) {
+				return ret;
+			}
+		}
+		_logger.log("Failed to create " + entities.size() + " entities of type " + first.getRestPrefix());
+		throw new ExternalEntityUploadException("Failed to create " + entities.size() + " entities of type " + first.getRestPrefix());
+	}
+
     /**
      * Update ALM entity
      */
@@ -30,15 +30,14 @@ package com.microfocus.application.automation.tools.results.service;
 
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collection;
 import java.util.GregorianCalendar;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.StringTokenizer;
 
 import com.microfocus.application.automation.tools.results.parser.ReportParserManager;
 import com.microfocus.application.automation.tools.results.service.almentities.AlmCommonProperties;
-import com.microfocus.application.automation.tools.results.service.almentities.AlmEntity;
 import com.microfocus.application.automation.tools.results.service.almentities.AlmRun;
 import com.microfocus.application.automation.tools.results.service.almentities.AlmTest;
 import com.microfocus.application.automation.tools.results.service.almentities.AlmTestConfig;
@@ -52,22 +51,77 @@ import com.microfocus.application.automation.tools.results.service.almentities.A
 import com.microfocus.application.automation.tools.results.service.almentities.AlmTestSetFolder;
 import com.microfocus.application.automation.tools.results.service.almentities.AlmTestSetFolderImpl;
 import com.microfocus.application.automation.tools.results.service.almentities.AlmTestSetImpl;
-import com.microfocus.application.automation.tools.results.service.almentities.EntityRelation;
 import com.microfocus.application.automation.tools.results.service.almentities.IAlmConsts;
 import com.microfocus.application.automation.tools.sse.sdk.Logger;
-import hudson.FilePath;
 
 public class DefaultExternalEntityUploadServiceImpl implements
 		IExternalEntityUploadService {
 
 	Logger logger;
 	private AlmRestTool restTool;
-	private FilePath workspace;
+	private final int uploadThreads;
+
+	// folders and test sets are resolved once per service, so several reports of a build share them
+	private final AlmFolderPathCache<AlmTestFolder> testFolders = new AlmFolderPathCache<AlmTestFolder>(
+			new AlmFolderPathCache.FolderStore<AlmTestFolder>() {
+				@Override
+				public List<AlmTestFolder> findChildren(Collection<Integer> parentIds) throws ExternalEntityUploadException {
+					return new ArrayList<AlmTestFolder>(restTool.getAllAlmEntities(new AlmTestFolderImpl(), getChildrenQuery(parentIds)));
+				}
+
+				@Override
+				public List<AlmTestFolder> create(List<AlmTestFolder> folders) throws ExternalEntityUploadException {
+					return restTool.createAlmEntities(folders, getCreationFieldsForTestFolder());
+				}
+
+				@Override
+				public AlmTestFolder newFolder(int parentId, String folderName) {
+					AlmTestFolderImpl testFolder = new AlmTestFolderImpl();
+					testFolder.setFieldValue(AlmCommonProperties.PARENT_ID, String.valueOf(parentId));
+					testFolder.setFieldValue(AlmCommonProperties.NAME, folderName);
+					return testFolder;
+				}
+			});
+	private final AlmFolderPathCache<AlmTestSetFolder> testSetFolders = new AlmFolderPathCache<AlmTestSetFolder>(
+			new AlmFolderPathCache.FolderStore<AlmTestSetFolder>() {
+				@Override
+				public List<AlmTestSetFolder> findChildren(Collection<Integer> parentIds) throws ExternalEntityUploadException {
+					return new ArrayList<AlmTestSetFolder>(restTool.getAllAlmEntities(new AlmTestSetFolderImpl(), getChildrenQuery(parentIds)));
+				}
+
+				@Override
+				public List<AlmTestSetFolder> create(List<AlmTestSetFolder> folders) throws ExternalEntityUploadException {
+					return restTool.createAlmEntities(folders, getCreationFieldsForTestSetFolder());
+				}
+
+				@Override
+				public AlmTestSetFolder newFolder(int parentId, String folderName) {
+					AlmTestSetFolderImpl testsetFolder = new AlmTestSetFolderImpl();
+					testsetFolder.setFieldValue(AlmCommonProperties.PARENT_ID, String.valueOf(parentId));
+					testsetFolder.setFieldValue(AlmCommonProperties.NAME, folderName);
+					return testsetFolder;
+				}
+			});
+	private final AlmFolderPathCache.EntityStore<AlmTestSet> testSets = new AlmFolderPathCache.EntityStore<AlmTestSet>() {
+		@Override
+		public List<AlmTestSet> findChildren(Collection<Integer> parentIds) throws ExternalEntityUploadException {
+			return new ArrayList<AlmTestSet>(restTool.getAllAlmEntities(new AlmTestSetImpl(), getChildrenQuery(parentIds)));
+		}
+
+		@Override
+		public List<AlmTestSet> create(List<AlmTestSet> testsets) throws ExternalEntityUploadException {
+			return restTool.createAlmEntities(testsets, getTestSetCreationFields());
+		}
+	};
 	
-	public DefaultExternalEntityUploadServiceImpl(AlmRestTool restTool, FilePath workspace, Logger logger) {
+	public DefaultExternalEntityUploadServiceImpl(AlmRestTool restTool, Logger logger) {
+		this(restTool, logger, ExternalEntityUploadEngine.DEFAULT_THREADS);
+	}
+
+	public DefaultExternalEntityUploadServiceImpl(AlmRestTool restTool, Logger logger, int uploadThreads) {
 		this.restTool = restTool;
 		this.logger = logger;
-		this.workspace = workspace;
+		this.uploadThreads = uploadThreads;
 	}
 
 	private String [] getTestCreationFields() {
@@ -84,7 +138,7 @@ public class DefaultExternalEntityUploadServiceImpl implements
 							};
 	}
 	
-	private AlmTest importTest(AlmTest test , int testFolderId, String testingTool, String testdesigner) throws ExternalEntityUploadException{
+	AlmTest importTest(AlmTest test , int testFolderId, String testingTool, String testdesigner) throws ExternalEntityUploadException{
 
 		String className = (String) test.getFieldValue(AlmTest.TS_UT_CLASS_NAME);
 		String methodName = (String) test.getFieldValue(AlmTest.TS_UT_METHOD_NAME);
@@ -148,24 +202,26 @@ public class DefaultExternalEntityUploadServiceImpl implements
 								AlmTestSet.TESTSET_SUB_TYPE_ID};
 	}
 	
-	private AlmTestSet importTestSet(AlmTestSet testset, int testsetFolderId) throws ExternalEntityUploadException{
-
-		
-		AlmTestSetImpl
-                importedTestset = restTool.getEntityUnderParentFolder(AlmTestSetImpl.class, testsetFolderId, testset.getName());
-		
-		if(importedTestset == null) {
-			
-			testset.setFieldValue(AlmCommonProperties.PARENT_ID, String.valueOf(testsetFolderId));
-			return restTool.createAlmEntity(testset, getTestSetCreationFields());
-	        
+	/**
+	 * Finds or creates the test sets of a report under the folder, with a single query and batched creation.
+	 * @return the imported test set of every given one, in the same order
+	 */
+	List<AlmTestSet> importTestSets(List<AlmTestSet> testsets, int testsetFolderId) throws ExternalEntityUploadException {
+		return testSetFolders.resolveEntities(testsetFolderId, testsets, testSets);
+	}
+	
+	private static String getChildrenQuery(Collection<Integer> parentIds) {
+		StringBuilder ids = new StringBuilder();
+		for (Integer parentId : parentIds) {
+			if (ids.length() > 0) {
+				ids.append("%20OR%20");
+			}
+			ids.append(parentId);
 		}
-
-		
-		return importedTestset;
+		return String.format("query={parent-id[%s]}&fields=id,name,parent-id", ids);
 	}
 	
-	private AlmTestConfig getMainTestConfig(AlmTest test){
+	AlmTestConfig getMainTestConfig(AlmTest test){
 	
         AlmTestConfigImpl testConfigImpl = new AlmTestConfigImpl();
         String queryString = String.format("query={parent-id[%s]}&fields=id,name", String.valueOf(test.getId()) );
@@ -188,7 +244,7 @@ public class DefaultExternalEntityUploadServiceImpl implements
 		
 	}
 	
-	private AlmTestInstance importTestInstance(AlmTestInstance testinstance, String testsetId, String testId, String testconfigId, String tester) throws ExternalEntityUploadException{
+	AlmTestInstance importTestInstance(AlmTestInstance testinstance, String testsetId, String testId, String testconfigId, String tester) throws ExternalEntityUploadException{
 		
 		String queryString = String.format("query={cycle-id[%s];test-config-id[%s];test-id[%s]}&fields=id,name",
 										String.valueOf(testsetId), String.valueOf(testconfigId), String.valueOf(testId) );
@@ -242,7 +298,7 @@ public class DefaultExternalEntityUploadServiceImpl implements
     	};
     }
     
-	private AlmRun generateRun(String tester, 
+	AlmRun generateRun(String tester, 
 								AlmRun run, 
 								String testsetId, 
 								String testId, 
@@ -278,84 +334,16 @@ public class DefaultExternalEntityUploadServiceImpl implements
 		return new String[] {AlmCommonProperties.NAME, AlmCommonProperties.PARENT_ID};
 	}
 	
-	private AlmTestFolder createTestFolder(int parentId, String folderName) throws ExternalEntityUploadException {
-		
-		AlmTestFolderImpl testFolder = restTool.getEntityUnderParentFolder(AlmTestFolderImpl.class, parentId, folderName);
-		String encodedFolderName = folderName;
-
-		if(testFolder == null) {
-			testFolder = new AlmTestFolderImpl();
-			testFolder.setFieldValue(AlmCommonProperties.PARENT_ID, String.valueOf(parentId));
-			testFolder.setFieldValue(AlmCommonProperties.NAME, encodedFolderName);
-			return restTool.createAlmEntity(testFolder, getCreationFieldsForTestFolder());
-		} else {
-			return testFolder;
-		}
-	}
-	String FOLDER_SEPERATOR = "\\";
-	
-	
-	private AlmTestFolder createTestFolderPath(int parentId, String path) throws ExternalEntityUploadException {
-		List<AlmTestFolder> folders = new ArrayList<AlmTestFolder>();
-		
-		StringTokenizer tokenizer = new StringTokenizer(path, FOLDER_SEPERATOR);
-        
-        while (tokenizer.hasMoreTokens()) {
-            String itemString = tokenizer.nextToken();
-			AlmTestFolder testFolder = createTestFolder(parentId, itemString);
-			if(testFolder != null) {
-				folders.add(testFolder);
-				parentId = Integer.valueOf(testFolder.getId());
-			}            
-        }
-
-        if(folders.size() >0 ){
-			return folders.get(folders.size()-1);
-		} else  {
-			return null;
-		}
+	AlmTestFolder createTestFolderPath(int parentId, String path) throws ExternalEntityUploadException {
+		return testFolders.resolve(parentId, path);
 	}
 	
 	private String[] getCreationFieldsForTestSetFolder() {
 		return new String[] {AlmCommonProperties.NAME, AlmCommonProperties.PARENT_ID};
 	}
 	
-	private AlmTestSetFolder createTestSetFolder(int parentId, String folderName) throws ExternalEntityUploadException {
-		
-		AlmTestSetFolderImpl
-                testsetFolder = restTool.getEntityUnderParentFolder(AlmTestSetFolderImpl.class, parentId, folderName);
-		
-		String encodedFolderName = folderName;
-
-		if(testsetFolder == null) {
-			testsetFolder = new AlmTestSetFolderImpl();
-			testsetFolder.setFieldValue(AlmCommonProperties.PARENT_ID, String.valueOf(parentId));
-			testsetFolder.setFieldValue(AlmCommonProperties.NAME, encodedFolderName);
-			return restTool.createAlmEntity(testsetFolder, getCreationFieldsForTestSetFolder());
-		} else {
-			return testsetFolder;
-		}
-	}
-
-	private AlmTestSetFolder createTestSetFolderPath(int parentId, String path) throws ExternalEntityUploadException {
-
-		List<AlmTestSetFolder> folders = new ArrayList<AlmTestSetFolder>();
-
-		StringTokenizer tokenizer = new StringTokenizer(path, FOLDER_SEPERATOR);
-        
-        while (tokenizer.hasMoreTokens()) {
-            String itemString = tokenizer.nextToken();
-            AlmTestSetFolder testsetFolder = createTestSetFolder(parentId, itemString);
-			if(testsetFolder != null) {
-				folders.add(testsetFolder);
-				parentId = Integer.valueOf(testsetFolder.getId());
-			}            
-        }		
-		if(folders.size() >0 ){
-			return folders.get(folders.size()-1);
-		} else  {
-			return null;
-		}
+	AlmTestSetFolder createTestSetFolderPath(int parentId, String path) throws ExternalEntityUploadException {
+		return testSetFolders.resolve(parentId, path);
 	}	
 	
 	@Override
@@ -372,7 +360,7 @@ public class DefaultExternalEntityUploadServiceImpl implements
 		logger.log("INFO: Start to parse file: " + reportFilePath);
 
 		List<String> importedTestsetIds = new ArrayList<>();
-		ReportParserManager reportParserManager = ReportParserManager.getInstance(workspace, logger);
+		ReportParserManager reportParserManager = new ReportParserManager(logger);
 
 		List<AlmTestSet> testsets = reportParserManager.parseTestSets(reportFilePath, testingFramework,  testingTool);
 
@@ -407,7 +395,12 @@ public class DefaultExternalEntityUploadServiceImpl implements
 
 			if(testFolder != null && testsetFolder != null) {
 				logger.log("INFO: Uploading ALM Entities...");
-				importedTestsetIds = importExternalTestSet(
+				ExternalEntityUploadEngine engine = new ExternalEntityUploadEngine(
+						this,
+						logger,
+						uploadThreads,
+						ExternalEntityUploadEngine.DEFAULT_RETRY_DELAY_MILLIS);
+				importedTestsetIds = engine.upload(
 						testsets,
 						actualUser,
 						Integer.valueOf(testsetFolder.getId()),
@@ -423,63 +416,4 @@ public class DefaultExternalEntityUploadServiceImpl implements
 		return importedTestsetIds;
 	}
 	
-	
-	private List<String> importExternalTestSet(List<AlmTestSet> testsets, String tester, int testsetFolderId, int testFolderId, String testingTool, String subversion, String jobName, String buildUrl ) throws ExternalEntityUploadException{
-
-		List<String> importedTestsetIds = new ArrayList<String>();
-
-		for (AlmTestSet testset : testsets){
-			AlmTestSet importedTestSet = importTestSet(testset, testsetFolderId);
-			if(importedTestSet == null ) {
-				continue;
-			}
-
-            importedTestsetIds.add(importedTestSet.getId());
-
-			List<AlmEntity> testinstances = testset.getRelatedEntities().get(EntityRelation.TESTSET_TO_TESTINSTANCE_CONTAINMENT_RELATION);
-			if(testinstances == null || testinstances.size() <=0) {
-				continue;
-			}
-
-			for(AlmEntity testinstanceEntity: testinstances){
-				AlmTestInstance testInstance = (AlmTestInstance) testinstanceEntity;
-				List<AlmEntity> tests = testInstance.getRelatedEntities().get(EntityRelation.TEST_TO_TESTINSTANCE_REALIZATION_RELATION);
-				if(tests == null || tests.size() <= 0) {
-					continue;
-				}
-
-				AlmTest test = (AlmTest) tests.get(0);
-				AlmTest importedTest = importTest(test, testFolderId, testingTool, tester);
-				if(importedTest == null) {
-					continue;
-				}
-				
-				AlmTestConfig mainTestConfig = getMainTestConfig(importedTest);
-				if(mainTestConfig == null) {
-					continue;
-				}
-
-				AlmTestInstance importedTestInstance = importTestInstance(testInstance, importedTestSet.getId(), importedTest.getId(), mainTestConfig.getId(), tester);
-				List<AlmEntity> runs = testInstance.getRelatedEntities().get(EntityRelation.TESTINSTANCE_TO_RUN_REALIZATION_RELATION);
-				if(runs == null || runs.size() <= 0) {
-					continue;
-				}
-				
-				AlmRun run = (AlmRun) runs.get(0);
-				generateRun(tester, 
-							run,  
-							importedTestSet.getId(),
-							importedTest.getId(), 
-							importedTestInstance.getId(), 
-							mainTestConfig.getId(), 
-							subversion,
-							jobName,
-							buildUrl
-							);
-			}
-		}
-
-		return importedTestsetIds;
-	}
-	
 }
@@ -0,0 +1,377 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.results.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+import com.microfocus.application.automation.tools.results.service.almentities.AlmEntity;
+import com.microfocus.application.automation.tools.results.service.almentities.AlmRun;
+import com.microfocus.application.automation.tools.results.service.almentities.AlmTest;
+import com.microfocus.application.automation.tools.results.service.almentities.AlmTestConfig;
+import com.microfocus.application.automation.tools.results.service.almentities.AlmTestInstance;
+import com.microfocus.application.automation.tools.results.service.almentities.AlmTestSet;
+import com.microfocus.application.automation.tools.results.service.almentities.EntityRelation;
+import com.microfocus.application.automation.tools.sse.sdk.Logger;
+
+/**
+ * Uploads the test sets of one report.
+ *
+ * The test sets are imported together first, with one query for the folder and batched creation.
+ * Each test instance is a chain of lookups (test, main test config, test instance) that runs on a
+ * bounded pool, so the round trips of different tests overlap. Lookups with the same key are made
+ * once and shared. Tests with the same class and method name are found or created one at a time,
+ * because that is the scope in which the import picks a free name for a new test. Runs of a test
+ * set are still created in report order: the run of an instance waits for the run of the previous
+ * instance of the same test set.
+ */
+class ExternalEntityUploadEngine {
+
+	static final int DEFAULT_THREADS = 4;
+	static final int MAX_ATTEMPTS = 3;
+	static final long DEFAULT_RETRY_DELAY_MILLIS = 500;
+
+	private final DefaultExternalEntityUploadServiceImpl service;
+	private final Logger logger;
+	private final int threads;
+	private final long retryDelayMillis;
+
+	private final ConcurrentMap<String, FutureTask<AlmTest>> tests = new ConcurrentHashMap<String, FutureTask<AlmTest>>();
+	private final ConcurrentMap<String, FutureTask<AlmTestConfig>> testConfigs = new ConcurrentHashMap<String, FutureTask<AlmTestConfig>>();
+	private final ConcurrentMap<String, FutureTask<AlmTestInstance>> testInstances = new ConcurrentHashMap<String, FutureTask<AlmTestInstance>>();
+	private final ConcurrentMap<String, Object> testImportLocks = new ConcurrentHashMap<String, Object>();
+	private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+	private final AtomicInteger uploadedRuns = new AtomicInteger();
+	private final AtomicInteger sharedLookups = new AtomicInteger();
+	private final AtomicInteger retries = new AtomicInteger();
+	private long elapsedMillis;
+
+	ExternalEntityUploadEngine(DefaultExternalEntityUploadServiceImpl service, Logger logger, int threads, long retryDelayMillis) {
+		this.service = service;
+		this.logger = logger;
+		this.threads = Math.max(1, threads);
+		this.retryDelayMillis = retryDelayMillis;
+	}
+
+	/**
+	 * What the run of a test instance needs, once its lookups are done.
+	 */
+	private static class PreparedRun {
+		private final AlmRun run;
+		private final String testsetId;
+		private final String testId;
+		private final String testInstanceId;
+		private final String testConfigId;
+
+		PreparedRun(AlmRun run, String testsetId, String testId, String testInstanceId, String testConfigId) {
+			this.run = run;
+			this.testsetId = testsetId;
+			this.testId = testId;
+			this.testInstanceId = testInstanceId;
+			this.testConfigId = testConfigId;
+		}
+	}
+
+	List<String> upload(final List<AlmTestSet> testsets,
+						final String tester,
+						final int testsetFolderId,
+						final int testFolderId,
+						final String testingTool,
+						final String subversion,
+						final String jobName,
+						final String buildUrl) throws ExternalEntityUploadException {
+
+		long start = System.currentTimeMillis();
+		List<String> importedTestsetIds = new ArrayList<String>();
+		List<CompletableFuture<Void>> lanes = new ArrayList<CompletableFuture<Void>>();
+		ExecutorService pool = Executors.newFixedThreadPool(threads, new UploadThreadFactory());
+		try {
+			List<AlmTestSet> importedTestSets = withRetry(new Callable<List<AlmTestSet>>() {
+				@Override
+				public List<AlmTestSet> call() throws Exception {
+					return service.importTestSets(testsets, testsetFolderId);
+				}
+			});
+			for (int i = 0; i < testsets.size(); i++) {
+				if (failure.get() != null) {
+					break;
+				}
+				final AlmTestSet testset = testsets.get(i);
+				final AlmTestSet importedTestSet = importedTestSets.get(i);
+				if (importedTestSet == null) {
+					continue;
+				}
+				importedTestsetIds.add(importedTestSet.getId());
+
+				List<AlmEntity> instances = testset.getRelatedEntities().get(EntityRelation.TESTSET_TO_TESTINSTANCE_CONTAINMENT_RELATION);
+				if (instances == null || instances.size() <= 0) {
+					continue;
+				}
+
+				CompletableFuture<Void> lane = CompletableFuture.completedFuture(null);
+				for (AlmEntity instanceEntity : instances) {
+					final AlmTestInstance testInstance = (AlmTestInstance) instanceEntity;
+					CompletableFuture<PreparedRun> prepared = CompletableFuture.supplyAsync(new Supplier<PreparedRun>() {
+						@Override
+						public PreparedRun get() {
+							return prepare(testInstance, importedTestSet.getId(), tester, testFolderId, testingTool);
+						}
+					}, pool);
+					lane = lane.thenCombineAsync(prepared, new BiFunction<Void, PreparedRun, Void>() {
+						@Override
+						public Void apply(Void previous, PreparedRun preparedRun) {
+							createRun(preparedRun, tester, subversion, jobName, buildUrl);
+							return null;
+						}
+					}, pool);
+				}
+				lanes.add(lane);
+			}
+
+			for (CompletableFuture<Void> lane : lanes) {
+				try {
+					lane.join();
+				} catch (CompletionException e) {
+					failure.compareAndSet(null, e.getCause());
+				}
+			}
+		} finally {
+			pool.shutdownNow();
+			elapsedMillis = System.currentTimeMillis() - start;
+		}
+
+		logStatistics();
+		Throwable cause = failure.get();
+		if (cause instanceof ExternalEntityUploadException) {
+			throw (ExternalEntityUploadException) cause;
+		} else if (cause != null) {
+			throw new ExternalEntityUploadException(cause);
+		}
+		return importedTestsetIds;
+	}
+
+	private PreparedRun prepare(AlmTestInstance testInstance, final String testsetId, final String tester,
+								final int testFolderId, final String testingTool) {
+		if (failure.get() != null) {
+			return null;
+		}
+		try {
+			List<AlmEntity> relatedTests = testInstance.getRelatedEntities().get(EntityRelation.TEST_TO_TESTINSTANCE_REALIZATION_RELATION);
+			if (relatedTests == null || relatedTests.size() <= 0) {
+				return null;
+			}
+
+			final AlmTest test = (AlmTest) relatedTests.get(0);
+			final AlmTest importedTest = shared(tests, testFolderId + "/" + test.getKey(), new Callable<AlmTest>() {
+				@Override
+				public AlmTest call() throws Exception {
+					synchronized (testImportLock(test, testFolderId)) {
+						return service.importTest(test, testFolderId, testingTool, tester);
+					}
+				}
+			});
+			if (importedTest == null) {
+				return null;
+			}
+
+			final AlmTestConfig mainTestConfig = shared(testConfigs, importedTest.getId(), new Callable<AlmTestConfig>() {
+				@Override
+				public AlmTestConfig call() throws Exception {
+					return service.getMainTestConfig(importedTest);
+				}
+			});
+			if (mainTestConfig == null) {
+				return null;
+			}
+
+			final AlmTestInstance instance = testInstance;
+			AlmTestInstance importedTestInstance = shared(
+					testInstances,
+					testsetId + "/" + importedTest.getId() + "/" + mainTestConfig.getId(),
+					new Callable<AlmTestInstance>() {
+						@Override
+						public AlmTestInstance call() throws Exception {
+							return service.importTestInstance(instance, testsetId, importedTest.getId(), mainTestConfig.getId(), tester);
+						}
+					});
+
+			List<AlmEntity> runs = testInstance.getRelatedEntities().get(EntityRelation.TESTINSTANCE_TO_RUN_REALIZATION_RELATION);
+			if (runs == null || runs.size() <= 0) {
+				return null;
+			}
+			return new PreparedRun((AlmRun) runs.get(0), testsetId, importedTest.getId(), importedTestInstance.getId(), mainTestConfig.getId());
+		} catch (Exception e) {
+			failure.compareAndSet(null, e);
+			throw new CompletionException(e);
+		}
+	}
+
+	private void createRun(PreparedRun preparedRun, String tester, String subversion, String jobName, String buildUrl) {
+		if (preparedRun == null || failure.get() != null) {
+			return;
+		}
+		// creating a run is not idempotent, so it is not retried
+		try {
+			service.generateRun(tester,
+					preparedRun.run,
+					preparedRun.testsetId,
+					preparedRun.testId,
+					preparedRun.testInstanceId,
+					preparedRun.testConfigId,
+					subversion,
+					jobName,
+					buildUrl);
+			uploadedRuns.incrementAndGet();
+		} catch (Exception e) {
+			failure.compareAndSet(null, e);
+			throw new CompletionException(e);
+		}
+	}
+
+	/**
+	 * The import queries the tests of the folder by class and method name, then names a new test after
+	 * the ones it found, so two imports in that scope must not overlap.
+	 */
+	private Object testImportLock(AlmTest test, int testFolderId) {
+		String scope = testFolderId
+				+ "/" + test.getFieldValue(AlmTest.TS_UT_CLASS_NAME)
+				+ "/" + test.getFieldValue(AlmTest.TS_UT_METHOD_NAME);
+		Object lock = testImportLocks.get(scope);
+		if (lock == null) {
+			Object created = new Object();
+			lock = testImportLocks.putIfAbsent(scope, created);
+			if (lock == null) {
+				lock = created;
+			}
+		}
+		return lock;
+	}
+
+	/**
+	 * Runs the lookup once per key, other callers with the same key wait for its result.
+	 */
+	private <T> T shared(ConcurrentMap<String, FutureTask<T>> lookups, String key, final Callable<T> lookup) throws Exception {
+		FutureTask<T> task = new FutureTask<T>(new Callable<T>() {
+			@Override
+			public T call() throws Exception {
+				return withRetry(lookup);
+			}
+		});
+		FutureTask<T> existing = lookups.putIfAbsent(key, task);
+		if (existing == null) {
+			task.run();
+			existing = task;
+		} else {
+			sharedLookups.incrementAndGet();
+		}
+		try {
+			return existing.get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			throw cause instanceof Exception ? (Exception) cause : new ExternalEntityUploadException(cause);
+		}
+	}
+
+	/**
+	 * The import steps look the entity up before they create it, so running them again is safe.
+	 */
+	private <T> T withRetry(Callable<T> step) throws ExternalEntityUploadException {
+		for (int attempt = 1; ; attempt++) {
+			try {
+				return step.call();
+			} catch (Exception e) {
+				if (attempt >= MAX_ATTEMPTS || failure.get() != null) {
+					throw e instanceof ExternalEntityUploadException
+							? (ExternalEntityUploadException) e
+							: new ExternalEntityUploadException(e);
+				}
+				retries.incrementAndGet();
+				logger.log(String.format("WARN: ALM request failed (attempt %d of %d), retrying: %s", attempt, MAX_ATTEMPTS, e.getMessage()));
+				try {
+					Thread.sleep(retryDelayMillis * attempt);
+				} catch (InterruptedException ie) {
+					Thread.currentThread().interrupt();
+					throw new ExternalEntityUploadException(ie);
+				}
+			}
+		}
+	}
+
+	private void logStatistics() {
+		double seconds = Math.max(elapsedMillis, 1) / 1000.0;
+		logger.log(String.format("INFO: Uploaded %d runs in %d ms (%.1f runs/s), %d shared lookups, %d retries.",
+				uploadedRuns.get(),
+				elapsedMillis,
+				uploadedRuns.get() / seconds,
+				sharedLookups.get(),
+				retries.get()));
+	}
+
+	int getUploadedRuns() {
+		return uploadedRuns.get();
+	}
+
+	int getSharedLookups() {
+		return sharedLookups.get();
+	}
+
+	int getRetries() {
+		return retries.get();
+	}
+
+	long getElapsedMillis() {
+		return elapsedMillis;
+	}
+
+	private static class UploadThreadFactory implements ThreadFactory {
+		private final AtomicInteger count = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "alm-upload-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
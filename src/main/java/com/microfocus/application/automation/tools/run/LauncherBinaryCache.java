@@ -0,0 +1,251 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.run;
+
+import hudson.FilePath;
+import hudson.model.TaskListener;
+import hudson.remoting.VirtualChannel;
+import jenkins.MasterToSlaveFileCallable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Installs the launcher binaries bundled in the plugin (HpToolsLauncher.exe and the like) into a workspace through a
+ * cache on the node.
+ * <p>
+ * The cache keeps each binary under the SHA-256 of its content. The master sends only the digests; the node verifies
+ * its cached copies against them and links (or copies) them into the workspace, so a node that already has the
+ * binaries receives no launcher bytes. A binary the node is missing, or whose cached copy does not match its digest,
+ * is transferred once to a temporary file, verified and atomically moved into the cache.
+ */
+public final class LauncherBinaryCache {
+
+    /**
+     * The cache folder, under the root folder of the node.
+     */
+    public static final String CACHE_FOLDER = "cache/launchers";
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    private static final String STAGED_SUFFIX = ".tmp";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // the bundled binaries do not change while the plugin is loaded
+    private static final Map<String, String> DIGESTS = new ConcurrentHashMap<>();
+
+    private final FilePath cacheRoot;
+
+    /**
+     * @param cacheRoot the cache folder, on the node of the workspaces it installs to
+     */
+    public LauncherBinaryCache(FilePath cacheRoot) {
+        this.cacheRoot = cacheRoot;
+    }
+
+    /**
+     * Installs the binaries into the workspace.
+     *
+     * @param workspace the workspace, on the node of the cache
+     * @param binaries  the bundled binaries, by the file name to install them as
+     * @return the number of bytes sent to the node
+     * @throws IOException          if a binary could not be read, transferred or installed
+     * @throws InterruptedException if interrupted
+     */
+    public long install(FilePath workspace, Map<String, URL> binaries) throws IOException, InterruptedException {
+        Map<String, String> digests = new LinkedHashMap<>();
+        for (Map.Entry<String, URL> binary : binaries.entrySet()) {
+            digests.put(binary.getKey(), getDigest(binary.getValue()));
+        }
+
+        List<String> missing = workspace.act(new Installer(cacheRoot.getRemote(), digests, new HashMap<>()));
+        if (missing.isEmpty()) {
+            return 0;
+        }
+
+        long sent = 0;
+        HashMap<String, String> staged = new HashMap<>();
+        for (String name : missing) {
+            FilePath stagedFile = cacheRoot.child(digests.get(name)).child(name + "." + UUID.randomUUID() + STAGED_SUFFIX);
+            try (InputStream in = binaries.get(name).openStream()) {
+                stagedFile.copyFrom(in);
+            }
+            staged.put(name, stagedFile.getName());
+            sent += stagedFile.length();
+        }
+        missing = workspace.act(new Installer(cacheRoot.getRemote(), digests, staged));
+        if (!missing.isEmpty()) {
+            throw new IOException("Failed to install " + missing + " from the launcher cache " + cacheRoot.getRemote());
+        }
+
+        return sent;
+    }
+
+    /**
+     * Installs the binaries into the workspace, through the cache of the node when it has a root folder, or by copying
+     * them otherwise.
+     *
+     * @param nodeRoot  the root folder of the node of the workspace, may be null
+     * @param workspace the workspace
+     * @param binaries  the bundled binaries, by the file name to install them as
+     * @param listener  the build listener
+     * @throws IOException          if a binary could not be copied
+     * @throws InterruptedException if interrupted
+     */
+    public static void install(FilePath nodeRoot, FilePath workspace, Map<String, URL> binaries, TaskListener listener)
+            throws IOException, InterruptedException {
+        if (nodeRoot != null) {
+            try {
+                new LauncherBinaryCache(nodeRoot.child(CACHE_FOLDER)).install(workspace, binaries);
+                return;
+            } catch (IOException e) {
+                listener.getLogger().println("Failed to install the launchers from the cache of the node, copying them: " + e.getMessage());
+            }
+        }
+        for (Map.Entry<String, URL> binary : binaries.entrySet()) {
+            workspace.child(binary.getKey()).copyFrom(binary.getValue());
+        }
+    }
+
+    static String getDigest(URL binary) throws IOException {
+        String key = binary.toExternalForm();
+        String digest = DIGESTS.get(key);
+        if (digest == null) {
+            try (InputStream in = binary.openStream()) {
+                digest = digest(in);
+            }
+            DIGESTS.put(key, digest);
+        }
+        return digest;
+    }
+
+    static String digest(InputStream in) throws IOException {
+        MessageDigest messageDigest;
+        try {
+            messageDigest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+        byte[] buffer = new byte[BUFFER_SIZE];
+        for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+            messageDigest.update(buffer, 0, n);
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : messageDigest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Runs on the node: moves the staged binaries into the cache, and installs the cached binaries into the workspace.
+     * Returns the names of the binaries that are not in the cache, or whose cached copy is corrupted.
+     */
+    private static final class Installer extends MasterToSlaveFileCallable<List<String>> {
+        private static final long serialVersionUID = 1L;
+
+        private final String cacheRoot;
+        private final Map<String, String> digests;
+        private final HashMap<String, String> staged;
+
+        private Installer(String cacheRoot, Map<String, String> digests, HashMap<String, String> staged) {
+            this.cacheRoot = cacheRoot;
+            this.digests = new LinkedHashMap<>(digests);
+            this.staged = staged;
+        }
+
+        @Override
+        public List<String> invoke(File workspace, VirtualChannel channel) throws IOException {
+            List<String> missing = new ArrayList<>();
+            for (Map.Entry<String, String> binary : digests.entrySet()) {
+                String name = binary.getKey();
+                String digest = binary.getValue();
+                File entry = new File(new File(cacheRoot, digest), name);
+                if (staged.containsKey(name)) {
+                    cache(new File(entry.getParentFile(), staged.get(name)).toPath(), entry.toPath(), digest);
+                } else if (!isValid(entry, digest)) {
+                    Files.deleteIfExists(entry.toPath());
+                    missing.add(name);
+                    continue;
+                }
+                link(entry.toPath(), new File(workspace, name).toPath());
+            }
+            return missing;
+        }
+
+        private static boolean isValid(File entry, String digest) throws IOException {
+            if (!entry.isFile()) {
+                return false;
+            }
+            try (InputStream in = Files.newInputStream(entry.toPath())) {
+                return digest.equals(digest(in));
+            }
+        }
+
+        private static void cache(Path staged, Path entry, String digest) throws IOException {
+            try {
+                if (!isValid(staged.toFile(), digest)) {
+                    throw new IOException("The transferred " + entry.getFileName() + " does not match its digest " + digest);
+                }
+                try {
+                    Files.move(staged, entry, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(staged, entry, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(staged);
+            }
+        }
+
+        private static void link(Path entry, Path target) throws IOException {
+            Files.createDirectories(target.toAbsolutePath().getParent());
+            Files.deleteIfExists(target);
+            try {
+                Files.createLink(target, entry);
+            } catch (IOException | UnsupportedOperationException e) {
+                // the cache may be on another file system than the workspace
+                Files.copy(entry, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+}
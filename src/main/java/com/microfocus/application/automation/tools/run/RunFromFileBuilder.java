@@ -810,28 +810,20 @@ public class RunFromFileBuilder extends Builder implements SimpleBuildStep {
             }
         }
 
-        // clean cleanuptests' report folders
+        // clean cleanuptests' and actual tests' report folders, all at once on the node
+        List<String> testPaths = new ArrayList<>();
         int index = 1;
         while (mergedProps.getProperty("CleanupTest" + index) != null) {
-            String testPath = mergedProps.getProperty("CleanupTest" + index);
-            List<String> cleanupTests = UftToolUtils.getBuildTests(selectedNode, testPath);
-            for (String test : cleanupTests) {
-                UftToolUtils.deleteReportFoldersFromNode(selectedNode, test, listener);
-            }
-
+            testPaths.add(mergedProps.getProperty("CleanupTest" + index));
             index++;
         }
 
-        // clean actual tests' report folders
         index = 1;
         while (mergedProps.getProperty("Test" + index) != null) {
-            String testPath = mergedProps.getProperty(("Test" + index));
-            List<String> buildTests = UftToolUtils.getBuildTests(selectedNode, testPath);
-            for (String test : buildTests) {
-                UftToolUtils.deleteReportFoldersFromNode(selectedNode, test, listener);
-            }
+            testPaths.add(mergedProps.getProperty("Test" + index));
             index++;
         }
+        UftToolUtils.deleteReportFoldersFromNode(selectedNode, testPaths, listener);
 
         mergedProps.setProperty("numOfTests", String.valueOf(index - 1));
 
@@ -870,8 +862,6 @@ public class RunFromFileBuilder extends Builder implements SimpleBuildStep {
 
         FilePath fileProps = workspace.child(propsFileName);
         FilePath cmdLineExe = workspace.child(HP_TOOLS_LAUNCHER_EXE);
-        FilePath cmdLineExeCfg = workspace.child(HP_TOOLS_LAUNCHER_EXE_CFG);
-        FilePath cmdLineExe2 = workspace.child(LRANALYSIS_LAUNCHER_EXE);
 
         try {
             // create a file for the properties file, and save the properties
@@ -879,10 +869,12 @@ public class RunFromFileBuilder extends Builder implements SimpleBuildStep {
                 build.setResult(Result.FAILURE);
                 return;
             }
-            // Copy the script to the project workspace
-            cmdLineExe.copyFrom(cmdExeUrl);
-            cmdLineExeCfg.copyFrom(cmdExeCfgUrl);
-            cmdLineExe2.copyFrom(cmdExe2Url);
+            // Copy the script to the project workspace, from the launcher cache of the node when it has them
+            Map<String, URL> launchers = new LinkedHashMap<>();
+            launchers.put(HP_TOOLS_LAUNCHER_EXE, cmdExeUrl);
+            launchers.put(HP_TOOLS_LAUNCHER_EXE_CFG, cmdExeCfgUrl);
+            launchers.put(LRANALYSIS_LAUNCHER_EXE, cmdExe2Url);
+            LauncherBinaryCache.install(currNode.getRootPath(), workspace, launchers, listener);
         } catch (IOException | InterruptedException e) {
             build.setResult(Result.FAILURE);
             listener.error("Failed to copy props file or UFT tools to agent machine. " + e);
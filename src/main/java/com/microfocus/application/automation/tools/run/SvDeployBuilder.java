@@ -31,20 +31,23 @@ package com.microfocus.application.automation.tools.run;
 import javax.annotation.Nonnull;
 import java.io.PrintStream;
 import java.util.ArrayList;
+import java.util.List;
 
 import com.microfocus.application.automation.tools.model.SvDeployModel;
 import com.microfocus.application.automation.tools.model.SvServerSettingsModel;
 import com.microfocus.application.automation.tools.sv.runner.AbstractSvRemoteRunner;
 import com.microfocus.application.automation.tools.sv.runner.AbstractSvRunBuilder;
 import com.microfocus.application.automation.tools.sv.runner.AbstractSvRunDescriptor;
+import com.microfocus.application.automation.tools.sv.runner.ParallelServiceRunner;
+import com.microfocus.application.automation.tools.sv.runner.ServiceInfo;
 import com.microfocus.sv.svconfigurator.core.IDataModel;
 import com.microfocus.sv.svconfigurator.core.IPerfModel;
 import com.microfocus.sv.svconfigurator.core.IProject;
 import com.microfocus.sv.svconfigurator.core.IService;
+import com.microfocus.sv.svconfigurator.core.impl.exception.ProjectBuilderException;
 import com.microfocus.sv.svconfigurator.processor.DeployProcessor;
 import com.microfocus.sv.svconfigurator.processor.DeployProcessorInput;
 import com.microfocus.sv.svconfigurator.processor.IDeployProcessor;
-import com.microfocus.sv.svconfigurator.serverclient.ICommandExecutor;
 import com.microfocus.sv.svconfigurator.util.ProjectUtils;
 import hudson.Extension;
 import hudson.FilePath;
@@ -72,9 +75,11 @@ public class SvDeployBuilder extends AbstractSvRunBuilder<SvDeployModel> {
         return new RemoteRunner(model, workspace, listener, server);
     }
 
-    private static class RemoteRunner extends AbstractSvRemoteRunner<SvDeployModel> {
+    static class RemoteRunner extends AbstractSvRemoteRunner<SvDeployModel> {
 
-        private RemoteRunner(SvDeployModel model, FilePath workspace, TaskListener listener, SvServerSettingsModel server) {
+        private transient ThreadLocal<IProject> projects;
+
+        RemoteRunner(SvDeployModel model, FilePath workspace, TaskListener listener, SvServerSettingsModel server) {
             super(listener, model, workspace, server);
         }
 
@@ -102,26 +107,52 @@ public class SvDeployBuilder extends AbstractSvRunBuilder<SvDeployModel> {
             }
         }
 
-        private Iterable<IService> getServiceList(IProject project) {
+        private List<ServiceInfo> getServiceList(IProject project) {
+            ArrayList<ServiceInfo> list = new ArrayList<>();
             if (model.getService() == null) {
-                return project.getServices();
+                for (IService service : project.getServices()) {
+                    list.add(new ServiceInfo(service.getId(), service.getName()));
+                }
             } else {
-                ArrayList<IService> list = new ArrayList<>();
-                list.add(ProjectUtils.findProjElem(project.getServices(), model.getService()));
-                return list;
+                IService service = ProjectUtils.findProjElem(project.getServices(), model.getService());
+                list.add(new ServiceInfo(service.getId(), service.getName()));
             }
+            return list;
         }
 
         private void deployServiceFromProject(IProject project, PrintStream logger) throws Exception {
-            IDeployProcessor processor = new DeployProcessor(null);
-            ICommandExecutor commandExecutor = createCommandExecutor();
-
-            for (IService service : getServiceList(project)) {
-                logger.printf("  Deploying service '%s' [%s] %n", service.getName(), service.getId());
-                DeployProcessorInput deployInput = new DeployProcessorInput(model.isForce(), false, project, model.getService(), null, false);
+            List<ParallelServiceRunner.Result<ServiceInfo, Void>> results = new ParallelServiceRunner().run(getServiceList(project), (service, log) -> {
+                log.printf("  Deploying service '%s' [%s] %n", service.getName(), service.getId());
+                DeployProcessorInput deployInput = new DeployProcessorInput(model.isForce(), false, getProject(), service.getId(), null, false);
                 deployInput.setFirstAgentFailover(model.isFirstAgentFallback());
-                processor.process(deployInput, commandExecutor);
+                createDeployProcessor().process(deployInput, getCommandExecutor());
+                return null;
+            }, logger);
+            ParallelServiceRunner.throwIfFailed("deploy", results);
+        }
+
+        protected IDeployProcessor createDeployProcessor() {
+            return new DeployProcessor(null);
+        }
+
+        /**
+         * @return the project loaded by the current thread, the project and the deploy processor
+         * are not shared by the threads deploying the services at once
+         */
+        private IProject getProject() throws ProjectBuilderException {
+            ThreadLocal<IProject> threadProjects;
+            synchronized (this) {
+                if (projects == null) {
+                    projects = new ThreadLocal<>();
+                }
+                threadProjects = projects;
+            }
+            IProject project = threadProjects.get();
+            if (project == null) {
+                project = loadProject(workspace);
+                threadProjects.set(project);
             }
+            return project;
         }
     }
 
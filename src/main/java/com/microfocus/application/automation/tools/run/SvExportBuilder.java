@@ -40,6 +40,7 @@ import com.microfocus.application.automation.tools.model.SvServiceSelectionModel
 import com.microfocus.application.automation.tools.sv.runner.AbstractSvRemoteRunner;
 import com.microfocus.application.automation.tools.sv.runner.AbstractSvRunBuilder;
 import com.microfocus.application.automation.tools.sv.runner.AbstractSvRunDescriptor;
+import com.microfocus.application.automation.tools.sv.runner.ParallelServiceRunner;
 import com.microfocus.application.automation.tools.sv.runner.ServiceInfo;
 import com.microfocus.sv.svconfigurator.build.ProjectBuilder;
 import com.microfocus.sv.svconfigurator.core.IProject;
@@ -102,34 +103,34 @@ public class SvExportBuilder extends AbstractSvRunBuilder<SvExportModel> {
 
             verifyNotNull(model.getTargetDirectory(), "Target directory must be set");
 
-            ExportProcessor exportProcessor = new ExportProcessor(null);
-            IChmodeProcessor chmodeProcessor = new ChmodeProcessor(null);
-            IProject project = null;
             String targetDirectory = workspace.child(model.getTargetDirectory()).getRemote();
 
-            ICommandExecutor exec = createCommandExecutor();
-
             if (model.isCleanTargetDirectory()) {
                 cleanTargetDirectory(logger, new FilePath(new File(targetDirectory)));
             }
 
-            if (model.getServiceSelection().getSelectionType().equals(SvServiceSelectionModel.SelectionType.PROJECT)) {
-                project = new ProjectBuilder().buildProject(new File(model.getServiceSelection().getProjectPath()), model.getServiceSelection().getProjectPassword());
-            }
+            boolean exportProject = model.getServiceSelection().getSelectionType().equals(SvServiceSelectionModel.SelectionType.PROJECT);
+            IProject project = exportProject
+                    ? new ProjectBuilder().buildProject(new File(model.getServiceSelection().getProjectPath()), model.getServiceSelection().getProjectPassword())
+                    : null;
 
-            for (ServiceInfo serviceInfo : getServiceList(false, logger, workspace)) {
+            List<ParallelServiceRunner.Result<ServiceInfo, Void>> results = new ParallelServiceRunner().run(getServiceList(false, logger, workspace), (serviceInfo, log) -> {
+                ICommandExecutor exec = getCommandExecutor();
                 if (model.isSwitchToStandByFirst()) {
-                    switchToStandBy(serviceInfo, chmodeProcessor, exec, logger);
+                    switchToStandBy(serviceInfo, new ChmodeProcessor(null), exec, log);
                 }
 
-                logger.printf("  Exporting service '%s' [%s] to %s %n", serviceInfo.getName(), serviceInfo.getId(), targetDirectory);
-                verifyNotLearningBeforeExport(logger, exec, serviceInfo);
-                if (!model.getServiceSelection().getSelectionType().equals(SvServiceSelectionModel.SelectionType.PROJECT)) {
-                    exportProcessor.process(exec, targetDirectory, serviceInfo.getId(), project, false, model.isArchive(), false);
+                log.printf("  Exporting service '%s' [%s] to %s %n", serviceInfo.getName(), serviceInfo.getId(), targetDirectory);
+                verifyNotLearningBeforeExport(log, exec, serviceInfo);
+                if (!exportProject) {
+                    new ExportProcessor(null).process(exec, targetDirectory, serviceInfo.getId(), project, false, model.isArchive(), false);
                 }
-            }
-            if (model.getServiceSelection().getSelectionType().equals(SvServiceSelectionModel.SelectionType.PROJECT)) {
-                exportProcessor.process(exec, targetDirectory, null, project, false, model.isArchive(), false);
+                return null;
+            }, logger);
+            ParallelServiceRunner.throwIfFailed("export", results);
+
+            if (exportProject) {
+                new ExportProcessor(null).process(getCommandExecutor(), targetDirectory, null, project, false, model.isArchive(), false);
             }
             return null;
         }
@@ -28,6 +28,8 @@
 
 package com.microfocus.application.automation.tools.run;
 
+import com.microfocus.application.automation.tools.mc.AppUploadIndex;
+import com.microfocus.application.automation.tools.mc.AppUploadScheduler;
 import com.microfocus.application.automation.tools.mc.JobConfigurationProxy;
 import com.microfocus.application.automation.tools.model.*;
 import com.microfocus.application.automation.tools.settings.MCServerSettingsGlobalConfiguration;
@@ -42,13 +44,16 @@ import hudson.model.BuildListener;
 import hudson.model.Result;
 import hudson.tasks.BuildStepDescriptor;
 import hudson.tasks.Builder;
+import jenkins.model.Jenkins;
 import net.minidev.json.JSONObject;
 import org.apache.commons.io.FilenameUtils;
 import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
 
 import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.regex.Matcher;
@@ -63,7 +68,11 @@ import java.util.regex.Pattern;
  */
 public class UploadAppBuilder extends Builder {
 
+    private static final String UPLOADED_APPS_FOLDER = "mc-uploaded-apps";
+    private static final int DEFAULT_UPLOAD_CONCURRENCY = 2;
+
     private final UploadAppModel uploadAppModel;
+    private int uploadConcurrency = DEFAULT_UPLOAD_CONCURRENCY;
 
     @DataBoundConstructor
     public UploadAppBuilder(String mcServerName, AuthModel authModel, ProxySettings proxySettings, List<UploadAppPathModel> applicationPaths) {
@@ -81,7 +90,6 @@ public class UploadAppBuilder extends Builder {
         // get the Digital Lab server settings
         MCServerSettingsModel mcServerSettingsModel = getMCServerSettingsModel();
         JobConfigurationProxy job = JobConfigurationProxy.getInstance();
-        JSONObject app = null;
         String mcServerUrl = "";
         PrintStream out = listener.getLogger();
         List<UploadAppPathModel> paths = null;
@@ -97,6 +105,8 @@ public class UploadAppBuilder extends Builder {
             out.println(String.format("There are %d apps to be uploaded.", paths.size()));
             String workspace = build.getWorkspace() == null ? "" : build.getWorkspace().toURI().getPath();
 
+            List<File> apps = new ArrayList<>();
+            List<File> tempFiles = new ArrayList<>();
             for (int i = 1; i <= paths.size(); i++) {
                 String path = paths.get(i - 1).getMcAppPath();
                 String originPath = path;
@@ -115,9 +125,9 @@ public class UploadAppBuilder extends Builder {
                     }
                 }
                 FilePath filePath = new FilePath(build.getWorkspace().getChannel(), path);
-                File tempFile = null;
                 if (filePath.isRemote()) {
-                    tempFile = File.createTempFile("uftm", "." + FilenameUtils.getExtension(path));
+                    File tempFile = File.createTempFile("uftm", "." + FilenameUtils.getExtension(path));
+                    tempFiles.add(tempFile);
                     try (OutputStream outputStream = new FileOutputStream(tempFile)) {
                         filePath.copyTo(outputStream);
                         path = tempFile.getCanonicalPath();
@@ -133,61 +143,74 @@ public class UploadAppBuilder extends Builder {
                         continue;
                     }
                 }
+                out.println(String.format("starting to upload app %d %s", i, originPath));
+                apps.add(new File(path));
+            }
 
-                try {
-                    out.println(String.format("starting to upload app %d %s", i, originPath));
-                    app = job.upload(mcServerUrl, uploadAppModel.getAuthModel(), uploadAppModel.getProxySettings(), path);
-                    if (app == null) {
-                        if (uploadAppModel.isUseProxy()) {
-                            out.println(String.format("Failed to upload app, Cause Digital Lab connection info is incorrect. url:%s, Proxy url:%s",
-                                    mcServerUrl, uploadAppModel.getProxySettings().getFsProxyAddress()));
-                        } else if (uploadAppModel.isUseAuthentication()) {
-                            out.println(String.format("Failed to upload app, Cause Digital Lab connection info is incorrect. url:%s, Proxy url:%s, proxy userName:%s",
-                                    mcServerUrl, uploadAppModel.getProxySettings().getFsProxyAddress(), uploadAppModel.getProxySettings().getFsProxyUserName()));
-                        } else {
-                            out.println(String.format("Failed to upload app, Cause Digital Lab connection info is incorrect. url:%s.", mcServerUrl));
-                        }
+            try {
+                AppUploadScheduler scheduler = new AppUploadScheduler(
+                        job.openUploadSession(mcServerUrl, uploadAppModel.getAuthModel(), uploadAppModel.getProxySettings(), out),
+                        AppUploadIndex.forServer(new File(Jenkins.get().getRootDir(), UPLOADED_APPS_FOLDER), mcServerUrl, uploadAppModel.getAuthModel()),
+                        getUploadConcurrency(), out);
+                for (AppUploadScheduler.Outcome outcome : scheduler.upload(apps)) {
+                    if (!reportOutcome(outcome, mcServerUrl, listener)) {
                         build.setResult(Result.FAILURE);
-                        return false;
-                    }
-                    if ((Boolean) app.get("error")) {
-                        out.println("Job failed because got error message during the application uploading. " + app.toJSONString());
                         allSuccess = false;
-                        build.setResult(Result.FAILURE);
-                    }
-                    out.println("uploaded app info: " + app.toJSONString());
-                } catch (FileNotFoundException fnf) {
-                    out.println(String.format("Failed to upload app to Digital Lab server. Cause: File: %s is not found.", path));
-                    build.setResult(Result.FAILURE);
-                    allSuccess = false;
-                    continue;
-                } catch (IOException ioe) {
-                    Util.displayIOException(ioe, listener);
-                    build.setResult(Result.FAILURE);
-                    allSuccess = false;
-                    continue;
-                } catch (Exception e) {
-                    if (uploadAppModel.isUseProxy()) {
-                        out.println(String.format("Failed to upload app, Cause Digital Lab connection info is incorrect. url:%s, Proxy url:%s",
-                                mcServerUrl, uploadAppModel.getProxySettings().getFsProxyAddress()));
-                    } else if (uploadAppModel.isUseAuthentication()) {
-                        out.println(String.format("Failed to upload app, Cause Digital Lab connection info is incorrect. url:%s, Proxy url:%s, proxy userName:%s",
-                                mcServerUrl, uploadAppModel.getProxySettings().getFsProxyAddress(), uploadAppModel.getProxySettings().getFsProxyUserName()));
-                    } else {
-                        out.println(String.format("Failed to upload app, Cause Digital Lab connection info is incorrect. url:%s", mcServerUrl));
-                    }
-                    build.setResult(Result.FAILURE);
-                    return false;
-                } finally {
-                    if (tempFile != null) {
-                        Files.delete(tempFile.toPath());
                     }
                 }
+            } finally {
+                for (File tempFile : tempFiles) {
+                    Files.deleteIfExists(tempFile.toPath());
+                }
             }
         }
         return allSuccess;
     }
 
+    private boolean reportOutcome(AppUploadScheduler.Outcome outcome, String mcServerUrl, BuildListener listener) {
+        PrintStream out = listener.getLogger();
+        JSONObject app = outcome.getAppInfo();
+        Throwable error = outcome.getError();
+        if (error instanceof FileNotFoundException) {
+            out.println(String.format("Failed to upload app to Digital Lab server. Cause: File: %s is not found.", outcome.getApp().getPath()));
+            return false;
+        }
+        if (error instanceof IOException) {
+            Util.displayIOException((IOException) error, listener);
+            return false;
+        }
+        if (app == null) {
+            if (uploadAppModel.isUseProxy()) {
+                out.println(String.format("Failed to upload app, Cause Digital Lab connection info is incorrect. url:%s, Proxy url:%s",
+                        mcServerUrl, uploadAppModel.getProxySettings().getFsProxyAddress()));
+            } else if (uploadAppModel.isUseAuthentication()) {
+                out.println(String.format("Failed to upload app, Cause Digital Lab connection info is incorrect. url:%s, Proxy url:%s, proxy userName:%s",
+                        mcServerUrl, uploadAppModel.getProxySettings().getFsProxyAddress(), uploadAppModel.getProxySettings().getFsProxyUserName()));
+            } else {
+                out.println(String.format("Failed to upload app, Cause Digital Lab connection info is incorrect. url:%s", mcServerUrl));
+            }
+            return false;
+        }
+        if (outcome.getStatus() == AppUploadScheduler.Status.FAILED) {
+            out.println("Job failed because got error message during the application uploading. " + app.toJSONString());
+            return false;
+        }
+        out.println("uploaded app info: " + app.toJSONString());
+        return true;
+    }
+
+    /**
+     * @return how many apps are uploaded at the same time
+     */
+    public int getUploadConcurrency() {
+        return uploadConcurrency > 0 ? uploadConcurrency : DEFAULT_UPLOAD_CONCURRENCY;
+    }
+
+    @DataBoundSetter
+    public void setUploadConcurrency(int uploadConcurrency) {
+        this.uploadConcurrency = uploadConcurrency;
+    }
+
     public MCServerSettingsModel getMCServerSettingsModel() {
         for (MCServerSettingsModel mcServer : getDescriptor().getMcServers()) {
             if (this.uploadAppModel != null
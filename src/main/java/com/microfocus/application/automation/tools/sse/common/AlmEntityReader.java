@@ -0,0 +1,382 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.sse.common;
+
+import java.io.StringReader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import com.ctc.wstx.stax.WstxInputFactory;
+
+/**
+ * Reads the {@code <Entities>/<Entity>/<Fields>/<Field>} structure of the ALM REST responses in a single pass,
+ * with the same results as the DOM lookups of {@link XPathUtils}. The documents these lookups would handle in
+ * an unusual way, such as documents with a DTD, namespaces or CDATA values, are reported with an
+ * {@link UnsupportedXmlException} to be read with the DOM instead.
+ */
+final class AlmEntityReader {
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+    private static final String REPORT_CDATA = "http://java.sun.com/xml/stream/properties/report-cdata-event";
+    private static final String ENTITY = "Entity";
+    private static final String FIELDS = "Fields";
+    private static final String FIELD = "Field";
+
+    private AlmEntityReader() {
+
+    }
+
+    static List<Map<String, String>> toEntities(String xml) throws XMLStreamException {
+
+        List<Map<String, String>> ret = new ArrayList<Map<String, String>>();
+        // a field belongs to all the entities it is nested in
+        Deque<Map<String, String>> open = new ArrayDeque<Map<String, String>>();
+        EntityFieldMap.Layout layout = new EntityFieldMap.Layout();
+        int capacity = 0;
+        XMLStreamReader reader = createReader(xml);
+        try {
+            while (reader.hasNext()) {
+                int event = next(reader);
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = reader.getLocalName();
+                    if (ENTITY.equals(name)) {
+                        EntityFieldMap entity = new EntityFieldMap(layout, capacity);
+                        ret.add(entity);
+                        open.push(entity);
+                    } else if (FIELD.equals(name) && !open.isEmpty()) {
+                        String key = getFirstAttributeValue(reader);
+                        String value = readFieldValue(reader);
+                        for (Map<String, String> entity : open) {
+                            entity.put(key, value);
+                        }
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT && ENTITY.equals(reader.getLocalName())) {
+                    capacity = open.pop().size();
+                }
+            }
+        } finally {
+            reader.close();
+        }
+
+        return ret;
+    }
+
+    /**
+     * Reads the {@code Entity/Fields/Field} fields of the document entity.
+     */
+    static Fields readFields(String xml) throws XMLStreamException {
+
+        Fields ret = new Fields();
+        XMLStreamReader reader = createReader(xml);
+        try {
+            int depth = 0;
+            boolean entity = false;
+            boolean fields = false;
+            while (reader.hasNext()) {
+                int event = next(reader);
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    depth++;
+                    String name = reader.getLocalName();
+                    if (depth == 1) {
+                        entity = ENTITY.equals(name);
+                    } else if (depth == 2) {
+                        fields = entity && FIELDS.equals(name);
+                    } else if (depth == 3 && fields && FIELD.equals(name)) {
+                        String fieldName = reader.getAttributeCount() > 0 ? reader.getAttributeValue(null, "Name") : null;
+                        if (StringUtils.isNullOrEmpty(fieldName) && ret._invalid < 0) {
+                            ret._invalid = ret._names.size();
+                        }
+                        ret._names.add(fieldName);
+                        ret._values.add(readFieldValue(reader));
+                        depth--;
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    depth--;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+
+        return ret;
+    }
+
+    /**
+     * Stops at the first sign of results, the rest of the document is not read.
+     */
+    static boolean hasResults(String xml) throws XMLStreamException {
+
+        XMLStreamReader reader = createReader(xml);
+        try {
+            boolean root = true;
+            while (reader.hasNext()) {
+                if (next(reader) != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+                if (root && reader.getAttributeCount() > 0 && getTotalResults(reader) > 0) {
+                    return true;
+                }
+                if (ENTITY.equals(reader.getLocalName())) {
+                    return true;
+                }
+                root = false;
+            }
+        } finally {
+            reader.close();
+        }
+
+        return false;
+    }
+
+    static List<String> getTestSetIds(String xml) throws XMLStreamException {
+
+        List<String> ret = new ArrayList<String>();
+        XMLStreamReader reader = createReader(xml);
+        try {
+            while (reader.hasNext()) {
+                if (next(reader) != XMLStreamConstants.START_ELEMENT || !FIELDS.equals(reader.getLocalName())) {
+                    continue;
+                }
+                // the ids are in the first field of the Fields elements
+                if (next(reader) != XMLStreamConstants.START_ELEMENT || FIELDS.equals(reader.getLocalName())) {
+                    throw new UnsupportedXmlException();
+                }
+                if ("cycle-id".equals(reader.getAttributeValue(null, "Name"))) {
+                    ret.add(readFieldValue(reader));
+                }
+            }
+        } finally {
+            reader.close();
+        }
+
+        return ret;
+    }
+
+    /**
+     * Maps an attribute of the elements of a name to another one, missing attributes are empty.
+     */
+    static Map<String, String> getAttributes(String xml, String element, String keyAttribute, String valueAttribute)
+            throws XMLStreamException {
+
+        Map<String, String> ret = new HashMap<String, String>();
+        XMLStreamReader reader = createReader(xml);
+        try {
+            while (reader.hasNext()) {
+                if (next(reader) == XMLStreamConstants.START_ELEMENT && element.equals(reader.getLocalName())) {
+                    ret.put(getAttributeValue(reader, keyAttribute), getAttributeValue(reader, valueAttribute));
+                }
+            }
+        } finally {
+            reader.close();
+        }
+
+        return ret;
+    }
+
+    /**
+     * The value of a field, like the DOM lookup: the value of the first child node of the first child
+     * element. The reader is moved to the end of the field.
+     */
+    private static String readFieldValue(XMLStreamReader reader) throws XMLStreamException {
+
+        String ret = null;
+        int depth = 1;
+        int event = next(reader);
+        if (event == XMLStreamConstants.START_ELEMENT) {
+            checkNested(reader);
+            depth++;
+            event = next(reader);
+            if (isText(event)) {
+                StringBuilder text = new StringBuilder();
+                do {
+                    text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    event = next(reader);
+                } while (isText(event));
+                ret = text.toString();
+            } else if (event == XMLStreamConstants.COMMENT) {
+                ret = reader.getText();
+                event = next(reader);
+            } else if (event == XMLStreamConstants.PROCESSING_INSTRUCTION) {
+                ret = reader.getPIData();
+                event = next(reader);
+            } else if (event == XMLStreamConstants.CDATA) {
+                throw new UnsupportedXmlException();
+            }
+        }
+        while (true) {
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                checkNested(reader);
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT && --depth == 0) {
+                return ret;
+            }
+            event = next(reader);
+        }
+    }
+
+    /**
+     * The elements the lookups search for are not expected in a field.
+     */
+    private static void checkNested(XMLStreamReader reader) {
+
+        String name = reader.getLocalName();
+        if (ENTITY.equals(name) || FIELDS.equals(name) || FIELD.equals(name)) {
+            throw new UnsupportedXmlException();
+        }
+    }
+
+    private static boolean isText(int event) {
+
+        return event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.SPACE;
+    }
+
+    private static int getTotalResults(XMLStreamReader reader) {
+
+        String totalResults = reader.getAttributeValue(null, "TotalResults");
+        if (totalResults == null) {
+            throw new UnsupportedXmlException();
+        }
+        try {
+            return Integer.parseInt(totalResults);
+        } catch (NumberFormatException e) {
+            throw new UnsupportedXmlException();
+        }
+    }
+
+    /**
+     * The value of the first attribute in name order, as the DOM sorts them.
+     */
+    private static String getFirstAttributeValue(XMLStreamReader reader) {
+
+        int count = reader.getAttributeCount();
+        if (count == 0) {
+            throw new UnsupportedXmlException();
+        }
+        int first = 0;
+        for (int i = 1; i < count; i++) {
+            if (reader.getAttributeLocalName(i).compareTo(reader.getAttributeLocalName(first)) < 0) {
+                first = i;
+            }
+        }
+
+        return reader.getAttributeValue(first);
+    }
+
+    private static String getAttributeValue(XMLStreamReader reader, String name) {
+
+        String ret = reader.getAttributeValue(null, name);
+        return ret != null ? ret : StringUtils.EMPTY_STRING;
+    }
+
+    private static int next(XMLStreamReader reader) throws XMLStreamException {
+
+        int event = reader.next();
+        if (event == XMLStreamConstants.DTD || event == XMLStreamConstants.ENTITY_REFERENCE) {
+            throw new UnsupportedXmlException();
+        }
+        if (event == XMLStreamConstants.START_ELEMENT) {
+            if (reader.getNamespaceCount() > 0 || !StringUtils.isNullOrEmpty(reader.getPrefix())) {
+                throw new UnsupportedXmlException();
+            }
+            for (int i = 0; i < reader.getAttributeCount(); i++) {
+                if (!StringUtils.isNullOrEmpty(reader.getAttributePrefix(i))) {
+                    throw new UnsupportedXmlException();
+                }
+            }
+        }
+
+        return event;
+    }
+
+    private static XMLStreamReader createReader(String xml) throws XMLStreamException {
+
+        return XML_INPUT_FACTORY.createXMLStreamReader(new StringReader(xml));
+    }
+
+    private static XMLInputFactory createXmlInputFactory() {
+
+        XMLInputFactory ret = new WstxInputFactory();
+        ret.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        ret.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        ret.setProperty(XMLInputFactory.IS_COALESCING, false);
+        // CDATA values are read with the DOM, which keeps them apart from the text around them
+        if (ret.isPropertySupported(REPORT_CDATA)) {
+            ret.setProperty(REPORT_CDATA, true);
+        }
+
+        return ret;
+    }
+
+    /**
+     * The fields of a single entity document, to look up several of them with one read.
+     */
+    static final class Fields {
+
+        private final List<String> _names = new ArrayList<String>();
+        private final List<String> _values = new ArrayList<String>();
+        // the first field without a name, on which the DOM lookup fails
+        private int _invalid = -1;
+
+        private Fields() {
+        }
+
+        String get(String name) {
+
+            for (int i = 0; i < _names.size(); i++) {
+                if (i == _invalid) {
+                    throw new UnsupportedXmlException();
+                }
+                if (_names.get(i).equals(name)) {
+                    return _values.get(i);
+                }
+            }
+
+            return StringUtils.EMPTY_STRING;
+        }
+    }
+
+    static final class UnsupportedXmlException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        UnsupportedXmlException() {
+
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.sse.common;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * The fields of an ALM entity. The entities of a response have the same fields in the same order, so the
+ * field names and their index are kept once in a {@link Layout} shared by all of them, and each entity only
+ * holds its values.
+ */
+final class EntityFieldMap extends AbstractMap<String, String> {
+
+    private Layout _layout;
+    private String[] _values;
+    // the map stops sharing its layout once a field is removed
+    private Map<String, String> _detached;
+
+    EntityFieldMap(Layout layout, int capacity) {
+
+        _layout = layout;
+        _values = new String[Math.max(layout.size(), capacity)];
+    }
+
+    @Override
+    public int size() {
+
+        return _detached != null ? _detached.size() : _layout.size();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+
+        return _detached != null ? _detached.containsKey(key) : _layout.indexOf(key) >= 0;
+    }
+
+    @Override
+    public String get(Object key) {
+
+        if (_detached != null) {
+            return _detached.get(key);
+        }
+        int index = _layout.indexOf(key);
+        return index >= 0 ? _values[index] : null;
+    }
+
+    @Override
+    public String put(String key, String value) {
+
+        if (_detached != null) {
+            return _detached.put(key, value);
+        }
+        int index = _layout.indexOf(key);
+        if (index >= 0) {
+            String ret = _values[index];
+            _values[index] = value;
+            return ret;
+        }
+        _layout = _layout.with(key);
+        if (_values.length < _layout.size()) {
+            _values = Arrays.copyOf(_values, Math.max(4, _values.length * 2));
+        }
+        _values[_layout.size() - 1] = value;
+        return null;
+    }
+
+    @Override
+    public String remove(Object key) {
+
+        if (_detached == null) {
+            if (!containsKey(key)) {
+                return null;
+            }
+            _detached = new LinkedHashMap<String, String>(this);
+            _layout = null;
+            _values = null;
+        }
+        return _detached.remove(key);
+    }
+
+    @Override
+    public void clear() {
+
+        if (_detached != null) {
+            _detached.clear();
+        } else {
+            _layout = _layout.root();
+            _values = new String[0];
+        }
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+
+        if (_detached != null) {
+            return _detached.entrySet();
+        }
+        return new AbstractSet<Entry<String, String>>() {
+
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+
+                return new Iterator<Entry<String, String>>() {
+
+                    private final Layout _iterated = _layout;
+                    private int _next;
+                    private int _last = -1;
+
+                    @Override
+                    public boolean hasNext() {
+
+                        return _detached == null && _layout == _iterated && _next < _iterated.size();
+                    }
+
+                    @Override
+                    public Entry<String, String> next() {
+
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        _last = _next++;
+                        final int index = _last;
+                        return new SimpleEntry<String, String>(_iterated.name(index), _values[index]) {
+
+                            @Override
+                            public String setValue(String value) {
+
+                                super.setValue(value);
+                                String ret = _values[index];
+                                _values[index] = value;
+                                return ret;
+                            }
+                        };
+                    }
+
+                    @Override
+                    public void remove() {
+
+                        if (_last < 0) {
+                            throw new IllegalStateException();
+                        }
+                        EntityFieldMap.this.remove(_iterated.name(_last));
+                        _last = -1;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+
+                return EntityFieldMap.this.size();
+            }
+        };
+    }
+
+    /**
+     * The field names of the entities, in order. Adding a field moves an entity to the next layout,
+     * which is created once for all the entities that have the same fields.
+     */
+    static final class Layout {
+
+        private final Layout _root;
+        private final List<String> _names;
+        private final Map<String, Integer> _index;
+        private final Map<String, Layout> _next = new HashMap<String, Layout>();
+
+        Layout() {
+
+            _root = this;
+            _names = new ArrayList<String>();
+            _index = new HashMap<String, Integer>();
+        }
+
+        private Layout(Layout parent, String name) {
+
+            _root = parent._root;
+            _names = new ArrayList<String>(parent._names);
+            _names.add(name);
+            _index = new HashMap<String, Integer>(parent._index);
+            _index.put(name, _names.size() - 1);
+        }
+
+        int size() {
+
+            return _names.size();
+        }
+
+        String name(int index) {
+
+            return _names.get(index);
+        }
+
+        int indexOf(Object name) {
+
+            Integer ret = _index.get(name);
+            return ret != null ? ret : -1;
+        }
+
+        Layout root() {
+
+            return _root;
+        }
+
+        synchronized Layout with(String name) {
+
+            Layout ret = _next.get(name);
+            if (ret == null) {
+                ret = new Layout(this, name);
+                _next.put(name, ret);
+            }
+            return ret;
+        }
+    }
+}
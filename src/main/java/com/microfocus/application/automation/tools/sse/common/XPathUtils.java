@@ -33,6 +33,8 @@ import java.util.*;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpression;
 import javax.xml.xpath.XPathFactory;
@@ -54,7 +56,27 @@ import org.xml.sax.InputSource;
 
 public class XPathUtils {
 
+    private static final ThreadLocal<XPath> XPATH = new ThreadLocal<XPath>() {
+        @Override
+        protected XPath initialValue() {
+            return XPathFactory.newInstance().newXPath();
+        }
+    };
+
+    /*
+     * The lookups read the document in one pass with AlmEntityReader, and build the DOM only for the documents
+     * it does not read the same way.
+     */
+
     public static Map<String, String> getEntityFieldsMap(String xml) {
+        try {
+            return AlmEntityReader.getAttributes(xml, "Field", "Label", "Name");
+        } catch (XMLStreamException | RuntimeException e) {
+            return getEntityFieldsMapFromDocument(xml);
+        }
+    }
+
+    static Map<String, String> getEntityFieldsMapFromDocument(String xml) {
         Document document = getDocument(xml);
         NodeList entities = document.getElementsByTagName("Field");
         Map<String, String> entityFieldsMap = new HashMap<String, String>();
@@ -66,6 +88,14 @@ public class XPathUtils {
     }
 
     public static Map<String, String> getEntitySubtypesMap(String xml) {
+        try {
+            return AlmEntityReader.getAttributes(xml, "type", "name", "id");
+        } catch (XMLStreamException | RuntimeException e) {
+            return getEntitySubtypesMapFromDocument(xml);
+        }
+    }
+
+    static Map<String, String> getEntitySubtypesMapFromDocument(String xml) {
         Document document = getDocument(xml);
         NodeList entities = document.getElementsByTagName("type");
         Map<String, String> customizationMap = new HashMap<String, String>();
@@ -77,6 +107,15 @@ public class XPathUtils {
     }
     
     public static List<Map<String, String>> toEntities(String xml) {
+
+        try {
+            return AlmEntityReader.toEntities(xml);
+        } catch (XMLStreamException | RuntimeException e) {
+            return toEntitiesFromDocument(xml);
+        }
+    }
+
+    static List<Map<String, String>> toEntitiesFromDocument(String xml) {
         
         Document document = getDocument(xml);
         
@@ -96,6 +135,56 @@ public class XPathUtils {
     }
     
     public static String getAttributeValue(String xml, String attrName) {
+
+        return getEntityFields(xml).get(attrName);
+    }
+
+    /**
+     * Reads the fields of an entity document once, for callers looking up several of its fields.
+     */
+    public static EntityFields getEntityFields(String xml) {
+
+        AlmEntityReader.Fields fields = null;
+        if (xml != null) {
+            try {
+                fields = AlmEntityReader.readFields(xml);
+            } catch (XMLStreamException | RuntimeException e) {
+                // the DOM lookup reads it
+            }
+        }
+
+        return new EntityFields(xml, fields);
+    }
+
+    /**
+     * The fields of one entity document, as returned by {@link #getEntityFields(String)}.
+     */
+    public static final class EntityFields {
+
+        private final String _xml;
+        private final AlmEntityReader.Fields _fields;
+
+        private EntityFields(String xml, AlmEntityReader.Fields fields) {
+
+            _xml = xml;
+            _fields = fields;
+        }
+
+        public String get(String attrName) {
+
+            if (_fields != null) {
+                try {
+                    return _fields.get(attrName);
+                } catch (AlmEntityReader.UnsupportedXmlException e) {
+                    // the DOM lookup reports the invalid field
+                }
+            }
+
+            return getAttributeValueFromDocument(_xml, attrName);
+        }
+    }
+
+    static String getAttributeValueFromDocument(String xml, String attrName) {
         
         NodeList nodes = getChildNodes(xml, "Entity/Fields/Field");
         String ret = StringUtils.EMPTY_STRING;
@@ -135,8 +224,7 @@ public class XPathUtils {
         NodeList ret = null;
         try {
             Document document = getDocument(xml);
-            XPathFactory factory = XPathFactory.newInstance();
-            XPathExpression expression = factory.newXPath().compile(xpath);
+            XPathExpression expression = XPATH.get().compile(xpath);
             ret = (NodeList) expression.evaluate(document, XPathConstants.NODESET);
         } catch (Throwable cause) {
             throw new SSEException(cause);
@@ -182,6 +270,14 @@ public class XPathUtils {
     }
 
     public static boolean hasResults(String xml) {
+        try {
+            return AlmEntityReader.hasResults(xml);
+        } catch (XMLStreamException | RuntimeException e) {
+            return hasResultsFromDocument(xml);
+        }
+    }
+
+    static boolean hasResultsFromDocument(String xml) {
         boolean ok = false;
 
         try {
@@ -207,6 +303,14 @@ public class XPathUtils {
     }
 
     public static List<String> getTestSetIds(String xml) {
+        try {
+            return AlmEntityReader.getTestSetIds(xml);
+        } catch (XMLStreamException | RuntimeException e) {
+            return getTestSetIdsFromDocument(xml);
+        }
+    }
+
+    static List<String> getTestSetIdsFromDocument(String xml) {
         Document doc = getDocument(xml);
         NodeList entities = doc.getElementsByTagName("Fields");
 
@@ -54,9 +54,10 @@ public class PCPublisher extends Publisher {
         try {
             Response response = getEntityName(nameSuffix);
             if (response.isOk() && !response.toString().equals("")) {
-                String runId = XPathUtils.getAttributeValue(response.toString(), "id");
-                String testId = XPathUtils.getAttributeValue(response.toString(), "testcycl-id");
-                String testSetId = XPathUtils.getAttributeValue(response.toString(), "cycle-id");
+                XPathUtils.EntityFields fields = XPathUtils.getEntityFields(response.toString());
+                String runId = fields.get("id");
+                String testId = fields.get("testcycl-id");
+                String testSetId = fields.get("cycle-id");
                 ret =
                         String.format(
                                 "PC Test ID: %s, Run ID: %s, Test Set ID: %s",
@@ -0,0 +1,374 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.sse.sdk;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Polls the runs of all the ALM executions from a single timer wheel, instead of a sleeping thread per run.
+ * A run is polled often while it starts and makes progress, less and less often while it stays idle, and
+ * the polls sent to a server are limited to a rate, shared in turn between the runs of that server.
+ */
+public class PollScheduler {
+
+    private static final long TICK = 100; // millisecond
+    private static final int WHEEL_SIZE = 512;
+    private static final int POLL_THREADS = Integer.getInteger("alm.poll.threads", 16);
+    private static final int SERVER_RATE = Integer.getInteger("alm.poll.serverRate", 20); // polls per second
+
+    private static final PollScheduler INSTANCE = new PollScheduler(
+            System::currentTimeMillis, createExecutor(), new Random(), SERVER_RATE, true);
+
+    private final Clock _clock;
+    private final Executor _executor;
+    private final Random _random;
+    private final int _serverRate;
+    private final boolean _timerEnabled;
+    private final long _start;
+    private final List<List<Entry>> _wheel = new ArrayList<>(WHEEL_SIZE);
+    private final Map<String, Server> _servers = new LinkedHashMap<>();
+    private long _tick;
+    private int _active;
+    private Thread _timer;
+
+    PollScheduler(Clock clock, Executor executor, Random random, int serverRate, boolean timerEnabled) {
+
+        _clock = clock;
+        _executor = executor;
+        _random = random;
+        _serverRate = Math.max(1, serverRate);
+        _timerEnabled = timerEnabled;
+        _start = clock.millis();
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            _wheel.add(new ArrayList<>());
+        }
+    }
+
+    public static PollScheduler getInstance() {
+
+        return INSTANCE;
+    }
+
+    /**
+     * Polls a run until it is finished or its failure budget is spent. The run is polled a first time
+     * as soon as the server rate allows it.
+     *
+     * @return a future completed with true when the run finished, false when it could not be polled
+     *         anymore, and which stops the polling when it is cancelled
+     */
+    public CompletableFuture<Boolean> schedule(String server, Task task, Policy policy) {
+
+        Entry entry = new Entry(server, task, policy);
+        synchronized (this) {
+            _active++;
+            ready(entry);
+            startTimer();
+        }
+        entry._future.whenComplete((result, failure) -> {
+            synchronized (this) {
+                _active--;
+            }
+        });
+        dispatch();
+
+        return entry._future;
+    }
+
+    /**
+     * Moves the wheel up to the current time and sends the polls the server rates allow.
+     */
+    void advance() {
+
+        synchronized (this) {
+            long target = (_clock.millis() - _start) / TICK;
+            for (; _tick <= target; _tick++) {
+                Iterator<Entry> bucket = _wheel.get((int) (_tick % WHEEL_SIZE)).iterator();
+                while (bucket.hasNext()) {
+                    Entry entry = bucket.next();
+                    if (entry._future.isDone()) {
+                        bucket.remove();
+                    } else if (entry._deadline <= _tick) {
+                        bucket.remove();
+                        ready(entry);
+                    }
+                }
+            }
+        }
+        dispatch();
+    }
+
+    synchronized int getActiveCount() {
+
+        return _active;
+    }
+
+    private void dispatch() {
+
+        List<Entry> polls = new ArrayList<>();
+        synchronized (this) {
+            long now = _clock.millis();
+            for (Server server : _servers.values()) {
+                server.refill(now, _serverRate);
+                while (server._tokens >= 1 && !server._ready.isEmpty()) {
+                    Entry entry = server._ready.poll();
+                    if (!entry._future.isDone()) {
+                        server._tokens--;
+                        polls.add(entry);
+                    }
+                }
+            }
+        }
+        for (Entry entry : polls) {
+            _executor.execute(() -> poll(entry));
+        }
+    }
+
+    private void poll(Entry entry) {
+
+        Status status;
+        try {
+            status = entry._task.poll();
+        } catch (RuntimeException | Error e) {
+            entry._future.completeExceptionally(e);
+            return;
+        }
+        if (status == Status.FINISHED) {
+            entry._future.complete(true);
+            return;
+        }
+        if (status == Status.FAILURE && ++entry._failures >= entry._policy._failureBudget) {
+            entry._future.complete(false);
+            return;
+        }
+        entry._interval = entry._policy.next(entry._interval, status);
+        long due = _clock.millis() + entry._policy.jitter(entry._interval, _random);
+        synchronized (this) {
+            long deadline = (due - _start + TICK - 1) / TICK;
+            if (deadline < _tick) {
+                ready(entry);
+            } else {
+                entry._deadline = deadline;
+                _wheel.get((int) (deadline % WHEEL_SIZE)).add(entry);
+            }
+        }
+    }
+
+    private void ready(Entry entry) {
+
+        Server server = _servers.get(entry._server);
+        if (server == null) {
+            server = new Server(_clock.millis(), _serverRate);
+            _servers.put(entry._server, server);
+        }
+        server._ready.add(entry);
+    }
+
+    private void startTimer() {
+
+        if (!_timerEnabled || _timer != null) {
+            return;
+        }
+        _timer = new Thread(() -> {
+            try {
+                while (true) {
+                    Thread.sleep(TICK);
+                    advance();
+                    synchronized (this) {
+                        if (_active == 0) {
+                            _timer = null;
+                            return;
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                synchronized (this) {
+                    _timer = null;
+                }
+                Thread.currentThread().interrupt();
+            }
+        }, "ALM poll scheduler");
+        _timer.setDaemon(true);
+        _timer.start();
+    }
+
+    private static Executor createExecutor() {
+
+        AtomicInteger threads = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                POLL_THREADS, POLL_THREADS, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "ALM poll " + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+
+        return executor;
+    }
+
+    /**
+     * The outcome of a poll.
+     */
+    public enum Status {
+        /** The run is over, the polling stops. */
+        FINISHED,
+        /** The run state changed since the previous poll. */
+        PROGRESS,
+        /** The run state is the same as at the previous poll. */
+        IDLE,
+        /** The server could not be polled, this counts against the failure budget. */
+        FAILURE
+    }
+
+    public interface Task {
+
+        Status poll();
+    }
+
+    public interface Clock {
+
+        long millis();
+    }
+
+    /**
+     * The intervals between the polls of a run and its failure budget.
+     */
+    public static class Policy {
+
+        private final long _initialInterval;
+        private final long _maxInterval;
+        private final double _backoff;
+        private final double _jitter;
+        private final int _failureBudget;
+
+        /**
+         * @param initialInterval the interval after the first poll and after a progress, in milliseconds
+         * @param maxInterval the interval the backoff stops at, in milliseconds
+         * @param backoff the factor the interval grows by after an idle or failed poll
+         * @param jitter the fraction of the interval the polls are randomly moved by
+         * @param failureBudget the number of failed polls after which the polling gives up
+         */
+        public Policy(long initialInterval, long maxInterval, double backoff, double jitter, int failureBudget) {
+
+            _initialInterval = initialInterval;
+            _maxInterval = Math.max(initialInterval, maxInterval);
+            _backoff = Math.max(1, backoff);
+            _jitter = Math.max(0, Math.min(1, jitter));
+            _failureBudget = Math.max(1, failureBudget);
+        }
+
+        public static Policy defaults() {
+
+            return new Policy(
+                    Long.getLong("alm.poll.initialInterval", 1000),
+                    Long.getLong("alm.poll.maxInterval", 15000),
+                    2,
+                    0.1,
+                    Integer.getInteger("alm.poll.failureBudget", 3));
+        }
+
+        /**
+         * Polls at a fixed interval, with no backoff nor jitter.
+         */
+        public static Policy fixed(long interval, int failureBudget) {
+
+            return new Policy(interval, interval, 1, 0, failureBudget);
+        }
+
+        public int getFailureBudget() {
+
+            return _failureBudget;
+        }
+
+        long next(long interval, Status status) {
+
+            if (interval < 0 || status == Status.PROGRESS) {
+                return _initialInterval;
+            }
+            return Math.min(_maxInterval, Math.max(_initialInterval, (long) (interval * _backoff)));
+        }
+
+        long jitter(long interval, Random random) {
+
+            return interval + (long) (interval * _jitter * (2 * random.nextDouble() - 1));
+        }
+    }
+
+    private static class Entry {
+
+        private final String _server;
+        private final Task _task;
+        private final Policy _policy;
+        private final CompletableFuture<Boolean> _future = new CompletableFuture<>();
+        private long _interval = -1;
+        private long _deadline;
+        private int _failures;
+
+        private Entry(String server, Task task, Policy policy) {
+
+            _server = server;
+            _task = task;
+            _policy = policy;
+        }
+    }
+
+    /**
+     * The runs of a server waiting for their poll, in turn, and the tokens of its rate.
+     */
+    private static class Server {
+
+        private final Queue<Entry> _ready = new ArrayDeque<>();
+        private double _tokens;
+        private long _refilled;
+
+        private Server(long now, int rate) {
+
+            _tokens = rate;
+            _refilled = now;
+        }
+
+        private void refill(long now, int rate) {
+
+            _tokens = Math.min(rate, _tokens + (now - _refilled) * rate / 1000.0);
+            _refilled = now;
+        }
+    }
+}
@@ -43,6 +43,8 @@ import com.microfocus.application.automation.tools.sse.sdk.handler.RunHandlerFac
 import com.microfocus.application.automation.tools.sse.sdk.request.*;
 
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
 
 /**
  * @author Effi Bar-She'an
@@ -58,6 +60,7 @@ public class RunManager {
     private Logger _logger;
     private boolean _running = false;
     private boolean _polling = false;
+    private volatile Future<Boolean> _poll;
 
     /**
      * Execute
@@ -186,7 +189,15 @@ public class RunManager {
      * Poll
      */
     private boolean poll() throws InterruptedException {
-        return _pollHandler.poll(_logger);
+        _poll = _pollHandler.pollAsync(_logger);
+        try {
+            return PollHandler.await(_poll, _logger);
+        } catch (CancellationException e) {
+            _logger.log("Polling stopped");
+            return false;
+        } finally {
+            _poll = null;
+        }
     }
 
     /**
@@ -200,6 +211,10 @@ public class RunManager {
         }
         if (_pollHandler != null) {
             _polling = false;
+            Future<Boolean> poll = _poll;
+            if (poll != null) {
+                poll.cancel(false);
+            }
         }
     }
 
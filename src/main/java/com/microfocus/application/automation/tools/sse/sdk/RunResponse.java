@@ -44,9 +44,9 @@ public class RunResponse {
     
     public void initialize(Response response) {
         
-        String xml = response.toString();
-        _successStatus = XPathUtils.getAttributeValue(xml, "SuccessStaus");
-        _runId = parseRunId(XPathUtils.getAttributeValue(xml, "info"));
+        XPathUtils.EntityFields fields = XPathUtils.getEntityFields(response.toString());
+        _successStatus = fields.get("SuccessStaus");
+        _runId = parseRunId(fields.get("info"));
     }
     
     protected String parseRunId(String runIdResponse) {
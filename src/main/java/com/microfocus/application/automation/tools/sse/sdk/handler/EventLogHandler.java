@@ -28,20 +28,35 @@
 
 package com.microfocus.application.automation.tools.sse.sdk.handler;
 
-import java.util.List;
+import java.io.ByteArrayInputStream;
+import java.net.HttpURLConnection;
+import java.util.HashMap;
 import java.util.Map;
 
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import com.ctc.wstx.stax.WstxInputFactory;
 import com.microfocus.application.automation.tools.sse.common.StringUtils;
-import com.microfocus.application.automation.tools.sse.common.XPathUtils;
 import com.microfocus.application.automation.tools.sse.sdk.Client;
 import com.microfocus.application.automation.tools.sse.sdk.Logger;
 import com.microfocus.application.automation.tools.sse.sdk.Response;
 import com.microfocus.application.automation.tools.sse.sdk.request.EventLogRequest;
 
+/**
+ * Prints the new events of a timeslot. Only the events after the last printed one are requested, page by
+ * page, unless the server does not support the filter, in which case the whole log is read on every call.
+ */
 public class EventLogHandler extends Handler {
     
+    private static final int PAGE_SIZE = 1000;
+    private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+    
     private String _timeslotId = StringUtils.EMPTY_STRING;
     private int _lastRead = -1;
+    private boolean _filtering = true;
     
     public EventLogHandler(Client client, String timeslotId) {
         
@@ -54,17 +69,11 @@ public class EventLogHandler extends Handler {
         boolean ret = false;
         Response eventLog = null;
         try {
-            eventLog = getEventLog();
-            String xml = eventLog.toString();
-            List<Map<String, String>> entities = XPathUtils.toEntities(xml);
-            for (Map<String, String> currEntity : entities) {
-                if (isNew(currEntity)) {
-                    logger.log(String.format(
-                            "%s:%s",
-                            currEntity.get("creation-time"),
-                            currEntity.get("description")));
-                }
-            }
+            int read;
+            do {
+                eventLog = getEventLog();
+                read = logEvents(eventLog, logger);
+            } while (_filtering && read == PAGE_SIZE);
             ret = true;
         } catch (Throwable cause) {
             logger.log(String.format(
@@ -78,6 +87,71 @@ public class EventLogHandler extends Handler {
         return ret;
     }
     
+    /**
+     * Prints the new events of a page as they are parsed.
+     *
+     * @return the number of events of the page
+     */
+    private int logEvents(Response eventLog, Logger logger) throws XMLStreamException {
+        
+        int ret = 0;
+        int lastRead = _lastRead;
+        XMLStreamReader reader =
+                XML_INPUT_FACTORY.createXMLStreamReader(new ByteArrayInputStream(eventLog.getData()));
+        try {
+            Map<String, String> currEntity = null;
+            String field = null;
+            StringBuilder value = null;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = reader.getLocalName();
+                    if ("Entity".equals(name)) {
+                        currEntity = new HashMap<String, String>();
+                    } else if ("Field".equals(name) && currEntity != null) {
+                        field = reader.getAttributeValue(null, "Name");
+                        currEntity.put(field, null);
+                    } else if ("Value".equals(name) && field != null && currEntity.get(field) == null) {
+                        value = new StringBuilder();
+                    }
+                } else if (value != null
+                        && (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA)) {
+                    value.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    String name = reader.getLocalName();
+                    if ("Value".equals(name) && value != null) {
+                        currEntity.put(field, value.length() > 0 ? value.toString() : null);
+                        value = null;
+                    } else if ("Field".equals(name)) {
+                        field = null;
+                    } else if ("Entity".equals(name) && currEntity != null) {
+                        ret++;
+                        logEvent(currEntity, lastRead, logger);
+                        currEntity = null;
+                    }
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        
+        return ret;
+    }
+    
+    private void logEvent(Map<String, String> currEntity, int lastRead, Logger logger) {
+        
+        if (_filtering && Integer.parseInt(currEntity.get("id")) <= lastRead) {
+            // the server ignores the filter, the events are filtered here from now on
+            _filtering = false;
+        }
+        if (isNew(currEntity)) {
+            logger.log(String.format(
+                    "%s:%s",
+                    currEntity.get("creation-time"),
+                    currEntity.get("description")));
+        }
+    }
+    
     private boolean isNew(Map<String, String> currEntity) {
         
         boolean ret = false;
@@ -92,7 +166,23 @@ public class EventLogHandler extends Handler {
     
     private Response getEventLog() {
         
+        if (_filtering) {
+            Response ret = new EventLogRequest(_client, _timeslotId, _lastRead, PAGE_SIZE).execute();
+            if (ret.getStatusCode() != HttpURLConnection.HTTP_BAD_REQUEST) {
+                return ret;
+            }
+            _filtering = false;
+        }
+        
         return new EventLogRequest(_client, _timeslotId).execute();
     }
     
+    private static XMLInputFactory createXmlInputFactory() {
+        
+        XMLInputFactory ret = new WstxInputFactory();
+        ret.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        ret.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        
+        return ret;
+    }
 }
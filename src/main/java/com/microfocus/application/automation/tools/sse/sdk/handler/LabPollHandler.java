@@ -57,16 +57,14 @@ public class LabPollHandler extends PollHandler {
     }
     
     @Override
-    protected boolean doPoll(Logger logger) throws InterruptedException {
+    protected boolean prepare(Logger logger) {
         boolean ret = false;
         
         Response runEntityResponse = getRunEntityData();
         if (isOk(runEntityResponse, logger)) {
             setTimeslotId(runEntityResponse, logger);
             _eventLogHandler = new EventLogHandler(_client, _timeslotId);
-            if (!StringUtils.isNullOrEmpty(_timeslotId)) {
-                ret = super.doPoll(logger);
-            }
+            ret = !StringUtils.isNullOrEmpty(_timeslotId);
         }
         return ret;
     }
@@ -88,11 +86,11 @@ public class LabPollHandler extends PollHandler {
         
         boolean ret = false;
         try {
-            String xml = response.toString();
-            String endTime = XPathUtils.getAttributeValue(xml, "end-time");
+            XPathUtils.EntityFields fields = XPathUtils.getEntityFields(response.toString());
+            String endTime = fields.get("end-time");
             if (!StringUtils.isNullOrEmpty(endTime)) {
-                String startTime = XPathUtils.getAttributeValue(xml, "start-time");
-                String currentRunState = XPathUtils.getAttributeValue(xml, "state");
+                String startTime = fields.get("start-time");
+                String currentRunState = fields.get("state");
                 logger.log(String.format(
                         "Timeslot %s is %s.\nRun start time: %s, Run end time: %s",
                         _timeslotId,
@@ -114,10 +112,9 @@ public class LabPollHandler extends PollHandler {
         
         boolean ret = false;
         try {
-            String xml = response.toString();
-            String state = XPathUtils.getAttributeValue(xml, "state");
-            String completedSuccessfully =
-                    XPathUtils.getAttributeValue(xml, "completed-successfully");
+            XPathUtils.EntityFields fields = XPathUtils.getEntityFields(response.toString());
+            String state = fields.get("state");
+            String completedSuccessfully = fields.get("completed-successfully");
             logger.log(String.format(
                     "Run state of %s: %s, Completed successfully: %s",
                     _runId,
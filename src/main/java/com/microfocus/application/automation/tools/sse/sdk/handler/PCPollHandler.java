@@ -69,9 +69,9 @@ public class PCPollHandler extends PollHandler {
         
         boolean ret = false;
         try {
-            String xml = response.toString();
-            String pcEndTime = XPathUtils.getAttributeValue(xml, "pc-end-time");
-            String status = XPathUtils.getAttributeValue(xml, "status");
+            XPathUtils.EntityFields fields = XPathUtils.getEntityFields(response.toString());
+            String pcEndTime = fields.get("pc-end-time");
+            String status = fields.get("status");
             if (!StringUtils.isNullOrEmpty(pcEndTime)) {
                 logger.log(String.format("PC test end time: %s", pcEndTime));
                 ret = true;
@@ -93,9 +93,9 @@ public class PCPollHandler extends PollHandler {
         
         boolean ret = false;
         try {
-            String xml = response.toString();
-            String status = XPathUtils.getAttributeValue(xml, "status");
-            String state = XPathUtils.getAttributeValue(xml, "state");
+            XPathUtils.EntityFields fields = XPathUtils.getEntityFields(response.toString());
+            String status = fields.get("status");
+            String state = fields.get("state");
             logger.log(String.format("Run status of %s: %s, State: %s", _runId, status, state));
             ret = true;
             
@@ -28,13 +28,24 @@
 
 package com.microfocus.application.automation.tools.sse.sdk.handler;
 
+import com.microfocus.application.automation.tools.common.SSEException;
 import com.microfocus.application.automation.tools.sse.sdk.Client;
 import com.microfocus.application.automation.tools.sse.sdk.Logger;
+import com.microfocus.application.automation.tools.sse.sdk.PollScheduler;
 import com.microfocus.application.automation.tools.sse.sdk.Response;
 
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
 public abstract class PollHandler extends Handler {
     
-    private int _interval = 5000; // millisecond
+    private static final int FAILURE_BUDGET = 3;
+    
+    private PollScheduler.Policy _policy = PollScheduler.Policy.defaults();
+    private PollScheduler _scheduler = PollScheduler.getInstance();
+    private byte[] _lastData;
     
     public PollHandler(Client client, String entityId) {
         
@@ -44,13 +55,23 @@ public abstract class PollHandler extends Handler {
     public PollHandler(Client client, String entityId, int interval) {
         
         super(client, entityId);
-        _interval = interval;
+        _policy = PollScheduler.Policy.fixed(interval, FAILURE_BUDGET);
     }
     
     public PollHandler(Client client, String entityId, String runId) {
         
         super(client, entityId, runId);
     }
+    
+    public void setPolicy(PollScheduler.Policy policy) {
+        
+        _policy = policy;
+    }
+    
+    public void setScheduler(PollScheduler scheduler) {
+        
+        _scheduler = scheduler;
+    }
 
     public boolean poll(Logger logger) throws InterruptedException {
 
@@ -59,28 +80,83 @@ public abstract class PollHandler extends Handler {
         return doPoll(logger);
     }
     
-    protected boolean doPoll(Logger logger) throws InterruptedException {
-        boolean ret = false;
-        int failures = 0;
-
-        while (failures < 3) {
-            Response response = getResponse();
-            if (isOk(response, logger)) {
-                log(logger);
-                if (isFinished(response, logger)) {
-                    ret = true;
-                    logRunEntityResults(getRunEntityResultsResponse(), logger);
-                    break;
-                }
-            } else {
-                ++failures;
-            }
-            if (sleep(logger)) { // interrupted
-                break;
+    /**
+     * Polls the run on the shared scheduler, without holding the calling thread.
+     *
+     * @return a future completed with true when the run finished, cancelling it stops the polling
+     */
+    public CompletableFuture<Boolean> pollAsync(Logger logger) {
+        
+        logger.log(String.format("Polling... Run ID: %s", _runId));
+        
+        return schedule(logger);
+    }
+    
+    /**
+     * Waits for a poll started by {@link #pollAsync(Logger)}, and cancels it when interrupted.
+     */
+    public static boolean await(Future<Boolean> poll, Logger logger) throws InterruptedException {
+        
+        try {
+            return poll.get();
+        } catch (InterruptedException ex) {
+            poll.cancel(false);
+            logger.log("Interrupted while polling");
+            throw ex;
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
             }
+            throw new SSEException(cause);
         }
+    }
+    
+    protected boolean doPoll(Logger logger) throws InterruptedException {
         
-        return ret;
+        return await(schedule(logger), logger);
+    }
+    
+    /**
+     * Called once before the polling starts.
+     *
+     * @return false when the run cannot be polled
+     */
+    protected boolean prepare(Logger logger) {
+        
+        return true;
+    }
+    
+    /**
+     * Polls the run once.
+     */
+    protected PollScheduler.Status pollOnce(Logger logger) {
+        
+        Response response = getResponse();
+        if (!isOk(response, logger)) {
+            return PollScheduler.Status.FAILURE;
+        }
+        log(logger);
+        if (isFinished(response, logger)) {
+            logRunEntityResults(getRunEntityResultsResponse(), logger);
+            return PollScheduler.Status.FINISHED;
+        }
+        byte[] data = response.getData();
+        boolean progress = !Arrays.equals(data, _lastData);
+        _lastData = data;
+        
+        return progress ? PollScheduler.Status.PROGRESS : PollScheduler.Status.IDLE;
+    }
+    
+    private CompletableFuture<Boolean> schedule(Logger logger) {
+        
+        if (!prepare(logger)) {
+            return CompletableFuture.completedFuture(false);
+        }
+        
+        return _scheduler.schedule(_client.getServerUrl(), () -> pollOnce(logger), _policy);
     }
     
     protected abstract Response getRunEntityResultsResponse();
@@ -107,18 +183,5 @@ public abstract class PollHandler extends Handler {
         return ret;
     }
     
-    protected boolean sleep(Logger logger) throws InterruptedException {
-        
-        boolean ret = false;
-        try {
-            Thread.sleep(_interval);
-        } catch (InterruptedException ex) {
-            logger.log("Interrupted while polling");
-            throw ex;
-        }
-        
-        return ret;
-    }
-    
     protected void log(Logger logger) {}
 }
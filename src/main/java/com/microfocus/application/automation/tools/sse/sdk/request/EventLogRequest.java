@@ -33,18 +33,41 @@ import com.microfocus.application.automation.tools.sse.sdk.Client;
 public class EventLogRequest extends GetRequest {
     
     private final String _timeslotId;
+    private final int _lastRead;
+    private final int _pageSize;
     
+    /**
+     * Reads the whole event log of the timeslot.
+     */
     public EventLogRequest(Client client, String timeslotId) {
         
+        this(client, timeslotId, -1, 0);
+    }
+    
+    /**
+     * Reads the first page of the events of the timeslot with an id greater than the last read one, by id.
+     */
+    public EventLogRequest(Client client, String timeslotId, int lastRead, int pageSize) {
+        
         super(client, timeslotId);
         _timeslotId = timeslotId;
+        _lastRead = lastRead;
+        _pageSize = pageSize;
     }
     
     @Override
     protected String getSuffix() {
         
+        if (_pageSize <= 0) {
+            return String.format(
+                    "event-log-reads?query={context[\"*Timeslot:%%20%s%%3B*\"]}&fields=id,event-type,creation-time,action,description",
+                    _timeslotId);
+        }
+        
         return String.format(
-                "event-log-reads?query={context[\"*Timeslot:%%20%s%%3B*\"]}&fields=id,event-type,creation-time,action,description",
-                _timeslotId);
+                "event-log-reads?query={context[\"*Timeslot:%%20%s%%3B*\"]%s}&fields=id,event-type,creation-time,action,description&order-by={id[ASC]}&page-size=%d",
+                _timeslotId,
+                _lastRead >= 0 ? String.format(";id[%%3E%d]", _lastRead) : "",
+                _pageSize);
     }
-}
\ No newline at end of file
+}
@@ -31,6 +31,7 @@ package com.microfocus.application.automation.tools.sv.runner;
 import java.io.File;
 import java.io.PrintStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import com.microfocus.application.automation.tools.sv.model.AbstractSvRunModel;
@@ -40,7 +41,6 @@ import com.microfocus.sv.svconfigurator.build.ProjectBuilder;
 import com.microfocus.sv.svconfigurator.core.IProject;
 import com.microfocus.sv.svconfigurator.core.IService;
 import com.microfocus.sv.svconfigurator.core.impl.exception.CommandExecutorException;
-import com.microfocus.sv.svconfigurator.core.impl.exception.CommunicatorException;
 import com.microfocus.sv.svconfigurator.core.impl.exception.ProjectBuilderException;
 import com.microfocus.sv.svconfigurator.core.impl.jaxb.atom.ServiceListAtom;
 import com.microfocus.sv.svconfigurator.serverclient.ICommandExecutor;
@@ -54,6 +54,7 @@ public abstract class AbstractSvRemoteRunner<T extends AbstractSvRunModel> exten
     protected FilePath workspace;
     protected TaskListener listener;
     protected SvServerSettingsModel server;
+    private transient ThreadLocal<ICommandExecutor> commandExecutors;
 
     public AbstractSvRemoteRunner(TaskListener listener, T model, FilePath workspace, SvServerSettingsModel server) {
         this.listener = listener;
@@ -64,22 +65,23 @@ public abstract class AbstractSvRemoteRunner<T extends AbstractSvRunModel> exten
 
     protected List<ServiceInfo> getServiceList(boolean ignoreMissingServices, PrintStream logger, FilePath workspace) throws Exception {
         SvServiceSelectionModel s = getServiceSelection();
-        ICommandExecutor exec = createCommandExecutor();
 
         ArrayList<ServiceInfo> res = new ArrayList<>();
 
         switch (s.getSelectionType()) {
             case SERVICE:
-                addServiceIfDeployed(s.getService(), res, ignoreMissingServices, exec, logger);
+                addDeployedServices(Collections.singletonList(s.getService()), res, ignoreMissingServices, logger);
                 break;
             case PROJECT:
                 IProject project = loadProject(workspace);
+                List<String> ids = new ArrayList<>();
                 for (IService svc : project.getServices()) {
-                    addServiceIfDeployed(svc.getId(), res, ignoreMissingServices, exec, logger);
+                    ids.add(svc.getId());
                 }
+                addDeployedServices(ids, res, ignoreMissingServices, logger);
                 break;
             case ALL_DEPLOYED:
-                for (ServiceListAtom.ServiceEntry entry : exec.getServiceList(null).getEntries()) {
+                for (ServiceListAtom.ServiceEntry entry : getCommandExecutor().getServiceList(null).getEntries()) {
                     res.add(new ServiceInfo(entry.getId(), entry.getTitle()));
                 }
                 break;
@@ -101,19 +103,47 @@ public abstract class AbstractSvRemoteRunner<T extends AbstractSvRunModel> exten
         return model.getServiceSelection();
     }
 
-    private void addServiceIfDeployed(String service, ArrayList<ServiceInfo> results, boolean ignoreMissingServices,
-                                  ICommandExecutor exec, PrintStream logger) throws CommunicatorException, CommandExecutorException {
-        try {
-            IService svc = exec.findService(service, null);
-            results.add(new ServiceInfo(svc.getId(), svc.getName()));
-        } catch (CommandExecutorException e) {
-            if (!ignoreMissingServices) {
-                throw e;
+    private void addDeployedServices(List<String> services, ArrayList<ServiceInfo> results, boolean ignoreMissingServices,
+                                     PrintStream logger) throws Exception {
+        List<ParallelServiceRunner.Result<String, ServiceInfo>> found = new ParallelServiceRunner().run(services, (service, log) -> {
+            try {
+                IService svc = getCommandExecutor().findService(service, null);
+                return new ServiceInfo(svc.getId(), svc.getName());
+            } catch (CommandExecutorException e) {
+                if (!ignoreMissingServices) {
+                    throw e;
+                }
+                log.printf("Service '%s' is not deployed, ignoring%n", service);
+                return null;
+            }
+        }, logger);
+        ParallelServiceRunner.throwIfFailed("find", found);
+        for (ParallelServiceRunner.Result<String, ServiceInfo> result : found) {
+            if (result.getValue() != null) {
+                results.add(result.getValue());
             }
-            logger.printf("Service '%s' is not deployed, ignoring%n", service);
         }
     }
 
+    /**
+     * @return the command executor of the current thread, services are processed by several threads at once
+     */
+    protected ICommandExecutor getCommandExecutor() throws Exception {
+        ThreadLocal<ICommandExecutor> executors;
+        synchronized (this) {
+            if (commandExecutors == null) {
+                commandExecutors = new ThreadLocal<>();
+            }
+            executors = commandExecutors;
+        }
+        ICommandExecutor exec = executors.get();
+        if (exec == null) {
+            exec = createCommandExecutor();
+            executors.set(exec);
+        }
+        return exec;
+    }
+
     protected ICommandExecutor createCommandExecutor() throws Exception {
         return new CommandExecutorFactory()
                 .createCommandExecutor(server.getUrlObject(), server.isTrustEveryone(), server.getCredentials());
@@ -0,0 +1,182 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.sv.runner;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs a task for each virtual service on a bounded pool of threads. The output of each task is
+ * buffered and written to the build log in the order of the services, whatever order they finish in.
+ * A failing service does not stop the others, failures are collected in the results.
+ */
+public class ParallelServiceRunner {
+    public static final int DEFAULT_CONCURRENCY = Integer.getInteger(ParallelServiceRunner.class.getName() + ".concurrency", 4);
+
+    private final int concurrency;
+
+    public ParallelServiceRunner() {
+        this(DEFAULT_CONCURRENCY);
+    }
+
+    public ParallelServiceRunner(int concurrency) {
+        this.concurrency = Math.max(1, concurrency);
+    }
+
+    public interface ServiceTask<S, R> {
+        R run(S service, PrintStream logger) throws Exception;
+    }
+
+    /**
+     * Runs the task for all the services. When the calling thread is interrupted (the build is aborted) the
+     * running tasks are interrupted, the tasks not started yet are dropped and InterruptedException is thrown.
+     *
+     * @return the result of each service, in the order of the services
+     */
+    public <S, R> List<Result<S, R>> run(List<S> services, final ServiceTask<S, R> task, PrintStream logger) throws InterruptedException {
+        List<Result<S, R>> results = new ArrayList<>(services.size());
+        if (services.isEmpty()) {
+            return results;
+        }
+        final AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(concurrency, services.size()), r -> {
+            Thread thread = new Thread(r, "sv-service-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Future<Result<S, R>>> futures = new ArrayList<>(services.size());
+        try {
+            for (final S service : services) {
+                futures.add(pool.submit(() -> runTask(service, task)));
+            }
+            for (int i = 0; i < services.size(); i++) {
+                Result<S, R> result;
+                try {
+                    result = futures.get(i).get();
+                } catch (ExecutionException e) {
+                    result = new Result<>(services.get(i), null, new Exception(e.getCause()), new byte[0]);
+                }
+                logger.write(result.log, 0, result.log.length);
+                results.add(result);
+            }
+            logger.flush();
+        } catch (InterruptedException e) {
+            // drop the queued services before interrupting the running ones, so no new one is started
+            pool.shutdownNow();
+            for (Future<Result<S, R>> future : futures) {
+                future.cancel(true);
+            }
+            throw e;
+        } finally {
+            pool.shutdownNow();
+        }
+        return results;
+    }
+
+    private static <S, R> Result<S, R> runTask(S service, ServiceTask<S, R> task) {
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        PrintStream logger = new PrintStream(log, true);
+        R value = null;
+        Exception error = null;
+        try {
+            value = task.run(service, logger);
+        } catch (Exception e) {
+            error = e;
+        }
+        logger.flush();
+        return new Result<>(service, value, error, log.toByteArray());
+    }
+
+    /**
+     * @throws ServiceFailuresException listing all the failed services, if any
+     */
+    public static <S, R> void throwIfFailed(String action, List<Result<S, R>> results) throws ServiceFailuresException {
+        List<Result<S, R>> failed = new ArrayList<>();
+        for (Result<S, R> result : results) {
+            if (result.getError() != null) {
+                failed.add(result);
+            }
+        }
+        if (failed.isEmpty()) {
+            return;
+        }
+        StringBuilder message = new StringBuilder()
+                .append(String.format("Failed to %s %d of %d services:", action, failed.size(), results.size()));
+        for (Result<S, R> result : failed) {
+            message.append(String.format("%n  %s: %s", result.getService(), result.getError().getMessage()));
+        }
+        ServiceFailuresException exception = new ServiceFailuresException(message.toString());
+        for (Result<S, R> result : failed) {
+            exception.addSuppressed(result.getError());
+        }
+        throw exception;
+    }
+
+    public static class Result<S, R> {
+        private final S service;
+        private final R value;
+        private final Exception error;
+        private final byte[] log;
+
+        private Result(S service, R value, Exception error, byte[] log) {
+            this.service = service;
+            this.value = value;
+            this.error = error;
+            this.log = log;
+        }
+
+        public S getService() {
+            return service;
+        }
+
+        public R getValue() {
+            return value;
+        }
+
+        /**
+         * @return the exception thrown for the service, null if it succeeded
+         */
+        public Exception getError() {
+            return error;
+        }
+    }
+
+    public static class ServiceFailuresException extends Exception {
+        public ServiceFailuresException(String message) {
+            super(message);
+        }
+    }
+}
@@ -44,4 +44,9 @@ public class ServiceInfo {
     public String getName() {
         return name;
     }
+
+    @Override
+    public String toString() {
+        return String.format("'%s' [%s]", name, id);
+    }
 }
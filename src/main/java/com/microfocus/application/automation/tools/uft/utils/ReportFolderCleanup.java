@@ -0,0 +1,240 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.uft.utils;
+
+import hudson.remoting.VirtualChannel;
+import jenkins.security.MasterToSlaveCallable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Serializable;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Deletes the report folders (Report*, StRes*) of the tests of a UFT run with a single call to the node that runs
+ * them. The node resolves the tests from the configured test paths, lists their report folders and deletes them in
+ * parallel, and returns only a summary.
+ */
+public class ReportFolderCleanup extends MasterToSlaveCallable<ReportFolderCleanup.Summary, IOException> {
+
+    private static final long serialVersionUID = 1L;
+    static final int MAX_THREADS = 8;
+    private static final String REPORT_PREFIX = "Report";
+    private static final String STRES_PREFIX = "StRes";
+
+    private final ArrayList<String> testPaths;
+
+    /**
+     * @param testPaths the test paths setup in the configuration: mtbx files or content, tests, or test folders
+     */
+    public ReportFolderCleanup(List<String> testPaths) {
+        this.testPaths = new ArrayList<>(testPaths);
+    }
+
+    /**
+     * Runs the cleanup on the node of the channel, or locally when there is no channel
+     */
+    public static Summary run(VirtualChannel channel, List<String> testPaths) throws IOException, InterruptedException {
+        ReportFolderCleanup cleanup = new ReportFolderCleanup(testPaths);
+        return channel != null ? channel.call(cleanup) : cleanup.call();
+    }
+
+    @Override
+    public Summary call() throws IOException {
+        Summary summary = new Summary();
+        if (testPaths.isEmpty()) {
+            return summary;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(MAX_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "UFT report folder cleanup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Callable<List<String>>> resolving = new ArrayList<>();
+            for (String testPath : testPaths) {
+                resolving.add(() -> UftToolUtils.getTests(testPath.replace("\\", "/").trim()));
+            }
+            Set<String> tests = new LinkedHashSet<>();
+            for (List<String> resolved : invokeAll(executor, resolving)) {
+                tests.addAll(resolved);
+            }
+            summary.tests = tests.size();
+
+            List<Callable<List<File>>> listing = new ArrayList<>();
+            for (String test : tests) {
+                listing.add(() -> listReportFolders(new File(test)));
+            }
+            List<Callable<String>> deleting = new ArrayList<>();
+            for (List<File> reportFolders : invokeAll(executor, listing)) {
+                boolean hasReport = false;
+                for (File reportFolder : reportFolders) {
+                    hasReport |= reportFolder.getName().startsWith(REPORT_PREFIX);
+                    deleting.add(() -> delete(reportFolder));
+                }
+                if (!hasReport) {
+                    summary.testsWithoutReports++;
+                }
+            }
+
+            for (String failure : invokeAll(executor, deleting)) {
+                if (failure == null) {
+                    summary.deleted++;
+                } else {
+                    summary.failures.add(failure);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return summary;
+    }
+
+    private static List<File> listReportFolders(File test) {
+        List<File> reportFolders = new ArrayList<>();
+        File[] entries = test.listFiles();
+        if (entries != null) {
+            Arrays.sort(entries);
+            for (File entry : entries) {
+                if (entry.getName().startsWith(REPORT_PREFIX) || entry.getName().startsWith(STRES_PREFIX)) {
+                    reportFolders.add(entry);
+                }
+            }
+        }
+        return reportFolders;
+    }
+
+    /**
+     * @return null once deleted, or the reason of the failure
+     */
+    private static String delete(File reportFolder) {
+        try {
+            Files.walkFileTree(reportFolder.toPath(), new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    deleteEntry(file);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+                    if (e != null) {
+                        throw e;
+                    }
+                    deleteEntry(dir);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            return null;
+        } catch (IOException e) {
+            return String.format("Failed to delete folder %s : %s", reportFolder.getName(), e.getMessage());
+        }
+    }
+
+    private static void deleteEntry(Path entry) throws IOException {
+        try {
+            Files.deleteIfExists(entry);
+        } catch (IOException e) {
+            // read-only files can't be deleted on Windows
+            if (!entry.toFile().setWritable(true)) {
+                throw e;
+            }
+            Files.deleteIfExists(entry);
+        }
+    }
+
+    private static <T> List<T> invokeAll(ExecutorService executor, Collection<? extends Callable<T>> tasks) throws IOException {
+        List<T> results = new ArrayList<>();
+        try {
+            for (Future<T> future : executor.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Report folder cleanup was interrupted");
+        } catch (ExecutionException e) {
+            throw new IOException("Report folder cleanup failed : " + e.getCause().getMessage(), e.getCause());
+        }
+        return results;
+    }
+
+    /**
+     * The outcome of a cleanup
+     */
+    public static class Summary implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private int tests;
+        private int deleted;
+        private int testsWithoutReports;
+        private final ArrayList<String> failures = new ArrayList<>();
+
+        public int getTests() {
+            return tests;
+        }
+
+        public int getDeleted() {
+            return deleted;
+        }
+
+        public int getTestsWithoutReports() {
+            return testsWithoutReports;
+        }
+
+        public List<String> getFailures() {
+            return failures;
+        }
+
+        @Override
+        public String toString() {
+            String result = String.format("Deleted %d report folder(s) of %d test(s)", deleted, tests);
+            if (testsWithoutReports > 0) {
+                result += String.format(", no report folder was deleted for %d test(s)", testsWithoutReports);
+            }
+            return result;
+        }
+    }
+}
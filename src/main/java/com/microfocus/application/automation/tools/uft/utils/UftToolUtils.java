@@ -33,6 +33,7 @@ import com.microfocus.application.automation.tools.results.projectparser.perform
 import com.microfocus.application.automation.tools.uft.model.RerunSettingsModel;
 import hudson.FilePath;
 import hudson.model.*;
+import hudson.remoting.VirtualChannel;
 import hudson.util.FormValidation;
 import hudson.util.Secret;
 import jenkins.model.Jenkins;
@@ -195,7 +196,10 @@ public class UftToolUtils {
     }
 
     public static void deleteReportFoldersFromNode(String nodeName, String testPath, TaskListener listener) {
-        FilePath filePath = getFilePath(nodeName, testPath);
+        deleteReportFolders(getFilePath(nodeName, testPath), testPath, listener);
+    }
+
+    static void deleteReportFolders(FilePath filePath, String testPath, TaskListener listener) {
         try {
             List<FilePath> entries = filePath.list();
             boolean isDeleted = false;
@@ -227,6 +231,38 @@ public class UftToolUtils {
         }
     }
 
+    /**
+     * Deletes the report folders of all the tests of a run, with a single call to the node that runs them
+     *
+     * @param nodeName  the node running the tests
+     * @param testPaths the test paths setup in the configuration (mtbx files or content, tests or test folders)
+     * @param listener  the build listener
+     */
+    public static void deleteReportFoldersFromNode(String nodeName, List<String> testPaths, TaskListener listener) {
+        Node node = Jenkins.get().getNode(nodeName);
+        VirtualChannel channel = null;
+        if (!Jenkins.get().getNodes().isEmpty() && node != null) {//tests are running on node
+            channel = node.getChannel();
+            if (channel == null) {
+                listener.error(String.format("Failure in clearing report folders, node %s is offline", nodeName));
+                return;
+            }
+        }
+        deleteReportFolders(channel, testPaths, listener);
+    }
+
+    static void deleteReportFolders(VirtualChannel channel, List<String> testPaths, TaskListener listener) {
+        try {
+            ReportFolderCleanup.Summary summary = ReportFolderCleanup.run(channel, testPaths);
+            for (String failure : summary.getFailures()) {
+                listener.error(failure);
+            }
+            listener.getLogger().println(summary);
+        } catch (IOException | InterruptedException e) {
+            listener.error("Failure in clearing report folders : " + e.getMessage());
+        }
+    }
+
     public static FilePath getFilePath(String nodeName, String testPath){
         Node node = Jenkins.get().getNode(nodeName);
         FilePath filePath;
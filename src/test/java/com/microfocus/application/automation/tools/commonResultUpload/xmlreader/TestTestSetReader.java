@@ -0,0 +1,268 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.commonResultUpload.xmlreader;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microfocus.application.automation.tools.commonResultUpload.xmlreader.model.EntitiesFieldMap;
+import com.microfocus.application.automation.tools.commonResultUpload.xmlreader.model.XmlResultEntity;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+public class TestTestSetReader {
+
+    private static final String[] TESTSET_ROOTS = {"x:/results/suite", "x:results/suite", "x:/results/*",
+            "x:/results/suite[@status='failed']", "x:/results/suite[2]", "x:.", "x://suite"};
+    private static final String[] TESTSET_FIELDS = {"x:@name", "x:name", "x:.", "x:@missing", "x:/results/@version",
+            "v:fixed", "x:name|v:-|x:@status", "plain", "x:case[2]/name", "x:*[1]/@id", "x:./name",
+            "x:case[@status='failed'][1]/@id", "x:case[1][@status='failed']/@id", "x:count(case)"};
+    private static final String[] TEST_ROOTS = {"x:case", "x:case[@status='passed']", "x:*", "x:suite/case",
+            "x:/results/suite/case", "x:.", "x:case[last()]"};
+    private static final String[] TEST_FIELDS = {"x:@id", "x:name", "x:steps/step[1]", "x:.", "v:MANUAL",
+            "x:/results/@version", "x:steps/step[@n='2']|v: of |x:/results/suite[1]/@name"};
+    private static final String[] RUN_ROOTS = {"x:steps/step", "x:.", "x:steps/step[@n='2']",
+            "x:/results/suite[1]/case", "x:steps/*[2]"};
+    private static final String[] RUN_FIELDS = {"x:@n", "x:.", "x:../@id", "v:Passed|x:@n", "x:/results/@version"};
+    private static final String[] TEXTS = {"login", "a &amp; b", "<![CDATA[x < y]]>", "  spaced\n  text  ", "",
+            "ünïcode", "&lt;tag&gt;"};
+
+    private File folder;
+
+    @Before
+    public void setUp() throws IOException {
+        folder = Files.createTempDirectory("testsets").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = folder.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        folder.delete();
+    }
+
+    @Test
+    public void testSimplePaths() {
+        Assert.assertNotNull(SimplePath.parse("/results/suite"));
+        Assert.assertNotNull(SimplePath.parse("case[@status='failed'][2]/@id"));
+        Assert.assertNotNull(SimplePath.parse("."));
+        Assert.assertNotNull(SimplePath.parse("*[1]/name"));
+        Assert.assertEquals("id", SimplePath.parse("./@id").attribute);
+        Assert.assertNull(SimplePath.parse("//suite"));
+        Assert.assertNull(SimplePath.parse("../@id"));
+        Assert.assertNull(SimplePath.parse("count(case)"));
+        Assert.assertNull(SimplePath.parse("case[last()]"));
+        Assert.assertNull(SimplePath.parse("@id/name"));
+        Assert.assertNull(SimplePath.parse("ns:case"));
+        Assert.assertNull(SimplePath.parse("/"));
+    }
+
+    @Test
+    public void testStreamingReadsAsDom() throws Exception {
+        Random random = new Random(16);
+        int streamed = 0;
+        for (int i = 0; i < 400; i++) {
+            EntitiesFieldMap mapping = randomMapping(random);
+            if (StreamingTestSetReader.create(mapping) != null) {
+                streamed++;
+            }
+            File file = write("result" + i + ".xml", randomDocument(random));
+            Assert.assertEquals("mapping " + i, read(file, mapping, false), read(file, mapping, true));
+        }
+        Assert.assertTrue(streamed > 100);
+    }
+
+    @Test
+    public void testDocumentsOutOfStreamingScope() throws Exception {
+        EntitiesFieldMap mapping = mapping("x:/results/suite", "x:name", "x:case", "x:@id", "x:.", "x:.");
+        Assert.assertNotNull(StreamingTestSetReader.create(mapping));
+        String[] documents = {
+                "<!DOCTYPE results [<!ENTITY app 'Demo'>]><results><suite><name>&app;</name>"
+                        + "<case id='1'/></suite></results>",
+                "<results xmlns='urn:results'><suite><name>a</name><case id='1'/></suite></results>",
+                "<r:results xmlns:r='urn:results'><r:suite><name>a</name></r:suite></r:results>",
+                "<results><suite xml:lang='en'><name>a</name><case id='1'>x</case></suite></results>"};
+        for (int i = 0; i < documents.length; i++) {
+            File file = write("scope" + i + ".xml", documents[i]);
+            Assert.assertEquals(documents[i], read(file, mapping, false), read(file, mapping, true));
+        }
+        Assert.assertEquals("[{name=Demo}[{name=1}[{name=}]]]", read(new File(folder, "scope0.xml"), mapping, true));
+    }
+
+    @Test(expected = org.xml.sax.SAXException.class)
+    public void testMalformedDocument() throws Exception {
+        EntitiesFieldMap mapping = mapping("x:/results/suite", "x:name", "x:case", "x:@id", "x:.", "x:.");
+        File file = write("malformed.xml", "<results><suite><name>a</suite></results>");
+        new TestSetReader(file.getAbsolutePath(), mapping).readTestsets();
+    }
+
+    @Test
+    public void testReadThousandFiles() throws Exception {
+        EntitiesFieldMap mapping = mapping("x:/results/suite", "x:@name", "x:case", "x:name", "x:steps/step", "x:@n");
+        Random random = new Random(1000);
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            files.add(write("bench" + i + ".xml", randomDocument(random)));
+        }
+        // warm up both readers before measuring
+        for (int i = 0; i < 50; i++) {
+            read(files.get(i), mapping, false);
+            read(files.get(i), mapping, true);
+        }
+
+        long start = System.nanoTime();
+        List<String> dom = new ArrayList<>();
+        for (File file : files) {
+            dom.add(read(file, mapping, false));
+        }
+        long domTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        List<String> streamed = new ArrayList<>();
+        for (File file : files) {
+            streamed.add(read(file, mapping, true));
+        }
+        long streamingTime = System.nanoTime() - start;
+
+        Assert.assertEquals(dom, streamed);
+        System.out.println(String.format("Read 1000 result files: DOM %d ms, streaming %d ms",
+                domTime / 1000000, streamingTime / 1000000));
+    }
+
+    private String read(File file, EntitiesFieldMap mapping, boolean streaming) throws Exception {
+        List<XmlResultEntity> entities = new TestSetReader(file.getAbsolutePath(), mapping, streaming).readTestsets();
+        return render(entities);
+    }
+
+    private static String render(List<XmlResultEntity> entities) {
+        if (entities == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder("[");
+        for (XmlResultEntity entity : entities) {
+            sb.append(new TreeMap<>(entity.getValueMap())).append(render(entity.getSubEntities()));
+        }
+        return sb.append("]").toString();
+    }
+
+    private File write(String name, String content) throws IOException {
+        File file = new File(folder, name);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static EntitiesFieldMap mapping(String testsetRoot, String testsetName, String testRoot, String testName,
+                                            String runRoot, String runName) throws IOException {
+        return new ObjectMapper().readValue(String.format(
+                "{\"testset\":{\"root\":%s,\"name\":%s},\"test\":{\"root\":%s,\"name\":%s},"
+                        + "\"run\":{\"root\":%s,\"name\":%s}}",
+                quote(testsetRoot), quote(testsetName), quote(testRoot), quote(testName),
+                quote(runRoot), quote(runName)), EntitiesFieldMap.class);
+    }
+
+    private static EntitiesFieldMap randomMapping(Random random) throws IOException {
+        StringBuilder json = new StringBuilder("{");
+        appendConfig(json, "testset", TESTSET_ROOTS, TESTSET_FIELDS, random).append(',');
+        appendConfig(json, "test", TEST_ROOTS, TEST_FIELDS, random).append(',');
+        appendConfig(json, "run", RUN_ROOTS, RUN_FIELDS, random);
+        return new ObjectMapper().readValue(json.append('}').toString(), EntitiesFieldMap.class);
+    }
+
+    private static StringBuilder appendConfig(StringBuilder json, String entity, String[] roots, String[] fields,
+                                              Random random) {
+        json.append(quote(entity)).append(":{\"root\":").append(quote(pick(roots, random)));
+        int count = 1 + random.nextInt(3);
+        for (int i = 0; i < count; i++) {
+            json.append(",\"field").append(i).append("\":").append(quote(pick(fields, random)));
+        }
+        return json.append('}');
+    }
+
+    private static String randomDocument(Random random) {
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        xml.append("<results version=\"").append(random.nextInt(5)).append("\">\n");
+        int suites = random.nextInt(5);
+        for (int i = 0; i < suites; i++) {
+            appendSuite(xml, random, 1);
+        }
+        return xml.append("</results>\n").toString();
+    }
+
+    private static void appendSuite(StringBuilder xml, Random random, int depth) {
+        xml.append("  <suite name=\"suite").append(random.nextInt(100)).append('"')
+                .append(random.nextBoolean() ? " status=\"failed\"" : " status=\"passed\"").append('>');
+        if (random.nextBoolean()) {
+            xml.append("<name>").append(pick(TEXTS, random)).append("</name>");
+        }
+        int cases = random.nextInt(5);
+        for (int i = 0; i < cases; i++) {
+            xml.append("\n    <case");
+            if (random.nextInt(4) > 0) {
+                xml.append(" id=\"").append(random.nextInt(1000)).append('"');
+            }
+            xml.append(" status=\"").append(random.nextBoolean() ? "failed" : "passed").append("\">");
+            if (random.nextBoolean()) {
+                xml.append("<name>").append(pick(TEXTS, random)).append("</name>");
+            }
+            xml.append(pick(TEXTS, random)).append("<steps>");
+            int steps = random.nextInt(4);
+            for (int j = 0; j < steps; j++) {
+                xml.append("<step n=\"").append(1 + random.nextInt(3)).append("\">").append(pick(TEXTS, random))
+                        .append("<!-- note --></step>");
+            }
+            xml.append("</steps></case>");
+        }
+        if (depth < 3 && random.nextInt(3) == 0) {
+            appendSuite(xml, random, depth + 1);
+        }
+        xml.append("\n  </suite>\n");
+    }
+
+    private static String pick(String[] values, Random random) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static String quote(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n") + "\"";
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.commonResultUpload.xmlreader;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.xpath.XPathConstants;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class TestXPathExpressionCache {
+
+    private static final String XML = "<results><case id=\"1\">one</case><case id=\"2\">two</case><case id=\"3\">three</case></results>";
+
+    @Test
+    public void testSharedExpressionsAreEvaluatedByManyThreads() throws Exception {
+        final XPathExpressionCache cache = new XPathExpressionCache(XPathExpressionCache.MAX_EXPRESSIONS);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(pool.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        // like the result files, every thread reads its own document
+                        Document doc = parse();
+                        for (int i = 0; i < 2000; i++) {
+                            int id = i % 3 + 1;
+                            Assert.assertEquals(String.valueOf(id),
+                                    cache.evaluate("/results/case[" + id + "]/@id", doc, XPathConstants.STRING));
+                            Assert.assertEquals("3", cache.evaluate("count(/results/case)", doc, XPathConstants.STRING));
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        Assert.assertEquals(4, cache.size());
+    }
+
+    @Test
+    public void testCacheIsBounded() throws Exception {
+        Document doc = parse();
+        XPathExpressionCache cache = new XPathExpressionCache(2);
+        String[] names = {"one", "two", "three"};
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < names.length; i++) {
+                Assert.assertEquals(names[i], cache.evaluate("/results/case[" + (i + 1) + "]", doc, XPathConstants.STRING));
+            }
+        }
+        Assert.assertEquals(2, cache.size());
+    }
+
+    private static Document parse() throws Exception {
+        return DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new InputSource(new StringReader(XML)));
+    }
+}
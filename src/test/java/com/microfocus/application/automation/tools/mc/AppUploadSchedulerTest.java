@@ -0,0 +1,327 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.mc;
+
+import com.microfocus.application.automation.tools.model.AuthModel;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AppUploadSchedulerTest {
+
+    private static final long UPLOAD_MILLIS = 300;
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private StubServer server;
+    private File indexFolder;
+    private ByteArrayOutputStream log;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new StubServer();
+        indexFolder = tmp.newFolder("index");
+        log = new ByteArrayOutputStream();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void testUploadsAtMostConcurrencyAppsAtOnce() throws Exception {
+        List<File> apps = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            apps.add(createApp("app" + i + ".apk", "content " + i));
+        }
+
+        List<AppUploadScheduler.Outcome> outcomes = newScheduler(3).upload(apps);
+
+        Assert.assertEquals(3, server.maxConcurrent.get());
+        Assert.assertEquals(7, server.uploads.get());
+        Assert.assertEquals(1, server.logins.get());
+        Assert.assertEquals(0, server.uploadsWithoutSession.get());
+        for (int i = 0; i < apps.size(); i++) {
+            Assert.assertEquals(apps.get(i), outcomes.get(i).getApp());
+            Assert.assertEquals(AppUploadScheduler.Status.UPLOADED, outcomes.get(i).getStatus());
+            Assert.assertTrue(outcomes.get(i).getMillis() >= UPLOAD_MILLIS);
+            Assert.assertTrue(log.toString(), log.toString().contains(apps.get(i).getName() + ": uploaded in "));
+            Assert.assertTrue(log.toString(), log.toString().contains("Uploading " + apps.get(i).getName() + " to "));
+        }
+    }
+
+    @Test
+    public void testUnchangedAppsAreNotUploadedAgain() throws Exception {
+        File first = createApp("first.apk", "first");
+        File second = createApp("second.ipa", "second");
+        File copy = createApp("copy-of-first.apk", "first");
+
+        List<AppUploadScheduler.Outcome> outcomes = newScheduler(3).upload(Arrays.asList(first, second, copy));
+        Assert.assertEquals(2, server.uploads.get());
+        Assert.assertEquals(1, count(outcomes, AppUploadScheduler.Status.SKIPPED));
+        Assert.assertEquals(2, count(outcomes, AppUploadScheduler.Status.UPLOADED));
+
+        // next build, nothing is uploaded, MC is only asked whether it still has the apps
+        outcomes = newScheduler(3).upload(Arrays.asList(first, second, copy));
+        Assert.assertEquals(2, server.uploads.get());
+        Assert.assertEquals(2, server.logins.get());
+        Assert.assertEquals(3, count(outcomes, AppUploadScheduler.Status.SKIPPED));
+        for (AppUploadScheduler.Outcome outcome : outcomes) {
+            Assert.assertNotNull(outcome.getAppInfo());
+        }
+        Assert.assertTrue(log.toString(), log.toString().contains("second.ipa: already uploaded, skipped in "));
+
+        Files.write(second.toPath(), "second, rebuilt".getBytes(StandardCharsets.UTF_8));
+        outcomes = newScheduler(3).upload(Arrays.asList(first, second, copy));
+        Assert.assertEquals(3, server.uploads.get());
+        Assert.assertEquals(AppUploadScheduler.Status.UPLOADED, outcomes.get(1).getStatus());
+        Assert.assertEquals(2, count(outcomes, AppUploadScheduler.Status.SKIPPED));
+    }
+
+    @Test
+    public void testAppsAreUploadedAgainForAnotherTenant() throws Exception {
+        File app = createApp("app.apk", "app");
+
+        newScheduler(2, "user", "tenant1").upload(Arrays.asList(app));
+        Assert.assertEquals(AppUploadScheduler.Status.SKIPPED,
+                newScheduler(2, "user", "tenant1").upload(Arrays.asList(app)).get(0).getStatus());
+        Assert.assertEquals(AppUploadScheduler.Status.UPLOADED,
+                newScheduler(2, "user", "tenant2").upload(Arrays.asList(app)).get(0).getStatus());
+        Assert.assertEquals(AppUploadScheduler.Status.UPLOADED,
+                newScheduler(2, "other", "tenant1").upload(Arrays.asList(app)).get(0).getStatus());
+        Assert.assertEquals(3, server.uploads.get());
+    }
+
+    @Test
+    public void testAppsUnknownToTheServerAreUploadedAgain() throws Exception {
+        File app = createApp("app.apk", "app");
+        List<AppUploadScheduler.Outcome> outcomes = newScheduler(2).upload(Arrays.asList(app));
+        Assert.assertEquals(AppUploadScheduler.Status.UPLOADED, outcomes.get(0).getStatus());
+        server.deleted.add("app1");
+
+        outcomes = newScheduler(2).upload(Arrays.asList(app));
+        Assert.assertEquals(AppUploadScheduler.Status.UPLOADED, outcomes.get(0).getStatus());
+        Assert.assertEquals(2, server.uploads.get());
+        Assert.assertTrue(log.toString(), log.toString().contains("app.apk: no longer on the server, uploading it again"));
+
+        // the new upload is recorded in place of the unknown one
+        outcomes = newScheduler(2).upload(Arrays.asList(app));
+        Assert.assertEquals(AppUploadScheduler.Status.SKIPPED, outcomes.get(0).getStatus());
+        Assert.assertEquals(2, server.uploads.get());
+    }
+
+    @Test
+    public void testFailingAppsDoNotStopTheOthers() throws Exception {
+        File before = createApp("before.apk", "before");
+        File rejected = createApp("broken.apk", "broken");
+        File missing = new File(tmp.getRoot(), "missing.apk");
+        File after = createApp("after.apk", "after");
+
+        List<AppUploadScheduler.Outcome> outcomes = newScheduler(2).upload(Arrays.asList(before, rejected, missing, after));
+
+        Assert.assertEquals(AppUploadScheduler.Status.UPLOADED, outcomes.get(0).getStatus());
+        Assert.assertEquals(AppUploadScheduler.Status.FAILED, outcomes.get(1).getStatus());
+        Assert.assertNull(outcomes.get(1).getAppInfo());
+        Assert.assertNull(outcomes.get(1).getError());
+        Assert.assertEquals(AppUploadScheduler.Status.FAILED, outcomes.get(2).getStatus());
+        Assert.assertTrue(outcomes.get(2).getError() instanceof FileNotFoundException);
+        Assert.assertEquals(AppUploadScheduler.Status.UPLOADED, outcomes.get(3).getStatus());
+        Assert.assertTrue(log.toString(), log.toString().contains("broken.apk: failed in "));
+
+        // a failed app is not recorded as uploaded
+        outcomes = newScheduler(2).upload(Arrays.asList(before, rejected, after));
+        Assert.assertEquals(AppUploadScheduler.Status.SKIPPED, outcomes.get(0).getStatus());
+        Assert.assertEquals(AppUploadScheduler.Status.FAILED, outcomes.get(1).getStatus());
+        Assert.assertEquals(AppUploadScheduler.Status.SKIPPED, outcomes.get(2).getStatus());
+        Assert.assertEquals(4, server.uploads.get());
+    }
+
+    @Test
+    public void testIndexFailureDoesNotFailTheUpload() throws Exception {
+        File app = createApp("app.apk", "app");
+        AuthModel authModel = new AuthModel("user", "password", null, null, "base");
+        PrintStream out = new PrintStream(log, true);
+        JobConfigurationProxy.UploadSession session = JobConfigurationProxy.getInstance().openUploadSession(server.getUrl(), authModel, null, out);
+        // the index cannot be stored in a file
+        AppUploadIndex index = AppUploadIndex.forServer(tmp.newFile("not-a-folder"), server.getUrl(), authModel);
+
+        List<AppUploadScheduler.Outcome> outcomes = new AppUploadScheduler(session, index, 2, out).upload(Arrays.asList(app));
+
+        Assert.assertEquals(AppUploadScheduler.Status.UPLOADED, outcomes.get(0).getStatus());
+        Assert.assertEquals(1, server.uploads.get());
+        Assert.assertTrue(log.toString(), log.toString().contains("app.apk: uploaded, but could not be recorded in the upload index"));
+    }
+
+    private AppUploadScheduler newScheduler(int concurrency) {
+        return newScheduler(concurrency, "user", null);
+    }
+
+    private AppUploadScheduler newScheduler(int concurrency, String user, String tenant) {
+        AuthModel authModel = new AuthModel(user, "password", tenant, null, "base");
+        PrintStream out = new PrintStream(log, true);
+        JobConfigurationProxy.UploadSession session = JobConfigurationProxy.getInstance().openUploadSession(server.getUrl(), authModel, null, out);
+        return new AppUploadScheduler(session, AppUploadIndex.forServer(indexFolder, server.getUrl(), authModel),
+                concurrency, out);
+    }
+
+    private File createApp(String name, String content) throws IOException {
+        File app = new File(tmp.getRoot(), name);
+        Files.write(app.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return app;
+    }
+
+    private static int count(List<AppUploadScheduler.Outcome> outcomes, AppUploadScheduler.Status status) {
+        int count = 0;
+        for (AppUploadScheduler.Outcome outcome : outcomes) {
+            if (outcome.getStatus() == status) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static String appInfo(String id, String name) {
+        return "{\"error\":false,\"data\":[{\"id\":\"" + id + "\",\"name\":\"" + name + "\"}]}";
+    }
+
+    /**
+     * MC login, app upload and app lookup, an upload takes a while and apps named broken* are rejected
+     */
+    private static class StubServer {
+        private final HttpServer server;
+        private final ExecutorService executor = Executors.newCachedThreadPool();
+        private final AtomicInteger logins = new AtomicInteger();
+        private final AtomicInteger uploads = new AtomicInteger();
+        private final AtomicInteger uploadsWithoutSession = new AtomicInteger();
+        private final AtomicInteger concurrent = new AtomicInteger();
+        private final AtomicInteger maxConcurrent = new AtomicInteger();
+        private final Set<String> deleted = ConcurrentHashMap.newKeySet();
+
+        StubServer() throws IOException {
+            server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            server.setExecutor(executor);
+            server.createContext(Constants.LOGIN_URL, this::login);
+            server.createContext("/rest/apps/upload", this::upload);
+            server.createContext(Constants.APP_BY_ID, this::lookup);
+            server.start();
+        }
+
+        String getUrl() {
+            return "http://127.0.0.1:" + server.getAddress().getPort();
+        }
+
+        private void login(HttpExchange exchange) throws IOException {
+            logins.incrementAndGet();
+            drain(exchange.getRequestBody());
+            exchange.getResponseHeaders().add(Constants.LOGIN_SECRET, "secret");
+            exchange.getResponseHeaders().add(Constants.SET_COOKIE, Constants.JESEEIONEQ + "session" + logins.get());
+            answer(exchange, 200, "{}");
+        }
+
+        private void upload(HttpExchange exchange) throws IOException {
+            int running = concurrent.incrementAndGet();
+            maxConcurrent.accumulateAndGet(running, Math::max);
+            int id = uploads.incrementAndGet();
+            try {
+                String cookie = exchange.getRequestHeaders().getFirst(Constants.COOKIE);
+                if (cookie == null || !cookie.startsWith(Constants.JESEEIONEQ + "session")) {
+                    uploadsWithoutSession.incrementAndGet();
+                }
+                drain(exchange.getRequestBody());
+                Thread.sleep(UPLOAD_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                concurrent.decrementAndGet();
+            }
+            String name = exchange.getRequestHeaders().getFirst(Constants.FILENAME);
+            if (name.startsWith("broken")) {
+                answer(exchange, 500, "");
+            } else {
+                answer(exchange, 200, appInfo("app" + id, name));
+            }
+        }
+
+        private void lookup(HttpExchange exchange) throws IOException {
+            String id = exchange.getRequestURI().getPath().substring(Constants.APP_BY_ID.length());
+            if (deleted.contains(id)) {
+                answer(exchange, 404, "");
+            } else {
+                answer(exchange, 200, "{\"error\":false,\"data\":{\"id\":\"" + id + "\"}}");
+            }
+        }
+
+        private static void drain(InputStream in) throws IOException {
+            byte[] buffer = new byte[8192];
+            while (in.read(buffer) != -1) {
+                // the content does not matter here
+            }
+            in.close();
+        }
+
+        private static void answer(HttpExchange exchange, int code, String body) throws IOException {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(code, bytes.length == 0 ? -1 : bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+
+        void stop() {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+}
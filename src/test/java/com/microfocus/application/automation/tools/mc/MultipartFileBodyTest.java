@@ -0,0 +1,220 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.mc;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class MultipartFileBodyTest {
+
+    private static final long LARGE_APP_SIZE = 2L * 1024 * 1024 * 1024;
+    private static final String UPLOADER_HEAP = "-Xmx32m";
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void testBodyIsTheBufferedMultipartEncoding() throws Exception {
+        File app = tmp.newFile("app.apk");
+        byte[] content = new byte[200 * 1024 + 17];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) (i * 31);
+        }
+        Files.write(app.toPath(), content);
+
+        // the body as it used to be built in memory
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        expected.write(("\r\n------" + Constants.BOUNDARYSTR + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"app.apk\"\r\n"
+                + "Content-Type: application/octet-stream\r\n\r\n").getBytes());
+        expected.write(content);
+        expected.write(("\r\n------" + Constants.BOUNDARYSTR + "--\r\n").getBytes());
+
+        MultipartFileBody body = new MultipartFileBody(app, Constants.BOUNDARYSTR);
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        List<Long> progress = new ArrayList<>();
+        body.writeTo(actual, (sent, total, elapsedNanos) -> progress.add(sent));
+
+        Assert.assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+        Assert.assertEquals(expected.size(), body.getContentLength());
+        Assert.assertEquals(Long.valueOf(body.getContentLength()), progress.get(progress.size() - 1));
+        for (int i = 1; i < progress.size(); i++) {
+            Assert.assertTrue(progress.get(i) >= progress.get(i - 1));
+        }
+    }
+
+    @Test
+    public void testLargeAppIsStreamedUnderSmallHeap() throws Exception {
+        File app = new File(tmp.getRoot(), "large.ipa");
+        try (RandomAccessFile file = new RandomAccessFile(app, "rw")) {
+            file.setLength(LARGE_APP_SIZE);
+            // a few marks over the sparse file so a misplaced chunk changes the checksum
+            for (long offset = 0; offset < LARGE_APP_SIZE; offset += LARGE_APP_SIZE / 7) {
+                file.seek(offset);
+                file.write(("mark@" + offset).getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        MultipartFileBody body = new MultipartFileBody(app, Constants.BOUNDARYSTR);
+        MessageDigest expected = MessageDigest.getInstance("SHA-256");
+        try (OutputStream out = new DigestOutputStream(new NullOutputStream(), expected)) {
+            body.writeTo(out, null);
+        }
+
+        ReceivingServer server = new ReceivingServer();
+        try {
+            Process uploader = new ProcessBuilder(
+                    new File(System.getProperty("java.home"), "bin/java").getPath(), UPLOADER_HEAP,
+                    "-cp", System.getProperty("java.class.path"),
+                    MultipartFileBodyTest.class.getName(), server.getUrl(), app.getPath())
+                    .redirectErrorStream(true)
+                    .start();
+            String output = readAll(uploader.getInputStream());
+            Assert.assertTrue(uploader.waitFor(5, TimeUnit.MINUTES));
+            Assert.assertEquals(output, 0, uploader.exitValue());
+            Assert.assertTrue(output, output.contains("large.ipa: uploaded 100%"));
+
+            Assert.assertEquals(1, server.requests);
+            Assert.assertEquals(body.getContentLength(), server.received);
+            Assert.assertEquals(String.valueOf(body.getContentLength()), server.contentLength);
+            Assert.assertEquals("large.ipa", server.filename);
+            Assert.assertArrayEquals(expected.digest(), server.digest);
+        } finally {
+            server.stop();
+        }
+    }
+
+    /**
+     * uploads one file with the heap cap given to the process, exits with 1 if the upload got no answer
+     */
+    public static void main(String[] args) {
+        File app = new File(args[1]);
+        Map<String, String> headers = new HashMap<>();
+        headers.put(Constants.CONTENT_TYPE, Constants.CONTENT_TYPE_DOWNLOAD_VALUE + Constants.BOUNDARYSTR);
+        headers.put(Constants.FILENAME, app.getName());
+        HttpResponse response = HttpUtils.doPost(null, args[0], headers,
+                new MultipartFileBody(app, Constants.BOUNDARYSTR), MultipartFileBody.printProgress(System.out, app.getName()));
+        System.exit(response != null && response.getHeaders() != null ? 0 : 1);
+    }
+
+    private static String readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toString();
+    }
+
+    /**
+     * digests the request body as it arrives, like the MC server it never keeps it
+     */
+    private static class ReceivingServer {
+        private final HttpServer server;
+        private volatile int requests;
+        private volatile long received;
+        private volatile byte[] digest;
+        private volatile String contentLength;
+        private volatile String filename;
+
+        ReceivingServer() throws IOException {
+            server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            server.createContext("/rest/apps/upload", this::receive);
+            server.start();
+        }
+
+        String getUrl() {
+            return "http://127.0.0.1:" + server.getAddress().getPort() + Constants.APP_UPLOAD;
+        }
+
+        private void receive(HttpExchange exchange) throws IOException {
+            try {
+                MessageDigest sha = MessageDigest.getInstance("SHA-256");
+                long count = 0;
+                byte[] buffer = new byte[64 * 1024];
+                int read;
+                try (InputStream in = exchange.getRequestBody()) {
+                    while ((read = in.read(buffer)) != -1) {
+                        sha.update(buffer, 0, read);
+                        count += read;
+                    }
+                }
+                contentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+                filename = exchange.getRequestHeaders().getFirst(Constants.FILENAME);
+                received = count;
+                digest = sha.digest();
+                requests++;
+            } catch (NoSuchAlgorithmException e) {
+                throw new IOException(e);
+            }
+            byte[] answer = "{\"data\":{\"id\":\"1\"}}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add(Constants.CONTENT_TYPE, "application/json");
+            exchange.sendResponseHeaders(200, answer.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(answer);
+            }
+        }
+
+        void stop() {
+            server.stop(0);
+        }
+    }
+
+    private static class NullOutputStream extends OutputStream {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    }
+}
@@ -0,0 +1,325 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane;
+
+import com.squareup.tape.FileObjectQueue;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests on the persisted result queue and its segmented log
+ */
+@SuppressWarnings({"squid:S2698", "squid:S2925"})
+public class ResultQueueTest {
+
+	private static final String RATES = "resultQueue.test.rates";
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	@Test
+	public void testItemsSurviveReopenInOrder() throws IOException {
+		File queueFile = new File(tmp.getRoot(), "queue.dat");
+		FileQueue queue = new FileQueue(queueFile, 3);
+		for (int i = 0; i < 1000; i++) {
+			QueueItemHolder.add(queue, i);
+		}
+		for (int i = 0; i < 10; i++) {
+			Assert.assertEquals(i, queue.peekFirst().getBuildNumber());
+			queue.remove();
+		}
+		queue.close();
+
+		queue = new FileQueue(queueFile, 3);
+		Assert.assertEquals(990, queue.size());
+		List<ResultQueue.QueueItem> items = drain(queue);
+		Assert.assertEquals(990, items.size());
+		for (int i = 0; i < items.size(); i++) {
+			QueueItemHolder.assertItem(i + 10, items.get(i));
+		}
+		queue.close();
+	}
+
+	@Test
+	public void testFailedItemKeepsItsPosition() throws IOException {
+		File queueFile = new File(tmp.getRoot(), "queue.dat");
+		FileQueue queue = new FileQueue(queueFile, 2);
+		queue.add("job-a", 1);
+		queue.add("job-b", 2);
+		queue.add("job-c", 3);
+
+		Assert.assertEquals("job-a", queue.peekFirst().getProjectName());
+		Assert.assertTrue(queue.failed());
+		//  not due yet, the next due item is served meanwhile
+		Assert.assertEquals("job-b", queue.peekFirst().getProjectName());
+		queue.postpone(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1));
+		Assert.assertEquals("job-c", queue.peekFirst().getProjectName());
+		queue.close();
+
+		//  once due, the failed item is served first again, with its retry state persisted
+		SegmentedQueueLog log = new SegmentedQueueLog(new File(tmp.getRoot(), "queue.dat.segments"));
+		List<ResultQueue.QueueItem> due = log.peek(10, System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1));
+		Assert.assertEquals(3, due.size());
+		Assert.assertEquals("job-a", due.get(0).getProjectName());
+		Assert.assertEquals(1, due.get(0).getFailCount());
+		Assert.assertTrue(due.get(0).getSendAfter() > System.currentTimeMillis());
+		Assert.assertEquals("job-b", due.get(1).getProjectName());
+		Assert.assertEquals(0, due.get(1).getFailCount());
+		log.schedule(due.get(0), 2, 0);
+		log.close();
+
+		queue = new FileQueue(queueFile, 2);
+		Assert.assertEquals("job-a", queue.peekFirst().getProjectName());
+		Assert.assertFalse("out of retries", queue.failed());
+		Assert.assertEquals(2, queue.size());
+		queue.close();
+	}
+
+	@Test
+	public void testTornWriteIsRecovered() throws IOException {
+		File dir = tmp.newFolder();
+		SegmentedQueueLog log = new SegmentedQueueLog(dir);
+		for (int i = 0; i < 100; i++) {
+			log.append(QueueItemHolder.items(i, 1));
+		}
+		//  process dies in the middle of the last record: no close, record cut short
+		File segment = lastSegment(dir);
+		try (FileChannel channel = FileChannel.open(segment.toPath(), StandardOpenOption.WRITE)) {
+			channel.truncate(channel.size() - 5);
+		}
+
+		log = new SegmentedQueueLog(dir);
+		Assert.assertEquals(99, log.size());
+		Assert.assertEquals(98, log.peek(1000, 0).get(98).getBuildNumber());
+		log.append(QueueItemHolder.items(500, 2));
+		//  and once more, with garbage behind a complete record
+		segment = lastSegment(dir);
+		try (FileChannel channel = FileChannel.open(segment.toPath(), StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+			channel.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 20, 1, 2, 3, 4, 1, 9, 9}));
+		}
+
+		log = new SegmentedQueueLog(dir);
+		Assert.assertEquals(101, log.size());
+		List<ResultQueue.QueueItem> items = log.peek(1000, 0);
+		Assert.assertEquals(500, items.get(99).getBuildNumber());
+		Assert.assertEquals(501, items.get(100).getBuildNumber());
+		QueueItemHolder.assertItem(501, items.get(100));
+		log.close();
+	}
+
+	@Test
+	public void testSegmentsAreCompacted() throws IOException {
+		File dir = tmp.newFolder();
+		SegmentedQueueLog log = new SegmentedQueueLog(dir, 4096);
+		log.append(QueueItemHolder.items(0, 1));
+		ResultQueue.QueueItem pinned = log.peek(1, 0).get(0);
+		log.schedule(pinned, 1, 0);
+
+		for (int round = 0; round < 200; round++) {
+			List<ResultQueue.QueueItem> batch = QueueItemHolder.items(1000 + round * 20, 20);
+			log.append(batch);
+			log.remove(batch);
+			Assert.assertTrue(log.segmentCount() <= SegmentedQueueLog.MAX_SEGMENTS + 1);
+		}
+		log.close();
+
+		log = new SegmentedQueueLog(dir, 4096);
+		Assert.assertEquals(1, log.size());
+		ResultQueue.QueueItem item = log.peek(1, 0).get(0);
+		QueueItemHolder.assertItem(0, item);
+		Assert.assertEquals(1, item.getFailCount());
+		log.close();
+	}
+
+	@Test
+	public void testTapeQueueIsMigrated() throws IOException {
+		File queueFile = new File(tmp.getRoot(), "legacy-queue.dat");
+		FileObjectQueue<String> legacy = new FileObjectQueue<>(queueFile, new FileObjectQueue.Converter<String>() {
+			@Override
+			public String from(byte[] bytes) {
+				return new String(bytes, StandardCharsets.UTF_8);
+			}
+
+			@Override
+			public void toStream(String json, OutputStream bytes) throws IOException {
+				bytes.write(json.getBytes(StandardCharsets.UTF_8));
+			}
+		});
+		legacy.add("{\"project\":\"job-a\",\"build\":7,\"count\":0,\"workspace\":\"/ws/a\",\"type\":\"uft\",\"sendAfter\":0,\"instanceId\":\"i-1\"}");
+		legacy.add("{\"project\":\"job-b\",\"build\":8,\"count\":2}");
+		legacy.close();
+
+		FileQueue queue = new FileQueue(queueFile, 3);
+		Assert.assertFalse(queueFile.exists());
+		Assert.assertEquals(2, queue.size());
+		queue.close();
+
+		queue = new FileQueue(queueFile, 3);
+		List<ResultQueue.QueueItem> items = drain(queue);
+		Assert.assertEquals(2, items.size());
+		Assert.assertEquals("job-a", items.get(0).getProjectName());
+		Assert.assertEquals(7, items.get(0).getBuildNumber());
+		Assert.assertEquals("/ws/a", items.get(0).getWorkspace());
+		Assert.assertEquals("uft", items.get(0).getType());
+		Assert.assertEquals("i-1", items.get(0).getInstanceId());
+		Assert.assertEquals("job-b", items.get(1).getProjectName());
+		Assert.assertEquals(2, items.get(1).getFailCount());
+		queue.close();
+	}
+
+	/**
+	 * Measures enqueue and dequeue rates, only runs with -DresultQueue.test.rates=true
+	 */
+	@Test
+	public void testEnqueueDequeueRates() throws Exception {
+		Assume.assumeTrue(Boolean.getBoolean(RATES));
+		int singles = 2000;
+		int batched = 50_000;
+		int threads = 8;
+
+		FileQueue queue = new FileQueue(new File(tmp.getRoot(), "rates.dat"), 3);
+		long start = System.nanoTime();
+		for (int i = 0; i < singles; i++) {
+			queue.add("single", i);
+		}
+		long singleNanos = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		Thread[] writers = new Thread[threads];
+		for (int t = 0; t < threads; t++) {
+			String project = "concurrent-" + t;
+			writers[t] = new Thread(() -> {
+				for (int i = 0; i < singles; i++) {
+					queue.add(project, i);
+				}
+			});
+			writers[t].start();
+		}
+		for (Thread writer : writers) {
+			writer.join();
+		}
+		long concurrentNanos = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		for (int i = 0; i < batched; i += 100) {
+			queue.addAll(QueueItemHolder.items(i, 100));
+		}
+		long batchNanos = System.nanoTime() - start;
+
+		int total = singles + threads * singles + batched;
+		Assert.assertEquals(total, queue.size());
+		start = System.nanoTime();
+		int dequeued = 0;
+		int[] lastPerProject = new int[threads];
+		Arrays.fill(lastPerProject, -1);
+		for (ResultQueue.QueueItem item = queue.peekFirst(); item != null; item = queue.peekFirst()) {
+			if (item.getProjectName().startsWith("concurrent-")) {
+				int t = Integer.parseInt(item.getProjectName().substring("concurrent-".length()));
+				Assert.assertTrue(item.getBuildNumber() > lastPerProject[t]);
+				lastPerProject[t] = item.getBuildNumber();
+			}
+			queue.remove();
+			dequeued++;
+		}
+		long dequeueNanos = System.nanoTime() - start;
+		Assert.assertEquals(total, dequeued);
+		queue.close();
+
+		System.out.println(String.format("enqueue: %,d/s single, %,d/s from %d threads, %,d/s in batches of 100; dequeue: %,d/s",
+				rate(singles, singleNanos), rate(threads * singles, concurrentNanos), threads, rate(batched, batchNanos), rate(dequeued, dequeueNanos)));
+	}
+
+	/**
+	 * takes all the due items out of the queue, in order, the way the dispatchers consume it
+	 */
+	private static List<ResultQueue.QueueItem> drain(ResultQueue queue) {
+		List<ResultQueue.QueueItem> items = new ArrayList<>();
+		for (ResultQueue.QueueItem item = queue.peekFirst(); item != null; item = queue.peekFirst()) {
+			items.add(item);
+			queue.remove();
+		}
+		return items;
+	}
+
+	private static long rate(int count, long nanos) {
+		return count * TimeUnit.SECONDS.toNanos(1) / Math.max(1, nanos);
+	}
+
+	private static File lastSegment(File dir) {
+		File[] files = dir.listFiles();
+		Assert.assertNotNull(files);
+		Arrays.sort(files);
+		return files[files.length - 1];
+	}
+
+	private static final class FileQueue extends AbstractResultQueueImpl {
+		private FileQueue(File queueFile, int maxRetries) throws IOException {
+			super(maxRetries);
+			init(queueFile);
+		}
+	}
+
+	private static final class QueueItemHolder {
+		private static void add(ResultQueue queue, int i) {
+			queue.add(items(i, 1).get(0));
+		}
+
+		private static List<ResultQueue.QueueItem> items(int from, int count) {
+			List<ResultQueue.QueueItem> items = new ArrayList<>(count);
+			for (int i = from; i < from + count; i++) {
+				ResultQueue.QueueItem item = new ResultQueue.QueueItem("job-" + i, i % 2 == 0 ? null : "type-" + i, i);
+				item.setInstanceId(i % 3 == 0 ? null : "instance-ש-" + i);
+				item.setSendAfter(0);
+				items.add(item);
+			}
+			return items;
+		}
+
+		private static void assertItem(int i, ResultQueue.QueueItem item) {
+			Assert.assertEquals("job-" + i, item.getProjectName());
+			Assert.assertEquals(i, item.getBuildNumber());
+			Assert.assertEquals(i % 2 == 0 ? null : "type-" + i, item.getType());
+			Assert.assertEquals(i % 3 == 0 ? null : "instance-ש-" + i, item.getInstanceId());
+			Assert.assertNull(item.getWorkspace());
+		}
+	}
+}
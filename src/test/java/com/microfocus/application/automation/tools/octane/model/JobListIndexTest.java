@@ -0,0 +1,256 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of {@link JobListIndex} over a fake item tree.
+ */
+public class JobListIndexTest {
+
+	private static final Predicate<String> ALL = name -> true;
+
+	@Test
+	public void testIndexIsBuiltOnFirstQuery() {
+		FakeItemTree tree = new FakeItemTree().addJobs("job", 3);
+		JobListIndex<String> index = new JobListIndex<>(tree);
+
+		assertEquals(0, tree.createdNodes.get());
+		assertEquals(Arrays.asList("job0", "job1", "job2"), index.getAll(false, ALL));
+		assertEquals(3, tree.createdNodes.get());
+
+		index.getAll(false, ALL);
+		assertEquals(3, tree.createdNodes.get());
+	}
+
+	@Test
+	public void testEventsUpdateIndex() {
+		FakeItemTree tree = new FakeItemTree().addJobs("job", 2);
+		JobListIndex<String> index = new JobListIndex<>(tree);
+		index.getAll(false, ALL);
+
+		tree.jobs.put("created", "created");
+		index.refresh("created");
+		tree.jobs.remove("job0");
+		index.remove("job0");
+		tree.jobs.remove("job1");
+		tree.jobs.put("renamed", "renamed");
+		index.remove("job1");
+		index.refresh("renamed");
+
+		assertEquals(Arrays.asList("created", "renamed"), index.getAll(false, ALL));
+		assertEquals(0, index.checkConsistency());
+	}
+
+	@Test
+	public void testUpdateRecreatesNode() {
+		FakeItemTree tree = new FakeItemTree().addJobs("job", 1);
+		JobListIndex<String> index = new JobListIndex<>(tree);
+		index.getAll(false, ALL);
+
+		tree.version = 2;
+		index.refresh("job0");
+
+		assertEquals(Collections.singletonList("job0@2"), index.getAll(false, ALL));
+	}
+
+	@Test
+	public void testDisabledJobIsNotListed() {
+		FakeItemTree tree = new FakeItemTree().addJobs("job", 2);
+		JobListIndex<String> index = new JobListIndex<>(tree);
+		index.getAll(false, ALL);
+
+		tree.jobs.put("job1", null);
+		index.refresh("job1");
+
+		assertEquals(Collections.singletonList("job0"), index.getAll(false, ALL));
+	}
+
+	@Test
+	public void testBranchesAreListedAsTheirMultibranchProject() {
+		FakeItemTree tree = new FakeItemTree();
+		tree.jobs.put("mb/master", "mb");
+		tree.jobs.put("mb/feature", "mb");
+		tree.jobs.put("other", "other");
+		JobListIndex<String> index = new JobListIndex<>(tree);
+
+		assertEquals(Arrays.asList("mb", "other"), index.getAll(false, ALL));
+
+		tree.jobs.remove("mb/master");
+		index.remove("mb/master");
+		assertEquals(Arrays.asList("mb", "other"), index.getAll(false, ALL));
+
+		tree.jobs.remove("mb/feature");
+		index.remove("mb/feature");
+		assertEquals(Collections.singletonList("other"), index.getAll(false, ALL));
+	}
+
+	@Test
+	public void testFolderRemovalRemovesNestedJobs() {
+		FakeItemTree tree = new FakeItemTree().addJobs("folder/job", 3).addJobs("folder2/job", 1);
+		JobListIndex<String> index = new JobListIndex<>(tree);
+		index.getAll(false, ALL);
+
+		index.removeFolder("folder");
+
+		assertEquals(Collections.singletonList("folder2/job0"), index.getAll(false, ALL));
+	}
+
+	@Test
+	public void testPagedPrefixQuery() {
+		FakeItemTree tree = new FakeItemTree().addJobs("a/job", 10).addJobs("b/job", 10);
+		JobListIndex<String> index = new JobListIndex<>(tree);
+
+		assertEquals(Arrays.asList("b/job0", "b/job1", "b/job2"), index.query("b/", 0, 3, false, ALL));
+		assertEquals(Arrays.asList("b/job3", "b/job4", "b/job5"), index.query("b/", 3, 3, false, ALL));
+		assertEquals(Collections.singletonList("b/job9"), index.query("b/", 9, 3, false, ALL));
+		assertEquals(Collections.emptyList(), index.query("c/", 0, 3, false, ALL));
+	}
+
+	@Test
+	public void testQueryAppliesVisibility() {
+		FakeItemTree tree = new FakeItemTree().addJobs("job", 6);
+		JobListIndex<String> index = new JobListIndex<>(tree);
+		Predicate<String> evenOnly = name -> (name.charAt(name.length() - 1) - '0') % 2 == 0;
+
+		assertEquals(Arrays.asList("job2", "job4"), index.query("", 1, 10, false, evenOnly));
+	}
+
+	@Test
+	public void testParametersAreCreatedOnceUntilInvalidated() {
+		FakeItemTree tree = new FakeItemTree().addJobs("job", 5);
+		JobListIndex<String> index = new JobListIndex<>(tree);
+
+		assertEquals("job0+parameters", index.getAll(true, ALL).get(0));
+		assertEquals(10, tree.createdNodes.get());
+		index.getAll(true, ALL);
+		assertEquals(10, tree.createdNodes.get());
+
+		index.invalidateParameters();
+		index.getAll(true, ALL);
+		assertEquals(15, tree.createdNodes.get());
+	}
+
+	@Test
+	public void testConsistencyCheckRepairsMissedEvents() {
+		FakeItemTree tree = new FakeItemTree().addJobs("job", 5);
+		JobListIndex<String> index = new JobListIndex<>(tree);
+		index.getAll(false, ALL);
+
+		// events that never reached the index
+		tree.jobs.remove("job1");
+		tree.jobs.put("job2", null);
+		tree.jobs.put("job7", "job7");
+		tree.jobs.put("mb/master", "mb");
+
+		assertEquals(4, index.checkConsistency());
+		assertEquals(Arrays.asList("job0", "job3", "job4", "job7", "mb"), index.getAll(false, ALL));
+		assertEquals(0, index.checkConsistency());
+	}
+
+	@Test
+	public void testQueryLatencyDoesNotDependOnJobCount() {
+		JobListIndex<String> small = new JobListIndex<>(new FakeItemTree().addJobs("folder/job", 1000));
+		FakeItemTree largeTree = new FakeItemTree();
+		for (int folder = 0; folder < 20; folder++) {
+			largeTree.addJobs("folder" + (folder == 0 ? "" : folder) + "/job", 1000);
+		}
+		JobListIndex<String> large = new JobListIndex<>(largeTree);
+		assertEquals(20000, large.getAll(false, ALL).size());
+		int created = largeTree.createdNodes.get();
+
+		long smallNanos = Long.MAX_VALUE;
+		long largeNanos = Long.MAX_VALUE;
+		for (int round = 0; round < 20; round++) {
+			smallNanos = Math.min(smallNanos, timeQueries(small));
+			largeNanos = Math.min(largeNanos, timeQueries(large));
+		}
+		System.out.println("1000 page queries: 1k jobs " + smallNanos / 1000 + " us, 20k jobs " + largeNanos / 1000 + " us");
+
+		assertEquals("queries do not resolve jobs", created, largeTree.createdNodes.get());
+		assertTrue("1k jobs " + smallNanos + " ns, 20k jobs " + largeNanos + " ns", largeNanos < smallNanos * 3 + 2000000);
+	}
+
+	private static long timeQueries(JobListIndex<String> index) {
+		long start = System.nanoTime();
+		for (int i = 0; i < 1000; i++) {
+			List<String> page = index.query("folder/job5", 0, 20, false, ALL);
+			if (page.size() != 20) {
+				throw new AssertionError("page of " + page.size());
+			}
+		}
+		return System.nanoTime() - start;
+	}
+
+	/**
+	 * Item tree of jobs: job name to the node it is listed under, null for a job that is not listed.
+	 */
+	private static class FakeItemTree implements JobListIndex.Resolver<String> {
+		private final Map<String, String> jobs = new TreeMap<>();
+		private final AtomicInteger createdNodes = new AtomicInteger();
+		private int version = 1;
+
+		private FakeItemTree addJobs(String prefix, int count) {
+			for (int i = 0; i < count; i++) {
+				jobs.put(prefix + i, prefix + i);
+			}
+			return this;
+		}
+
+		@Override
+		public Collection<String> getJobNames() {
+			return new ArrayList<>(jobs.keySet());
+		}
+
+		@Override
+		public String getNodeName(String jobName) {
+			return jobs.get(jobName);
+		}
+
+		@Override
+		public String createNode(String nodeName, String jobName, boolean includeParameters) {
+			createdNodes.incrementAndGet();
+			return nodeName + (version > 1 ? "@" + version : "") + (includeParameters ? "+parameters" : "");
+		}
+	}
+}
@@ -0,0 +1,319 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.model.processors.scm;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.MergeResult;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares the blame of {@link GitBlameCache} with the blame of JGit on a generated repository.
+ */
+public class GitBlameCacheTest {
+
+	private static final String[] FILES = {"src/Hot.java", "src/Warm.java", "README.md"};
+
+	private final Random random = new Random(42);
+	private File root;
+	private Git git;
+	private Repository repo;
+
+	@Before
+	public void setUp() throws Exception {
+		root = Files.createTempDirectory("blame-cache").toFile();
+		git = Git.init().setDirectory(root).call();
+		repo = git.getRepository();
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		git.close();
+		try (Stream<java.nio.file.Path> paths = Files.walk(root.toPath())) {
+			paths.sorted(Comparator.reverseOrder()).map(java.nio.file.Path::toFile).forEach(File::delete);
+		}
+	}
+
+	@Test
+	public void testCachedBlameMatchesFullBlameOverLongHistory() throws Exception {
+		File cacheDir = new File(repo.getDirectory(), GitBlameCache.DIRECTORY_NAME);
+		List<String[]> contents = initialContents();
+		commitAll(contents, "initial");
+
+		long fullTime = 0;
+		long cachedTime = 0;
+		int incremental = 0;
+		int computed = 0;
+		for (int build = 0; build < 20; build++) {
+			for (int i = 0; i < 100; i++) {
+				editRandomly(contents);
+				commitAll(contents, "commit " + build + "." + i);
+			}
+			if (build % 5 == 4) {
+				mergeSideBranch(contents, build);
+			}
+
+			RevCommit head = parseHead();
+			try (GitBlameCache cache = new GitBlameCache(cacheDir, GitBlameCache.DEFAULT_MAX_SIZE)) {
+				for (String file : FILES) {
+					long start = System.nanoTime();
+					ObjectId[] expected = GitBlameCache.blameFully(repo, head, file);
+					fullTime += System.nanoTime() - start;
+
+					start = System.nanoTime();
+					ObjectId[] actual = cache.blame(repo, head, file);
+					cachedTime += System.nanoTime() - start;
+
+					assertArrayEquals("blame of " + file + " at build " + build, expected, actual);
+				}
+				incremental += cache.getIncremental();
+				computed += cache.getComputed();
+			}
+		}
+
+		System.out.println("Blame of " + FILES.length + " files over 20 builds of 100 commits: full " + fullTime / 1000000
+				+ " ms, cached " + cachedTime / 1000000 + " ms (" + incremental + " incremental, " + computed + " computed)");
+		// the first build, and the build after the merge that changed the hot file on both sides
+		assertEquals(FILES.length + 1, computed);
+		assertTrue(incremental > 0);
+		assertTrue(cachedTime < fullTime);
+	}
+
+	@Test
+	public void testSameRevisionIsServedFromCache() throws Exception {
+		File cacheDir = new File(repo.getDirectory(), GitBlameCache.DIRECTORY_NAME);
+		List<String[]> contents = initialContents();
+		commitAll(contents, "initial");
+		editRandomly(contents);
+		commitAll(contents, "second");
+		RevCommit head = parseHead();
+
+		ObjectId[] first;
+		try (GitBlameCache cache = new GitBlameCache(cacheDir, GitBlameCache.DEFAULT_MAX_SIZE)) {
+			first = cache.blame(repo, head, FILES[0]);
+			assertNull(cache.blame(repo, head, "missing.txt"));
+			assertEquals(1, cache.getComputed());
+		}
+		try (GitBlameCache cache = new GitBlameCache(cacheDir, GitBlameCache.DEFAULT_MAX_SIZE)) {
+			assertArrayEquals(first, cache.blame(repo, head, FILES[0]));
+			assertEquals(1, cache.getHits());
+			assertEquals(0, cache.getComputed());
+		}
+	}
+
+	@Test
+	public void testUnreadableEntryFallsBackToFullBlame() throws Exception {
+		File cacheDir = new File(repo.getDirectory(), GitBlameCache.DIRECTORY_NAME);
+		List<String[]> contents = initialContents();
+		commitAll(contents, "initial");
+		RevCommit head = parseHead();
+		try (GitBlameCache cache = new GitBlameCache(cacheDir, GitBlameCache.DEFAULT_MAX_SIZE)) {
+			cache.blame(repo, head, FILES[0]);
+		}
+		for (File file : cacheDir.listFiles((dir, name) -> name.endsWith(".blame"))) {
+			Files.write(file.toPath(), "garbage".getBytes(StandardCharsets.UTF_8));
+		}
+
+		try (GitBlameCache cache = new GitBlameCache(cacheDir, GitBlameCache.DEFAULT_MAX_SIZE)) {
+			assertArrayEquals(GitBlameCache.blameFully(repo, head, FILES[0]), cache.blame(repo, head, FILES[0]));
+			assertEquals(0, cache.getHits());
+			assertEquals(1, cache.getComputed());
+		}
+	}
+
+	@Test
+	public void testLeastRecentlyUsedEntriesAreEvictedOverBudget() throws Exception {
+		File cacheDir = new File(repo.getDirectory(), GitBlameCache.DIRECTORY_NAME);
+		List<String[]> contents = initialContents();
+		commitAll(contents, "initial");
+		List<RevCommit> heads = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			editRandomly(contents);
+			commitAll(contents, "commit " + i);
+			heads.add(parseHead());
+		}
+
+		long entrySize;
+		try (GitBlameCache cache = new GitBlameCache(cacheDir, GitBlameCache.DEFAULT_MAX_SIZE)) {
+			cache.blame(repo, heads.get(0), FILES[0]);
+			entrySize = cache.getSize();
+		}
+		long budget = entrySize * 5;
+		try (GitBlameCache cache = new GitBlameCache(cacheDir, budget)) {
+			for (RevCommit head : heads) {
+				for (String file : FILES) {
+					cache.blame(repo, head, file);
+				}
+			}
+			// keep the oldest revision of the hot file in use
+			cache.blame(repo, heads.get(0), FILES[0]);
+			assertTrue(cache.getSize() > budget);
+		}
+
+		try (GitBlameCache cache = new GitBlameCache(cacheDir, budget)) {
+			assertTrue(cache.getSize() <= budget);
+			assertEquals(cache.getSize(), sizeOfEntryFiles(cacheDir));
+			cache.blame(repo, heads.get(0), FILES[0]);
+			cache.blame(repo, heads.get(9), FILES[2]);
+			assertEquals(2, cache.getHits());
+		}
+	}
+
+	private long sizeOfEntryFiles(File cacheDir) {
+		long size = 0;
+		for (File file : cacheDir.listFiles((dir, name) -> name.endsWith(".blame"))) {
+			size += file.length();
+		}
+		return size;
+	}
+
+	private List<String[]> initialContents() {
+		List<String[]> contents = new ArrayList<>();
+		for (int f = 0; f < FILES.length; f++) {
+			String[] lines = new String[200 + f * 100];
+			for (int i = 0; i < lines.length; i++) {
+				lines[i] = "line " + i + " of " + FILES[f];
+			}
+			contents.add(lines);
+		}
+		return contents;
+	}
+
+	/**
+	 * Inserts, deletes or replaces a few lines of one file, the first file is changed most often.
+	 */
+	private void editRandomly(List<String[]> contents) {
+		int f = random.nextInt(10) < 6 ? 0 : 1 + random.nextInt(FILES.length - 1);
+		List<String> lines = new ArrayList<>(java.util.Arrays.asList(contents.get(f)));
+		int at = random.nextInt(lines.size());
+		int count = 1 + random.nextInt(4);
+		switch (random.nextInt(3)) {
+			case 0:
+				for (int i = 0; i < count; i++) {
+					lines.add(at, "added " + random.nextInt());
+				}
+				break;
+			case 1:
+				for (int i = 0; i < count && lines.size() > 50 && at < lines.size(); i++) {
+					lines.remove(at);
+				}
+				break;
+			default:
+				for (int i = 0; i < count && at + i < lines.size(); i++) {
+					lines.set(at + i, "changed " + random.nextInt());
+				}
+				break;
+		}
+		contents.set(f, lines.toArray(new String[0]));
+	}
+
+	/**
+	 * Changes a file on a side branch, another file on the main line, and merges: every third merge also changes the
+	 * first file on both sides, so that the merged file differs from both parents.
+	 */
+	private void mergeSideBranch(List<String[]> contents, int build) throws Exception {
+		String branch = "side" + build;
+		RevCommit base = parseHead();
+		git.branchCreate().setName(branch).call();
+		String mainBranch = repo.getBranch();
+
+		git.checkout().setName(branch).call();
+		List<String[]> side = new ArrayList<>(contents);
+		side.set(1, prepend(side.get(1), "side change " + build));
+		boolean conflicting = build % 3 == 2;
+		if (conflicting) {
+			side.set(0, prepend(side.get(0), "side head " + build));
+		}
+		commitAll(side, "side " + build);
+
+		git.checkout().setName(mainBranch).call();
+		contents.set(2, prepend(contents.get(2), "main change " + build));
+		if (conflicting) {
+			String[] hot = contents.get(0).clone();
+			hot[hot.length - 1] = "main tail " + build;
+			contents.set(0, hot);
+		}
+		commitAll(contents, "main " + build);
+
+		MergeResult result = git.merge().include(repo.resolve(branch)).setMessage("merge " + build).call();
+		assertTrue(result.getMergeStatus().isSuccessful());
+		for (int f = 0; f < FILES.length; f++) {
+			contents.set(f, read(FILES[f]));
+		}
+		assertTrue(!parseHead().equals(base));
+	}
+
+	private static String[] prepend(String[] lines, String line) {
+		String[] result = new String[lines.length + 1];
+		result[0] = line;
+		System.arraycopy(lines, 0, result, 1, lines.length);
+		return result;
+	}
+
+	private String[] read(String file) throws IOException {
+		return Files.readAllLines(new File(root, file).toPath(), StandardCharsets.UTF_8).toArray(new String[0]);
+	}
+
+	private void commitAll(List<String[]> contents, String message) throws Exception {
+		for (int f = 0; f < FILES.length; f++) {
+			File file = new File(root, FILES[f]);
+			file.getParentFile().mkdirs();
+			Files.write(file.toPath(), (String.join("\n", contents.get(f)) + "\n").getBytes(StandardCharsets.UTF_8));
+		}
+		git.add().addFilepattern(".").call();
+		git.commit().setMessage(message).setAuthor("dev", "dev@example.com").setCommitter("dev", "dev@example.com").call();
+	}
+
+	private RevCommit parseHead() throws IOException {
+		try (RevWalk walk = new RevWalk(repo)) {
+			return walk.parseCommit(repo.resolve(Constants.HEAD));
+		}
+	}
+}
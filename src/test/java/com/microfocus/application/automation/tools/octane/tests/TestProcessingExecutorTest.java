@@ -0,0 +1,248 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.tests;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests on the background test results processing executor and its journal
+ */
+@SuppressWarnings({"squid:S2698", "squid:S2925"})
+public class TestProcessingExecutorTest {
+
+	private static final int LARGE_REPORT_TESTS = 100_000;
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	private final List<TestProcessingExecutor> executors = new ArrayList<>();
+
+	@After
+	public void tearDown() {
+		for (TestProcessingExecutor executor : executors) {
+			executor.stop();
+		}
+	}
+
+	@Test
+	public void testSubmitReturnsWhileLargeReportIsProcessed() throws Exception {
+		File report = writeJUnitReport(tmp.newFile("junit.xml"), LARGE_REPORT_TESTS);
+		CountDownLatch gate = new CountDownLatch(1);
+		AtomicInteger parsed = new AtomicInteger();
+		List<Long> processingNanos = Collections.synchronizedList(new ArrayList<>());
+		TestProcessingExecutor executor = newExecutor(tmp.newFolder(), work -> {
+			if (!"pipeline".equals(work.jobName)) {
+				return;
+			}
+			gate.await();
+			long start = System.nanoTime();
+			parsed.addAndGet(countTestCases(report));
+			processingNanos.add(System.nanoTime() - start);
+		}, 2, 100);
+
+		executor.submit("warm-up", 1);
+		Assert.assertTrue(executor.awaitIdle(1, TimeUnit.MINUTES));
+
+		//  what the pipeline listener does on the CPS VM thread: submit and go on, no matter how big the report is
+		long submitNanos = 0;
+		for (int build = 1; build <= 3; build++) {
+			long start = System.nanoTime();
+			executor.submit("pipeline", build);
+			submitNanos = Math.max(submitNanos, System.nanoTime() - start);
+		}
+		Assert.assertEquals("nothing may be processed on the submitting thread", 0, parsed.get());
+
+		gate.countDown();
+		Assert.assertTrue(executor.awaitIdle(2, TimeUnit.MINUTES));
+		Assert.assertEquals(3 * LARGE_REPORT_TESTS, parsed.get());
+		long slowestProcessing = Collections.max(processingNanos);
+		System.out.println("slowest submit " + TimeUnit.NANOSECONDS.toMicros(submitNanos) + "us, processing of "
+				+ LARGE_REPORT_TESTS + " tests " + TimeUnit.NANOSECONDS.toMillis(slowestProcessing) + "ms");
+		Assert.assertTrue("submit should not depend on the report size", submitNanos * 10 < slowestProcessing);
+	}
+
+	@Test
+	public void testBuildsOfSameJobAreProcessedInOrder() throws Exception {
+		Map<String, List<Integer>> processedBuilds = new HashMap<>();
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maxRunning = new AtomicInteger();
+		TestProcessingExecutor executor = newExecutor(tmp.newFolder(), work -> {
+			int now = running.incrementAndGet();
+			maxRunning.accumulateAndGet(now, Math::max);
+			Thread.sleep(work.buildNumber % 3);
+			synchronized (processedBuilds) {
+				processedBuilds.computeIfAbsent(work.jobName, k -> new ArrayList<>()).add(work.buildNumber);
+			}
+			running.decrementAndGet();
+		}, 4, 1000);
+
+		int jobs = 6;
+		int builds = 40;
+		for (int build = 1; build <= builds; build++) {
+			for (int job = 0; job < jobs; job++) {
+				executor.submit("job-" + job, build);
+			}
+		}
+		Assert.assertTrue(executor.awaitIdle(1, TimeUnit.MINUTES));
+
+		Assert.assertEquals(jobs, processedBuilds.size());
+		for (List<Integer> buildNumbers : processedBuilds.values()) {
+			Assert.assertEquals(builds, buildNumbers.size());
+			for (int i = 0; i < builds; i++) {
+				Assert.assertEquals(i + 1, (int) buildNumbers.get(i));
+			}
+		}
+		Assert.assertTrue("different jobs should be processed in parallel", maxRunning.get() > 1);
+	}
+
+	@Test
+	public void testWorkBeyondCapacityIsKeptInJournal() throws Exception {
+		File journalFolder = tmp.newFolder();
+		CountDownLatch gate = new CountDownLatch(1);
+		List<Integer> processedBuilds = Collections.synchronizedList(new ArrayList<>());
+		TestProcessingExecutor executor = newExecutor(journalFolder, work -> {
+			gate.await();
+			processedBuilds.add(work.buildNumber);
+		}, 2, 5);
+
+		int builds = 200;
+		for (int build = 1; build <= builds; build++) {
+			executor.submit("job-" + (build % 2), build);
+		}
+		Assert.assertTrue(executor.getInMemoryCount() <= 5);
+		Assert.assertEquals(builds, new TestProcessingJournal(journalFolder).size());
+
+		gate.countDown();
+		Assert.assertTrue(executor.awaitIdle(1, TimeUnit.MINUTES));
+		Assert.assertEquals(builds, processedBuilds.size());
+		Assert.assertEquals(0, new TestProcessingJournal(journalFolder).size());
+		int[] last = new int[2];
+		for (int build : processedBuilds) {
+			Assert.assertTrue("builds of a job must keep their order", build > last[build % 2]);
+			last[build % 2] = build;
+		}
+	}
+
+	@Test
+	public void testPendingWorkSurvivesRestart() throws Exception {
+		File journalFolder = tmp.newFolder();
+		CountDownLatch neverOpened = new CountDownLatch(1);
+		TestProcessingExecutor beforeRestart = newExecutor(journalFolder, work -> neverOpened.await(), 1, 3);
+		for (int build = 1; build <= 10; build++) {
+			beforeRestart.submit("job", build);
+		}
+		beforeRestart.stop();
+		Assert.assertEquals(0, beforeRestart.getProcessedCount());
+
+		List<Integer> processedBuilds = Collections.synchronizedList(new ArrayList<>());
+		TestProcessingExecutor afterRestart = newExecutor(journalFolder, work -> processedBuilds.add(work.buildNumber), 1, 3);
+		afterRestart.submit("job", 11);
+		afterRestart.recover();
+		Assert.assertTrue(afterRestart.awaitIdle(1, TimeUnit.MINUTES));
+
+		Assert.assertEquals(11, processedBuilds.size());
+		for (int build = 1; build <= 11; build++) {
+			Assert.assertEquals(build, (int) processedBuilds.get(build - 1));
+		}
+		Assert.assertEquals(0, new TestProcessingJournal(journalFolder).size());
+	}
+
+	@Test
+	public void testUnreadableWorkIsSetAsideAndTheRestIsProcessed() throws Exception {
+		File journalFolder = tmp.newFolder();
+		TestProcessingJournal journal = new TestProcessingJournal(journalFolder);
+		for (int build = 1; build <= 3; build++) {
+			journal.add("job", build);
+		}
+		//  what a power loss can leave behind of a renamed but never flushed file
+		File truncated = new File(journalFolder, String.format("%019d", 2) + ".work");
+		new FileOutputStream(truncated).close();
+
+		List<Integer> processedBuilds = Collections.synchronizedList(new ArrayList<>());
+		TestProcessingExecutor executor = newExecutor(journalFolder, work -> processedBuilds.add(work.buildNumber), 1, 3);
+		executor.recover();
+		Assert.assertTrue(executor.awaitIdle(1, TimeUnit.MINUTES));
+
+		Assert.assertEquals(2, processedBuilds.size());
+		Assert.assertEquals(1, (int) processedBuilds.get(0));
+		Assert.assertEquals(3, (int) processedBuilds.get(1));
+		Assert.assertEquals(0, new TestProcessingJournal(journalFolder).size());
+		Assert.assertTrue("the unreadable work must be kept for the operator",
+				new File(journalFolder, truncated.getName() + ".unreadable").isFile());
+	}
+
+	private TestProcessingExecutor newExecutor(File journalFolder, TestProcessingExecutor.Processor processor, int threads, int capacity) throws IOException {
+		TestProcessingExecutor executor = new TestProcessingExecutor(new TestProcessingJournal(journalFolder), processor, threads, capacity);
+		executors.add(executor);
+		return executor;
+	}
+
+	private static File writeJUnitReport(File file, int tests) throws IOException {
+		try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+			writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<testsuite name=\"large\" tests=\"" + tests + "\">\n");
+			for (int i = 0; i < tests; i++) {
+				writer.write("<testcase classname=\"com.acme.Test" + (i / 100) + "\" name=\"test" + i + "\" time=\"0.01\"/>\n");
+			}
+			writer.write("</testsuite>\n");
+		}
+		return file;
+	}
+
+	private static int countTestCases(File report) throws Exception {
+		int count = 0;
+		try (InputStream in = new BufferedInputStream(new FileInputStream(report))) {
+			XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(in);
+			while (reader.hasNext()) {
+				if (reader.next() == XMLStreamConstants.START_ELEMENT && "testcase".equals(reader.getLocalName())) {
+					count++;
+				}
+			}
+			reader.close();
+		}
+		return count;
+	}
+}
@@ -0,0 +1,181 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.tests.impl;
+
+import com.hp.octane.integrations.testresults.XmlWritableTestResult;
+import com.microfocus.application.automation.tools.octane.tests.HPRunnerType;
+import com.microfocus.application.automation.tools.octane.tests.junit.JUnitTestResult;
+import com.microfocus.application.automation.tools.octane.tests.junit.TestError;
+import com.microfocus.application.automation.tools.octane.tests.junit.TestResultStatus;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests on the intermediate JUnit result record format
+ */
+@SuppressWarnings({"squid:S2698"})
+public class JUnitTestResultRecordTest {
+
+	private static final int LARGE_RESULT_COUNT = 500_000;
+	private static final long ALLOWED_HEAP_GROWTH = 32L * 1024 * 1024;
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		List<JUnitTestResult> expected = new ArrayList<>();
+		expected.add(new JUnitTestResult("module", "com.acme", "FooTest", "testA", TestResultStatus.PASSED, 12, 1000, null, null, null, null, null, null, false));
+		expected.add(new JUnitTestResult("module", "com.acme", "FooTest", "testB", TestResultStatus.FAILED, 0, 900,
+				new TestError("at com.acme.FooTest.testB(FooTest.java:10)", "java.lang.AssertionError", "expected:<1> but was:<2>"),
+				"http://host/report", "some description", HPRunnerType.UFT, "42", null, true));
+		expected.add(new JUnitTestResult(null, "", "BarTest", "", TestResultStatus.SKIPPED, -1, 0, null, null, null, HPRunnerType.NONE, null, null, false));
+		expected.add(new JUnitTestResult("other", "com.acme", "FooTest", "\u05e9\u05dc\u05d5\u05dd \u4f60\u597d", null, Long.MAX_VALUE, Long.MIN_VALUE, null, null, null, null, null, null, false));
+		expected.add(new JUnitTestResult("module", "com.acme", "FooTest", "testC", TestResultStatus.PASSED, 1, 5000,
+				new TestError(null, "java.lang.AssertionError", "warning"), null, null, null, null, new ArrayList<>(), false));
+
+		File file = tmp.newFile();
+		try (JUnitTestResultRecordWriter writer = new JUnitTestResultRecordWriter(new FileOutputStream(file))) {
+			for (JUnitTestResult result : expected) {
+				writer.write(result);
+			}
+		}
+
+		JUnitTestResultRecordIterator iterator = new JUnitTestResultRecordIterator(new FileInputStream(file));
+		for (JUnitTestResult exp : expected) {
+			Assert.assertTrue(iterator.hasNext());
+			assertResultEquals(exp, (JUnitTestResult) iterator.next());
+		}
+		Assert.assertFalse(iterator.hasNext());
+	}
+
+	@Test
+	public void testEmptyStream() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new JUnitTestResultRecordWriter(out).close();
+		JUnitTestResultRecordIterator iterator = new JUnitTestResultRecordIterator(new ByteArrayInputStream(out.toByteArray()));
+		Assert.assertFalse(iterator.hasNext());
+	}
+
+	@Test(expected = IOException.class)
+	public void testUnknownFormatRejected() throws IOException {
+		new JUnitTestResultRecordIterator(new ByteArrayInputStream(new byte[]{(byte) 0xAC, (byte) 0xED, 0, 5, 0}));
+	}
+
+	@Test
+	public void testTruncatedStreamStopsIteration() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (JUnitTestResultRecordWriter writer = new JUnitTestResultRecordWriter(out)) {
+			writer.write(createResult(1));
+			writer.write(createResult(2));
+		}
+		byte[] bytes = out.toByteArray();
+		JUnitTestResultRecordIterator iterator = new JUnitTestResultRecordIterator(new ByteArrayInputStream(bytes, 0, bytes.length - 3));
+		Assert.assertTrue(iterator.hasNext());
+		assertResultEquals(createResult(1), (JUnitTestResult) iterator.next());
+		Assert.assertFalse(iterator.hasNext());
+	}
+
+	@Test
+	public void testHeapStaysFlatOnLargeStreams() throws IOException {
+		File file = tmp.newFile();
+		long baseline = 0;
+		try (JUnitTestResultRecordWriter writer = new JUnitTestResultRecordWriter(new FileOutputStream(file))) {
+			for (int i = 0; i < LARGE_RESULT_COUNT; i++) {
+				writer.write(createResult(i));
+				if (i == LARGE_RESULT_COUNT / 10) {
+					baseline = usedHeap();
+				}
+			}
+			assertHeapGrowth("encoding", baseline, usedHeap());
+		}
+
+		int count = 0;
+		JUnitTestResultRecordIterator iterator = new JUnitTestResultRecordIterator(new FileInputStream(file));
+		while (iterator.hasNext()) {
+			XmlWritableTestResult result = iterator.next();
+			if (count == LARGE_RESULT_COUNT / 10) {
+				baseline = usedHeap();
+			}
+			if (count % 100_000 == 0) {
+				assertResultEquals(createResult(count), (JUnitTestResult) result);
+			}
+			count++;
+		}
+		assertHeapGrowth("decoding", baseline, usedHeap());
+		Assert.assertEquals(LARGE_RESULT_COUNT, count);
+		Assert.assertTrue("expected less than 40 bytes per result, file size " + file.length(), file.length() < 40L * LARGE_RESULT_COUNT);
+	}
+
+	private static JUnitTestResult createResult(int i) {
+		return new JUnitTestResult("module-" + (i % 10), "com.acme.pkg" + (i % 100), "Class" + (i % 5000), "test" + i,
+				i % 7 == 0 ? TestResultStatus.SKIPPED : TestResultStatus.PASSED, i % 1000, 1_600_000_000_000L + i, null, null, null, HPRunnerType.NONE, null, null, false);
+	}
+
+	private static void assertHeapGrowth(String phase, long baseline, long current) {
+		Assert.assertTrue("heap grew by " + (current - baseline) + " bytes while " + phase, current - baseline < ALLOWED_HEAP_GROWTH);
+	}
+
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	private static void assertResultEquals(JUnitTestResult expected, JUnitTestResult actual) {
+		Assert.assertEquals(expected.getModuleName(), actual.getModuleName());
+		Assert.assertEquals(expected.getPackageName(), actual.getPackageName());
+		Assert.assertEquals(expected.getClassName(), actual.getClassName());
+		Assert.assertEquals(expected.getTestName(), actual.getTestName());
+		Assert.assertEquals(expected.getResult(), actual.getResult());
+		Assert.assertEquals(expected.getDuration(), actual.getDuration());
+		Assert.assertEquals(expected.getStarted(), actual.getStarted());
+		Assert.assertEquals(expected.getExternalReportUrl(), actual.getExternalReportUrl());
+		Assert.assertEquals(expected.getDescription(), actual.getDescription());
+		Assert.assertEquals(expected.getRunnerType(), actual.getRunnerType());
+		Assert.assertEquals(expected.getExternalRunId(), actual.getExternalRunId());
+		Assert.assertEquals(expected.getUftResultData(), actual.getUftResultData());
+		Assert.assertEquals(expected.isOctaneSupportsSteps(), actual.isOctaneSupportsSteps());
+		if (expected.getTestError() == null) {
+			Assert.assertNull(actual.getTestError());
+		} else {
+			Assert.assertEquals(expected.getTestError().getErrorType(), actual.getTestError().getErrorType());
+			Assert.assertEquals(expected.getTestError().getErrorMsg(), actual.getTestError().getErrorMsg());
+			Assert.assertEquals(expected.getTestError().getStackTraceStr(), actual.getTestError().getStackTraceStr());
+		}
+	}
+}
@@ -0,0 +1,177 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.tests.junit;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+/**
+ * Tests on the index of the UFT report folders and the run results read from them
+ */
+public class UftReportsTest {
+
+	private static final int TEST_COUNT = 20_000;
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	@Test
+	public void testTwentyThousandTestWorkspace() throws Exception {
+		File buildRoot = tmp.newFolder("build");
+		File reportRoot = new File(buildRoot, "archive/UFTReport/node");
+		Random random = new Random(20_000);
+		List<String> tests = new ArrayList<>();
+		Map<String, Integer> instances = new HashMap<>();
+		List<String> folderNames = new ArrayList<>();
+		for (int i = 0; i < TEST_COUNT; i++) {
+			//some tests run several times, and some of them have no report
+			String test = "GUITest" + random.nextInt(TEST_COUNT * 3 / 4);
+			tests.add(test);
+			int instance = instances.merge(test, 1, Integer::sum);
+			if (i % 50 != 0) {
+				String folder = test + "[" + instance + "]";
+				folderNames.add(folder);
+				File result = new File(reportRoot, folder + "/Result/run_results.xml");
+				Assert.assertTrue(result.getParentFile().mkdirs());
+				Files.write(result.toPath(), folder.getBytes(StandardCharsets.UTF_8));
+			}
+		}
+		//the folders are listed in no particular order
+		Collections.shuffle(folderNames, random);
+		List<String> createdTests = new ArrayList<>();
+		createdTests.add(buildRoot.getAbsolutePath());
+		createdTests.addAll(folderNames);
+
+		UftReports reports = new UftReports(createdTests);
+		Map<String, Integer> errorReads = new HashMap<>();
+		Map<String, Integer> mbtReads = new HashMap<>();
+		UftReports.ReportParser<String> errorParser = file -> read(file, errorReads);
+		UftReports.ReportParser<String> mbtParser = file -> read(file, mbtReads);
+		List<String> expected = new ArrayList<>(createdTests);
+		for (String test : tests) {
+			String folder = reports.takeFolder(test);
+			Assert.assertEquals(takeFolder(expected, test), folder);
+			if (folder == null) {
+				continue;
+			}
+			String reportPath = reports.getReportPath("node/", folder);
+			Assert.assertEquals(Paths.get(buildRoot.getAbsolutePath(), "archive", "UFTReport", "node/", folder, "/Result/run_results.xml").toFile().getCanonicalPath(), reportPath);
+			//a failed test reads the errors for its warning and for its error details, and the MBT data when it ends
+			Assert.assertEquals(folder, reports.read(reportPath, errorParser));
+			Assert.assertEquals(folder, reports.read(reportPath, errorParser));
+			Assert.assertEquals(folder, reports.read(reportPath, mbtParser));
+		}
+
+		Assert.assertEquals(folderNames.size(), errorReads.size());
+		Assert.assertEquals(folderNames.size(), mbtReads.size());
+		for (Integer reads : errorReads.values()) {
+			Assert.assertEquals(1, reads.intValue());
+		}
+		for (Integer reads : mbtReads.values()) {
+			Assert.assertEquals(1, reads.intValue());
+		}
+	}
+
+	@Test
+	public void testFolderPrefixes() {
+		UftReports reports = new UftReports(Arrays.asList("root", "GUITest10[1]", "GUITest1[2]", "GUITest1[1]", "a[b[1]", "a[b[2]"));
+		Assert.assertEquals("GUITest1[2]", reports.takeFolder("GUITest1"));
+		Assert.assertEquals("GUITest1[1]", reports.takeFolder("GUITest1"));
+		Assert.assertNull(reports.takeFolder("GUITest1"));
+		Assert.assertEquals("GUITest10[1]", reports.takeFolder("GUITest10"));
+		Assert.assertEquals("a[b[1]", reports.takeFolder("a[b"));
+		Assert.assertEquals("a[b[2]", reports.takeFolder("a"));
+		Assert.assertNull(reports.takeFolder("a"));
+		Assert.assertNull(reports.takeFolder("root"));
+		Assert.assertEquals("root", reports.getBasePath());
+	}
+
+	@Test
+	public void testFailedReadIsNotRepeated() throws Exception {
+		UftReports reports = new UftReports(Collections.singletonList("root"));
+		int[] reads = new int[1];
+		UftReports.ReportParser<String> parser = file -> {
+			reads[0]++;
+			throw new IOException("missing " + file.getName());
+		};
+		for (int i = 0; i < 3; i++) {
+			try {
+				reports.read("run_results.xml", parser);
+				Assert.fail();
+			} catch (IOException e) {
+				Assert.assertEquals("missing run_results.xml", e.getMessage());
+			}
+		}
+		Assert.assertEquals(1, reads[0]);
+
+		UftReports.ReportParser<String> empty = file -> {
+			reads[0]++;
+			return null;
+		};
+		Assert.assertNull(reports.read("run_results.xml", empty));
+		Assert.assertNull(reports.read("run_results.xml", empty));
+		Assert.assertEquals(2, reads[0]);
+	}
+
+	@Test
+	public void testNoCreatedTests() {
+		UftReports reports = new UftReports(Collections.emptyList());
+		Assert.assertNull(reports.getBasePath());
+		Assert.assertNull(reports.takeFolder("GUITest1"));
+	}
+
+	private static String read(File file, Map<String, Integer> reads) throws IOException {
+		reads.merge(file.getPath(), 1, Integer::sum);
+		return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+	}
+
+	//the lookup as it was done before the folders were indexed
+	private static String takeFolder(List<String> createdTests, String testName) {
+		String searchFor = testName + "[";
+		Optional<String> optional = createdTests.stream().filter(str -> str.startsWith(searchFor)).findFirst();
+		optional.ifPresent(createdTests::remove);
+		return optional.orElse(null);
+	}
+}
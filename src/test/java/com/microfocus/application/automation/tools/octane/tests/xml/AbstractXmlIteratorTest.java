@@ -0,0 +1,504 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.tests.xml;
+
+import com.ctc.wstx.stax.WstxInputFactory;
+import hudson.util.IOUtils;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.Characters;
+import javax.xml.stream.events.EndElement;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Compares the cursor based iterator with the event based one and with the iterator as it was before the cursor API,
+ * and measures the cursor against the latter.
+ * The large report tests only run when its size is given, e.g. -DxmlIterator.largeReport.mb=200.
+ */
+@SuppressWarnings("squid:S2699")
+public class AbstractXmlIteratorTest {
+
+	private static final String LARGE_REPORT_MB = "xmlIterator.largeReport.mb";
+	private static final int BENCHMARK_ROUNDS = Integer.getInteger("xmlIterator.benchmark.rounds", 3);
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	private int writtenCases;
+
+	@Test
+	public void testCursorAndEventIteratorsReadTheSameCases() throws Exception {
+		File report = tmp.newFile("junitResult.xml");
+		writeJUnitResult(report, 2000);
+
+		List<String> baseline = readAll(new BaselineCaseIterator(new FileInputStream(report)));
+		List<String> events = readAll(new EventCaseIterator(new FileInputStream(report)));
+		List<String> cursor = readAll(new CursorCaseIterator(new FileInputStream(report)));
+
+		Assert.assertEquals(2000, baseline.size());
+		Assert.assertEquals(baseline, events);
+		Assert.assertEquals(baseline, cursor);
+	}
+
+	@Test
+	public void testCursorValueIsCoalesced() throws Exception {
+		String xml = "<result><suites><suite><cases><case>"
+				+ "<className>a.B</className><testName>t<!-- c --></testName>"
+				+ "<errorStackTrace>first &amp; <![CDATA[<second>]]> third</errorStackTrace>"
+				+ "</case></cases></suite></suites></result>";
+
+		List<String> cursor = readAll(new CursorCaseIterator(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8))));
+
+		Assert.assertEquals(1, cursor.size());
+		Assert.assertEquals("a.B|t||first & <second> third", cursor.get(0));
+	}
+
+	@Test
+	public void testPeekedValueIsReadOnce() throws Exception {
+		String xml = "<result><file>C:\\\\a.xml</file><file/><file>b.xml</file></result>";
+		final List<String> values = new ArrayList<>();
+		AbstractXmlIterator<String> iterator = new AbstractXmlIterator<String>(
+				new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), new ElementNameTable("file")) {
+			@Override
+			protected void onStartElement(int element) throws XMLStreamException {
+				if (element == 0) {
+					String peeked = peekNextValue();
+					Assert.assertEquals(peeked, peekNextValue());
+					values.add(peeked + "=" + readNextValue());
+				}
+			}
+
+			@Override
+			protected void onEndElement(int element) {
+				if (element == ElementNameTable.UNKNOWN) {
+					addItem("end");
+				}
+			}
+		};
+
+		Assert.assertEquals(1, readAll(iterator).size());
+		Assert.assertEquals("[C:\\\\a.xml=C:\\\\a.xml, =, b.xml=b.xml]", values.toString());
+	}
+
+	@Test
+	public void testQueueKeepsOrderWhenGrowing() throws Exception {
+		StringBuilder xml = new StringBuilder("<r>");
+		for (int i = 0; i < 100; i++) {
+			xml.append("<i>").append(i).append("</i>");
+		}
+		xml.append("</r>");
+		AbstractXmlIterator<Integer> iterator = new AbstractXmlIterator<Integer>(
+				new ByteArrayInputStream(xml.toString().getBytes(StandardCharsets.UTF_8)), new ElementNameTable("i", "r")) {
+			private final List<Integer> pending = new ArrayList<>();
+
+			@Override
+			protected void onStartElement(int element) throws XMLStreamException {
+				if (element == 0) {
+					pending.add(Integer.valueOf(readNextValue()));
+				}
+			}
+
+			@Override
+			protected void onEndElement(int element) {
+				// release items in bursts, so the ring wraps and grows
+				if (element == 1 || pending.size() == 37) {
+					for (Integer item : pending) {
+						addItem(item);
+					}
+					pending.clear();
+				}
+			}
+		};
+
+		for (int i = 0; i < 100; i++) {
+			Assert.assertTrue(iterator.hasNext());
+			Assert.assertEquals(Integer.valueOf(i), iterator.next());
+		}
+		Assert.assertFalse(iterator.hasNext());
+	}
+
+	@Test
+	public void testElementNameTable() {
+		ElementNameTable table = new ElementNameTable("file", "id", "case", "className");
+
+		Assert.assertEquals(0, table.indexOf("file"));
+		Assert.assertEquals(3, table.indexOf(new String("className".toCharArray())));
+		Assert.assertEquals(ElementNameTable.UNKNOWN, table.indexOf("suite"));
+		Assert.assertEquals("case", table.nameOf(2));
+	}
+
+	@Test
+	public void testCursorAndBaselineIteratorsReadTheSameLargeReport() throws Exception {
+		assumeLargeReport();
+		File report = newLargeReport();
+		int cases = 0;
+		try (InputStream baselineIn = new BufferedInputStream(new FileInputStream(report), 64 * 1024);
+			 InputStream cursorIn = new BufferedInputStream(new FileInputStream(report), 64 * 1024)) {
+			BaselineXmlIterator<String> baseline = new BaselineCaseIterator(baselineIn);
+			AbstractXmlIterator<String> cursor = new CursorCaseIterator(cursorIn);
+			while (baseline.hasNext()) {
+				Assert.assertTrue("cursor ended after " + cases + " cases", cursor.hasNext());
+				Assert.assertEquals("case " + cases, baseline.next(), cursor.next());
+				cases++;
+			}
+			Assert.assertFalse(cursor.hasNext());
+		}
+		Assert.assertEquals(writtenCases, cases);
+	}
+
+	@Test
+	public void benchmarkCursorAgainstBaseline() throws Exception {
+		assumeLargeReport();
+		File report = newLargeReport();
+		long elements = writtenCases * 9L;
+
+		Measurement baseline = null;
+		Measurement cursor = null;
+		for (int round = 0; round < BENCHMARK_ROUNDS; round++) {
+			baseline = measure(report, false);
+			cursor = measure(report, true);
+			Assert.assertEquals(writtenCases, baseline.items);
+			Assert.assertEquals(writtenCases, cursor.items);
+		}
+
+		System.out.println(String.format("%d MB, %d cases: baseline %s, cursor %s",
+				report.length() / (1024 * 1024), writtenCases, baseline.describe(elements), cursor.describe(elements)));
+	}
+
+	private static void assumeLargeReport() {
+		Assume.assumeTrue("run with -D" + LARGE_REPORT_MB + "=200 for a full size report", System.getProperty(LARGE_REPORT_MB) != null);
+	}
+
+	private File newLargeReport() throws IOException {
+		File report = tmp.newFile("large.xml");
+		writtenCases = writeJUnitResult(report, Integer.getInteger(LARGE_REPORT_MB) * 1024L * 1024);
+		return report;
+	}
+
+	private static Measurement measure(File report, boolean useCursor) throws Exception {
+		long allocatedBefore = allocatedBytes();
+		long start = System.nanoTime();
+		int items = 0;
+		try (InputStream in = new BufferedInputStream(new FileInputStream(report), 64 * 1024)) {
+			if (useCursor) {
+				AbstractXmlIterator<String> iterator = new CursorCaseIterator(in);
+				while (iterator.hasNext()) {
+					iterator.next();
+					items++;
+				}
+			} else {
+				BaselineXmlIterator<String> iterator = new BaselineCaseIterator(in);
+				while (iterator.hasNext()) {
+					iterator.next();
+					items++;
+				}
+			}
+		}
+		return new Measurement(items, System.nanoTime() - start, allocatedBytes() - allocatedBefore);
+	}
+
+	private static long allocatedBytes() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return 0;
+	}
+
+	private static class Measurement {
+		private final int items;
+		private final long nanos;
+		private final long allocated;
+
+		Measurement(int items, long nanos, long allocated) {
+			this.items = items;
+			this.nanos = nanos;
+			this.allocated = allocated;
+		}
+
+		String describe(long elements) {
+			return String.format("%.0f elements/s, %.0f MB/s allocated, %d bytes allocated per case",
+					elements * 1e9 / nanos, allocated * 1e9 / nanos / (1024 * 1024), allocated / Math.max(items, 1));
+		}
+	}
+
+	/**
+	 * Writes junitResult.xml cases until the item count or byte size is reached.
+	 * @return number of cases
+	 */
+	private static int writeJUnitResult(File file, long limit) throws IOException {
+		boolean bySize = limit > 100000;
+		int cases = 0;
+		long size = 0;
+		try (Writer writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file.toPath()), StandardCharsets.UTF_8))) {
+			writer.write("<?xml version='1.1' encoding='UTF-8'?>\n<result>\n<suites>\n<suite>\n<file>/tmp/TEST-suite.xml</file>\n<cases>\n");
+			while (bySize ? size < limit : cases < limit) {
+				String testCase = "<case>\n<duration>0." + (cases % 1000) + "</duration>\n"
+						+ "<className>com.example.module" + (cases % 17) + ".SampleTest" + (cases % 101) + "</className>\n"
+						+ "<testName>testMethod" + cases + "</testName>\n"
+						+ "<skipped>false</skipped>\n"
+						+ "<failedSince>" + (cases % 10 == 0 ? 5 : 0) + "</failedSince>\n"
+						+ (cases % 10 == 0
+						? "<errorStackTrace>java.lang.AssertionError: expected 1\n\tat com.example.SampleTest.testMethod(SampleTest.java:"
+						+ cases + ")\n</errorStackTrace>\n<errorDetails>expected 1</errorDetails>\n"
+						: "")
+						+ "</case>\n";
+				writer.write(testCase);
+				size += testCase.length();
+				cases++;
+			}
+			writer.write("</cases>\n</suite>\n</suites>\n</result>\n");
+		}
+		return cases;
+	}
+
+	private static <T> List<T> readAll(AbstractXmlIterator<T> iterator) throws Exception {
+		List<T> items = new ArrayList<>();
+		while (iterator.hasNext()) {
+			items.add(iterator.next());
+		}
+		return items;
+	}
+
+	private static <T> List<T> readAll(BaselineXmlIterator<T> iterator) throws Exception {
+		List<T> items = new ArrayList<>();
+		while (iterator.hasNext()) {
+			items.add(iterator.next());
+		}
+		return items;
+	}
+
+	/**
+	 * The way JUnitXmlIterator read reports before the cursor API, through the event API of AbstractXmlIterator.
+	 */
+	private static class EventCaseIterator extends AbstractXmlIterator<String> {
+		private String className;
+		private String testName;
+		private String duration;
+		private String stackTrace;
+
+		EventCaseIterator(InputStream is) throws XMLStreamException {
+			super(is);
+		}
+
+		@Override
+		protected void onEvent(XMLEvent event) throws XMLStreamException {
+			if (event instanceof StartElement) {
+				String localName = ((StartElement) event).getName().getLocalPart();
+				if ("case".equals(localName)) {
+					className = testName = duration = stackTrace = "";
+				} else if ("className".equals(localName)) {
+					className = readNextValue();
+				} else if ("testName".equals(localName)) {
+					testName = readNextValue();
+				} else if ("duration".equals(localName)) {
+					duration = readNextValue();
+				} else if ("errorStackTrace".equals(localName)) {
+					stackTrace = readNextValue();
+				} else if ("skipped".equals(localName) || "failedSince".equals(localName) || "errorDetails".equals(localName)) {
+					readNextValue();
+				}
+			} else if (event instanceof EndElement) {
+				if ("case".equals(((EndElement) event).getName().getLocalPart())) {
+					addItem(className + "|" + testName + "|" + duration + "|" + stackTrace);
+				}
+			}
+		}
+	}
+
+	private static class CursorCaseIterator extends AbstractXmlIterator<String> {
+		private static final ElementNameTable ELEMENTS = new ElementNameTable(
+				"case", "className", "testName", "duration", "errorStackTrace", "skipped", "failedSince", "errorDetails");
+
+		private String className;
+		private String testName;
+		private String duration;
+		private String stackTrace;
+
+		CursorCaseIterator(InputStream is) throws XMLStreamException {
+			super(is, ELEMENTS);
+		}
+
+		@Override
+		protected void onStartElement(int element) throws XMLStreamException {
+			switch (element) {
+				case 0:
+					className = testName = duration = stackTrace = "";
+					break;
+				case 1:
+					className = readNextValue();
+					break;
+				case 2:
+					testName = readNextValue();
+					break;
+				case 3:
+					duration = readNextValue();
+					break;
+				case 4:
+					stackTrace = readNextValue();
+					break;
+				case 5:
+				case 6:
+				case 7:
+					readNextValue();
+					break;
+				default:
+					break;
+			}
+		}
+
+		@Override
+		protected void onEndElement(int element) {
+			if (element == 0) {
+				addItem(className + "|" + testName + "|" + duration + "|" + stackTrace);
+			}
+		}
+	}
+
+	/**
+	 * JUnitXmlIterator as it was before the cursor API, on top of AbstractXmlIterator as it was then.
+	 */
+	private static class BaselineCaseIterator extends BaselineXmlIterator<String> {
+		private String className;
+		private String testName;
+		private String duration;
+		private String stackTrace;
+
+		BaselineCaseIterator(InputStream is) throws XMLStreamException {
+			super(is);
+		}
+
+		@Override
+		protected void onEvent(XMLEvent event) throws XMLStreamException {
+			if (event instanceof StartElement) {
+				String localName = ((StartElement) event).getName().getLocalPart();
+				if ("case".equals(localName)) {
+					className = testName = duration = stackTrace = "";
+				} else if ("className".equals(localName)) {
+					className = readNextValue();
+				} else if ("testName".equals(localName)) {
+					testName = readNextValue();
+				} else if ("duration".equals(localName)) {
+					duration = readNextValue();
+				} else if ("errorStackTrace".equals(localName)) {
+					stackTrace = readNextValue();
+				} else if ("skipped".equals(localName) || "failedSince".equals(localName) || "errorDetails".equals(localName)) {
+					readNextValue();
+				}
+			} else if (event instanceof EndElement) {
+				if ("case".equals(((EndElement) event).getName().getLocalPart())) {
+					addItem(className + "|" + testName + "|" + duration + "|" + stackTrace);
+				}
+			}
+		}
+	}
+
+	/**
+	 * AbstractXmlIterator before the cursor API: a XMLEventReader feeding a linked list.
+	 */
+	private abstract static class BaselineXmlIterator<E> {
+		private final InputStream is;
+		private final XMLEventReader reader;
+		private final LinkedList<E> queue;
+		private boolean closed;
+
+		BaselineXmlIterator(InputStream is) throws XMLStreamException {
+			this.is = is;
+			XMLInputFactory xmlFactory = new WstxInputFactory();
+			xmlFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+			xmlFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+			reader = xmlFactory.createXMLEventReader(is);
+			queue = new LinkedList<>();
+		}
+
+		boolean hasNext() throws XMLStreamException {
+			while (queue.isEmpty() && !closed) {
+				if (reader.hasNext()) {
+					onEvent(reader.nextEvent());
+				} else {
+					try {
+						reader.close();
+					} catch (XMLStreamException e) {
+						// close quietly
+					}
+					IOUtils.closeQuietly(is);
+					closed = true;
+				}
+			}
+			return !queue.isEmpty();
+		}
+
+		E next() throws XMLStreamException {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			} else {
+				return queue.removeFirst();
+			}
+		}
+
+		protected abstract void onEvent(XMLEvent event) throws XMLStreamException;
+
+		protected void addItem(E item) {
+			queue.add(item);
+		}
+
+		protected String readNextValue() throws XMLStreamException {
+			XMLEvent nextEvent = reader.nextEvent();
+			if (nextEvent instanceof EndElement) {
+				return "";
+			} else {
+				return ((Characters) nextEvent).getData();
+			}
+		}
+	}
+}
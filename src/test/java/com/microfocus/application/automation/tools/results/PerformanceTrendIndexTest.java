@@ -0,0 +1,308 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.results;
+
+import com.microfocus.application.automation.tools.results.projectparser.performance.AvgTransactionResponseTime;
+import com.microfocus.application.automation.tools.results.projectparser.performance.GoalResult;
+import com.microfocus.application.automation.tools.results.projectparser.performance.JobLrScenarioResult;
+import com.microfocus.application.automation.tools.results.projectparser.performance.LrJobResults;
+import com.microfocus.application.automation.tools.results.projectparser.performance.LrScenarioTrend;
+import com.microfocus.application.automation.tools.results.projectparser.performance.LrTest;
+import com.microfocus.application.automation.tools.results.projectparser.performance.LrTrendIndex;
+import com.microfocus.application.automation.tools.results.projectparser.performance.PercentileTransactionWholeRun;
+import com.microfocus.application.automation.tools.results.projectparser.performance.ProjectLrResults;
+import com.microfocus.application.automation.tools.results.projectparser.performance.TimeRange;
+import com.microfocus.application.automation.tools.results.projectparser.performance.TimeRangeResult;
+import com.microfocus.application.automation.tools.results.projectparser.performance.WholeRunResult;
+import net.sf.json.JSONObject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares the graph data drawn from the trend index with the graph data joined from the build results.
+ */
+public class PerformanceTrendIndexTest {
+
+    private static final int BUILD_COUNT = 1000;
+    private static final String[] SCENARIOS = {"scenarioA", "scenarioB", "scenarioC"};
+    private static final int MAX_DISPLAY_BUILDS = 20;
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void testGraphDataMatchesJoinedBuilds() throws IOException {
+        Map<Integer, LrJobResults> builds = createBuilds(BUILD_COUNT);
+        LrTrendIndex index = new LrTrendIndex(new File(tmp.getRoot(), LrTrendIndex.FILE_NAME));
+        for (Map.Entry<Integer, LrJobResults> build : builds.entrySet()) {
+            index.append(build.getKey(), build.getValue());
+        }
+
+        SortedMap<String, LrScenarioTrend> trends = index.readScenarioTrends(MAX_DISPLAY_BUILDS);
+        assertEquals(SCENARIOS.length, trends.size());
+        for (LrScenarioTrend trend : trends.values()) {
+            assertEquals(MAX_DISPLAY_BUILDS + 1, trend.getBuildCount());
+        }
+        assertEquals(canonical(joinBuilds(builds)), canonical(PerformanceProjectAction.buildGraphData(trends)));
+    }
+
+    @Test
+    public void testRebuildDeleteAndTruncatedTail() throws IOException {
+        Map<Integer, LrJobResults> builds = createBuilds(200);
+        LrTrendIndex index = new LrTrendIndex(new File(tmp.getRoot(), LrTrendIndex.FILE_NAME));
+        try (LrTrendIndex.Rebuilder rebuilder = index.rebuild()) {
+            for (Map.Entry<Integer, LrJobResults> build : builds.entrySet()) {
+                rebuilder.add(build.getKey(), build.getValue());
+            }
+            rebuilder.commit();
+        }
+        assertTrue(index.exists());
+        assertFalse(new File(index.getFile().getPath() + ".tmp").exists());
+
+        index.remove(200);
+        index.remove(199);
+        builds.remove(200);
+        builds.remove(199);
+        //simulate a crash in the middle of an append
+        long validLength = index.getFile().length();
+        index.append(201, createBuild(201, new Random(201)));
+        try (RandomAccessFile file = new RandomAccessFile(index.getFile(), "rw")) {
+            file.setLength(validLength + 10);
+        }
+
+        SortedMap<String, LrScenarioTrend> trends = index.readScenarioTrends(MAX_DISPLAY_BUILDS);
+        assertEquals(canonical(joinBuilds(builds)), canonical(PerformanceProjectAction.buildGraphData(trends)));
+    }
+
+    @Test
+    public void testAppendAfterTruncatedTailIsRead() throws IOException {
+        Map<Integer, LrJobResults> builds = createBuilds(20);
+        LrTrendIndex index = new LrTrendIndex(new File(tmp.getRoot(), LrTrendIndex.FILE_NAME));
+        for (Map.Entry<Integer, LrJobResults> build : builds.entrySet()) {
+            index.append(build.getKey(), build.getValue());
+        }
+        //simulate a crash in the middle of an append, then a restart of the controller
+        long validLength = index.getFile().length();
+        index.append(21, createBuild(21, new Random(21)));
+        try (RandomAccessFile file = new RandomAccessFile(index.getFile(), "rw")) {
+            file.setLength(validLength + 10);
+        }
+        index = new LrTrendIndex(index.getFile());
+
+        LrJobResults next = createBuild(22, new Random(22));
+        index.append(22, next);
+        builds.put(22, next);
+
+        SortedMap<String, LrScenarioTrend> trends = index.readScenarioTrends(MAX_DISPLAY_BUILDS);
+        assertEquals(canonical(joinBuilds(builds)), canonical(PerformanceProjectAction.buildGraphData(trends)));
+    }
+
+    @Test
+    public void testBuildCompletingDuringRebuildIsAppended() throws Exception {
+        Map<Integer, LrJobResults> builds = createBuilds(30);
+        LrTrendIndex index = new LrTrendIndex(new File(tmp.getRoot(), LrTrendIndex.FILE_NAME));
+        assertFalse(index.appendIfIndexed(1, builds.get(1)));
+        assertFalse(index.exists());
+
+        final LrJobResults running = builds.remove(30);
+        final AtomicReference<Object> appended = new AtomicReference<>();
+        Thread completion = new Thread(() -> {
+            try {
+                appended.set(index.appendIfIndexed(30, running));
+            } catch (IOException e) {
+                appended.set(e);
+            }
+        });
+        try (LrTrendIndex.Rebuilder rebuilder = index.rebuild()) {
+            //build 30 is still running, the rebuild skips it and it completes meanwhile
+            completion.start();
+            for (Map.Entry<Integer, LrJobResults> build : builds.entrySet()) {
+                rebuilder.add(build.getKey(), build.getValue());
+            }
+            completion.join(200);
+            assertTrue(completion.isAlive());
+            rebuilder.commit();
+        }
+        completion.join(10000);
+        assertEquals(Boolean.TRUE, appended.get());
+
+        //a build the rebuild already added and that is appended again is counted once
+        assertTrue(index.appendIfIndexed(29, builds.get(29)));
+        builds.put(30, running);
+        SortedMap<String, LrScenarioTrend> trends = index.readScenarioTrends(MAX_DISPLAY_BUILDS);
+        assertEquals(canonical(joinBuilds(builds)), canonical(PerformanceProjectAction.buildGraphData(trends)));
+
+        assertTrue(index.removeIfIndexed(30));
+        builds.remove(30);
+        trends = index.readScenarioTrends(MAX_DISPLAY_BUILDS);
+        assertEquals(canonical(joinBuilds(builds)), canonical(PerformanceProjectAction.buildGraphData(trends)));
+    }
+
+    @Test(expected = IOException.class)
+    public void testForeignFileRejected() throws IOException {
+        File file = tmp.newFile();
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9});
+        }
+        new LrTrendIndex(file).readScenarioTrends(MAX_DISPLAY_BUILDS);
+    }
+
+    private static JSONObject joinBuilds(Map<Integer, LrJobResults> builds) {
+        ProjectLrResults projectResult = new ProjectLrResults();
+        List<Integer> buildNumbers = new ArrayList<>(builds.keySet());
+        Collections.sort(buildNumbers, Collections.<Integer>reverseOrder());
+        for (Integer buildNumber : buildNumbers) {
+            PerformanceProjectAction.joinBuildResults(projectResult, buildNumber, builds.get(buildNumber));
+        }
+        return PerformanceProjectAction.buildGraphData(projectResult);
+    }
+
+    private static Map<Integer, LrJobResults> createBuilds(int count) {
+        Random random = new Random(42);
+        Map<Integer, LrJobResults> builds = new TreeMap<>();
+        for (int buildNumber = 1; buildNumber <= count; buildNumber++) {
+            builds.put(buildNumber, createBuild(buildNumber, random));
+        }
+        return builds;
+    }
+
+    private static LrJobResults createBuild(int buildNumber, Random random) {
+        LrJobResults results = new LrJobResults();
+        for (String scenarioName : SCENARIOS) {
+            //not every scenario runs in every build
+            if (random.nextInt(4) == 0) {
+                continue;
+            }
+            JobLrScenarioResult scenario = new JobLrScenarioResult(scenarioName);
+            scenario.setConnectionMax(random.nextInt(100));
+            scenario.setScenarioDuration(random.nextInt(10000));
+            scenario.vUserSum.put("Count", random.nextInt(50));
+            scenario.vUserSum.put("Passed", random.nextInt(50));
+            scenario.transactionSum.put("Pass", random.nextInt(500));
+            scenario.transactionSum.put("Fail", random.nextInt(50));
+
+            addWholeRunGoal(scenario, LrTest.SLA_GOAL.TotalHits, random);
+            addWholeRunGoal(scenario, LrTest.SLA_GOAL.AverageHitsPerSecond, random);
+            addWholeRunGoal(scenario, LrTest.SLA_GOAL.TotalThroughput, random);
+            addWholeRunGoal(scenario, LrTest.SLA_GOAL.AverageThroughput, random);
+            //a second goal of the same kind replaces the first one
+            addWholeRunGoal(scenario, LrTest.SLA_GOAL.TotalHits, random);
+
+            TimeRangeResult errors = new TimeRangeResult();
+            errors.getTimeRanges().add(new TimeRange(1, 2, LrTest.SLA_STATUS.Passed, 1, 0, 10));
+            errors.incActualValue(random.nextDouble());
+            addGoal(scenario, errors, LrTest.SLA_GOAL.ErrorsPerSecond, random);
+
+            int transactionCount = 1 + random.nextInt(15);
+            for (int t = 0; t < transactionCount; t++) {
+                String transactionName = "transaction_" + random.nextInt(20);
+                if (random.nextBoolean()) {
+                    PercentileTransactionWholeRun percentile = new PercentileTransactionWholeRun();
+                    percentile.setName(transactionName);
+                    percentile.setActualValue(random.nextDouble() * 10);
+                    addGoal(scenario, percentile, LrTest.SLA_GOAL.PercentileTRT, random);
+                }
+                if (random.nextBoolean()) {
+                    AvgTransactionResponseTime average = new AvgTransactionResponseTime();
+                    average.setName(transactionName);
+                    average.getTimeRanges().add(new TimeRange(1, 2, LrTest.SLA_STATUS.Passed, 1, 0, 10));
+                    average.getTimeRanges().add(new TimeRange(1, 2, LrTest.SLA_STATUS.Failed, 1, 10, 20));
+                    average.incActualValue(random.nextDouble() * 5);
+                    average.incActualValue(random.nextDouble() * 5);
+                    addGoal(scenario, average, LrTest.SLA_GOAL.AverageTRT, random);
+                }
+            }
+            results.addScenario(scenario);
+        }
+        return results;
+    }
+
+    private static void addWholeRunGoal(JobLrScenarioResult scenario, LrTest.SLA_GOAL goal, Random random) {
+        addGoal(scenario, new WholeRunResult(random.nextDouble() * 1000, 500), goal, random);
+    }
+
+    private static void addGoal(JobLrScenarioResult scenario, GoalResult goalResult, LrTest.SLA_GOAL goal,
+                                Random random) {
+        goalResult.setSlaGoal(goal);
+        int status = random.nextInt(10);
+        goalResult.setStatus(status == 0 ? LrTest.SLA_STATUS.NoData :
+                (status < 4 ? LrTest.SLA_STATUS.Failed : LrTest.SLA_STATUS.Passed));
+        scenario.scenarioSlaResults.add(goalResult);
+    }
+
+    /**
+     * Converts the graph json into sorted java collections; series are sorted by name since their order follows
+     * hash map iteration.
+     */
+    private static Object canonical(Object value) {
+        if (value instanceof Map) {
+            TreeMap<String, Object> result = new TreeMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                Object canonicalValue = canonical(entry.getValue());
+                if ("series".equals(entry.getKey()) && canonicalValue instanceof List) {
+                    Collections.sort((List<Object>) canonicalValue, new Comparator<Object>() {
+                        @Override
+                        public int compare(Object o1, Object o2) {
+                            return String.valueOf(o1).compareTo(String.valueOf(o2));
+                        }
+                    });
+                }
+                result.put(String.valueOf(entry.getKey()), canonicalValue);
+            }
+            return result;
+        }
+        if (value instanceof List) {
+            List<Object> result = new ArrayList<>();
+            for (Object item : (List<?>) value) {
+                result.add(canonical(item));
+            }
+            return result;
+        }
+        return value;
+    }
+}
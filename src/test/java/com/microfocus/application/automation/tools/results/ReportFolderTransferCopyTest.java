@@ -0,0 +1,175 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.results;
+
+import hudson.FilePath;
+import hudson.model.Slave;
+import hudson.util.StreamTaskListener;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests on copying report folders from an agent through the remoting pipe, including broken and corrupted attempts
+ */
+@SuppressWarnings({"squid:S2698", "squid:S2925"})
+public class ReportFolderTransferCopyTest {
+
+	@ClassRule
+	public static final JenkinsRule rule = new JenkinsRule();
+
+	private static Slave agent;
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	@BeforeClass
+	public static void createAgent() throws Exception {
+		agent = rule.createOnlineSlave();
+	}
+
+	@Test
+	public void testCopiesFromAgent() throws Exception {
+		FilePath source = newReport("Report");
+		File target = new File(tmp.getRoot(), "master/Report");
+		ByteArrayOutputStream log = new ByteArrayOutputStream();
+
+		ReportFolderTransfer.copy(source, target, new StreamTaskListener(log, StandardCharsets.UTF_8));
+
+		ReportFolderTransferTest.assertSameTree(new File(source.getRemote()), target);
+		Assert.assertEquals("", log.toString(StandardCharsets.UTF_8.name()));
+	}
+
+	@Test
+	public void testResumesCopyBrokenInTheMiddle() throws Exception {
+		FilePath source = newReport("Broken");
+		File target = new File(tmp.getRoot(), "master/Broken");
+		ByteArrayOutputStream log = new ByteArrayOutputStream();
+		AtomicInteger attempts = new AtomicInteger();
+
+		new ReportFolderTransfer(target).copyFrom(source, new StreamTaskListener(log, StandardCharsets.UTF_8),
+				in -> attempts.incrementAndGet() == 1 ? new ReportFolderTransferTest.BrokenInputStream(in, 200_000) : in);
+
+		ReportFolderTransferTest.assertSameTree(new File(source.getRemote()), target);
+		Assert.assertEquals(2, attempts.get());
+		String output = log.toString(StandardCharsets.UTF_8.name());
+		Assert.assertTrue(output, output.contains("connection lost"));
+		Assert.assertTrue(output, output.contains("resuming after"));
+	}
+
+	@Test
+	public void testRetriesCorruptedCopy() throws Exception {
+		FilePath source = newReport("Corrupted");
+		File target = new File(tmp.getRoot(), "master/Corrupted");
+		ByteArrayOutputStream log = new ByteArrayOutputStream();
+		AtomicInteger attempts = new AtomicInteger();
+
+		new ReportFolderTransfer(target).copyFrom(source, new StreamTaskListener(log, StandardCharsets.UTF_8),
+				in -> attempts.incrementAndGet() == 1 ? new CorruptingInputStream(in, 20_000) : in);
+
+		ReportFolderTransferTest.assertSameTree(new File(source.getRemote()), target);
+		Assert.assertEquals(2, attempts.get());
+		String output = log.toString(StandardCharsets.UTF_8.name());
+		Assert.assertTrue(output, output.contains("was interrupted"));
+		Assert.assertFalse("no partial file should be left", new File(target, "file0.bin.part").exists());
+	}
+
+	@Test
+	public void testGivesUpAfterMaxAttempts() throws Exception {
+		FilePath source = newReport("Lost");
+		File target = new File(tmp.getRoot(), "master/Lost");
+		AtomicInteger attempts = new AtomicInteger();
+
+		try {
+			new ReportFolderTransfer(target).copyFrom(source, new StreamTaskListener(new ByteArrayOutputStream(), StandardCharsets.UTF_8),
+					in -> {
+						attempts.incrementAndGet();
+						return new ReportFolderTransferTest.BrokenInputStream(in, 0);
+					});
+			Assert.fail("the copy should have failed");
+		} catch (IOException expected) {
+			Assert.assertTrue(expected.getMessage(), expected.getMessage().contains("after " + ReportFolderTransfer.MAX_ATTEMPTS + " attempts"));
+		}
+		Assert.assertEquals(ReportFolderTransfer.MAX_ATTEMPTS, attempts.get());
+	}
+
+	/**
+	 * a report in the workspace of the agent, with files of a few chunks each
+	 */
+	private static FilePath newReport(String name) throws Exception {
+		FilePath report = agent.getWorkspaceRoot().child(name);
+		report.mkdirs();
+		File folder = new File(report.getRemote());
+		for (int i = 0; i < 4; i++) {
+			ReportFolderTransferTest.write(new File(folder, "file" + i + ".bin"), 2 * ReportFolderTransfer.CHUNK_SIZE + i, 20 + i);
+		}
+		ReportFolderTransferTest.write(new File(folder, "Resources/page.html"), 10_000, 30);
+		return report;
+	}
+
+	/**
+	 * flips one byte of the stream
+	 */
+	private static final class CorruptingInputStream extends FilterInputStream {
+		private long position;
+		private final long corruptAt;
+
+		private CorruptingInputStream(InputStream in, long corruptAt) {
+			super(in);
+			this.corruptAt = corruptAt;
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = super.read();
+			if (b >= 0 && position++ == corruptAt) {
+				b ^= 1;
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] buffer, int offset, int length) throws IOException {
+			int n = super.read(buffer, offset, length);
+			if (n > 0 && position <= corruptAt && corruptAt < position + n) {
+				buffer[offset + (int) (corruptAt - position)] ^= 1;
+			}
+			position += Math.max(n, 0);
+			return n;
+		}
+	}
+}
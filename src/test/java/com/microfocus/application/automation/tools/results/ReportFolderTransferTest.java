@@ -0,0 +1,313 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.results;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tests on the streaming transfer of report folders from the node to the master
+ */
+@SuppressWarnings({"squid:S2698", "squid:S2925"})
+public class ReportFolderTransferTest {
+
+	private static final String LARGE_REPORT_MB = "reportTransfer.test.mb";
+	private static final String HEAP_CAP = "-Xmx48m";
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	@Test
+	public void testCopiesTreeByteForByte() throws Exception {
+		File source = tmp.newFolder("Report");
+		write(new File(source, "run_results.html"), 10_000, 1);
+		write(new File(source, "empty.txt"), 0, 2);
+		write(new File(source, "Resources/exact.bin"), ReportFolderTransfer.CHUNK_SIZE, 3);
+		write(new File(source, "Resources/one-more.bin"), ReportFolderTransfer.CHUNK_SIZE + 1, 4);
+		write(new File(source, "Resources/Snapshots/שלום.png"), 3 * ReportFolderTransfer.CHUNK_SIZE + 17, 5);
+		Assert.assertTrue(new File(source, "Resources/Empty").mkdirs());
+
+		File target = new File(tmp.getRoot(), "master/Report");
+		transfer(source, target);
+		assertSameTree(source, target);
+		Assert.assertTrue(new File(target, "Resources/Empty").isDirectory());
+	}
+
+	@Test
+	public void testCopiesSingleFile() throws Exception {
+		File source = write(new File(tmp.newFolder(), "RunReport.xml"), 5000, 6);
+		File target = tmp.newFolder();
+		transfer(source, target);
+		assertSameContent(source, new File(target, "RunReport.xml"));
+	}
+
+	@Test
+	public void testResumesAfterBrokenTransfer() throws Exception {
+		File source = tmp.newFolder("Report");
+		for (int i = 0; i < 5; i++) {
+			write(new File(source, "file" + i + ".bin"), 2 * ReportFolderTransfer.CHUNK_SIZE + i, 10 + i);
+		}
+		File target = tmp.newFolder("target");
+		ReportFolderTransfer transfer = new ReportFolderTransfer(target);
+
+		//  first attempt breaks in the middle of the third file
+		ByteArrayOutputStream full = new ByteArrayOutputStream();
+		ReportFolderTransfer.send(source, full, Collections.<String>emptySet(), null, 0);
+		int breakAt = full.size() / 2;
+		try {
+			transfer.receive(new BrokenInputStream(new ByteArrayInputStream(full.toByteArray()), breakAt));
+			Assert.fail("the transfer should have broken");
+		} catch (IOException expected) {
+			//  expected
+		}
+		Set<String> received = new HashSet<>(transfer.getReceived());
+		Assert.assertEquals(2, received.size());
+
+		ByteArrayOutputStream rest = new ByteArrayOutputStream();
+		ReportFolderTransfer.send(source, rest, received, transfer.getPartialPath(), transfer.getPartialLength());
+		Assert.assertTrue("resumed transfer should only send what is missing", rest.size() < full.size() - breakAt + 1024);
+		transfer.receive(new ByteArrayInputStream(rest.toByteArray()));
+		assertSameTree(source, target);
+	}
+
+	@Test
+	public void testChecksumMismatchIsRejected() throws Exception {
+		File source = write(new File(tmp.newFolder(), "RunReport.xml"), 5000, 7);
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		ReportFolderTransfer.send(source, stream, Collections.<String>emptySet(), null, 0);
+		byte[] bytes = stream.toByteArray();
+		//  last byte closes the stream, the 8 before it are the checksum of the file
+		bytes[bytes.length - 2] ^= 1;
+
+		File target = tmp.newFolder();
+		try {
+			new ReportFolderTransfer(target).receive(new ByteArrayInputStream(bytes));
+			Assert.fail("corrupted file should be rejected");
+		} catch (IOException expected) {
+			Assert.assertTrue(expected.getMessage().contains("checksum"));
+		}
+		Assert.assertEquals(0, Objects.requireNonNull(target.list()).length);
+	}
+
+	@Test
+	public void testEntriesOutsideOfTargetAreRejected() throws Exception {
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(stream);
+		out.writeInt(0x52465431);
+		out.writeByte('D');
+		out.writeUTF("../escaped");
+		out.writeByte('Z');
+		try {
+			new ReportFolderTransfer(tmp.newFolder()).receive(new ByteArrayInputStream(stream.toByteArray()));
+			Assert.fail("entry outside of the target should be rejected");
+		} catch (IOException expected) {
+			Assert.assertFalse(new File(tmp.getRoot(), "escaped").exists());
+		}
+	}
+
+	/**
+	 * Sends a large synthetic report through a JVM whose heap is far smaller than the report.
+	 * Only runs with -DreportTransfer.test.mb=... (the report size in MB, 1 GB when left empty).
+	 */
+	@Test
+	public void testLargeReportWithSmallHeap() throws Exception {
+		Assume.assumeTrue(System.getProperty(LARGE_REPORT_MB) != null);
+		long megabytes = Long.getLong(LARGE_REPORT_MB, 1024);
+		File source = tmp.newFolder("LargeReport");
+		long written = 0;
+		int index = 0;
+		while (written < megabytes * 1024 * 1024) {
+			//  a mix of big analysis data files and many small html pages
+			long size = index % 10 == 0 ? 64L * 1024 * 1024 : 700 * 1024 + index;
+			write(new File(source, "Report" + (index % 7) + "/page" + index + (index % 10 == 0 ? ".mdb" : ".html")), size, index);
+			written += size;
+			index++;
+		}
+		File target = new File(tmp.getRoot(), "master/LargeReport");
+
+		long start = System.nanoTime();
+		Process process = new ProcessBuilder(
+				new File(System.getProperty("java.home"), "bin/java").getPath(), HEAP_CAP,
+				"-cp", System.getProperty("java.class.path"),
+				SmallHeapTransfer.class.getName(), source.getPath(), target.getPath())
+				.redirectErrorStream(true)
+				.start();
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		try (InputStream in = process.getInputStream()) {
+			byte[] buffer = new byte[4096];
+			for (int n = in.read(buffer); n > 0; n = in.read(buffer)) {
+				output.write(buffer, 0, n);
+			}
+		}
+		Assert.assertTrue(process.waitFor(30, TimeUnit.MINUTES));
+		Assert.assertEquals(output.toString(), 0, process.exitValue());
+		long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+		assertSameTree(source, target);
+		System.out.println("transferred " + index + " files, " + (written >> 20) + " MB with " + HEAP_CAP + " in " + millis + "ms; "
+				+ output.toString().trim());
+	}
+
+	/**
+	 * runs in the capped JVM: the node side and the master side of a transfer, connected by a pipe
+	 */
+	public static final class SmallHeapTransfer {
+		public static void main(String[] args) throws Exception {
+			File source = new File(args[0]);
+			File target = new File(args[1]);
+			PipedInputStream in = new PipedInputStream(64 * 1024);
+			PipedOutputStream out = new PipedOutputStream(in);
+			AtomicReference<Throwable> failure = new AtomicReference<>();
+			Thread sender = new Thread(() -> {
+				try (OutputStream stream = out) {
+					ReportFolderTransfer.send(source, stream, Collections.<String>emptySet(), null, 0);
+				} catch (Throwable t) {
+					failure.set(t);
+				}
+			});
+			sender.start();
+			new ReportFolderTransfer(target).receive(in);
+			sender.join();
+			if (failure.get() != null) {
+				throw new IllegalStateException(failure.get());
+			}
+			Runtime runtime = Runtime.getRuntime();
+			System.out.println("max heap " + (runtime.maxMemory() >> 20) + " MB");
+		}
+	}
+
+	private static void transfer(File source, File target) throws IOException {
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		ReportFolderTransfer.send(source, stream, Collections.<String>emptySet(), null, 0);
+		new ReportFolderTransfer(target).receive(new ByteArrayInputStream(stream.toByteArray()));
+	}
+
+	/**
+	 * html-like text with random binary runs, so compression has something to do but cannot make it trivial
+	 */
+	static File write(File file, long size, int seed) throws IOException {
+		Assert.assertTrue(file.getParentFile().isDirectory() || file.getParentFile().mkdirs());
+		byte[] text = ("<tr><td class=\"step\">Step " + seed + "</td><td>Passed</td></tr>\n").getBytes(StandardCharsets.UTF_8);
+		byte[] buffer = new byte[64 * 1024];
+		long x = seed * 0x9E3779B97F4A7C15L + 1;
+		try (OutputStream out = new FileOutputStream(file)) {
+			long left = size;
+			while (left > 0) {
+				for (int i = 0; i < buffer.length; i++) {
+					if ((i & 4095) < 1024) {
+						x ^= x << 13;
+						x ^= x >>> 7;
+						x ^= x << 17;
+						buffer[i] = (byte) x;
+					} else {
+						buffer[i] = text[i % text.length];
+					}
+				}
+				int n = (int) Math.min(buffer.length, left);
+				out.write(buffer, 0, n);
+				left -= n;
+			}
+		}
+		return file;
+	}
+
+	static void assertSameTree(File expected, File actual) throws IOException {
+		Assert.assertTrue(actual + " should be a folder", actual.isDirectory());
+		String[] expectedNames = expected.list();
+		String[] actualNames = actual.list();
+		Assert.assertNotNull(expectedNames);
+		Assert.assertNotNull(actualNames);
+		Arrays.sort(expectedNames);
+		Arrays.sort(actualNames);
+		Assert.assertEquals(Arrays.asList(expectedNames), Arrays.asList(actualNames));
+		for (String name : expectedNames) {
+			File child = new File(expected, name);
+			if (child.isDirectory()) {
+				assertSameTree(child, new File(actual, name));
+			} else {
+				assertSameContent(child, new File(actual, name));
+			}
+		}
+	}
+
+	private static void assertSameContent(File expected, File actual) throws IOException {
+		Assert.assertEquals(actual.getPath(), expected.length(), actual.length());
+		byte[] a = new byte[64 * 1024];
+		byte[] b = new byte[64 * 1024];
+		try (DataInputStream in1 = new DataInputStream(new FileInputStream(expected));
+		     DataInputStream in2 = new DataInputStream(new FileInputStream(actual))) {
+			long left = expected.length();
+			while (left > 0) {
+				int n = (int) Math.min(a.length, left);
+				in1.readFully(a, 0, n);
+				in2.readFully(b, 0, n);
+				if (!Arrays.equals(a, b)) {
+					Assert.fail(actual + " differs from " + expected);
+				}
+				left -= n;
+			}
+		}
+	}
+
+	static final class BrokenInputStream extends FilterInputStream {
+		private long left;
+
+		BrokenInputStream(InputStream in, long breakAt) {
+			super(in);
+			this.left = breakAt;
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (left-- <= 0) {
+				throw new IOException("connection lost");
+			}
+			return super.read();
+		}
+
+		@Override
+		public int read(byte[] buffer, int offset, int length) throws IOException {
+			if (left <= 0) {
+				throw new IOException("connection lost");
+			}
+			int n = super.read(buffer, offset, (int) Math.min(length, left));
+			left -= Math.max(n, 0);
+			return n;
+		}
+	}
+}
@@ -0,0 +1,381 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.results.parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import javax.xml.transform.Templates;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.microfocus.application.automation.tools.results.parser.antjunit.AntJUnitReportParserImpl;
+import com.microfocus.application.automation.tools.results.parser.nunit3.NUnit3ReportParserImpl;
+import com.microfocus.application.automation.tools.results.service.almentities.AlmEntity;
+import com.microfocus.application.automation.tools.results.service.almentities.AlmRun;
+import com.microfocus.application.automation.tools.results.service.almentities.AlmTestSet;
+import com.microfocus.application.automation.tools.results.service.almentities.EntityRelation;
+
+public class TestNUnit3ReportParserImpl {
+
+	private static final String[] NUNIT3_RUN_STATES = {"Runnable", "Runnable", "Skipped", "Ignored", "Inconclusive", "NotRunnable", null};
+	private static final String[] NUNIT3_RESULTS = {"Passed", "Passed", "Failed", "Skipped", "Inconclusive", "Warning", null};
+	private static final String[] NUNIT2_RESULTS = {"Success", "Success", "Failure", "Error", "Ignored", "Inconclusive", "NotRunnable"};
+	private static final String[] TEXTS = {
+			"Expected: 2 But was: 3",
+			"<![CDATA[Expected: <a & b> \"quoted\" 'single']]>",
+			"line one\nline two\n\tindented",
+			"at Sample.Test() in c:\\work\\Test.cs:line 12&#13;\nat Other()",
+			"caf&#233; \u4e2d\u6587 ]]&gt; end",
+			"  ",
+			""
+	};
+
+	private static Templates nunitToJunit;
+
+	@Test
+	public void testParseTestSets() throws Exception {
+		InputStream in = TestNUnit3ReportParserImpl.class.getResourceAsStream("NUnit3Report.xml");
+		List<AlmTestSet> testsets = new NUnit3ReportParserImpl().parseTestSets(in, "NUnit", "Jenkins");
+
+		Assert.assertEquals(1, testsets.size());
+		Assert.assertEquals("NUnit3Sample.dll.CalculatorTest.", testsets.get(0).getName());
+	}
+
+	@Test
+	public void testReportsMatchTheXslConversion() throws Exception {
+		assertSameAsXsl(read("NUnit3Report.xml"), false);
+		assertSameAsXsl(read("NUnitReport.xml"), true);
+
+		Random random = new Random(42);
+		for (int i = 0; i < 200; i++) {
+			boolean timed = random.nextBoolean();
+			assertSameAsXsl(nunit3Report(random, 1 + random.nextInt(4), 1 + random.nextInt(6), timed), !timed);
+			assertSameAsXsl(nunit2Report(random, 1 + random.nextInt(4), 1 + random.nextInt(6)), true);
+		}
+	}
+
+	@Test
+	public void testNestedSuitesFollowTheirParent() throws Exception {
+		String report = "<test-run><test-suite name=\"A\">"
+				+ "<test-suite name=\"F\"><test-case name=\"a\"/>"
+				+ "<test-suite name=\"P\"><test-case name=\"p1\"/><test-case name=\"p2\"/></test-suite>"
+				+ "<test-case name=\"b\"/></test-suite>"
+				+ "<test-suite name=\"G\"><test-case name=\"c\"/></test-suite>"
+				+ "</test-suite></test-run>";
+
+		List<AlmTestSet> testsets = assertSameAsXsl(report.getBytes(StandardCharsets.UTF_8), true);
+
+		Assert.assertEquals(3, testsets.size());
+		Assert.assertEquals("A.F.", testsets.get(0).getName());
+		Assert.assertEquals("A.F.P.", testsets.get(1).getName());
+		Assert.assertEquals("A.G.", testsets.get(2).getName());
+	}
+
+	@Test(expected = ReportParseException.class)
+	public void testOtherReportsAreRejected() throws Exception {
+		new NUnit3ReportParserImpl().parseTestSets(new ByteArrayInputStream(read("AntTESTS-TestSuites.xml")), "NUnit", "Jenkins");
+	}
+
+	@Test
+	public void testThroughput() throws Exception {
+		Random random = new Random(7);
+		measure("NUnit 3", nunit3Report(random, 20, 100, true), false);
+		measure("NUnit 2", nunit2Report(random, 20, 100), true);
+	}
+
+	private static void measure(String format, byte[] report, boolean untimed) throws Exception {
+		long start = System.nanoTime();
+		List<AlmTestSet> streamed = new NUnit3ReportParserImpl().parseTestSets(new ByteArrayInputStream(report), "NUnit", "Jenkins");
+		long streamedNanos = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		List<AlmTestSet> converted = parseWithXsl(report);
+		long convertedNanos = System.nanoTime() - start;
+
+		int testcases = 0;
+		for (AlmTestSet testset : streamed) {
+			testcases += testset.getRelatedEntities().get(EntityRelation.TESTSET_TO_TESTINSTANCE_CONTAINMENT_RELATION).size();
+		}
+		System.out.println(String.format("%s: %d test cases in %d KB, streamed in %d ms, converted with xsl in %d ms",
+				format, testcases, report.length / 1024, streamedNanos / 1000000, convertedNanos / 1000000));
+		Assert.assertEquals(describe(converted, untimed), describe(streamed, untimed));
+	}
+
+	private static List<AlmTestSet> assertSameAsXsl(byte[] report, boolean untimed) throws Exception {
+		List<AlmTestSet> streamed = new NUnit3ReportParserImpl().parseTestSets(new ByteArrayInputStream(report), "NUnit", "Jenkins");
+		String expected = describe(parseWithXsl(report), untimed);
+		Assert.assertEquals(new String(report, StandardCharsets.UTF_8), expected, describe(streamed, untimed));
+		return streamed;
+	}
+
+	/**
+	 * The conversion the parser used to do, in memory instead of a workspace file.
+	 */
+	private static List<AlmTestSet> parseWithXsl(byte[] report) throws Exception {
+		if (nunitToJunit == null) {
+			nunitToJunit = TransformerFactory.newInstance().newTemplates(
+					new StreamSource(TestNUnit3ReportParserImpl.class.getResourceAsStream("nunit-to-junit.xsl")));
+		}
+		ByteArrayOutputStream junit = new ByteArrayOutputStream();
+		nunitToJunit.newTransformer().transform(new StreamSource(new ByteArrayInputStream(report)), new StreamResult(junit));
+		return new AntJUnitReportParserImpl().parseTestSets(new ByteArrayInputStream(junit.toByteArray()), "NUnit", "Jenkins");
+	}
+
+	/**
+	 * Lists the fields of the test sets and their related entities, with the run details decoded.
+	 * The runs of reports without timestamps are dated when they are parsed, their dates are left out.
+	 */
+	private static String describe(List<? extends AlmEntity> entities, boolean untimed) {
+		StringBuilder description = new StringBuilder();
+		for (AlmEntity entity : entities) {
+			if (entity instanceof AlmRun) {
+				String detail = (String) entity.getFieldValue(AlmRun.RUN_DETAIL);
+				entity.setFieldValue(AlmRun.RUN_DETAIL, new String(Base64.getDecoder().decode(detail), StandardCharsets.UTF_8));
+				if (untimed) {
+					entity.setFieldValue(AlmRun.RUN_EXECUTION_DATE, "");
+					entity.setFieldValue(AlmRun.RUN_EXECUTION_TIME, "");
+				}
+			}
+			description.append(entity).append('\n');
+			for (Map.Entry<String, List<AlmEntity>> related : new TreeMap<String, List<AlmEntity>>(entity.getRelatedEntities()).entrySet()) {
+				description.append(related.getKey()).append(":\n").append(describe(related.getValue(), untimed));
+			}
+		}
+		return description.toString();
+	}
+
+	/**
+	 * Suites have start times when timed, otherwise only some fixtures have.
+	 */
+	private static byte[] nunit3Report(Random random, int namespaces, int fixtures, boolean timed) {
+		StringBuilder report = new StringBuilder("<?xml version=\"1.0\" encoding=\"utf-8\" standalone=\"no\"?>\n")
+				.append("<test-run id=\"2\" testcasecount=\"10\" result=\"Failed\" start-time=\"2020-05-11 08:30:01Z\" duration=\"0.73\">\n")
+				.append("  <command-line><![CDATA[nunit3-console.exe Sample.dll]]></command-line>\n")
+				.append("  <filter><test>Sample.Fixture</test></filter>\n")
+				.append("  <test-suite type=\"Assembly\" id=\"0-1\" name=\"Sample.dll\" fullname=\"C:\\work\\Sample.dll\" runstate=\"Runnable\">\n")
+				.append("    <settings><setting name=\"WorkDirectory\" value=\"C:\\work\" /></settings>\n")
+				.append("    <properties><property name=\"_PID\" value=\"1234\" /></properties>\n");
+		for (int n = 0; n < namespaces; n++) {
+			report.append("    <test-suite type=\"TestSuite\" name=\"Ns").append(n).append("\">\n");
+			if (random.nextInt(4) == 0) {
+				report.append("      <failure><message>One or more child tests had errors</message></failure>\n");
+			}
+			for (int f = 0; f < fixtures; f++) {
+				String fixture = "Ns" + n + ".Fixture" + f;
+				report.append("      <test-suite type=\"TestFixture\" name=\"Fixture").append(f).append('"');
+				if (timed || random.nextBoolean()) {
+					report.append(startTime(random));
+				}
+				report.append(" classname=\"").append(fixture).append("\">\n");
+				if (random.nextBoolean()) {
+					report.append("        <output><![CDATA[fixture output]]></output>\n");
+				}
+				int cases = random.nextInt(8);
+				for (int c = 0; c < cases; c++) {
+					if (random.nextInt(6) == 0) {
+						report.append("        <test-suite type=\"ParameterizedMethod\" name=\"Method").append(c).append('"')
+								.append(timed ? startTime(random) : "").append(">\n");
+						for (int p = random.nextInt(3); p >= 0; p--) {
+							nunit3TestCase(random, report, fixture, "Method" + c + "(" + p + ",\"a.b\")");
+						}
+						report.append("        </test-suite>\n");
+					} else {
+						nunit3TestCase(random, report, fixture, "Case" + c + (random.nextInt(8) == 0 ? " wi:th/inv\u00e1lid*chars" : ""));
+					}
+				}
+				report.append("      </test-suite>\n");
+			}
+			report.append("    </test-suite>\n");
+		}
+		return report.append("  </test-suite>\n</test-run>\n").toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static void nunit3TestCase(Random random, StringBuilder report, String fixture, String name) {
+		report.append("        <test-case id=\"0-").append(random.nextInt(10000)).append("\" name=\"").append(name.replace("\"", "&quot;")).append('"');
+		attribute(random, report, "runstate", NUNIT3_RUN_STATES);
+		attribute(random, report, "result", NUNIT3_RESULTS);
+		if (random.nextInt(5) > 0) {
+			report.append(" duration=\"0.0").append(random.nextInt(100)).append('"');
+		}
+		if (random.nextInt(5) > 0) {
+			report.append(" asserts=\"").append(random.nextInt(3)).append('"');
+		}
+		if (random.nextInt(6) > 0) {
+			report.append(" classname=\"").append(fixture).append('"');
+		}
+		report.append(">");
+		if (random.nextInt(4) == 0) {
+			report.append("<properties><property name=\"Description\" value=\"described\" /></properties>\n");
+		}
+		for (int i = random.nextInt(3) == 0 ? random.nextInt(3) : 0; i > 0; i--) {
+			report.append("<failure>");
+			if (random.nextInt(5) > 0) {
+				report.append("<message>").append(text(random)).append("</message>");
+			}
+			if (random.nextInt(3) > 0) {
+				report.append("\n  <stack-trace>").append(text(random)).append("</stack-trace>");
+			}
+			report.append("</failure>\n");
+		}
+		if (random.nextInt(6) == 0) {
+			report.append("<reason><message>").append(text(random)).append("</message></reason>");
+		}
+		if (random.nextInt(4) == 0) {
+			report.append("<output>\n  <![CDATA[out\nput <xml/>]]>\n</output>");
+		}
+		if (random.nextInt(5) == 0) {
+			report.append("<assertions><assertion result=\"Failed\"><message>").append(text(random))
+					.append("</message><stack-trace>trace</stack-trace></assertion></assertions>");
+		}
+		if (random.nextInt(8) == 0) {
+			report.append("<attachments><attachment><filePath>C:\\work\\shot.png</filePath></attachment></attachments>");
+		}
+		report.append("</test-case>\n");
+	}
+
+	private static byte[] nunit2Report(Random random, int namespaces, int fixtures) {
+		StringBuilder report = new StringBuilder("<?xml version=\"1.0\" encoding=\"utf-8\" standalone=\"no\"?>\n")
+				.append("<test-results name=\"C:\\work\\Sample.dll\" total=\"10\" errors=\"0\" failures=\"1\" date=\"2020-05-11\" time=\"08:30:01\">\n")
+				.append("  <environment nunit-version=\"2.6.4.14350\" os-version=\"Microsoft Windows NT 6.2.9200.0\" />\n")
+				.append("  <culture-info current-culture=\"en-US\" current-uiculture=\"en-US\" />\n")
+				.append("  <test-suite type=\"Assembly\" name=\"C:\\work\\Sample.dll\" executed=\"True\" result=\"Failure\" time=\"1.2\">\n")
+				.append("    <results>\n");
+		for (int n = 0; n < namespaces; n++) {
+			report.append("      <test-suite type=\"Namespace\" name=\"Ns").append(n).append("\" executed=\"True\"><results>\n");
+			for (int f = 0; f < fixtures; f++) {
+				String fixture = "Fixture" + f;
+				report.append("        <test-suite type=\"TestFixture\" name=\"").append(fixture).append("\" time=\"0.5\">\n");
+				if (random.nextBoolean()) {
+					report.append("          <categories><category name=\"Smoke\" /></categories>\n");
+				}
+				if (random.nextInt(4) == 0) {
+					report.append("          <reason><message><![CDATA[fixture ignored]]></message></reason>\n");
+				}
+				report.append("          <results>\n");
+				int cases = random.nextInt(8);
+				for (int c = 0; c < cases; c++) {
+					if (random.nextInt(6) == 0) {
+						String method = "Method" + c;
+						report.append("            <test-suite type=\"ParameterizedTest\" name=\"").append(method).append("\"><results>\n");
+						for (int p = random.nextInt(3); p >= 0; p--) {
+							nunit2TestCase(random, report, "Ns" + n + "." + fixture + "." + method + "(" + p + ",&quot;a.b&quot;)");
+						}
+						report.append("            </results></test-suite>\n");
+					} else {
+						String name;
+						switch (random.nextInt(6)) {
+							case 0:
+								name = "Case" + c;
+								break;
+							case 1:
+								name = "My custom name " + c;
+								break;
+							case 2:
+								name = "Other.Ns" + n + "." + fixture + ".Case" + c;
+								break;
+							default:
+								name = "Ns" + n + "." + fixture + ".Case" + c;
+								break;
+						}
+						nunit2TestCase(random, report, name);
+					}
+				}
+				report.append("          </results>\n        </test-suite>\n");
+			}
+			report.append("      </results></test-suite>\n");
+		}
+		return report.append("    </results>\n  </test-suite>\n</test-results>\n").toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static void nunit2TestCase(Random random, StringBuilder report, String name) {
+		report.append("              <test-case name=\"").append(name).append('"');
+		attribute(random, report, "executed", new String[] {"True", "True", "False", null});
+		attribute(random, report, "result", NUNIT2_RESULTS);
+		attribute(random, report, "time", new String[] {"0.010", "1.5", "", null});
+		report.append(" asserts=\"1\">");
+		if (random.nextInt(5) == 0) {
+			report.append("<properties><property name=\"Owner\" value=\"me\" /></properties>");
+		}
+		if (random.nextInt(5) == 0) {
+			report.append("<reason><message>").append(text(random)).append("</message></reason>");
+		}
+		if (random.nextInt(3) == 0) {
+			report.append("\n                <failure>");
+			if (random.nextInt(5) > 0) {
+				report.append("<message>").append(text(random)).append("</message>");
+			}
+			if (random.nextInt(4) > 0) {
+				report.append("<stack-trace>").append(text(random)).append("</stack-trace>");
+			}
+			report.append("</failure>\n              ");
+		}
+		report.append("</test-case>\n");
+	}
+
+	private static String startTime(Random random) {
+		return " start-time=\"2020-05-1" + random.nextInt(10) + " 0" + random.nextInt(10) + ":30:01Z\"";
+	}
+
+	private static void attribute(Random random, StringBuilder report, String name, String[] values) {
+		String value = values[random.nextInt(values.length)];
+		if (value != null) {
+			report.append(' ').append(name).append("=\"").append(value).append('"');
+		}
+	}
+
+	private static String text(Random random) {
+		return TEXTS[random.nextInt(TEXTS.length)];
+	}
+
+	private static byte[] read(String name) throws Exception {
+		InputStream in = TestNUnit3ReportParserImpl.class.getResourceAsStream(name);
+		try {
+			ByteArrayOutputStream content = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+				content.write(buffer, 0, read);
+			}
+			return content.toByteArray();
+		} finally {
+			in.close();
+		}
+	}
+}
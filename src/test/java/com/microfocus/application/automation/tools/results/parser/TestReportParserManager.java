@@ -0,0 +1,240 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.results.parser;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.microfocus.application.automation.tools.results.service.SystemOutLogger;
+import com.microfocus.application.automation.tools.results.service.almentities.AlmTestSet;
+import com.microfocus.application.automation.tools.results.service.almentities.AlmTestSetImpl;
+
+public class TestReportParserManager {
+
+	private static final Object[][] CORPUS = {
+			{"junitResult.xml", ReportFormat.JENKINS_JUNIT},
+			{"MAVENTEST-com.demoapp.demo.AppTest.xml", ReportFormat.MAVEN_SUREFIRE},
+			{"testng-results.xml", ReportFormat.TESTNG},
+			{"NUnit3Report.xml", ReportFormat.NUNIT3},
+			{"NUnitReport.xml", ReportFormat.NUNIT},
+			{"AntTESTS-TestSuites.xml", ReportFormat.ANT_JUNIT}
+	};
+
+	private static final String[] MALFORMED = {"empty.xml", "truncated-root.xml", "surefire-summary.txt", "unknown-root.xml"};
+
+	@Test
+	public void testEachFormatIsParsedOnceByItsParser() throws Exception {
+		for (Object[] report : CORPUS) {
+			String name = (String) report[0];
+			ReportFormat format = (ReportFormat) report[1];
+			CountingManager manager = new CountingManager();
+			String path = resource(name);
+
+			List<AlmTestSet> testsets = manager.parseTestSets(path, "JUnit", "Jenkins");
+
+			Assert.assertEquals(name, format.name(), testsets.get(0).getName());
+			Assert.assertEquals(name, Collections.singletonMap(format, 1), manager.parsed);
+			Assert.assertEquals(name, 1, manager.opened.get());
+			Assert.assertArrayEquals("the parser reads the whole report", Files.readAllBytes(new File(path).toPath()), manager.content.get(format));
+		}
+	}
+
+	@Test
+	public void testMalformedReportsAreNotParsed() throws Exception {
+		for (String report : MALFORMED) {
+			CountingManager manager = new CountingManager();
+
+			Assert.assertNull(report, manager.parseTestSets(resource(report), "JUnit", "Jenkins"));
+			Assert.assertTrue(report, manager.parsed.isEmpty());
+			Assert.assertEquals(report, 1, manager.opened.get());
+		}
+	}
+
+	@Test
+	public void testFailedParserIsNotFollowedByOthers() throws Exception {
+		CountingManager manager = new CountingManager();
+
+		Assert.assertNull(manager.parseTestSets(resource("unclosed-testsuite.xml"), "JUnit", "Jenkins"));
+		Assert.assertEquals(Collections.singletonMap(ReportFormat.MAVEN_SUREFIRE, 1), manager.parsed);
+		Assert.assertEquals(1, manager.opened.get());
+	}
+
+	@Test
+	public void testRootElementMustStartWithinTheProlog() throws Exception {
+		File dir = Files.createTempDirectory("reports").toFile();
+		try {
+			StringBuilder comment = new StringBuilder("<?xml version=\"1.0\"?>\n<!--");
+			while (comment.length() < ReportFormat.MAX_PROLOG_SIZE - 100) {
+				comment.append(" padding");
+			}
+			comment.append("-->\n");
+			File near = new File(dir, "near.xml");
+			Files.write(near.toPath(), (comment + "<testsuites/>").getBytes(StandardCharsets.UTF_8));
+			File far = new File(dir, "far.xml");
+			Files.write(far.toPath(), (comment + "<!--" + comment.substring(30) + "<testsuites/>").getBytes(StandardCharsets.UTF_8));
+
+			Assert.assertNotNull(new CountingManager().parseTestSets(near.getPath(), "JUnit", "Jenkins"));
+			Assert.assertNull(new CountingManager().parseTestSets(far.getPath(), "JUnit", "Jenkins"));
+		} finally {
+			for (File file : dir.listFiles()) {
+				file.delete();
+			}
+			dir.delete();
+		}
+	}
+
+	@Test
+	public void testEncodingIsReadFromTheDeclaration() throws Exception {
+		File file = File.createTempFile("utf16", ".xml");
+		try {
+			Files.write(file.toPath(), "\uFEFF<?xml version=\"1.0\" encoding=\"UTF-16\"?><testng-results/>".getBytes(StandardCharsets.UTF_16BE));
+			CountingManager manager = new CountingManager();
+
+			manager.parseTestSets(file.getPath(), "TestNG", "Jenkins");
+
+			Assert.assertEquals(Collections.singletonMap(ReportFormat.TESTNG, 1), manager.parsed);
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void testInstanceIsSharedByThreads() throws Exception {
+		final CountingManager manager = new CountingManager();
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<String>> names = new ArrayList<Future<String>>();
+			for (int i = 0; i < 200; i++) {
+				final Object[] report = CORPUS[i % CORPUS.length];
+				names.add(pool.submit(new Callable<String>() {
+					@Override
+					public String call() throws Exception {
+						return manager.parseTestSets(resource((String) report[0]), "JUnit", "Jenkins").get(0).getName();
+					}
+				}));
+			}
+			for (int i = 0; i < names.size(); i++) {
+				Assert.assertEquals(((ReportFormat) CORPUS[i % CORPUS.length][1]).name(), names.get(i).get());
+			}
+			Assert.assertEquals(200, manager.opened.get());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	private static String resource(String name) throws Exception {
+		return new File(TestReportParserManager.class.getResource(name).toURI()).getPath();
+	}
+
+	/**
+	 * Counts the opened reports, and parses with fakes that read the report and name the test set after the format.
+	 * The fakes fail on reports whose root element is not closed.
+	 */
+	private static class CountingManager extends ReportParserManager {
+		private final AtomicInteger opened = new AtomicInteger();
+		private final Map<ReportFormat, Integer> parsed = new ConcurrentHashMap<ReportFormat, Integer>();
+		private final Map<ReportFormat, byte[]> content = new ConcurrentHashMap<ReportFormat, byte[]>();
+
+		CountingManager() {
+			this(new EnumMap<ReportFormat, ReportParser>(ReportFormat.class));
+		}
+
+		private CountingManager(Map<ReportFormat, ReportParser> parsers) {
+			super(new SystemOutLogger(), fill(parsers));
+			for (ReportParser parser : parsers.values()) {
+				((FakeParser) parser).manager = this;
+			}
+		}
+
+		@Override
+		InputStream openReport(String reportFilePath) throws IOException {
+			opened.incrementAndGet();
+			return super.openReport(reportFilePath);
+		}
+
+		private static Map<ReportFormat, ReportParser> fill(Map<ReportFormat, ReportParser> parsers) {
+			for (ReportFormat format : ReportFormat.values()) {
+				parsers.put(format, new FakeParser(format));
+			}
+			return parsers;
+		}
+	}
+
+	private static class FakeParser implements ReportParser {
+		private final ReportFormat format;
+		private CountingManager manager;
+
+		FakeParser(ReportFormat format) {
+			this.format = format;
+		}
+
+		@Override
+		public List<AlmTestSet> parseTestSets(InputStream in, String testingFramework, String testingTool) throws ReportParseException {
+			synchronized (manager) {
+				Integer count = manager.parsed.get(format);
+				manager.parsed.put(format, count == null ? 1 : count + 1);
+			}
+			try {
+				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				byte[] buffer = new byte[4096];
+				for (int read; (read = in.read(buffer)) != -1; ) {
+					out.write(buffer, 0, read);
+				}
+				manager.content.put(format, out.toByteArray());
+				String report = new String(out.toByteArray(), StandardCharsets.UTF_8).trim();
+				if (!report.endsWith("/>") && !report.endsWith("</" + format.getRootElement() + ">")) {
+					throw new ReportParseException("unexpected end of report");
+				}
+			} catch (IOException e) {
+				throw new ReportParseException(e);
+			}
+			AlmTestSet testset = new AlmTestSetImpl();
+			testset.setFieldValue(AlmTestSet.TESTSET_NAME, format.name());
+			return Collections.singletonList(testset);
+		}
+	}
+}
@@ -0,0 +1,159 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.results.parser.util;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.microfocus.application.automation.tools.results.parser.antjunit.AntJUnitReportParserImpl;
+import com.microfocus.application.automation.tools.results.parser.antjunit.Testcase;
+import com.microfocus.application.automation.tools.results.parser.antjunit.Testsuites;
+import com.microfocus.application.automation.tools.results.service.almentities.AlmRun;
+import com.microfocus.application.automation.tools.results.service.almentities.AlmTestSet;
+import com.microfocus.application.automation.tools.results.service.almentities.EntityRelation;
+
+public class TestJaxbRegistry {
+
+	private static final int REPORTS = 10000;
+
+	@Test
+	public void testRunDetailIsTheEncodedFragment() throws Exception {
+		Testcase tc = new Testcase();
+		tc.setClassname("com.demo.AppTest");
+		tc.setName("testCafé <&>");
+		tc.setTime("0.5");
+
+		String detail = JaxbRegistry.getInstance().toRunDetail(Testcase.class, tc);
+
+		String xml = new String(Base64.getDecoder().decode(detail), StandardCharsets.UTF_8);
+		Assert.assertEquals(ParserUtil.marshallerObject(Testcase.class, tc), xml);
+		Assert.assertTrue(xml, xml.startsWith("<?xml version=\"1.0\" ?><testcase "));
+		Assert.assertTrue(xml, xml.contains("name=\"testCafé &lt;&amp;&gt;\""));
+	}
+
+	@Test
+	public void testRunDetailOfUnboundObjectIsTheProlog() {
+		String detail = JaxbRegistry.getInstance().toRunDetail(Testcase.class, "not a test case");
+
+		Assert.assertEquals(Base64.getEncoder().encodeToString(JaxbRegistry.DETAIL_PROLOG.getBytes(StandardCharsets.US_ASCII)), detail);
+	}
+
+	@Test
+	public void testContextIsCreatedOncePerClassSet() throws Exception {
+		final CountingRegistry registry = new CountingRegistry();
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<Testsuites>> parsed = new ArrayList<Future<Testsuites>>();
+			for (int i = 0; i < 200; i++) {
+				final int n = i;
+				parsed.add(pool.submit(new Callable<Testsuites>() {
+					@Override
+					public Testsuites call() throws Exception {
+						Testsuites testsuites = registry.unmarshal(Testsuites.class, new ByteArrayInputStream(report(n)));
+						registry.toRunDetail(Testcase.class, testsuites.getTestsuite().get(0).getTestcase().get(0));
+						return testsuites;
+					}
+				}));
+			}
+			for (int i = 0; i < parsed.size(); i++) {
+				Assert.assertEquals("suite" + i, parsed.get(i).get().getTestsuite().get(0).getName());
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+		Assert.assertEquals(2, registry.created.get());
+		Assert.assertEquals(2, registry.getContextCreations());
+		Assert.assertSame(registry.getContext(Testcase.class), registry.getContext(Testcase.class));
+	}
+
+	@Test
+	public void testParseSmallReports() throws Exception {
+		AntJUnitReportParserImpl parser = new AntJUnitReportParserImpl();
+		byte[][] reports = new byte[REPORTS][];
+		for (int i = 0; i < REPORTS; i++) {
+			reports[i] = report(i);
+		}
+		// the first report creates the contexts, they are then shared by all the parsers
+		parser.parseTestSets(new ByteArrayInputStream(reports[0]), "JUnit", "Ant");
+		int contexts = JaxbRegistry.getInstance().getContextCreations();
+
+		long start = System.nanoTime();
+		for (int i = 0; i < REPORTS; i++) {
+			List<AlmTestSet> testsets = new AntJUnitReportParserImpl().parseTestSets(new ByteArrayInputStream(reports[i]), "JUnit", "Ant");
+			Assert.assertEquals("suite" + i, testsets.get(0).getName());
+		}
+		long elapsed = System.nanoTime() - start;
+
+		System.out.println(String.format("Parsed %d reports, %d JAXB contexts created, %.1f us per report",
+				REPORTS, JaxbRegistry.getInstance().getContextCreations(), elapsed / 1000.0 / REPORTS));
+		Assert.assertEquals(contexts, JaxbRegistry.getInstance().getContextCreations());
+	}
+
+	@Test
+	public void testParsedRunHoldsTheDetail() throws Exception {
+		List<AlmTestSet> testsets = new AntJUnitReportParserImpl().parseTestSets(new ByteArrayInputStream(report(7)), "JUnit", "Ant");
+
+		AlmRun run = (AlmRun) testsets.get(0)
+				.getRelatedEntities().get(EntityRelation.TESTSET_TO_TESTINSTANCE_CONTAINMENT_RELATION).get(0)
+				.getRelatedEntities().get(EntityRelation.TESTINSTANCE_TO_RUN_REALIZATION_RELATION).get(0);
+		String xml = new String(Base64.getDecoder().decode((String) run.getFieldValue(AlmRun.RUN_DETAIL)), StandardCharsets.UTF_8);
+		Assert.assertTrue(xml, xml.contains("classname=\"com.demo.Test7\""));
+	}
+
+	private static byte[] report(int n) {
+		return ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+				+ "<testsuites><testsuite name=\"suite" + n + "\" tests=\"1\" timestamp=\"2023-01-01T10:00:00\">"
+				+ "<testcase classname=\"com.demo.Test" + n + "\" name=\"test" + n + "\" time=\"0.01\"/>"
+				+ "</testsuite></testsuites>").getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static class CountingRegistry extends JaxbRegistry {
+		private final AtomicInteger created = new AtomicInteger();
+
+		@Override
+		protected JAXBContext newContext(Class<?>... classes) throws JAXBException {
+			created.incrementAndGet();
+			return super.newContext(classes);
+		}
+	}
+}
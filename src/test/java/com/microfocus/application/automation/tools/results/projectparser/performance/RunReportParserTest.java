@@ -0,0 +1,242 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.results.projectparser.performance;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Golden file tests of {@link RunReportParser}. The golden files hold the results of the DOM based parsing the
+ * recorder did before, rendered with {@link #describe(JobLrScenarioResult)}.
+ */
+public class RunReportParserTest {
+
+    private static final String RESULTS_RESOURCES = "/com/microfocus/application/automation/tools/results/";
+    private static final int LARGE_REPORT_TRANSACTIONS = 10000;
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void testRunReport() throws Exception {
+        assertGolden(RESULTS_RESOURCES + "RunReport.xml", "RunReport.golden");
+    }
+
+    @Test
+    public void testRunReportWithoutErrorsPerSecond() throws Exception {
+        assertGolden(RESULTS_RESOURCES + "RunReport_sc5.xml", "RunReport_sc5.golden");
+    }
+
+    @Test
+    public void testAllGoalTypes() throws Exception {
+        assertGolden("RunReport_allGoals.xml", "RunReport_allGoals.golden");
+    }
+
+    @Test
+    public void testTransactionNamesAreInterned() throws Exception {
+        JobLrScenarioResult result = parse(new RunReportParser(), "RunReport_allGoals.xml");
+
+        String login = null;
+        for (String name : result.transactionData.keySet()) {
+            if ("Login".equals(name)) {
+                login = name;
+            }
+        }
+        int logins = 0;
+        for (GoalResult goal : result.scenarioSlaResults) {
+            String name = goal instanceof PercentileTransactionWholeRun ? ((PercentileTransactionWholeRun) goal).getName()
+                    : goal instanceof AvgTransactionResponseTime ? ((AvgTransactionResponseTime) goal).getName() : null;
+            if ("Login".equals(name)) {
+                assertSame(login, name);
+                logins++;
+            }
+        }
+        assertEquals(2, logins);
+    }
+
+    @Test
+    public void testNamesAreSharedBetweenReports() throws Exception {
+        RunReportParser parser = new RunReportParser();
+        JobLrScenarioResult first = parse(parser, RESULTS_RESOURCES + "RunReport.xml");
+        JobLrScenarioResult second = parse(parser, RESULTS_RESOURCES + "RunReport.xml");
+
+        assertSame(first.transactionData.firstKey(), second.transactionData.firstKey());
+    }
+
+    @Test(expected = XMLStreamException.class)
+    public void testReportWithoutSlaIsRejected() throws Exception {
+        String report = "<Runs><General><Time Duration=\"1\"/><VUsers Count=\"1\"/><Transactions Count=\"0\"/>"
+                + "<Connections MaxCount=\"1\"/></General></Runs>";
+        new RunReportParser().parse("broken", new ByteArrayInputStream(report.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test(expected = XMLStreamException.class)
+    public void testOtherRootIsRejected() throws Exception {
+        String report = "<testsuites><General/><SLA/></testsuites>";
+        new RunReportParser().parse("broken", new ByteArrayInputStream(report.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void testLargeReport() throws Exception {
+        File report = tmp.newFile("RunReport_large.xml");
+        writeLargeReport(report, LARGE_REPORT_TRANSACTIONS);
+
+        RunReportParser parser = new RunReportParser();
+        // warm up, the first parse loads the parser classes
+        parseFile(parser, report);
+        long start = System.nanoTime();
+        JobLrScenarioResult result = parseFile(parser, report);
+        long elapsedMillis = (System.nanoTime() - start) / 1000000;
+        System.out.println("RunReport with " + LARGE_REPORT_TRANSACTIONS + " transactions ("
+                + report.length() / 1024 + " KB) parsed in " + elapsedMillis + " ms");
+
+        assertEquals(LARGE_REPORT_TRANSACTIONS, result.transactionData.size());
+        assertEquals(LARGE_REPORT_TRANSACTIONS + 1, result.scenarioSlaResults.size());
+        assertEquals(Integer.valueOf(LARGE_REPORT_TRANSACTIONS * 3), result.transactionSum.get("Count"));
+        TimeRangeResult errorsPerSecond = (TimeRangeResult) result.scenarioSlaResults.get(LARGE_REPORT_TRANSACTIONS);
+        assertEquals(LARGE_REPORT_TRANSACTIONS, errorsPerSecond.getTimeRanges().size());
+        assertEquals(LrTest.SLA_STATUS.Failed, errorsPerSecond.getStatus());
+        assertEquals(LrTest.SLA_STATUS.Passed, errorsPerSecond.getTimeRanges().get(0).getSlaStatus());
+        assertTrue("parsing took " + elapsedMillis + " ms", elapsedMillis < 10000);
+    }
+
+    private void assertGolden(String report, String golden) throws Exception {
+        String expected = new String(Files.readAllBytes(new File(getClass().getResource(golden).toURI()).toPath()),
+                StandardCharsets.UTF_8);
+        assertEquals(expected, describe(parse(new RunReportParser(), report)));
+    }
+
+    private JobLrScenarioResult parse(RunReportParser parser, String resource) throws Exception {
+        String name = resource.substring(resource.lastIndexOf('/') + 1, resource.lastIndexOf('.'));
+        try (InputStream is = getClass().getResourceAsStream(resource)) {
+            return parser.parse(name, is);
+        }
+    }
+
+    private static JobLrScenarioResult parseFile(RunReportParser parser, File report) throws Exception {
+        try (InputStream is = new BufferedInputStream(new FileInputStream(report))) {
+            return parser.parse("large", is);
+        }
+    }
+
+    private static void writeLargeReport(File file, int transactions) throws IOException {
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file.toPath()),
+                StandardCharsets.UTF_8))) {
+            out.write("<Runs>\n  <General>\n    <Time Duration=\"3600\" />\n");
+            out.write("    <VUsers Passed=\"90\" Stopped=\"5\" Failed=\"5\" Error=\"0\" Count=\"100\" />\n");
+            out.write("    <Transactions Count=\"" + transactions * 3 + "\" Pass=\"" + transactions + "\" Fail=\""
+                    + transactions + "\" Stop=\"" + transactions + "\">\n");
+            for (int i = 0; i < transactions; i++) {
+                out.write("      <Transaction Pass=\"1\" Fail=\"1\" Stop=\"1\" Name=\"transaction_" + i + "\" />\n");
+            }
+            out.write("    </Transactions>\n    <Connections MaxCount=\"100\"/>\n  </General>\n  <SLA>\n");
+            for (int i = 0; i < transactions; i++) {
+                out.write("    <SLA_GOAL TransactionName=\"transaction_" + i + "\" Percentile=\"90\" "
+                        + "FullName=\"Transaction Response Time (Percentile)\" Measurement=\"PercentileTRT\" "
+                        + "GoalValue=\"2\" ActualValue=\"" + (i % 4) + ".5\">" + (i % 4 < 2 ? "Passed" : "Failed")
+                        + "</SLA_GOAL>\n");
+            }
+            out.write("    <SLA_GOAL FullName=\"Errors Per Second\" Measurement=\"ErrorsPerSecond\" "
+                    + "SLALoadThresholdValue=\"RunningVusers\">\n      <TimeRanges>\n");
+            for (int i = 0; i < transactions; i++) {
+                out.write("        <TimeRangeInfo StartTime=\"" + i * 5 + "\" EndTime=\"" + (i + 1) * 5
+                        + "\" GoalValue=\"1\" ActualValue=\"" + (i % 3) + "\" LoadValue=\"50\">"
+                        + (i % 3 < 2 ? "Passed" : "Failed") + "</TimeRangeInfo>\n");
+            }
+            out.write("      </TimeRanges>Failed</SLA_GOAL>\n  </SLA>\n</Runs>\n");
+        }
+    }
+
+    /**
+     * Renders every value the performance report reads from a scenario result.
+     */
+    static String describe(JobLrScenarioResult result) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("scenario ").append(result.getScenarioName()).append('\n');
+        sb.append("duration ").append(result.getScenarioDuration()).append('\n');
+        sb.append("connectionMax ").append(result.getConnectionMax()).append('\n');
+        sb.append("vUsers ").append(new TreeMap<String, Integer>(result.vUserSum)).append('\n');
+        sb.append("transactions ").append(result.transactionSum).append('\n');
+        for (Map.Entry<String, TreeMap<String, Integer>> transaction : result.transactionData.entrySet()) {
+            sb.append("transaction ").append(transaction.getKey()).append(' ').append(transaction.getValue())
+                    .append('\n');
+        }
+        for (GoalResult goal : result.scenarioSlaResults) {
+            sb.append("goal ").append(goal.getClass().getSimpleName()).append(' ').append(goal.getSlaGoal())
+                    .append(' ').append(goal.getStatus()).append(" fullName=").append(goal.getFullName())
+                    .append(" duration=").append(goal.getDuration()).append('\n');
+            if (goal instanceof WholeRunResult) {
+                WholeRunResult wholeRun = (WholeRunResult) goal;
+                sb.append("  actual=").append(wholeRun.getActualValue()).append(" goal=")
+                        .append(wholeRun.getGoalValue()).append('\n');
+            }
+            if (goal instanceof PercentileTransactionWholeRun) {
+                PercentileTransactionWholeRun percentile = (PercentileTransactionWholeRun) goal;
+                sb.append("  name=").append(percentile.getName()).append(" percentage=")
+                        .append(percentile.getPrecentage()).append('\n');
+            }
+            if (goal instanceof AvgTransactionResponseTime) {
+                sb.append("  name=").append(((AvgTransactionResponseTime) goal).getName()).append('\n');
+            }
+            if (goal instanceof TimeRangeResult) {
+                TimeRangeResult timeRangeResult = (TimeRangeResult) goal;
+                sb.append("  loadThreshold=").append(timeRangeResult.getLoadThrashold()).append(" goal=")
+                        .append(timeRangeResult.getGoalValue()).append(" actualAvg=")
+                        .append(timeRangeResult.getActualValueAvg()).append('\n');
+                for (TimeRange timeRange : timeRangeResult.getTimeRanges()) {
+                    sb.append("  range ").append(timeRange.getStartTime()).append('-').append(timeRange.getEndTime())
+                            .append(" actual=").append(timeRange.getActualValue()).append(" goal=")
+                            .append(timeRange.getGoalValue()).append(" load=").append(timeRange.getLoadAmount())
+                            .append(' ').append(timeRange.getSlaStatus()).append('\n');
+                }
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,285 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.results.service;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.microfocus.application.automation.tools.rest.HttpTransport;
+import com.microfocus.application.automation.tools.rest.RestClient;
+import com.microfocus.application.automation.tools.results.service.almentities.AlmCommonProperties;
+import com.microfocus.application.automation.tools.results.service.almentities.AlmTestSet;
+import com.microfocus.application.automation.tools.results.service.almentities.AlmTestSetFolder;
+import com.microfocus.application.automation.tools.results.service.almentities.AlmTestSetImpl;
+import com.microfocus.application.automation.tools.sse.common.XPathUtils;
+import com.microfocus.application.automation.tools.sse.sdk.Response;
+
+public class TestAlmFolderPathCache {
+
+    private static final String TESTSET_FOLDER_PATH = "Root\\Import\\Jenkins\\junit";
+
+    @Test
+    public void testRequestCountIsLogarithmicInTestSets() throws Exception {
+        int smallest = 0;
+        int previous = 0;
+        for (int testsetCount = 16; testsetCount <= 4096; testsetCount *= 4) {
+            AlmRestStub alm = new AlmRestStub(500);
+            alm.add("test-set-folders", 0, "Root");
+            DefaultExternalEntityUploadServiceImpl service = newService(alm);
+
+            AlmTestSetFolder folder = service.createTestSetFolderPath(0, TESTSET_FOLDER_PATH);
+            List<AlmTestSet> imported = service.importTestSets(createTestSets(testsetCount), Integer.parseInt(folder.getId()));
+
+            Assert.assertEquals(testsetCount, imported.size());
+            Assert.assertEquals(testsetCount, alm.entities("test-sets").size());
+            int requests = alm.requests;
+            System.out.println(String.format("%d test sets: %d requests", testsetCount, requests));
+            if (smallest == 0) {
+                smallest = requests;
+            } else {
+                // the previous way needed two requests per test set
+                Assert.assertTrue(requests < 2 * testsetCount);
+                Assert.assertTrue("requests grow with the log of the test sets", requests <= previous + 2);
+            }
+            previous = requests;
+        }
+        Assert.assertTrue(previous <= smallest + 2 * 4);
+    }
+
+    @Test
+    public void testExistingEntitiesAreReusedAndMissingOnesCreatedParentFirst() throws Exception {
+        AlmRestStub alm = new AlmRestStub(500);
+        String root = alm.add("test-set-folders", 0, "Root");
+        String importFolder = alm.add("test-set-folders", Integer.parseInt(root), "import");
+        alm.add("test-set-folders", Integer.parseInt(root), "Other");
+        DefaultExternalEntityUploadServiceImpl service = newService(alm);
+
+        AlmTestSetFolder folder = service.createTestSetFolderPath(0, TESTSET_FOLDER_PATH);
+        String jenkinsId = String.valueOf(folder.getFieldValue(AlmCommonProperties.PARENT_ID));
+
+        Assert.assertEquals(5, alm.entities("test-set-folders").size());
+        Assert.assertEquals(importFolder, alm.find("test-set-folders", jenkinsId).get(AlmCommonProperties.PARENT_ID));
+        Assert.assertEquals(Integer.valueOf(2), alm.posts.get("test-set-folders"));
+
+        int folderId = Integer.parseInt(folder.getId());
+        alm.add("test-sets", folderId, "suite1");
+        List<AlmTestSet> testsets = createTestSets(3);
+        // a later build, which does not know the folder is new
+        List<AlmTestSet> imported = newService(alm).importTestSets(testsets, folderId);
+        Assert.assertEquals(3, alm.entities("test-sets").size());
+        Assert.assertEquals("suite1", imported.get(1).getName());
+        Assert.assertEquals(String.valueOf(folderId), alm.find("test-sets", imported.get(2).getId()).get(AlmCommonProperties.PARENT_ID));
+    }
+
+    @Test
+    public void testLaterUploadsOfTheBuildShareTheTrie() throws Exception {
+        AlmRestStub alm = new AlmRestStub(500);
+        alm.add("test-set-folders", 0, "Root");
+        DefaultExternalEntityUploadServiceImpl service = newService(alm);
+
+        AlmTestSetFolder folder = service.createTestSetFolderPath(0, TESTSET_FOLDER_PATH);
+        service.importTestSets(createTestSets(10), Integer.parseInt(folder.getId()));
+        int requests = alm.requests;
+
+        AlmTestSetFolder again = service.createTestSetFolderPath(0, TESTSET_FOLDER_PATH);
+        List<AlmTestSet> imported = service.importTestSets(createTestSets(10), Integer.parseInt(again.getId()));
+
+        Assert.assertEquals(folder.getId(), again.getId());
+        Assert.assertEquals(10, imported.size());
+        Assert.assertEquals(requests, alm.requests);
+
+        service.createTestSetFolderPath(0, "Root\\Import\\Jenkins\\testng");
+        Assert.assertEquals("only the new folder is created", requests + 1, alm.requests);
+    }
+
+    @Test
+    public void testFailedCreationIsLoadedAgain() throws Exception {
+        AlmRestStub alm = new AlmRestStub(500);
+        alm.add("test-set-folders", 0, "Root");
+        DefaultExternalEntityUploadServiceImpl service = newService(alm);
+        int folderId = Integer.parseInt(service.createTestSetFolderPath(0, TESTSET_FOLDER_PATH).getId());
+
+        alm.failNextPost = true;
+        try {
+            service.importTestSets(createTestSets(10), folderId);
+            Assert.fail("creation should fail");
+        } catch (ExternalEntityUploadException e) {
+            // expected
+        }
+        Assert.assertEquals(10, service.importTestSets(createTestSets(10), folderId).size());
+        Assert.assertEquals("created ones are found, not created again", 10, alm.entities("test-sets").size());
+    }
+
+    private static DefaultExternalEntityUploadServiceImpl newService(AlmRestStub alm) {
+        RestClient client = new RestClient("http://localhost:8080/qcbin", "D", "P", "sa", alm);
+        return new DefaultExternalEntityUploadServiceImpl(new AlmRestTool(client, new SystemOutLogger()), new SystemOutLogger());
+    }
+
+    private static List<AlmTestSet> createTestSets(int count) {
+        List<AlmTestSet> testsets = new ArrayList<AlmTestSet>();
+        for (int s = 0; s < count; s++) {
+            AlmTestSetImpl testset = new AlmTestSetImpl();
+            testset.setFieldValue(AlmTestSet.TESTSET_NAME, "suite" + s);
+            testset.setFieldValue(AlmTestSet.TESTSET_SUB_TYPE_ID, "hp.qc.test-set.external");
+            testsets.add(testset);
+        }
+        return testsets;
+    }
+
+    /**
+     * ALM REST entity collections behind the transport of the rest client, counting the requests.
+     * Pages hold at most maxPageSize entities, and a failed collection post creates half of its entities.
+     */
+    private static class AlmRestStub implements HttpTransport {
+
+        private static final Pattern COLLECTION = Pattern.compile("/rest/domains/D/projects/P/([\\w-]+)$");
+        private static final Pattern PARENT_IDS = Pattern.compile("parent-id\\[([^\\]]*)\\]");
+
+        private final int maxPageSize;
+        private final Map<String, List<Map<String, String>>> store = new HashMap<String, List<Map<String, String>>>();
+        private final Map<String, Integer> posts = new HashMap<String, Integer>();
+        private int requests;
+        private int nextId = 1000;
+        private boolean failNextPost;
+
+        AlmRestStub(int maxPageSize) {
+            this.maxPageSize = maxPageSize;
+        }
+
+        @Override
+        public synchronized Response execute(String method, URL url, Map<String, String> headers, byte[] data) throws IOException {
+            requests++;
+            Matcher collection = COLLECTION.matcher(url.getPath());
+            Assert.assertTrue(url.toString(), collection.find());
+            String type = collection.group(1);
+            if ("GET".equals(method)) {
+                return get(type, parseQuery(url.getQuery()));
+            }
+            Assert.assertEquals("POST", method);
+            Assert.assertEquals("application/xml;type=collection", headers.get("Content-Type"));
+            Integer count = posts.get(type);
+            posts.put(type, count == null ? 1 : count + 1);
+
+            List<Map<String, String>> created = new ArrayList<Map<String, String>>();
+            List<Map<String, String>> entities = XPathUtils.toEntities(new String(data, StandardCharsets.UTF_8));
+            for (Map<String, String> fields : entities) {
+                if (failNextPost && created.size() >= entities.size() / 2) {
+                    failNextPost = false;
+                    return new Response(null, new byte[0], new IOException("Internal Server Error"), 500);
+                }
+                created.add(add(type, new LinkedHashMap<String, String>(fields)));
+            }
+            return toResponse(created, created.size());
+        }
+
+        private Response get(String type, Map<String, String> params) {
+            Matcher parentIds = PARENT_IDS.matcher(params.get("query"));
+            Assert.assertTrue(parentIds.find());
+            List<String> ids = new ArrayList<String>();
+            for (String id : parentIds.group(1).split(" OR ")) {
+                ids.add(id.trim());
+            }
+            Assert.assertEquals("max", params.get("page-size"));
+
+            List<Map<String, String>> matching = new ArrayList<Map<String, String>>();
+            for (Map<String, String> fields : entities(type)) {
+                if (ids.contains(fields.get(AlmCommonProperties.PARENT_ID))) {
+                    matching.add(fields);
+                }
+            }
+            int from = Integer.parseInt(params.get("start-index")) - 1;
+            return toResponse(matching.subList(Math.min(from, matching.size()), Math.min(from + maxPageSize, matching.size())), matching.size());
+        }
+
+        String add(String type, int parentId, String name) {
+            Map<String, String> fields = new LinkedHashMap<String, String>();
+            fields.put(AlmCommonProperties.PARENT_ID, String.valueOf(parentId));
+            fields.put(AlmCommonProperties.NAME, name);
+            return add(type, fields).get(AlmCommonProperties.ID);
+        }
+
+        private Map<String, String> add(String type, Map<String, String> fields) {
+            fields.put(AlmCommonProperties.ID, String.valueOf(nextId++));
+            entities(type).add(fields);
+            return fields;
+        }
+
+        Map<String, String> find(String type, String id) {
+            for (Map<String, String> fields : entities(type)) {
+                if (id.equals(fields.get(AlmCommonProperties.ID))) {
+                    return fields;
+                }
+            }
+            return null;
+        }
+
+        synchronized List<Map<String, String>> entities(String type) {
+            List<Map<String, String>> entities = store.get(type);
+            if (entities == null) {
+                entities = new ArrayList<Map<String, String>>();
+                store.put(type, entities);
+            }
+            return entities;
+        }
+
+        private static Response toResponse(List<Map<String, String>> entities, int totalResults) {
+            StringBuilder xml = new StringBuilder("<Entities TotalResults=\"").append(totalResults).append("\">");
+            for (Map<String, String> fields : entities) {
+                xml.append("<Entity><Fields>");
+                for (Map.Entry<String, String> field : fields.entrySet()) {
+                    xml.append("<Field Name=\"").append(field.getKey()).append("\"><Value>").append(field.getValue()).append("</Value></Field>");
+                }
+                xml.append("</Fields></Entity>");
+            }
+            xml.append("</Entities>");
+            return new Response(null, xml.toString().getBytes(StandardCharsets.UTF_8), null, 200);
+        }
+
+        private static Map<String, String> parseQuery(String query) throws IOException {
+            Map<String, String> params = new HashMap<String, String>();
+            for (String param : query.split("&")) {
+                int equals = param.indexOf('=');
+                params.put(param.substring(0, equals), URLDecoder.decode(param.substring(equals + 1), "UTF-8"));
+            }
+            return params;
+        }
+    }
+}
@@ -62,7 +62,7 @@ public class TestDefaultExternalEntityUploadServiceImpl {
 
 		AbstractBuild build = project.scheduleBuild2(0).get();
 
-		IExternalEntityUploadService service = new DefaultExternalEntityUploadServiceImpl(u, build.getWorkspace(), new SystemOutLogger());
+		IExternalEntityUploadService service = new DefaultExternalEntityUploadServiceImpl(u, new SystemOutLogger());
 		String reportFilePath = this.getClass().getResource("junitResult.xml").getPath();
 		String testingFramework = "JUnit";
 		String testingTool = "Jenkins";
@@ -90,7 +90,7 @@ public class TestDefaultExternalEntityUploadServiceImpl {
 		AlmRestTool u = new AlmRestTool(loginInfo, new SystemOutLogger());
 
 		AbstractBuild build = project.scheduleBuild2(0).get();
-		IExternalEntityUploadService service = new DefaultExternalEntityUploadServiceImpl(u, build.getWorkspace(), new SystemOutLogger());
+		IExternalEntityUploadService service = new DefaultExternalEntityUploadServiceImpl(u, new SystemOutLogger());
 
 		String reportFilePath = this.getClass().getResource("testng-results.xml").getPath();
 		String testingFramework = "TestNG";
@@ -118,7 +118,7 @@ public class TestDefaultExternalEntityUploadServiceImpl {
 		AlmRestTool u = new AlmRestTool(loginInfo, new SystemOutLogger());
 
 		AbstractBuild build = project.scheduleBuild2(0).get();
-		IExternalEntityUploadService service = new DefaultExternalEntityUploadServiceImpl(u, build.getWorkspace(), new SystemOutLogger());
+		IExternalEntityUploadService service = new DefaultExternalEntityUploadServiceImpl(u, new SystemOutLogger());
 		
 		String reportFilePath = this.getClass().getResource("NUnitReport.xml").getPath();
 
@@ -0,0 +1,412 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.results.service;
+
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.microfocus.application.automation.tools.common.SSEException;
+import com.microfocus.application.automation.tools.rest.RestClient;
+import com.microfocus.application.automation.tools.results.service.almentities.AlmCommonProperties;
+import com.microfocus.application.automation.tools.results.service.almentities.AlmEntity;
+import com.microfocus.application.automation.tools.results.service.almentities.AlmRun;
+import com.microfocus.application.automation.tools.results.service.almentities.AlmRunImpl;
+import com.microfocus.application.automation.tools.results.service.almentities.AlmTest;
+import com.microfocus.application.automation.tools.results.service.almentities.AlmTestFolderImpl;
+import com.microfocus.application.automation.tools.results.service.almentities.AlmTestImpl;
+import com.microfocus.application.automation.tools.results.service.almentities.AlmTestInstance;
+import com.microfocus.application.automation.tools.results.service.almentities.AlmTestInstanceImpl;
+import com.microfocus.application.automation.tools.results.service.almentities.AlmTestSet;
+import com.microfocus.application.automation.tools.results.service.almentities.AlmTestSetImpl;
+import com.microfocus.application.automation.tools.results.service.almentities.EntityRelation;
+
+public class TestExternalEntityUploadEngine {
+
+    private static final int TESTSETS = 3;
+    private static final int TESTS_PER_SET = 40;
+    private static final long LATENCY_MILLIS = 5;
+
+    @Test
+    public void testUploadCreatesEveryEntityOnce() throws Exception {
+        AlmStub alm = new AlmStub(LATENCY_MILLIS);
+        ExternalEntityUploadEngine engine = newEngine(alm, 8);
+
+        List<String> ids = engine.upload(createTestSets(), "sa", 1, 2, "Jenkins", "1", "job", "http://jenkins/");
+
+        Assert.assertEquals(TESTSETS, ids.size());
+        // every set runs the same tests, so tests and configs are shared between the sets
+        Assert.assertEquals(TESTS_PER_SET, alm.entities("tests").size());
+        Assert.assertEquals(TESTSETS * TESTS_PER_SET, alm.entities("test-instances").size());
+        Assert.assertEquals(TESTSETS * TESTS_PER_SET, alm.entities("runs").size());
+        Assert.assertEquals(TESTSETS * TESTS_PER_SET, engine.getUploadedRuns());
+        Assert.assertEquals("lookups of shared tests", 2 * (TESTSETS - 1) * TESTS_PER_SET, engine.getSharedLookups());
+        Assert.assertEquals(TESTS_PER_SET, alm.queries("tests"));
+        Assert.assertEquals(0, engine.getRetries());
+
+        for (String id : ids) {
+            List<String> order = new ArrayList<String>();
+            for (Map<String, String> run : alm.entities("runs")) {
+                if (id.equals(run.get(AlmRun.RUN_CYCLE_ID))) {
+                    order.add(run.get(AlmRun.RUN_DETAIL));
+                }
+            }
+            Assert.assertEquals(TESTS_PER_SET, order.size());
+            for (int i = 0; i < order.size(); i++) {
+                Assert.assertTrue("runs of a test set keep the report order", order.get(i).endsWith("-" + i));
+            }
+        }
+    }
+
+    @Test
+    public void testRequestsOverlapUpToThePoolSize() throws Exception {
+        AlmStub serialAlm = new AlmStub(LATENCY_MILLIS);
+        newEngine(serialAlm, 1).upload(createTestSets(), "sa", 1, 2, "Jenkins", "1", "job", "http://jenkins/");
+
+        AlmStub concurrentAlm = new AlmStub(LATENCY_MILLIS);
+        newEngine(concurrentAlm, 8).upload(createTestSets(), "sa", 1, 2, "Jenkins", "1", "job", "http://jenkins/");
+
+        Assert.assertEquals(serialAlm.requests.get(), concurrentAlm.requests.get());
+        Assert.assertEquals(1, serialAlm.maxInFlight.get());
+        Assert.assertTrue("requests in flight: " + concurrentAlm.maxInFlight.get(), concurrentAlm.maxInFlight.get() > 1);
+        Assert.assertTrue("requests in flight: " + concurrentAlm.maxInFlight.get(), concurrentAlm.maxInFlight.get() <= 8);
+    }
+
+    @Test
+    public void testSameMethodOfDifferentPackagesGetsDistinctTests() throws Exception {
+        AlmStub alm = new AlmStub(LATENCY_MILLIS);
+        AlmTestSetImpl testset = new AlmTestSetImpl();
+        testset.setFieldValue(AlmTestSet.TESTSET_NAME, "suite");
+        testset.setFieldValue(AlmTestSet.TESTSET_SUB_TYPE_ID, "hp.qc.test-set.external");
+        for (int p = 0; p < 4; p++) {
+            testset.addRelatedEntity(EntityRelation.TESTSET_TO_TESTINSTANCE_CONTAINMENT_RELATION,
+                    createTestInstance("com.example" + p, "test", "suite-" + p));
+        }
+        List<AlmTestSet> testsets = new ArrayList<AlmTestSet>();
+        testsets.add(testset);
+
+        newEngine(alm, 8).upload(testsets, "sa", 1, 2, "Jenkins", "1", "job", "http://jenkins/");
+
+        Set<String> names = new HashSet<String>();
+        for (Map<String, String> test : alm.entities("tests")) {
+            names.add(test.get(AlmTest.TEST_NAME));
+        }
+        Assert.assertEquals(4, alm.entities("tests").size());
+        Assert.assertEquals("test names " + names, 4, names.size());
+        Assert.assertTrue("test names " + names, names.contains("SampleTest_test"));
+    }
+
+    @Test
+    public void testFailedLookupIsRetried() throws Exception {
+        AlmStub alm = new AlmStub(0);
+        alm.failingCreates.put("test-instances", new AtomicInteger(2));
+        ExternalEntityUploadEngine engine = newEngine(alm, 4);
+
+        engine.upload(createTestSets(), "sa", 1, 2, "Jenkins", "1", "job", "http://jenkins/");
+
+        Assert.assertEquals(2, engine.getRetries());
+        Assert.assertEquals(TESTSETS * TESTS_PER_SET, alm.entities("test-instances").size());
+        Assert.assertEquals(TESTSETS * TESTS_PER_SET, engine.getUploadedRuns());
+    }
+
+    @Test(expected = ExternalEntityUploadException.class)
+    public void testFailedRunFailsUpload() throws Exception {
+        AlmStub alm = new AlmStub(0);
+        alm.failingCreates.put("runs", new AtomicInteger(1));
+
+        newEngine(alm, 4).upload(createTestSets(), "sa", 1, 2, "Jenkins", "1", "job", "http://jenkins/");
+    }
+
+    @Test
+    public void testFolderPathIsResolvedOnce() throws Exception {
+        final AtomicInteger id = new AtomicInteger(100);
+        final AtomicInteger created = new AtomicInteger();
+        AlmFolderPathCache<AlmTestFolderImpl> folders = new AlmFolderPathCache<AlmTestFolderImpl>(
+                new AlmFolderPathCache.FolderStore<AlmTestFolderImpl>() {
+                    @Override
+                    public List<AlmTestFolderImpl> findChildren(Collection<Integer> parentIds) {
+                        return new ArrayList<AlmTestFolderImpl>();
+                    }
+
+                    @Override
+                    public List<AlmTestFolderImpl> create(List<AlmTestFolderImpl> newFolders) {
+                        for (AlmTestFolderImpl folder : newFolders) {
+                            folder.setId(String.valueOf(id.incrementAndGet()));
+                        }
+                        created.addAndGet(newFolders.size());
+                        return newFolders;
+                    }
+
+                    @Override
+                    public AlmTestFolderImpl newFolder(int parentId, String folderName) {
+                        AlmTestFolderImpl folder = new AlmTestFolderImpl();
+                        folder.setFieldValue(AlmCommonProperties.PARENT_ID, String.valueOf(parentId));
+                        folder.setFieldValue(AlmCommonProperties.NAME, folderName);
+                        return folder;
+                    }
+                });
+
+        AlmTestFolderImpl first = folders.resolve(2, "Import\\Jenkins\\junit");
+        AlmTestFolderImpl second = folders.resolve(2, "Import\\Jenkins\\testng");
+        AlmTestFolderImpl again = folders.resolve(2, "Import\\Jenkins\\junit");
+
+        Assert.assertSame(first, again);
+        Assert.assertEquals(first.getFieldValue(AlmCommonProperties.PARENT_ID), second.getFieldValue(AlmCommonProperties.PARENT_ID));
+        Assert.assertEquals(4, created.get());
+        // the children of the root, then one creation per depth, then the second leaf
+        Assert.assertEquals(5, folders.getRequestCount());
+    }
+
+    private static ExternalEntityUploadEngine newEngine(AlmStub alm, int threads) {
+        DefaultExternalEntityUploadServiceImpl service =
+                new DefaultExternalEntityUploadServiceImpl(alm, new SystemOutLogger(), threads);
+        return new ExternalEntityUploadEngine(service, new SystemOutLogger(), threads, 1);
+    }
+
+    private static List<AlmTestSet> createTestSets() {
+        List<AlmTestSet> testsets = new ArrayList<AlmTestSet>();
+        for (int s = 0; s < TESTSETS; s++) {
+            AlmTestSetImpl testset = new AlmTestSetImpl();
+            testset.setFieldValue(AlmTestSet.TESTSET_NAME, "suite" + s);
+            testset.setFieldValue(AlmTestSet.TESTSET_SUB_TYPE_ID, "hp.qc.test-set.external");
+            for (int t = 0; t < TESTS_PER_SET; t++) {
+                testset.addRelatedEntity(EntityRelation.TESTSET_TO_TESTINSTANCE_CONTAINMENT_RELATION,
+                        createTestInstance("com.example", "test" + t, "suite" + s + "-" + t));
+            }
+            testsets.add(testset);
+        }
+        return testsets;
+    }
+
+    private static AlmTestInstanceImpl createTestInstance(String packageName, String methodName, String runDetail) {
+        AlmTestImpl test = new AlmTestImpl();
+        test.setFieldValue(AlmTest.TEST_TYPE, "EXTERNAL-TEST");
+        test.setFieldValue(AlmTest.TS_UT_PACKAGE_NAME, packageName);
+        test.setFieldValue(AlmTest.TS_UT_CLASS_NAME, "SampleTest");
+        test.setFieldValue(AlmTest.TS_UT_METHOD_NAME, methodName);
+        test.setFieldValue(AlmTest.TS_TESTING_FRAMEWORK, "JUnit");
+        test.setFieldValue(AlmTest.TEST_NAME, "SampleTest_" + methodName);
+
+        AlmRunImpl run = new AlmRunImpl();
+        run.setFieldValue(AlmRun.RUN_STATUS, "Passed");
+        run.setFieldValue(AlmRun.RUN_DETAIL, runDetail);
+
+        AlmTestInstanceImpl instance = new AlmTestInstanceImpl();
+        instance.setFieldValue(AlmTestInstance.TEST_INSTANCE_SUBTYPE_ID, "external-test-instance");
+        instance.addRelatedEntity(EntityRelation.TEST_TO_TESTINSTANCE_REALIZATION_RELATION, test);
+        instance.addRelatedEntity(EntityRelation.TESTINSTANCE_TO_RUN_REALIZATION_RELATION, run);
+        return instance;
+    }
+
+    /**
+     * In memory ALM entity store behind the AlmRestTool calls used by the upload, every call costs a round trip.
+     */
+    private static class AlmStub extends AlmRestTool {
+
+        private static final Pattern QUERY = Pattern.compile("query=\\{([^}]*)\\}");
+        private static final Pattern CONDITION = Pattern.compile("([\\w-]+)\\[([^\\]]*)\\]");
+
+        private final long latencyMillis;
+        private final Map<String, List<Map<String, String>>> store = new HashMap<String, List<Map<String, String>>>();
+        private final Map<String, AtomicInteger> queries = new HashMap<String, AtomicInteger>();
+        private final Map<String, AtomicInteger> failingCreates = new HashMap<String, AtomicInteger>();
+        private final AtomicInteger requests = new AtomicInteger();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+        private int nextId = 1000;
+
+        AlmStub(long latencyMillis) {
+            super(new RestClient("http://localhost:8080/qcbin", "D", "P", "sa"), new SystemOutLogger());
+            this.latencyMillis = latencyMillis;
+        }
+
+        @Override
+        public <E extends AlmEntity> E getEntityUnderParentFolder(Class<E> entityClass, int parentId, String entityName) {
+            try {
+                List<E> found = getAlmEntity(entityClass.newInstance(),
+                        String.format("query={parent-id[%s];name[%s]}", parentId, getEncodedString(entityName)));
+                return found.isEmpty() ? null : found.get(0);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <E extends AlmEntity> List<E> getAlmEntity(E entity, String queryString) {
+            roundTrip();
+            Map<String, String> conditions = parseQuery(queryString);
+            List<E> ret = new ArrayList<E>();
+            synchronized (this) {
+                count(queries, entity.getRestPrefix());
+                for (Map<String, String> fields : entities(entity.getRestPrefix())) {
+                    if (matches(fields, conditions)) {
+                        ret.add((E) toEntity(entity.getClass(), fields));
+                    }
+                }
+            }
+            return ret;
+        }
+
+        @Override
+        public <E extends AlmEntity> List<E> getAllAlmEntities(E entity, String queryString) {
+            return getAlmEntity(entity, queryString);
+        }
+
+        @Override
+        public <E extends AlmEntity> List<E> createAlmEntities(List<E> entities, String[] fieldsForCreation) throws ExternalEntityUploadException {
+            List<E> ret = new ArrayList<E>();
+            for (E entity : entities) {
+                ret.add(createAlmEntity(entity, fieldsForCreation));
+            }
+            return ret;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <E extends AlmEntity> E createAlmEntity(E entity, String[] fieldsForCreation) throws ExternalEntityUploadException {
+            roundTrip();
+            synchronized (this) {
+                AtomicInteger failures = failingCreates.get(entity.getRestPrefix());
+                if (failures != null && failures.getAndDecrement() > 0) {
+                    throw new SSEException("connection reset");
+                }
+                Map<String, String> fields = new LinkedHashMap<String, String>();
+                for (String field : fieldsForCreation) {
+                    fields.put(field, String.valueOf(entity.getFieldValue(field)));
+                }
+                fields.put(AlmCommonProperties.ID, String.valueOf(nextId++));
+                entities(entity.getRestPrefix()).add(fields);
+                if ("tests".equals(entity.getRestPrefix())) {
+                    Map<String, String> config = new LinkedHashMap<String, String>();
+                    config.put(AlmCommonProperties.ID, String.valueOf(nextId++));
+                    config.put(AlmCommonProperties.PARENT_ID, fields.get(AlmCommonProperties.ID));
+                    config.put(AlmCommonProperties.NAME, fields.get(AlmTest.TEST_NAME));
+                    entities("test-configs").add(config);
+                }
+                return (E) toEntity(entity.getClass(), fields);
+            }
+        }
+
+        synchronized List<Map<String, String>> entities(String restPrefix) {
+            List<Map<String, String>> entities = store.get(restPrefix);
+            if (entities == null) {
+                entities = new ArrayList<Map<String, String>>();
+                store.put(restPrefix, entities);
+            }
+            return entities;
+        }
+
+        synchronized int queries(String restPrefix) {
+            AtomicInteger count = queries.get(restPrefix);
+            return count == null ? 0 : count.get();
+        }
+
+        private void roundTrip() {
+            requests.incrementAndGet();
+            int current = inFlight.incrementAndGet();
+            int max;
+            while ((max = maxInFlight.get()) < current && !maxInFlight.compareAndSet(max, current)) {
+                // retry with the new maximum
+            }
+            try {
+                if (latencyMillis > 0) {
+                    Thread.sleep(latencyMillis);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+
+        private static void count(Map<String, AtomicInteger> counters, String key) {
+            AtomicInteger count = counters.get(key);
+            if (count == null) {
+                count = new AtomicInteger();
+                counters.put(key, count);
+            }
+            count.incrementAndGet();
+        }
+
+        private static Map<String, String> parseQuery(String queryString) {
+            Map<String, String> conditions = new HashMap<String, String>();
+            Matcher query = QUERY.matcher(queryString);
+            if (query.find()) {
+                Matcher condition = CONDITION.matcher(query.group(1));
+                while (condition.find()) {
+                    String value = condition.group(2);
+                    try {
+                        value = URLDecoder.decode(value, "UTF-8");
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                    if (value.startsWith("\"") && value.endsWith("\"")) {
+                        value = value.substring(1, value.length() - 1);
+                    }
+                    conditions.put(condition.group(1), value);
+                }
+            }
+            return conditions;
+        }
+
+        private static boolean matches(Map<String, String> fields, Map<String, String> conditions) {
+            for (Map.Entry<String, String> condition : conditions.entrySet()) {
+                if (!condition.getValue().equals(fields.get(condition.getKey()))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static AlmEntity toEntity(Class<?> entityClass, Map<String, String> fields) {
+            try {
+                AlmEntity entity = (AlmEntity) entityClass.newInstance();
+                for (Map.Entry<String, String> field : fields.entrySet()) {
+                    entity.setFieldValue(field.getKey(), field.getValue());
+                }
+                return entity;
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
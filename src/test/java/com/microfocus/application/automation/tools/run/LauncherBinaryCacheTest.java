@@ -0,0 +1,196 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.run;
+
+import hudson.FilePath;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tests on the node cache of the launcher binaries, with the node and the workspaces in local folders
+ */
+public class LauncherBinaryCacheTest {
+
+    private static final String LAUNCHER = "HpToolsLauncher.exe";
+    private static final String LAUNCHER_CONFIG = "HpToolsLauncher.exe.config";
+    private static final String ANALYSIS_LAUNCHER = "LRAnalysisLauncher.exe";
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private final AtomicLong bytesRead = new AtomicLong();
+
+    @Test
+    public void testSecondBuildMovesNoLauncherBytes() throws Exception {
+        Map<String, byte[]> contents = contents();
+        Map<String, URL> binaries = binaries(contents);
+        LauncherBinaryCache cache = new LauncherBinaryCache(new FilePath(new File(tmp.newFolder("node"), "cache")));
+
+        FilePath firstWorkspace = new FilePath(tmp.newFolder("first"));
+        long total = 0;
+        for (byte[] content : contents.values()) {
+            total += content.length;
+        }
+        Assert.assertEquals(total, cache.install(firstWorkspace, binaries));
+        assertInstalled(contents, firstWorkspace);
+
+        bytesRead.set(0);
+        FilePath secondWorkspace = new FilePath(tmp.newFolder("second"));
+        Assert.assertEquals(0, cache.install(secondWorkspace, binaries));
+        Assert.assertEquals(0, bytesRead.get());
+        assertInstalled(contents, secondWorkspace);
+
+        // a workspace that still has the binaries of its previous build
+        Assert.assertEquals(0, cache.install(secondWorkspace, binaries));
+        assertInstalled(contents, secondWorkspace);
+    }
+
+    @Test
+    public void testCorruptedEntryIsReplaced() throws Exception {
+        Map<String, byte[]> contents = contents();
+        Map<String, URL> binaries = binaries(contents);
+        File cacheRoot = new File(tmp.newFolder("node"), "cache");
+        LauncherBinaryCache cache = new LauncherBinaryCache(new FilePath(cacheRoot));
+        cache.install(new FilePath(tmp.newFolder("first")), binaries);
+
+        String name = LAUNCHER;
+        File entry = new File(new File(cacheRoot, LauncherBinaryCache.getDigest(binaries.get(name))), name);
+        byte[] corrupted = contents.get(name).clone();
+        corrupted[corrupted.length / 2] ^= 1;
+        Files.write(entry.toPath(), corrupted);
+
+        bytesRead.set(0);
+        FilePath secondWorkspace = new FilePath(tmp.newFolder("second"));
+        Assert.assertEquals(contents.get(name).length, cache.install(secondWorkspace, binaries));
+        Assert.assertEquals(contents.get(name).length, bytesRead.get());
+        assertInstalled(contents, secondWorkspace);
+        Assert.assertArrayEquals(contents.get(name), Files.readAllBytes(entry.toPath()));
+
+        // a missing entry is transferred again as well
+        Files.delete(entry.toPath());
+        Assert.assertEquals(contents.get(name).length, cache.install(new FilePath(tmp.newFolder("third")), binaries));
+        Assert.assertArrayEquals(contents.get(name), Files.readAllBytes(entry.toPath()));
+    }
+
+    @Test
+    public void testCorruptedTransferIsNotCached() throws Exception {
+        Map<String, byte[]> contents = contents();
+        Map<String, URL> binaries = binaries(contents);
+        File cacheRoot = new File(tmp.newFolder("node"), "cache");
+        LauncherBinaryCache cache = new LauncherBinaryCache(new FilePath(cacheRoot));
+        String name = ANALYSIS_LAUNCHER;
+        String digest = LauncherBinaryCache.getDigest(binaries.get(name));
+        // the binary changes between its digest and its transfer
+        contents.get(name)[0] ^= 1;
+
+        try {
+            cache.install(new FilePath(tmp.newFolder("first")), binaries);
+            Assert.fail();
+        } catch (IOException e) {
+            Assert.assertTrue(e.getMessage().contains(digest));
+        }
+        File[] entries = new File(cacheRoot, digest).listFiles();
+        Assert.assertNotNull(entries);
+        Assert.assertEquals(0, entries.length);
+    }
+
+    @Test
+    public void testDigest() throws Exception {
+        Assert.assertEquals("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855",
+                LauncherBinaryCache.digest(new ByteArrayInputStream(new byte[0])));
+    }
+
+    private static Map<String, byte[]> contents() {
+        Random random = new Random(21);
+        Map<String, byte[]> contents = new LinkedHashMap<>();
+        for (String name : Arrays.asList(LAUNCHER, LAUNCHER_CONFIG, ANALYSIS_LAUNCHER)) {
+            byte[] content = new byte[100_000 + random.nextInt(1_000_000)];
+            random.nextBytes(content);
+            contents.put(name, content);
+        }
+        return contents;
+    }
+
+    /**
+     * the binaries as bundled resources, which count the bytes read from them
+     */
+    private Map<String, URL> binaries(Map<String, byte[]> contents) throws IOException {
+        String plugin = tmp.newFolder().getName();
+        Map<String, URL> binaries = new LinkedHashMap<>();
+        for (Map.Entry<String, byte[]> content : contents.entrySet()) {
+            URLStreamHandler handler = new URLStreamHandler() {
+                @Override
+                protected URLConnection openConnection(URL url) {
+                    return new URLConnection(url) {
+                        @Override
+                        public void connect() {
+                            // nothing to connect to
+                        }
+
+                        @Override
+                        public InputStream getInputStream() {
+                            return new ByteArrayInputStream(content.getValue()) {
+                                @Override
+                                public synchronized int read(byte[] b, int off, int len) {
+                                    int n = super.read(b, off, len);
+                                    bytesRead.addAndGet(Math.max(n, 0));
+                                    return n;
+                                }
+                            };
+                        }
+                    };
+                }
+            };
+            binaries.put(content.getKey(), new URL("plugin", null, -1, "/" + plugin + "/" + content.getKey(), handler));
+        }
+        return binaries;
+    }
+
+    private static void assertInstalled(Map<String, byte[]> contents, FilePath workspace) throws IOException {
+        for (Map.Entry<String, byte[]> content : contents.entrySet()) {
+            Assert.assertArrayEquals(content.getKey(), content.getValue(), Files.readAllBytes(new File(workspace.getRemote(), content.getKey()).toPath()));
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.run;
+
+import com.microfocus.application.automation.tools.model.SvDeployModel;
+import com.microfocus.sv.svconfigurator.core.IProject;
+import com.microfocus.sv.svconfigurator.core.IService;
+import com.microfocus.sv.svconfigurator.processor.DeployProcessorInput;
+import com.microfocus.sv.svconfigurator.processor.IDeployProcessor;
+import com.microfocus.sv.svconfigurator.serverclient.ICommandExecutor;
+import hudson.FilePath;
+import hudson.util.StreamTaskListener;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SvDeployBuilderTest {
+
+    private static final int SERVICES = 24;
+
+    @Test
+    public void testEachThreadDeploysWithItsOwnProjectAndExecutor() throws Exception {
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        FakeRunner runner = new FakeRunner(new StreamTaskListener(log, StandardCharsets.UTF_8));
+
+        runner.call();
+
+        Assert.assertEquals(SERVICES, runner.deployed.get());
+        for (Map.Entry<Thread, AtomicInteger> loads : runner.loadsByThread.entrySet()) {
+            Assert.assertEquals(loads.getKey().getName(), 1, loads.getValue().get());
+        }
+        // the project printed and listed by the calling thread, plus one per deploying thread
+        Assert.assertEquals(runner.executorsByThread.size() + 1, runner.loadsByThread.size());
+        Assert.assertEquals(runner.executorsByThread.size(), runner.createdExecutors.get());
+        String output = log.toString(StandardCharsets.UTF_8.name());
+        for (int i = 0; i < SERVICES; i++) {
+            Assert.assertTrue(output, output.contains("Deploying service 'service " + i + "' [id " + i + "]"));
+        }
+    }
+
+    /**
+     * Deploys all the services of a mocked project with mocked executors and deploy processors, recording
+     * how many projects each thread loads and which executor it uses.
+     */
+    private static class FakeRunner extends SvDeployBuilder.RemoteRunner {
+        private final AtomicInteger createdExecutors = new AtomicInteger();
+        private final AtomicInteger deployed = new AtomicInteger();
+        private final Map<Thread, AtomicInteger> loadsByThread = new ConcurrentHashMap<>();
+        private final Map<Thread, ICommandExecutor> executorsByThread = new ConcurrentHashMap<>();
+
+        FakeRunner(StreamTaskListener listener) {
+            super(new SvDeployModel("server", false, null, "project.vproja", null, false),
+                    new FilePath(new File(".")), listener, null);
+        }
+
+        @Override
+        protected IProject loadProject(FilePath workspace) {
+            loadsByThread.computeIfAbsent(Thread.currentThread(), thread -> new AtomicInteger()).incrementAndGet();
+            List<IService> services = new ArrayList<>();
+            for (int i = 0; i < SERVICES; i++) {
+                IService service = Mockito.mock(IService.class);
+                Mockito.when(service.getId()).thenReturn("id " + i);
+                Mockito.when(service.getName()).thenReturn("service " + i);
+                services.add(service);
+            }
+            IProject project = Mockito.mock(IProject.class);
+            Mockito.doReturn(services).when(project).getServices();
+            return project;
+        }
+
+        @Override
+        protected ICommandExecutor createCommandExecutor() {
+            createdExecutors.incrementAndGet();
+            return Mockito.mock(ICommandExecutor.class);
+        }
+
+        @Override
+        protected IDeployProcessor createDeployProcessor() {
+            IDeployProcessor processor = Mockito.mock(IDeployProcessor.class);
+            try {
+                Mockito.doAnswer(invocation -> {
+                    ICommandExecutor executor = invocation.getArgument(1);
+                    ICommandExecutor previousExecutor = executorsByThread.put(Thread.currentThread(), executor);
+                    Assert.assertTrue(previousExecutor == null || previousExecutor == executor);
+                    deployed.incrementAndGet();
+                    return null;
+                }).when(processor).process(Mockito.any(DeployProcessorInput.class), Mockito.any(ICommandExecutor.class));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            return processor;
+        }
+    }
+}
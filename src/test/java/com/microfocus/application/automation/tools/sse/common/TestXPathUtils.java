@@ -0,0 +1,289 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.sse.common;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+public class TestXPathUtils extends TestCase {
+
+    private static final String BENCHMARK = "xpathUtils.test.benchmark";
+
+    private static final String ENTITIES_FORMAT =
+            "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?><Entities TotalResults=\"%d\">%s</Entities>";
+
+    private static final String[] EDGE_CASES = {
+            "<Entities TotalResults=\"0\"/>",
+            "<Entities TotalResults=\"0\"><Entity Type=\"run\"><Fields/></Entity></Entities>",
+            "<Entities><Entity Type=\"run\"/></Entities>",
+            "<Entities TotalResults=\"x\"/>",
+            "<Entity Type=\"run\"><Fields><Field Name=\"id\"><Value>  spaced &amp; escaped &#65; </Value></Field>"
+                    + "<Field Name=\"empty\"><Value/></Field><Field Name=\"none\"/>"
+                    + "<Field Name=\"comment\"><Value><!--note-->text</Value></Field>"
+                    + "<Field Name=\"pi\"><Value><?target data?></Value></Field>"
+                    + "<Field Name=\"nested\"><Value><reasons><reason>1</reason></reasons></Value></Field>"
+                    + "<Field Name=\"mixed\"><Value>a<b/>c</Value></Field>"
+                    + "<Field Name=\"first\">text<Value>2</Value></Field></Fields></Entity>",
+            "<Entity><Fields>\n  <Field Name=\"id\">\n    <Value>1</Value>\n  </Field>\n</Fields></Entity>",
+            "<Entity><Fields><Field Name=\"cdata\"><Value><![CDATA[a<b]]></Value></Field></Fields></Entity>",
+            "<Entity><Fields><Field Name=\"cdata\"><Value>a<![CDATA[b]]></Value></Field></Fields></Entity>",
+            "<Entity><Fields><Field><Value>1</Value></Field><Field Name=\"id\"><Value>2</Value></Field></Fields></Entity>",
+            "<Entity><Fields><Field Name=\"\"><Value>1</Value></Field></Fields></Entity>",
+            "<Entity><Fields><Field Name=\"id\"><Value>1</Value></Field><Field Label=\"Id\"><Value>2</Value></Field>"
+                    + "</Fields></Entity>",
+            "<Entity><Fields><Field Name=\"id\" Label=\"Id\" Alias=\"a\"><Value>1</Value></Field></Fields></Entity>",
+            "<Entities><Entity><Fields><Field Name=\"id\"><Value>1</Value></Field></Fields>"
+                    + "<Entity><Fields><Field Name=\"id\"><Value>2</Value></Field>"
+                    + "<Field Name=\"name\"><Value>inner</Value></Field></Fields></Entity></Entity></Entities>",
+            "<Entities xmlns=\"http://alm\"><Entity><Fields><Field Name=\"id\"><Value>1</Value></Field></Fields>"
+                    + "</Entity></Entities>",
+            "<!DOCTYPE Entities [<!ENTITY v \"value\">]><Entities><Entity><Fields><Field Name=\"id\"><Value>&v;</Value>"
+                    + "</Field></Fields></Entity></Entities>",
+            "<Field Name=\"outside\"><Value>1</Value></Field>",
+            "<TestSets><Entity><Fields><Field Name=\"cycle-id\"><Value>7</Value></Field></Fields></Entity>"
+                    + "<Entity><Fields><Field Name=\"name\"><Value>x</Value></Field>"
+                    + "<Field Name=\"cycle-id\"><Value>8</Value></Field></Fields></Entity></TestSets>",
+            "<Entity><Fields> <Field Name=\"cycle-id\"><Value>7</Value></Field></Fields></Entity>",
+            "<customization><types><type name=\"Manual\" id=\"1\"/><type name=\"Automated\"/></types></customization>",
+            "<Fields><Field Label=\"Test Name\" Name=\"name\"/><Field Name=\"id\"/></Fields>",
+            "",
+            "not xml"
+    };
+
+    @Test
+    public void testRecordedPayloads() {
+
+        List<String> payloads = new ArrayList<String>();
+        for (byte[] payload : Arrays.asList(
+                PC_RUN_ENTITY_DATA_FORMAT,
+                PC_FINISHED_DATA,
+                PC_RUNNING_DATA,
+                RUN_ENTITY_DATA_FORMAT,
+                FINISHED_DATA,
+                RUNNING_DATA,
+                EVENT_LOG_DATA)) {
+            payloads.add(new String(payload));
+        }
+        payloads.add(String.format(ENTITIES_FORMAT, 3, entities(3)));
+        for (String payload : payloads) {
+            assertSameResults(payload);
+        }
+    }
+
+    @Test
+    public void testEdgeCases() {
+
+        for (String xml : EDGE_CASES) {
+            assertSameResults(xml);
+        }
+        assertSameResults(null);
+    }
+
+    @Test
+    public void testHasResultsStopsAtFirstEntity() {
+
+        String truncated = String.format(ENTITIES_FORMAT, 0, entities(2)).substring(0, 200);
+        Assert.assertTrue(XPathUtils.hasResults(truncated));
+        Assert.assertTrue(XPathUtils.hasResults("<Entities TotalResults=\"2\"><Entity>"));
+        Assert.assertFalse(XPathUtils.hasResults(String.format(ENTITIES_FORMAT, 0, "")));
+    }
+
+    @Test
+    public void testAttributeValuesOfSeveralDocuments() {
+
+        String first = entities(1);
+        String second = entities(2).substring(first.length());
+        Assert.assertEquals("0", XPathUtils.getAttributeValue(first, "id"));
+        Assert.assertEquals("1", XPathUtils.getAttributeValue(second, "id"));
+        Assert.assertEquals("0", XPathUtils.getAttributeValue(first, "id"));
+        Assert.assertEquals("run 0", XPathUtils.getAttributeValue(first, "name"));
+        Assert.assertEquals("", XPathUtils.getAttributeValue(first, "missing"));
+
+        XPathUtils.EntityFields fields = XPathUtils.getEntityFields(first);
+        Assert.assertEquals("0", fields.get("id"));
+        Assert.assertEquals("run 0", fields.get("name"));
+        Assert.assertEquals("", fields.get("missing"));
+    }
+
+    @Test
+    public void testEntitiesAreModifiable() {
+
+        List<Map<String, String>> entities = XPathUtils.toEntities(String.format(ENTITIES_FORMAT, 2, entities(2)));
+        Map<String, String> entity = entities.get(0);
+        Assert.assertEquals("run 0", entity.put("name", "renamed"));
+        Assert.assertEquals("renamed", entity.get("name"));
+        Assert.assertNull(entity.put("added", "1"));
+        Assert.assertEquals("0", entity.remove("id"));
+        Map<String, String> expected = new HashMap<String, String>(entities.get(1));
+        expected.remove("id");
+        expected.put("name", "renamed");
+        expected.put("added", "1");
+        expected.put("status", "Passed");
+        Assert.assertEquals(expected, entity);
+        Assert.assertEquals("1", entities.get(1).get("id"));
+        Assert.assertEquals("run 1", entities.get(1).get("name"));
+    }
+
+    @Test
+    public void testLargeEntityList() {
+
+        String xml = String.format(ENTITIES_FORMAT, 5000, entities(0, 5000));
+
+        Assert.assertEquals(XPathUtils.toEntitiesFromDocument(xml), XPathUtils.toEntities(xml));
+        Assert.assertEquals(5000, XPathUtils.toEntities(xml).size());
+    }
+
+    /**
+     * Measures the DOM and the streaming reader on a 10 MB entity list, only runs with -DxpathUtils.test.benchmark=true
+     */
+    @Test
+    public void testTenMegabyteEntityList() throws Exception {
+
+        Assume.assumeTrue(Boolean.getBoolean(BENCHMARK));
+        int count = 0;
+        StringBuilder entities = new StringBuilder();
+        while (entities.length() < 10 * 1024 * 1024) {
+            entities.append(entities(count, count + 1000));
+            count += 1000;
+        }
+        final String xml = String.format(ENTITIES_FORMAT, count, entities);
+        // warm up both readers before measuring
+        for (int i = 0; i < 3; i++) {
+            XPathUtils.toEntitiesFromDocument(xml);
+            XPathUtils.toEntities(xml);
+        }
+
+        long[] dom = measure(() -> XPathUtils.toEntitiesFromDocument(xml));
+        long[] streaming = measure(() -> XPathUtils.toEntities(xml));
+
+        Assert.assertEquals(XPathUtils.toEntitiesFromDocument(xml), XPathUtils.toEntities(xml));
+        Assert.assertEquals(count, XPathUtils.toEntities(xml).size());
+        if (dom[1] > 0) {
+            Assert.assertTrue(streaming[1] < dom[1]);
+        }
+        System.out.println(String.format(
+                "Read %d entities (%d MB): DOM %d ms, %d MB allocated, streaming %d ms, %d MB allocated",
+                count,
+                xml.length() >> 20,
+                dom[0] / 1000000,
+                dom[1] >> 20,
+                streaming[0] / 1000000,
+                streaming[1] >> 20));
+    }
+
+    private void assertSameResults(final String xml) {
+
+        assertSame(xml, () -> XPathUtils.toEntitiesFromDocument(xml), () -> XPathUtils.toEntities(xml));
+        assertSame(xml, () -> XPathUtils.hasResultsFromDocument(xml), () -> XPathUtils.hasResults(xml));
+        assertSame(xml, () -> XPathUtils.getTestSetIdsFromDocument(xml), () -> XPathUtils.getTestSetIds(xml));
+        assertSame(
+                xml,
+                () -> XPathUtils.getEntityFieldsMapFromDocument(xml),
+                () -> XPathUtils.getEntityFieldsMap(xml));
+        assertSame(
+                xml,
+                () -> XPathUtils.getEntitySubtypesMapFromDocument(xml),
+                () -> XPathUtils.getEntitySubtypesMap(xml));
+        for (final String name : Arrays.asList("id", "name", "status", "cycle-id", "none", "first", "", "missing")) {
+            assertSame(
+                    xml,
+                    () -> XPathUtils.getAttributeValueFromDocument(xml, name),
+                    () -> XPathUtils.getAttributeValue(xml, name));
+        }
+    }
+
+    private static void assertSame(String xml, Callable<Object> dom, Callable<Object> streaming) {
+
+        Assert.assertEquals(String.valueOf(xml), result(dom), result(streaming));
+    }
+
+    /**
+     * The value of a lookup, or the type of its error.
+     */
+    private static Object result(Callable<Object> lookup) {
+
+        try {
+            return lookup.call();
+        } catch (Exception e) {
+            return e.getClass();
+        }
+    }
+
+    private static long[] measure(Callable<Object> read) throws Exception {
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long allocated = allocatedBytes(threads);
+        long start = System.nanoTime();
+        Assert.assertNotNull(read.call());
+        long time = System.nanoTime() - start;
+
+        return new long[] { time, allocatedBytes(threads) - allocated };
+    }
+
+    private static long allocatedBytes(ThreadMXBean threads) {
+
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    private static String entities(int count) {
+
+        return entities(0, count);
+    }
+
+    private static String entities(int from, int to) {
+
+        StringBuilder ret = new StringBuilder();
+        for (int i = from; i < to; i++) {
+            ret.append("<Entity Type=\"run\"><ChildrenCount><Value>0</Value></ChildrenCount><Fields>")
+                    .append("<Field Name=\"id\"><Value>").append(i).append("</Value></Field>")
+                    .append("<Field Name=\"name\"><Value>run ").append(i).append("</Value></Field>")
+                    .append("<Field Name=\"status\"><Value>").append(i % 3 == 0 ? "Passed" : "Failed")
+                    .append("</Value></Field>")
+                    .append("<Field Name=\"cycle-id\"><Value>").append(i / 10).append("</Value></Field>")
+                    .append("<Field Name=\"owner\"><Value/></Field>")
+                    .append("<Field Name=\"execution-date\"><Value>2013-02-19</Value></Field>")
+                    .append("</Fields><RelatedEntities/></Entity>");
+        }
+
+        return ret.toString();
+    }
+}
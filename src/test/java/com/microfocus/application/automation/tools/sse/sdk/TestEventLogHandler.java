@@ -29,7 +29,12 @@
 package com.microfocus.application.automation.tools.sse.sdk;
 
 import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import com.microfocus.application.automation.tools.sse.common.TestCase;
 import com.microfocus.application.automation.tools.sse.sdk.handler.EventLogHandler;
@@ -49,7 +54,7 @@ public class TestEventLogHandler extends TestCase {
                     + PROJECT
                     + "/event-log-reads?query={context[\"*Timeslot:%20"
                     + TIMESLOT_ID
-                    + "%3B*\"]}&fields=id,event-type,creation-time,action,description";
+                    + "%3B*\"]}&fields=id,event-type,creation-time,action,description&order-by={id[ASC]}&page-size=1000";
     
     @Test
     public void testLog() {
@@ -78,6 +83,161 @@ public class TestEventLogHandler extends TestCase {
         Assert.assertFalse(isOk);
     }
     
+    @Test
+    public void testReplayReadsEachEventOnce() {
+        
+        // 50,000 events, 100 new ones between two polls
+        ReplayClient client = new ReplayClient(50000, 100, Mode.FILTERED);
+        RecordingLogger logger = new RecordingLogger();
+        EventLogHandler eventLogHandler = new EventLogHandler(client, TIMESLOT_ID);
+        long halfway = 0;
+        while (client.publish()) {
+            Assert.assertTrue(eventLogHandler.log(logger));
+            if (client._published == 25000) {
+                halfway = client._bytes;
+            }
+        }
+        
+        assertLoggedInOrder(logger, 50000);
+        // each event is transferred once, so twice the events is twice the bytes
+        Assert.assertTrue((double) client._bytes / halfway < 2.05);
+        Assert.assertTrue(client._bytes < 50000L * 300 + client._requests * 300L);
+    }
+    
+    @Test
+    public void testReplayPagesLargeBacklog() {
+        
+        ReplayClient client = new ReplayClient(5500, 5500, Mode.FILTERED);
+        RecordingLogger logger = new RecordingLogger();
+        EventLogHandler eventLogHandler = new EventLogHandler(client, TIMESLOT_ID);
+        client.publish();
+        Assert.assertTrue(eventLogHandler.log(logger));
+        
+        assertLoggedInOrder(logger, 5500);
+        Assert.assertEquals(6, client._requests);
+    }
+    
+    @Test
+    public void testReplayWithoutFilterSupport() {
+        
+        for (Mode mode : new Mode[] {Mode.REJECTED, Mode.IGNORED}) {
+            ReplayClient client = new ReplayClient(5000, 100, mode);
+            RecordingLogger logger = new RecordingLogger();
+            EventLogHandler eventLogHandler = new EventLogHandler(client, TIMESLOT_ID);
+            long halfway = 0;
+            while (client.publish()) {
+                Assert.assertTrue(eventLogHandler.log(logger));
+                if (client._published == 2500) {
+                    halfway = client._bytes;
+                }
+            }
+            
+            assertLoggedInOrder(logger, 5000);
+            // the whole log is read on every poll
+            Assert.assertTrue((double) client._bytes / halfway > 3.5);
+        }
+    }
+    
+    private void assertLoggedInOrder(RecordingLogger logger, int events) {
+        
+        Assert.assertEquals(events, logger._messages.size());
+        for (int i = 0; i < events; i++) {
+            Assert.assertEquals("2013-02-19 12:03:42:Event " + (i + 1), logger._messages.get(i));
+        }
+    }
+    
+    private enum Mode {
+        FILTERED, REJECTED, IGNORED
+    }
+    
+    private static class RecordingLogger implements Logger {
+        
+        private final List<String> _messages = new ArrayList<>();
+        
+        @Override
+        public void log(String message) {
+            
+            _messages.add(message);
+        }
+        
+        @Override
+        public void error(String message) {
+            
+            _messages.add(message);
+        }
+    }
+    
+    /**
+     * Serves an event log that grows between two polls, and counts the bytes it sends.
+     */
+    private class ReplayClient extends RestClient4Test {
+        
+        private final Pattern _lastRead = Pattern.compile("id\\[%3E(\\d+)\\]");
+        private final Pattern _pageSize = Pattern.compile("page-size=(\\d+)");
+        private final int _total;
+        private final int _step;
+        private final Mode _mode;
+        private final List<String> _events = new ArrayList<>();
+        private int _published;
+        private long _bytes;
+        private int _requests;
+        
+        public ReplayClient(int total, int step, Mode mode) {
+            
+            super(URL, DOMAIN, PROJECT, USER);
+            _total = total;
+            _step = step;
+            _mode = mode;
+        }
+        
+        private boolean publish() {
+            
+            if (_published == _total) {
+                return false;
+            }
+            for (int i = 0; i < _step; i++) {
+                int id = ++_published;
+                _events.add(String.format(
+                        "<Entity Type=\"event-log-read\"><Fields><Field Name=\"id\"><Value>%d</Value></Field><Field Name=\"description\"><Value>Event %d</Value></Field><Field Name=\"creation-time\"><Value>2013-02-19 12:03:42</Value></Field></Fields><RelatedEntities/></Entity>",
+                        id,
+                        id));
+            }
+            return true;
+        }
+        
+        @Override
+        public Response httpGet(
+                String url,
+                String queryString,
+                Map<String, String> headers,
+                ResourceAccessLevel resourceAccessLevel) {
+            
+            Assert.assertTrue(url.contains("event-log-reads"));
+            _requests++;
+            Matcher pageSize = _pageSize.matcher(url);
+            boolean filtered = pageSize.find();
+            if (filtered && _mode == Mode.REJECTED) {
+                return new Response(null, new byte[0], null, HttpURLConnection.HTTP_BAD_REQUEST);
+            }
+            int from = 0;
+            int to = _events.size();
+            if (filtered && _mode == Mode.FILTERED) {
+                Matcher lastRead = _lastRead.matcher(url);
+                from = lastRead.find() ? Integer.parseInt(lastRead.group(1)) : 0;
+                to = Math.min(to, from + Integer.parseInt(pageSize.group(1)));
+            }
+            StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>");
+            xml.append("<Entities TotalResults=\"").append(to - from).append("\">");
+            for (int i = from; i < to; i++) {
+                xml.append(_events.get(i));
+            }
+            byte[] data = xml.append("</Entities>").toString().getBytes(StandardCharsets.UTF_8);
+            _bytes += data.length;
+            
+            return new Response(null, data, null, HttpURLConnection.HTTP_OK);
+        }
+    }
+    
     private class MockRestClient extends RestClient4Test {
         
         public MockRestClient(String url, String domain, String project, String username) {
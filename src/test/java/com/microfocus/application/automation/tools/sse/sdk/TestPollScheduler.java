@@ -0,0 +1,280 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.sse.sdk;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+public class TestPollScheduler {
+
+    private final VirtualClock _clock = new VirtualClock();
+
+    @Test
+    public void testFiveHundredConcurrentRuns() {
+
+        int rate = 20;
+        PollScheduler scheduler = new PollScheduler(_clock, Runnable::run, new Random(17), rate, false);
+        PollScheduler.Policy policy = new PollScheduler.Policy(1000, 15000, 2, 0.1, 3);
+        StubServer[] servers = new StubServer[5];
+        for (int i = 0; i < servers.length; i++) {
+            servers[i] = new StubServer("http://alm" + i + ":8080/qcbin");
+        }
+        Random random = new Random(500);
+        List<StubRun> runs = new ArrayList<>();
+        long fixedPolls = 0;
+        for (int i = 0; i < 500; i++) {
+            StubServer server = servers[i % servers.length];
+            StubRun run = server.add(10000 + random.nextInt(590000), 60000);
+            run._future = scheduler.schedule(server._url, run, policy);
+            run._future.whenComplete((result, failure) -> run._completed = _clock._now);
+            runs.add(run);
+            fixedPolls += run._finish / 5000 + 1;
+        }
+        runUntilDone(scheduler, runs, 2 * 3600 * 1000);
+
+        long polls = 0;
+        for (StubRun run : runs) {
+            Assert.assertTrue(run._future.join());
+            // the end of a run is seen at most one backed off interval late, plus the rate delays
+            Assert.assertTrue(run._completed - run._finish <= 16500 + 1000);
+            polls += run._polls.size();
+        }
+        Assert.assertTrue(polls < fixedPolls);
+        for (StubServer server : servers) {
+            Assert.assertTrue(server.maxPollsPerSecond() <= 2 * rate);
+        }
+        Assert.assertEquals(0, scheduler.getActiveCount());
+    }
+
+    @Test
+    public void testRunsShareServerRateInTurn() {
+
+        PollScheduler scheduler = new PollScheduler(_clock, Runnable::run, new Random(17), 10, false);
+        StubServer server = new StubServer("http://alm:8080/qcbin");
+        List<StubRun> runs = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            StubRun run = server.add(Long.MAX_VALUE, 1000);
+            run._future = scheduler.schedule(server._url, run, PollScheduler.Policy.fixed(0, 3));
+            runs.add(run);
+        }
+        for (int i = 0; i < 1000; i++) {
+            _clock._now += 100;
+            scheduler.advance();
+        }
+
+        int min = Integer.MAX_VALUE;
+        int max = 0;
+        for (StubRun run : runs) {
+            min = Math.min(min, run._polls.size());
+            max = Math.max(max, run._polls.size());
+        }
+        Assert.assertTrue(max - min <= 1);
+        Assert.assertEquals(10 + 10 * 100, server._polls.size());
+
+        for (StubRun run : runs) {
+            run._future.cancel(false);
+        }
+        Assert.assertEquals(0, scheduler.getActiveCount());
+        int polls = server._polls.size();
+        for (int i = 0; i < 200; i++) {
+            _clock._now += 100;
+            scheduler.advance();
+        }
+        Assert.assertEquals(polls, server._polls.size());
+    }
+
+    @Test
+    public void testFailureBudget() throws InterruptedException {
+
+        PollScheduler scheduler = new PollScheduler(_clock, Runnable::run, new Random(17), 20, false);
+        StubServer server = new StubServer("http://alm:8080/qcbin");
+        PollScheduler.Policy policy = new PollScheduler.Policy(1000, 8000, 2, 0, 4);
+        List<StubRun> failing = new ArrayList<>();
+        List<StubRun> recovering = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            StubRun run = server.add(Long.MAX_VALUE, 60000);
+            run._failures = Integer.MAX_VALUE;
+            run._future = scheduler.schedule(server._url, run, policy);
+            failing.add(run);
+
+            run = server.add(20000, 60000);
+            run._failures = 3;
+            run._future = scheduler.schedule(server._url, run, policy);
+            recovering.add(run);
+        }
+        List<StubRun> all = new ArrayList<>(failing);
+        all.addAll(recovering);
+        runUntilDone(scheduler, all, 3600 * 1000);
+
+        for (StubRun run : failing) {
+            Assert.assertFalse(run._future.join());
+            Assert.assertEquals(4, run._polls.size());
+        }
+        for (StubRun run : recovering) {
+            Assert.assertTrue(run._future.join());
+        }
+
+        CompletableFuture<Boolean> broken = scheduler.schedule(server._url, () -> {
+            throw new IllegalStateException("broken");
+        }, policy);
+        _clock._now += 1000;
+        scheduler.advance();
+        try {
+            broken.get();
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertEquals("broken", e.getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void testBackoffWhileIdle() {
+
+        PollScheduler scheduler = new PollScheduler(_clock, Runnable::run, new Random(17), 20, false);
+        StubServer server = new StubServer("http://alm:8080/qcbin");
+        StubRun run = server.add(60000, 40000);
+        run._future = scheduler.schedule(server._url, run, new PollScheduler.Policy(1000, 15000, 2, 0, 3));
+        runUntilDone(scheduler, Arrays.asList(run), 3600 * 1000);
+
+        Assert.assertTrue(run._future.join());
+        // idle from the start until the state changes at 40 s, then idle again until the end at 60 s
+        Assert.assertEquals(
+                Arrays.asList(0L, 1000L, 3000L, 7000L, 15000L, 30000L, 45000L, 46000L, 48000L, 52000L, 60000L),
+                run._polls);
+    }
+
+    private void runUntilDone(PollScheduler scheduler, List<StubRun> runs, long limit) {
+
+        while (_clock._now < limit) {
+            boolean done = true;
+            for (StubRun run : runs) {
+                done &= run._future.isDone();
+            }
+            if (done) {
+                return;
+            }
+            _clock._now += 100;
+            scheduler.advance();
+        }
+        Assert.fail("The runs are still polled after " + limit + " ms");
+    }
+
+    private static class VirtualClock implements PollScheduler.Clock {
+
+        private long _now;
+
+        @Override
+        public long millis() {
+
+            return _now;
+        }
+    }
+
+    private class StubServer {
+
+        private final String _url;
+        private final List<Long> _polls = new ArrayList<>();
+
+        private StubServer(String url) {
+
+            _url = url;
+        }
+
+        private StubRun add(long finish, long stateDuration) {
+
+            return new StubRun(this, finish, stateDuration);
+        }
+
+        private void record(StubRun run) {
+
+            _polls.add(_clock._now);
+            run._polls.add(_clock._now);
+        }
+
+        private int maxPollsPerSecond() {
+
+            int max = 0;
+            int start = 0;
+            for (int end = 0; end < _polls.size(); end++) {
+                while (_polls.get(end) - _polls.get(start) >= 1000) {
+                    start++;
+                }
+                max = Math.max(max, end - start + 1);
+            }
+            return max;
+        }
+    }
+
+    /**
+     * A run whose state changes every state duration, until it finishes.
+     */
+    private class StubRun implements PollScheduler.Task {
+
+        private final StubServer _server;
+        private final long _finish;
+        private final long _stateDuration;
+        private final List<Long> _polls = new ArrayList<>();
+        private long _lastState = -1;
+        private int _failures;
+        private long _completed;
+        private CompletableFuture<Boolean> _future;
+
+        private StubRun(StubServer server, long finish, long stateDuration) {
+
+            _server = server;
+            _finish = finish;
+            _stateDuration = stateDuration;
+        }
+
+        @Override
+        public PollScheduler.Status poll() {
+
+            Assert.assertFalse(_future != null && _future.isDone());
+            _server.record(this);
+            if (_failures > 0) {
+                _failures--;
+                return PollScheduler.Status.FAILURE;
+            }
+            if (_clock._now >= _finish) {
+                return PollScheduler.Status.FINISHED;
+            }
+            long state = _clock._now / _stateDuration;
+            boolean progress = state != _lastState;
+            _lastState = state;
+            return progress ? PollScheduler.Status.PROGRESS : PollScheduler.Status.IDLE;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.sse.sdk;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.microfocus.application.automation.tools.common.SSEException;
+import com.microfocus.application.automation.tools.rest.HttpTransportListener;
+import com.microfocus.application.automation.tools.rest.PooledHttpTransport;
+import com.microfocus.application.automation.tools.rest.RestClient;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+public class TestRestClientTransport {
+
+    private static final int BIG_BODY_SIZE = 64 * 1024;
+
+    private HttpServer server;
+    private String serverUrl;
+    private final Set<Integer> clientPorts = Collections.synchronizedSet(new HashSet<Integer>());
+
+    @Before
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/qcbin/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                clientPorts.add(exchange.getRemoteAddress().getPort());
+                drain(exchange.getRequestBody());
+                String path = exchange.getRequestURI().getPath();
+                if (path.endsWith("/login")) {
+                    String user = exchange.getRequestURI().getQuery().substring("user=".length());
+                    exchange.getResponseHeaders().add("Set-Cookie", "QCSession=" + user + "; Path=/qcbin");
+                    reply(exchange, 200, "logged in");
+                } else if (path.endsWith("/redirectLogin")) {
+                    exchange.getResponseHeaders().add("Set-Cookie", "LWSSO_COOKIE_KEY=sso; Path=/qcbin");
+                    exchange.getResponseHeaders().add("Location", "/qcbin/whoami");
+                    exchange.sendResponseHeaders(302, -1);
+                    exchange.close();
+                } else if (path.endsWith("/whoami")) {
+                    String cookies = exchange.getRequestHeaders().getFirst("Cookie");
+                    reply(exchange, 200, cookies == null ? "" : cookies);
+                } else if (path.endsWith("/big")) {
+                    reply(exchange, 200, new String(new char[BIG_BODY_SIZE]).replace('\0', 'x'));
+                } else if (path.endsWith("/chunked")) {
+                    exchange.sendResponseHeaders(200, 0);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        byte[] chunk = new byte[1000];
+                        for (int i = 0; i < 20; i++) {
+                            out.write(chunk);
+                        }
+                    }
+                } else {
+                    reply(exchange, 404, "missing");
+                }
+            }
+        });
+        server.setExecutor(Executors.newFixedThreadPool(8));
+        server.start();
+        serverUrl = String.format("http://localhost:%d/qcbin", server.getAddress().getPort());
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+        ((ExecutorService) server.getExecutor()).shutdownNow();
+    }
+
+    @Test
+    public void testSequentialRequestsReuseOneConnection() {
+        final AtomicInteger completed = new AtomicInteger();
+        RestClient client = new RestClient(serverUrl, "D", "P", "sa",
+                new PooledHttpTransport(2, PooledHttpTransport.DEFAULT_MAX_RESPONSE_BYTES, new CountingListener(completed)));
+
+        for (int i = 0; i < 50; i++) {
+            Response response = client.httpGet(client.build("whoami"), null, null, ResourceAccessLevel.PUBLIC);
+            Assert.assertEquals(200, response.getStatusCode());
+        }
+
+        Assert.assertEquals(50, completed.get());
+        Assert.assertEquals("connections opened", 1, clientPorts.size());
+    }
+
+    @Test
+    public void testCookiesKeptFromRedirectHops() {
+        RestClient client = new RestClient(serverUrl, "D", "P", "sa");
+
+        Response redirected = client.httpPost(
+                client.build("redirectLogin"),
+                "x".getBytes(StandardCharsets.UTF_8),
+                null,
+                ResourceAccessLevel.PUBLIC);
+        Assert.assertEquals(200, redirected.getStatusCode());
+        Assert.assertTrue(redirected.toString(), redirected.toString().contains("LWSSO_COOKIE_KEY=sso"));
+
+        String cookies = client.httpGet(client.build("whoami"), null, null, ResourceAccessLevel.PUBLIC).toString();
+        Assert.assertTrue(cookies, cookies.contains("LWSSO_COOKIE_KEY=sso"));
+    }
+
+    @Test
+    public void testCookiesIsolatedBetweenConcurrentClients() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Void>> results = new ArrayList<Future<Void>>();
+            for (int i = 0; i < 8; i++) {
+                final String user = "user" + i;
+                results.add(pool.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        RestClient client = new RestClient(serverUrl, "D", "P", user);
+                        Response login = client.httpPost(
+                                client.build("login?user=" + user),
+                                "x".getBytes(StandardCharsets.UTF_8),
+                                null,
+                                ResourceAccessLevel.PUBLIC);
+                        Assert.assertTrue(login.isOk());
+                        for (int j = 0; j < 20; j++) {
+                            String cookies = client.httpGet(
+                                    client.build("whoami"),
+                                    null,
+                                    null,
+                                    ResourceAccessLevel.PUBLIC).toString();
+                            Assert.assertTrue(cookies, cookies.contains("QCSession=" + user));
+                            Assert.assertTrue(cookies, cookies.contains(client.getXsrfTokenValue()));
+                            Assert.assertEquals(cookies, cookies.indexOf("QCSession"), cookies.lastIndexOf("QCSession"));
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testResponseSizeLimit() {
+        RestClient client = new RestClient(serverUrl, "D", "P", "sa", new PooledHttpTransport(1, 1024, null));
+
+        try {
+            client.httpGet(client.build("big"), null, null, ResourceAccessLevel.PUBLIC);
+            Assert.fail("expected the body limit to be enforced");
+        } catch (SSEException expected) {
+            Assert.assertTrue(expected.getMessage(), expected.getMessage().contains("exceeds the limit"));
+        }
+
+        // the client stays usable after a rejected response
+        Response response = client.httpGet(client.build("whoami"), null, null, ResourceAccessLevel.PUBLIC);
+        Assert.assertEquals(200, response.getStatusCode());
+    }
+
+    @Test
+    public void testBodyWithoutContentLength() {
+        RestClient client = new RestClient(serverUrl, "D", "P", "sa");
+
+        Response response = client.httpGet(client.build("chunked"), null, null, ResourceAccessLevel.PUBLIC);
+
+        Assert.assertEquals(20000, response.getData().length);
+    }
+
+    @Test
+    public void testErrorResponseKeepsBody() {
+        RestClient client = new RestClient(serverUrl, "D", "P", "sa");
+
+        Response response = client.httpGet(client.build("nothing"), null, null, ResourceAccessLevel.PUBLIC);
+
+        Assert.assertEquals(404, response.getStatusCode());
+        Assert.assertNotNull(response.getFailure());
+        Assert.assertEquals("missing", response.toString());
+        Assert.assertFalse(response.isOk());
+    }
+
+    private static void reply(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void drain(InputStream in) throws IOException {
+        byte[] buf = new byte[1024];
+        while (in.read(buf) >= 0) {
+            // discard
+        }
+        in.close();
+    }
+
+    private static class CountingListener implements HttpTransportListener {
+
+        private final AtomicInteger completed;
+
+        CountingListener(AtomicInteger completed) {
+            this.completed = completed;
+        }
+
+        @Override
+        public void onResponseHeaders(String method, URL url, int statusCode, long headersNanos) {
+            Assert.assertTrue(headersNanos >= 0);
+        }
+
+        @Override
+        public void onResponseCompleted(String method, URL url, int statusCode, long bodyLength, long totalNanos) {
+            completed.incrementAndGet();
+        }
+
+        @Override
+        public void onFailure(String method, URL url, Exception cause, long totalNanos) {
+            Assert.fail(cause.toString());
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.sv.runner;
+
+import com.microfocus.application.automation.tools.model.SvExportModel;
+import com.microfocus.application.automation.tools.model.SvServiceSelectionModel;
+import com.microfocus.sv.svconfigurator.core.IProject;
+import com.microfocus.sv.svconfigurator.core.IService;
+import com.microfocus.sv.svconfigurator.core.impl.exception.CommandExecutorException;
+import com.microfocus.sv.svconfigurator.core.impl.jaxb.atom.ServiceListAtom;
+import com.microfocus.sv.svconfigurator.serverclient.ICommandExecutor;
+import hudson.FilePath;
+import hudson.util.StreamTaskListener;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AbstractSvRemoteRunnerTest {
+
+    private static final int SERVICES = 20;
+
+    private final ByteArrayOutputStream log = new ByteArrayOutputStream();
+
+    @Test
+    public void testSingleServiceIsFound() throws Exception {
+        FakeRunner runner = new FakeRunner(SvServiceSelectionModel.SelectionType.SERVICE, "service 3", createServices(SERVICES));
+
+        List<ServiceInfo> services = runner.getServiceList(false, logger(), runner.workspace);
+
+        Assert.assertEquals(1, services.size());
+        Assert.assertEquals("id 3", services.get(0).getId());
+        Assert.assertEquals("service 3", services.get(0).getName());
+    }
+
+    @Test
+    public void testProjectServicesAreFoundInProjectOrder() throws Exception {
+        FakeRunner runner = new FakeRunner(SvServiceSelectionModel.SelectionType.PROJECT, null, createServices(SERVICES));
+
+        List<ServiceInfo> services = runner.getServiceList(false, logger(), runner.workspace);
+
+        Assert.assertEquals(SERVICES, services.size());
+        for (int i = 0; i < SERVICES; i++) {
+            Assert.assertEquals("id " + i, services.get(i).getId());
+        }
+        // every worker thread has its own executor
+        Assert.assertEquals(runner.executorsByThread.size(), runner.createdExecutors.get());
+        Assert.assertTrue(runner.createdExecutors.get() <= ParallelServiceRunner.DEFAULT_CONCURRENCY);
+    }
+
+    @Test
+    public void testMissingProjectServicesAreIgnoredWhenAllowed() throws Exception {
+        FakeRunner runner = new FakeRunner(SvServiceSelectionModel.SelectionType.PROJECT, null, createServices(SERVICES));
+        runner.undeployed.addAll(Arrays.asList("id 2", "id 7"));
+
+        List<ServiceInfo> services = runner.getServiceList(true, logger(), runner.workspace);
+
+        Assert.assertEquals(SERVICES - 2, services.size());
+        Assert.assertEquals("id 3", services.get(2).getId());
+        Assert.assertTrue(log.toString(), log.toString().contains("Service 'id 7' is not deployed, ignoring"));
+    }
+
+    @Test
+    public void testMissingProjectServicesFailTheLookup() throws Exception {
+        FakeRunner runner = new FakeRunner(SvServiceSelectionModel.SelectionType.PROJECT, null, createServices(SERVICES));
+        runner.undeployed.add("id 5");
+
+        try {
+            runner.getServiceList(false, logger(), runner.workspace);
+            Assert.fail("the missing service should fail the lookup");
+        } catch (Exception e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("id 5"));
+        }
+    }
+
+    @Test
+    public void testAllDeployedServicesAreListed() throws Exception {
+        FakeRunner runner = new FakeRunner(SvServiceSelectionModel.SelectionType.ALL_DEPLOYED, null, createServices(SERVICES));
+
+        List<ServiceInfo> services = runner.getServiceList(false, logger(), runner.workspace);
+
+        Assert.assertEquals(SERVICES, services.size());
+        Assert.assertEquals("service 0", services.get(0).getName());
+        Assert.assertEquals(1, runner.createdExecutors.get());
+    }
+
+    private PrintStream logger() {
+        return new PrintStream(log, true);
+    }
+
+    static List<IService> createServices(int count) {
+        List<IService> services = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            IService service = Mockito.mock(IService.class);
+            Mockito.when(service.getId()).thenReturn("id " + i);
+            Mockito.when(service.getName()).thenReturn("service " + i);
+            services.add(service);
+        }
+        return services;
+    }
+
+    /**
+     * Runs against an SV server faked by one mocked executor per thread and a mocked project.
+     */
+    private static class FakeRunner extends AbstractSvRemoteRunner<SvExportModel> {
+        private final List<IService> services;
+        private final List<String> undeployed = new ArrayList<>();
+        private final AtomicInteger createdExecutors = new AtomicInteger();
+        private final Map<Thread, ICommandExecutor> executorsByThread = new ConcurrentHashMap<>();
+
+        FakeRunner(SvServiceSelectionModel.SelectionType selectionType, String service, List<IService> services) {
+            super(StreamTaskListener.fromStdout(),
+                    new SvExportModel("server", false, "target", false,
+                            new SvServiceSelectionModel(selectionType, service, "project.vproja", null), false, false),
+                    new FilePath(new File(".")), null);
+            this.services = services;
+        }
+
+        @Override
+        public String call() {
+            return null;
+        }
+
+        @Override
+        protected IProject loadProject(FilePath workspace) {
+            IProject project = Mockito.mock(IProject.class);
+            Mockito.doReturn(services).when(project).getServices();
+            return project;
+        }
+
+        @Override
+        protected ICommandExecutor createCommandExecutor() throws Exception {
+            createdExecutors.incrementAndGet();
+            ICommandExecutor executor = Mockito.mock(ICommandExecutor.class);
+            Mockito.when(executor.findService(Mockito.anyString(), Mockito.any())).thenAnswer(invocation -> {
+                ICommandExecutor previous = executorsByThread.put(Thread.currentThread(), executor);
+                Assert.assertTrue("a thread must keep its executor", previous == null || previous == executor);
+                String id = invocation.getArgument(0);
+                synchronized (undeployed) {
+                    if (undeployed.contains(id)) {
+                        CommandExecutorException missing = Mockito.mock(CommandExecutorException.class);
+                        Mockito.when(missing.getMessage()).thenReturn("service " + id + " not found");
+                        throw missing;
+                    }
+                }
+                for (IService service : services) {
+                    if (service.getId().equals(id) || service.getName().equals(id)) {
+                        return service;
+                    }
+                }
+                throw new IllegalArgumentException(id);
+            });
+            List<ServiceListAtom.ServiceEntry> entries = new ArrayList<>();
+            for (IService service : services) {
+                ServiceListAtom.ServiceEntry entry = Mockito.mock(ServiceListAtom.ServiceEntry.class);
+                Mockito.when(entry.getId()).thenReturn(service.getId());
+                Mockito.when(entry.getTitle()).thenReturn(service.getName());
+                entries.add(entry);
+            }
+            ServiceListAtom serviceList = Mockito.mock(ServiceListAtom.class);
+            Mockito.doReturn(entries).when(serviceList).getEntries();
+            Mockito.when(executor.getServiceList(Mockito.any())).thenReturn(serviceList);
+            return executor;
+        }
+    }
+}
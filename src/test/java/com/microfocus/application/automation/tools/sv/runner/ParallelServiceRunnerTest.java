@@ -0,0 +1,210 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.sv.runner;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class ParallelServiceRunnerTest {
+
+    private static final int SERVICES = 60;
+    private static final long LATENCY_MILLIS = 40;
+
+    @Test
+    public void testServicesAreDeployedConcurrently() throws Exception {
+        List<ServiceInfo> services = createServices(SERVICES);
+        FakeSvClient client = new FakeSvClient(LATENCY_MILLIS);
+
+        long start = System.nanoTime();
+        for (ServiceInfo service : services) {
+            client.deploy(service.getId());
+        }
+        long sequential = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        List<ParallelServiceRunner.Result<ServiceInfo, String>> results = new ParallelServiceRunner(8)
+                .run(services, (service, log) -> client.deploy(service.getId()), new PrintStream(new ByteArrayOutputStream()));
+        long parallel = System.nanoTime() - start;
+
+        Assert.assertEquals(8, client.maxConcurrent.get());
+        Assert.assertTrue("sequential " + sequential + " ns, parallel " + parallel + " ns", parallel * 4 < sequential);
+        for (int i = 0; i < SERVICES; i++) {
+            Assert.assertSame(services.get(i), results.get(i).getService());
+            Assert.assertEquals("deployed " + services.get(i).getId(), results.get(i).getValue());
+            Assert.assertNull(results.get(i).getError());
+        }
+        ParallelServiceRunner.throwIfFailed("deploy", results);
+    }
+
+    @Test
+    public void testLogIsInServiceOrder() throws Exception {
+        List<ServiceInfo> services = createServices(SERVICES);
+        FakeSvClient client = new FakeSvClient(LATENCY_MILLIS);
+        client.randomLatency = true;
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+
+        new ParallelServiceRunner(6).run(services, (service, logger) -> {
+            logger.printf("  Exporting service %s%n", service);
+            client.deploy(service.getId());
+            logger.printf("    exported %s%n", service.getId());
+            return null;
+        }, new PrintStream(log, true));
+
+        StringBuilder expected = new StringBuilder();
+        for (ServiceInfo service : services) {
+            expected.append(String.format("  Exporting service %s%n    exported %s%n", service, service.getId()));
+        }
+        Assert.assertEquals(expected.toString(), log.toString());
+    }
+
+    @Test
+    public void testFailuresAreCollectedForAllServices() throws Exception {
+        List<ServiceInfo> services = createServices(SERVICES);
+        FakeSvClient client = new FakeSvClient(LATENCY_MILLIS);
+        client.failing.add("id-3");
+        client.failing.add("id-41");
+
+        List<ParallelServiceRunner.Result<ServiceInfo, String>> results = new ParallelServiceRunner(8)
+                .run(services, (service, log) -> client.deploy(service.getId()), new PrintStream(new ByteArrayOutputStream()));
+
+        Assert.assertEquals(SERVICES, client.calls.get());
+        Assert.assertEquals(SERVICES - 2, count(results, true));
+        try {
+            ParallelServiceRunner.throwIfFailed("deploy", results);
+            Assert.fail("failures not reported");
+        } catch (ParallelServiceRunner.ServiceFailuresException e) {
+            String newLine = String.format("%n");
+            Assert.assertEquals("Failed to deploy 2 of " + SERVICES + " services:"
+                    + newLine + "  'service 3' [id-3]: Cannot deploy id-3"
+                    + newLine + "  'service 41' [id-41]: Cannot deploy id-41", e.getMessage());
+            Assert.assertEquals(2, e.getSuppressed().length);
+        }
+    }
+
+    @Test
+    public void testAbortCancelsRemainingServices() throws Exception {
+        List<ServiceInfo> services = createServices(SERVICES);
+        FakeSvClient client = new FakeSvClient(10000);
+        AtomicReference<Throwable> thrown = new AtomicReference<>();
+        CountDownLatch finished = new CountDownLatch(1);
+
+        Thread build = new Thread(() -> {
+            try {
+                new ParallelServiceRunner(4).run(services, (service, log) -> client.deploy(service.getId()),
+                        new PrintStream(new ByteArrayOutputStream()));
+            } catch (Throwable t) {
+                thrown.set(t);
+            }
+            finished.countDown();
+        });
+        build.start();
+        Assert.assertTrue(client.started.await(5, TimeUnit.SECONDS));
+        build.interrupt();
+
+        Assert.assertTrue(finished.await(5, TimeUnit.SECONDS));
+        Assert.assertTrue(String.valueOf(thrown.get()), thrown.get() instanceof InterruptedException);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (client.running.get() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(0, client.running.get());
+        Assert.assertEquals(4, client.calls.get());
+        Assert.assertEquals(0, client.completed.get());
+    }
+
+    private static List<ServiceInfo> createServices(int count) {
+        List<ServiceInfo> services = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            services.add(new ServiceInfo("id-" + i, "service " + i));
+        }
+        return services;
+    }
+
+    private static int count(List<ParallelServiceRunner.Result<ServiceInfo, String>> results, boolean succeeded) {
+        int count = 0;
+        for (ParallelServiceRunner.Result<ServiceInfo, String> result : results) {
+            if ((result.getError() == null) == succeeded) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * stands for the SV management client, each call takes a while
+     */
+    private static class FakeSvClient {
+        private final long latencyMillis;
+        private final Random random = new Random(7);
+        private final Set<String> failing = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicInteger maxConcurrent = new AtomicInteger();
+        private final AtomicInteger completed = new AtomicInteger();
+        private final CountDownLatch started = new CountDownLatch(4);
+        private volatile boolean randomLatency;
+
+        FakeSvClient(long latencyMillis) {
+            this.latencyMillis = latencyMillis;
+        }
+
+        String deploy(String serviceId) throws Exception {
+            calls.incrementAndGet();
+            maxConcurrent.accumulateAndGet(running.incrementAndGet(), Math::max);
+            started.countDown();
+            try {
+                long latency;
+                synchronized (random) {
+                    latency = randomLatency ? random.nextInt((int) latencyMillis) : latencyMillis;
+                }
+                Thread.sleep(latency);
+                if (failing.contains(serviceId)) {
+                    throw new IllegalStateException("Cannot deploy " + serviceId);
+                }
+                completed.incrementAndGet();
+                return "deployed " + serviceId;
+            } finally {
+                running.decrementAndGet();
+            }
+        }
+    }
+}
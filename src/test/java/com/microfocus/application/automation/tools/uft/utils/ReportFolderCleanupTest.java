@@ -0,0 +1,242 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2023 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.uft.utils;
+
+import hudson.FilePath;
+import hudson.remoting.Callable;
+import hudson.remoting.VirtualChannel;
+import hudson.util.StreamTaskListener;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Future;
+
+/**
+ * Tests on the cleanup of the report folders of a UFT run, against the cleanup one test at a time
+ */
+public class ReportFolderCleanupTest {
+
+    private static final int MTBX_TESTS = 500;
+    private static final int FOLDER_TESTS = 20;
+    private static final int DUPLICATE_TESTS = 3;
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void testSameFoldersAreDeletedInOneCall() throws Exception {
+        File current = tmp.newFolder("current");
+        File batched = tmp.newFolder("batched");
+        List<String> currentPaths = createTree(current);
+        List<String> batchedPaths = createTree(batched);
+        Set<String> before = listTree(current);
+        Assert.assertEquals(before, listTree(batched));
+
+        // the current cleanup: the tests of each path are resolved by a call to the node, then each test folder is
+        // listed and each of its report folders deleted by a call of its own
+        ByteArrayOutputStream currentLog = new ByteArrayOutputStream();
+        StreamTaskListener currentListener = new StreamTaskListener(currentLog);
+        int currentCalls = 0;
+        for (String testPath : currentPaths) {
+            List<String> tests = UftToolUtils.getTests(testPath.replace("\\", "/").trim());
+            currentCalls++;
+            for (String test : tests) {
+                UftToolUtils.deleteReportFolders(new FilePath(new File(test)), test, currentListener);
+                currentCalls++;
+            }
+        }
+        int currentDeleted = count(currentLog, " is deleted");
+        currentCalls += currentDeleted;
+
+        CountingChannel channel = new CountingChannel();
+        ReportFolderCleanup.Summary summary = ReportFolderCleanup.run(channel, batchedPaths);
+
+        Assert.assertEquals(1, channel.calls);
+        Assert.assertTrue(currentCalls > MTBX_TESTS * 3);
+        Assert.assertEquals(currentDeleted, summary.getDeleted());
+        Assert.assertEquals(MTBX_TESTS + FOLDER_TESTS, summary.getTests());
+        Assert.assertEquals(count(currentLog, "No report folder was deleted") - DUPLICATE_TESTS, summary.getTestsWithoutReports());
+        Assert.assertTrue(summary.getFailures().isEmpty());
+
+        Set<String> remaining = listTree(batched);
+        Assert.assertEquals(listTree(current), remaining);
+        Set<String> deleted = new TreeSet<>(before);
+        deleted.removeAll(remaining);
+        for (String path : deleted) {
+            Assert.assertTrue(path, path.contains("/Report") || path.contains("/StRes"));
+        }
+        for (String path : remaining) {
+            Assert.assertFalse(path, path.contains("/Report") || path.contains("/StRes"));
+        }
+    }
+
+    @Test
+    public void testSummaryOfLocalRun() throws Exception {
+        File test = tmp.newFolder("GUITest");
+        Assert.assertTrue(new File(test, "Action1").mkdir());
+        Assert.assertTrue(new File(test, "Report/Res1").mkdirs());
+        Assert.assertTrue(new File(test, "StRes").createNewFile());
+
+        ReportFolderCleanup.Summary summary = ReportFolderCleanup.run(null, Arrays.asList(test.getPath(), tmp.getRoot().getPath() + "/missing"));
+        Assert.assertEquals(2, summary.getTests());
+        Assert.assertEquals(2, summary.getDeleted());
+        Assert.assertEquals(1, summary.getTestsWithoutReports());
+        Assert.assertEquals("Deleted 2 report folder(s) of 2 test(s), no report folder was deleted for 1 test(s)", summary.toString());
+        Assert.assertArrayEquals(new String[]{"Action1"}, test.list());
+
+        Assert.assertEquals(0, ReportFolderCleanup.run(null, new ArrayList<>()).getTests());
+    }
+
+    /**
+     * a folder of tests and an mtbx file of tests, as a run is configured; a few tests are listed in both
+     */
+    private static List<String> createTree(File root) throws IOException {
+        StringBuilder mtbx = new StringBuilder("<Mtbx>");
+        for (int i = 0; i < MTBX_TESTS; i++) {
+            File test = createTest(new File(root, "mtbx/GUITest" + i), i);
+            mtbx.append("<Test name=\"GUITest").append(i).append("\" path=\"").append(test.getPath()).append("\"/>");
+        }
+        for (int i = 0; i < FOLDER_TESTS; i++) {
+            createTest(new File(root, "folder/APITest" + i), i + 1);
+        }
+        for (int i = 0; i < DUPLICATE_TESTS; i++) {
+            mtbx.append("<Test name=\"APITest").append(i).append("\" path=\"").append(new File(root, "folder/APITest" + i).getPath()).append("\"/>");
+        }
+        mtbx.append("</Mtbx>");
+        File mtbxFile = new File(root, "tests.mtbx");
+        Files.write(mtbxFile.toPath(), mtbx.toString().getBytes(StandardCharsets.UTF_8));
+        return Arrays.asList(mtbxFile.getPath(), new File(root, "folder").getPath());
+    }
+
+    private static File createTest(File test, int variant) throws IOException {
+        write(new File(test, "Action1/Script.mts"));
+        write(new File(test, "Test.tsp"));
+        if (variant % 5 != 0) {
+            write(new File(test, "Report/run_results.xml"));
+            write(new File(test, "Report/Resources/snapshot.png"));
+        }
+        if (variant % 3 == 0) {
+            write(new File(test, "Report1/run_results.xml"));
+        }
+        if (variant % 2 == 0) {
+            write(new File(test, "StRes/result.xml"));
+            write(new File(test, "StResSingle.txt"));
+        }
+        return test;
+    }
+
+    private static void write(File file) throws IOException {
+        Assert.assertTrue(file.getParentFile().isDirectory() || file.getParentFile().mkdirs());
+        Files.write(file.toPath(), file.getName().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Set<String> listTree(File root) throws IOException {
+        Set<String> paths = new TreeSet<>();
+        Files.walk(root.toPath()).forEach(path -> paths.add(root.toPath().relativize(path).toString().replace('\\', '/')));
+        return paths;
+    }
+
+    private static int count(ByteArrayOutputStream log, String text) {
+        String content = new String(log.toByteArray(), StandardCharsets.UTF_8);
+        int count = 0;
+        for (int i = content.indexOf(text); i >= 0; i = content.indexOf(text, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * runs the callables locally, after a serialization round trip, and counts them
+     */
+    private static final class CountingChannel implements VirtualChannel {
+        private int calls;
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <V, T extends Throwable> V call(Callable<V, T> callable) throws IOException, T, InterruptedException {
+            calls++;
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(callable);
+            }
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+                return (V) ((Callable<?, ?>) in.readObject()).call();
+            } catch (ClassNotFoundException e) {
+                throw new IOException(e);
+            } catch (Throwable t) {
+                throw (T) t;
+            }
+        }
+
+        @Override
+        public <V, T extends Throwable> Future<V> callAsync(Callable<V, T> callable) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+            // nothing to close
+        }
+
+        @Override
+        public void join() {
+            // nothing to wait for
+        }
+
+        @Override
+        public void join(long timeout) {
+            // nothing to wait for
+        }
+
+        @Override
+        public <T> T export(Class<T> type, T instance) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void syncLocalIO() {
+            // nothing to sync
+        }
+    }
+}